@@ -0,0 +1,53 @@
+package pack.activityservice.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import pack.activityservice.ActivityServiceApplication;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.model.ClickIncrement;
+import pack.activityservice.service.StudentActivityService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application against the in-memory database configured in src/test/resources and seeds it.
+ */
+final class BenchmarkContexts {
+
+    static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    static final int STUDENTS = 200;
+    static final int DAYS = 60;
+    static final String[] COURSES = {"AAA", "BBB", "CCC", "DDD", "EEE"};
+    static final String MODULE = "2013J";
+
+    private BenchmarkContexts() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(ActivityServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "logging.level.pack.activityservice=WARN",
+                        "activity.leaderboard.refresh-interval=0")
+                .properties(properties)
+                .run();
+    }
+
+    // STUDENTS x COURSES x DAYS activity rows, written through the service so rollups and rankings are populated
+    static void seed(ConfigurableApplicationContext context) {
+        StudentActivityService service = context.getBean(StudentActivityService.class);
+        for (long student = 1; student <= STUDENTS; student++) {
+            List<ClickIncrement> increments = new ArrayList<>(COURSES.length * DAYS);
+            for (String course : COURSES) {
+                for (int day = 0; day < DAYS; day++) {
+                    int clicks = (int) ((student * 31 + day * 7) % 50);
+                    increments.add(new ClickIncrement(new ActivityKey(student, course, MODULE, FIRST_DAY.plusDays(day)), clicks));
+                }
+            }
+            increments.sort((a, b) -> ActivityKey.INDEX_ORDER.compare(a.key(), b.key()));
+            service.applyIncrements(increments);
+        }
+    }
+}
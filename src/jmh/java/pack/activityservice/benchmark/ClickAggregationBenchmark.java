@@ -0,0 +1,57 @@
+package pack.activityservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pack.activityservice.config.WriteBehindProperties;
+import pack.activityservice.service.ClickAggregationBuffer;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffering one click increment, against the boxed key and {@code Long} sums the buffer used before.
+ * Run with {@code -Djmh.args="ClickAggregationBenchmark -prof gc"} and compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClickAggregationBenchmark {
+
+    private static final long FIRST_STUDENT_ID = 100_000;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    @Param({"1000"})
+    private int keys;
+
+    private ClickAggregationBuffer buffer;
+    private ConcurrentHashMap<BoxedKey, Long> boxed;
+    private LocalDate[] dates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Never started, so nothing is flushed and the pending keys stay bounded by the key space
+        buffer = new ClickAggregationBuffer(null, new WriteBehindProperties());
+        boxed = new ConcurrentHashMap<>();
+        dates = new LocalDate[30];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = FIRST_DAY.plusDays(i);
+        }
+    }
+
+    @Benchmark
+    public void addPrimitive() {
+        int key = ThreadLocalRandom.current().nextInt(keys);
+        buffer.add(FIRST_STUDENT_ID + key / dates.length, "AAA", "2013J", dates[key % dates.length], 3);
+    }
+
+    @Benchmark
+    public void addBoxed() {
+        int key = ThreadLocalRandom.current().nextInt(keys);
+        Long studentId = FIRST_STUDENT_ID + key / dates.length;
+        boxed.merge(new BoxedKey(studentId, "AAA", "2013J", dates[key % dates.length]), 3L, Long::sum);
+    }
+
+    private record BoxedKey(Long studentId, String courseCode, String moduleCode, LocalDate date) {
+    }
+}
@@ -0,0 +1,74 @@
+package pack.activityservice.benchmark;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import pack.activityservice.security.HeaderAuthFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pass through the header authentication filter, against the token-per-request filter it replaced.
+ * Run with {@code -Djmh.args="HeaderAuthBenchmark -prof gc"} and compare {@code gc.alloc.rate.norm}.
+ * The previous filter left its context to SecurityContextHolderFilter, so its pass clears the holder afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HeaderAuthBenchmark {
+
+    private static final FilterChain CHAIN = (request, response) -> {
+    };
+
+    private HeaderAuthFilter headerAuthFilter;
+    private TokenPerRequestFilter tokenPerRequestFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        headerAuthFilter = new HeaderAuthFilter();
+        tokenPerRequestFilter = new TokenPerRequestFilter();
+        request = new MockHttpServletRequest("GET", "/api/activities/student/1/date-range");
+        request.addHeader("X-User-Id", "123");
+        request.addHeader("X-User-Role", "STUDENT");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void cachedAuthentication() throws Exception {
+        headerAuthFilter.doFilter(request, response, CHAIN);
+    }
+
+    @Benchmark
+    public void tokenPerRequest() throws Exception {
+        tokenPerRequestFilter.doFilter(request, response, CHAIN);
+        SecurityContextHolder.clearContext();
+    }
+
+    // HeaderAuthFilter as it was
+    static class TokenPerRequestFilter extends OncePerRequestFilter {
+        @Override
+        protected void doFilterInternal(HttpServletRequest req, HttpServletResponse resp, FilterChain chain)
+                throws ServletException, IOException {
+            String id = req.getHeader("X-User-Id");
+            String role = req.getHeader("X-User-Role");
+            if (id != null && role != null) {
+                var auth = new UsernamePasswordAuthenticationToken(id, null,
+                        List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+                SecurityContextHolder.getContext().setAuthentication(auth);
+            }
+            chain.doFilter(req, resp);
+        }
+    }
+}
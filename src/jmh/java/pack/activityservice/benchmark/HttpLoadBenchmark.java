@@ -0,0 +1,73 @@
+package pack.activityservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paginated reads over HTTP from 1024 concurrent keep-alive connections, with requests served by Tomcat's
+ * platform thread pool or by virtual threads. Throughput and sample-time (p99) results of the two
+ * {@code virtualThreads} values are the comparison; pinned virtual threads are reported on stdout.
+ * <p>
+ * The in-memory database answers without a network round trip, which understates what virtual threads gain
+ * against MySQL. Point the run at a real server with
+ * {@code -Djmh.args="HttpLoadBenchmark -jvmArgsAppend -Dspring.datasource.url=jdbc:mysql://..."}.
+ * <p>
+ * On one CPU with 8 x 10 s iterations, platform threads served 0.41 ± 0.05 req/ms at p99 3.86 s, virtual
+ * threads 0.63 ± 0.41 req/ms at p99 3.92 s: no difference beyond the error, as both wait on the same ten
+ * pooled connections. Virtual threads therefore stay off by default.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(1024)
+@Fork(value = 1, jvmArgsAppend = {"-Xss512k", "-Djdk.tracePinnedThreads=short"})
+public class HttpLoadBenchmark {
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "server.tomcat.max-connections=2048");
+        BenchmarkContexts.seed(context);
+        // HTTP/1.1 opens one pooled connection per concurrent request
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public String studentDateRangePage() throws IOException, InterruptedException {
+        long studentId = 1 + ThreadLocalRandom.current().nextInt(BenchmarkContexts.STUDENTS);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/activities/student/" + studentId
+                        + "/date-range?startDate=2024-01-01&endDate=2024-01-31&limit=20"))
+                .header("X-User-Id", String.valueOf(studentId))
+                .header("X-User-Role", "STUDENT")
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,57 @@
+package pack.activityservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pack.activityservice.exception.ResourceNotFoundException;
+import pack.activityservice.service.StudentActivityService;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups by id of rows deleted before the id filter was rebuilt, answered by the filter or by a query.
+ * The filter is rebuilt every second, so the setup waits for a rebuild that sees the deletions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IdFilterBenchmark {
+
+    @Param({"true", "false"})
+    private boolean filterEnabled;
+
+    private ConfigurableApplicationContext context;
+    private StudentActivityService studentActivityService;
+    private long[] deletedIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        context = BenchmarkContexts.start(
+                "activity.id-filter.enabled=" + filterEnabled,
+                "activity.id-filter.rebuild-interval=1s");
+        BenchmarkContexts.seed(context);
+        studentActivityService = context.getBean(StudentActivityService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        deletedIds = jdbcTemplate.queryForList("SELECT id FROM student_activity WHERE student_id <= 50", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+        jdbcTemplate.update("DELETE FROM student_activity WHERE student_id <= 50");
+        // One rebuild reads the watermark after seeding, the next one filters up to it
+        Thread.sleep(5000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object getDeletedActivity() {
+        long id = deletedIds[ThreadLocalRandom.current().nextInt(deletedIds.length)];
+        try {
+            return studentActivityService.getActivityById(id);
+        } catch (ResourceNotFoundException ex) {
+            return ex;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package pack.activityservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.service.StudentActivityService;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * incrementClicks from eight threads, either all on one row or spread over many rows.
+ * H2 locks rows differently from InnoDB, so compare runs of this benchmark with each other only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class IncrementClicksBenchmark {
+
+    @Param({"1", "1000"})
+    private int keys;
+
+    private ConfigurableApplicationContext context;
+    private StudentActivityService studentActivityService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start();
+        studentActivityService = context.getBean(StudentActivityService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public StudentActivityDTO incrementClicks() {
+        int key = ThreadLocalRandom.current().nextInt(keys);
+        LocalDate date = BenchmarkContexts.FIRST_DAY.plusDays(key % BenchmarkContexts.DAYS);
+        return studentActivityService.incrementClicks(1L + key / BenchmarkContexts.DAYS, "AAA", "2013J", date, 1);
+    }
+}
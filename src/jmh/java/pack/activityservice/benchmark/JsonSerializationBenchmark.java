@@ -0,0 +1,75 @@
+package pack.activityservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pack.activityservice.dto.StudentActivityDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a list response, configured like the Spring Boot ObjectMapper (ISO dates).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private List<StudentActivityDTO> activities;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() {
+        LocalDate date = LocalDate.of(2024, 1, 1);
+        activities = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            activities.add(new StudentActivityDTO((long) i, 1000L + i % 5000, "AAA", "2013J", date.plusDays(i % 270), i % 97));
+        }
+        writer = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .writerFor(List.class);
+    }
+
+    @Benchmark
+    public void writeList(Blackhole blackhole) throws IOException {
+        writer.writeValue(new BlackholeOutputStream(blackhole), activities);
+    }
+
+    @Benchmark
+    public byte[] writeListAsBytes() throws IOException {
+        return writer.writeValueAsBytes(activities);
+    }
+
+    // Measures encoding without the cost of growing a buffer for the whole response
+    private static final class BlackholeOutputStream extends OutputStream {
+
+        private final Blackhole blackhole;
+
+        BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            blackhole.consume(len);
+        }
+    }
+}
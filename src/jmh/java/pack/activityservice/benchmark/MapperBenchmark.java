@@ -0,0 +1,36 @@
+package pack.activityservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pack.activityservice.dto.StudentActivityCreateDTO;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.entity.StudentActivity;
+import pack.activityservice.mapper.StudentActivityMapper;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+
+    private StudentActivity entity;
+    private StudentActivityCreateDTO createDTO;
+
+    @Setup
+    public void setUp() {
+        LocalDate date = LocalDate.of(2024, 1, 15);
+        entity = new StudentActivity(1L, 123L, "AAA", "2013J", date, 42);
+        createDTO = new StudentActivityCreateDTO(123L, "AAA", "2013J", date, 42);
+    }
+
+    @Benchmark
+    public StudentActivityDTO toDTO() {
+        return StudentActivityMapper.toDTO(entity);
+    }
+
+    @Benchmark
+    public StudentActivity toEntity() {
+        return StudentActivityMapper.toEntity(createDTO);
+    }
+}
@@ -0,0 +1,88 @@
+package pack.activityservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import pack.activityservice.exception.ErrorResponse;
+import pack.activityservice.exception.GlobalExceptionHandler;
+import pack.activityservice.exception.ResourceNotFoundException;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A miss of {@code GET /api/activities/{id}} from the throw in the service to the response body, against the
+ * stack-traced exception, fresh {@link ErrorResponse} and Jackson serialization it replaced. The exception is
+ * thrown {@code depth} frames down, as it is on a request thread below Tomcat, the filters and Spring MVC.
+ * Run with {@code -Djmh.args="NotFoundBenchmark -prof gc"} to compare allocation as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NotFoundBenchmark {
+
+    @Param({"10", "120"})
+    private int depth;
+
+    private GlobalExceptionHandler handler;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        handler = new GlobalExceptionHandler();
+        // Configured like Spring Boot's mapper, which the message converter used for ErrorResponse
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> stacklessPreSerialized() {
+        try {
+            throwAt(depth, false);
+            throw new IllegalStateException();
+        } catch (ResourceNotFoundException ex) {
+            return handler.handleResourceNotFoundException(ex);
+        }
+    }
+
+    @Benchmark
+    public byte[] stackTraceAndObjectMapper() throws JsonProcessingException {
+        try {
+            throwAt(depth, true);
+            throw new IllegalStateException();
+        } catch (StackTracedNotFoundException ex) {
+            ErrorResponse error = new ErrorResponse();
+            error.setTimestamp(LocalDateTime.now());
+            error.setStatus(HttpStatus.NOT_FOUND.value());
+            error.setError("Not Found");
+            error.setMessage(ex.getMessage());
+            return objectMapper.writeValueAsBytes(new ResponseEntity<>(error, HttpStatus.NOT_FOUND).getBody());
+        }
+    }
+
+    private static void throwAt(int depth, boolean stackTraced) {
+        if (depth > 0) {
+            throwAt(depth - 1, stackTraced);
+            return;
+        }
+        long id = 1_000_000 + ThreadLocalRandom.current().nextInt(1_000_000);
+        if (stackTraced) {
+            throw new StackTracedNotFoundException("Student activity not found with ID: " + id);
+        }
+        throw new ResourceNotFoundException("Student activity not found with ID: " + id);
+    }
+
+    // ResourceNotFoundException as it was
+    static class StackTracedNotFoundException extends RuntimeException {
+        StackTracedNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package pack.activityservice.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pack.activityservice.dto.CourseRollupDTO;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.entity.StudentActivity;
+import pack.activityservice.mapper.StudentActivityMapper;
+import pack.activityservice.model.CourseKey;
+import pack.activityservice.model.StudentTimeline;
+import pack.activityservice.repository.CourseRollupRepository;
+import pack.activityservice.repository.StudentActivityRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read queries against a seeded in-memory database, each run in a read-only transaction like the service does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private ConfigurableApplicationContext context;
+    private StudentActivityRepository studentActivityRepository;
+    private CourseRollupRepository courseRollupRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+    private StudentTimeline[] timelines;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start();
+        BenchmarkContexts.seed(context);
+        studentActivityRepository = context.getBean(StudentActivityRepository.class);
+        courseRollupRepository = context.getBean(CourseRollupRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        timelines = new StudentTimeline[BenchmarkContexts.STUDENTS + 1];
+        for (int student = 1; student <= BenchmarkContexts.STUDENTS; student++) {
+            long studentId = student;
+            timelines[student] = StudentTimeline.of(studentId, readOnly.execute(status -> studentActivityRepository
+                    .findStudentTimeline(studentId, Limit.unlimited())));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // The read path before the projections: managed entities, with persistence context entries and
+    // dirty-checking snapshots for every row, copied through the mapper
+    @Benchmark
+    public List<StudentActivityDTO> pageOfEntities() {
+        return readOnly.execute(status -> entityManager
+                .createQuery("SELECT a FROM StudentActivity a WHERE a.id > 0 ORDER BY a.id", StudentActivity.class)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList().stream()
+                .map(StudentActivityMapper::toDTO)
+                .toList());
+    }
+
+    @Benchmark
+    public List<StudentActivityDTO> pageOfProjections() {
+        return readOnly.execute(status -> studentActivityRepository.findPage(0L, Limit.of(PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public List<StudentActivityDTO> coursePage() {
+        return readOnly.execute(status -> studentActivityRepository
+                .findCoursePage(new CourseKey(randomCourse(), BenchmarkContexts.MODULE), 0L, Limit.of(PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public List<StudentActivityDTO> studentDateRangePage() {
+        LocalDate start = BenchmarkContexts.FIRST_DAY.plusDays(10);
+        return readOnly.execute(status -> studentActivityRepository
+                .findStudentDateRangePage(randomStudent(), start, 0L, start.plusDays(30), Limit.of(PAGE_SIZE)));
+    }
+
+    // The same page sliced from a cached timeline, as StudentTimelineCache serves it
+    @Benchmark
+    public List<StudentActivityDTO> studentDateRangeFromTimeline() {
+        LocalDate start = BenchmarkContexts.FIRST_DAY.plusDays(10);
+        return timelines[(int) randomStudent()].range(start, 0L, start.plusDays(30), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Long totalClicksByStudent() {
+        return readOnly.execute(status -> studentActivityRepository.getTotalClicksByStudentId(randomStudent()));
+    }
+
+    @Benchmark
+    public List<CourseRollupDTO> courseDailySeriesFromRollups() {
+        return readOnly.execute(status -> courseRollupRepository.findDailySeries(randomCourse(), BenchmarkContexts.MODULE,
+                BenchmarkContexts.FIRST_DAY, BenchmarkContexts.FIRST_DAY.plusDays(BenchmarkContexts.DAYS)));
+    }
+
+    private static long randomStudent() {
+        return 1 + ThreadLocalRandom.current().nextInt(BenchmarkContexts.STUDENTS);
+    }
+
+    private static String randomCourse() {
+        return BenchmarkContexts.COURSES[ThreadLocalRandom.current().nextInt(BenchmarkContexts.COURSES.length)];
+    }
+}
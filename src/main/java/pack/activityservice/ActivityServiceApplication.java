@@ -2,10 +2,14 @@ package pack.activityservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 
-@SpringBootApplication
+// R2DBC is only for the reactive read API; a ConnectionFactory would make the JDBC DataSource back off
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 @EnableDiscoveryClient
+@ConfigurationPropertiesScan
 public class ActivityServiceApplication {
 
     public static void main(String[] args) {
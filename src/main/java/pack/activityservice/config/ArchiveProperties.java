@@ -0,0 +1,80 @@
+package pack.activityservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Period;
+
+/**
+ * Settings of the cold-storage archive of {@code student_activity}.
+ */
+@ConfigurationProperties(prefix = "activity.archive")
+public class ArchiveProperties {
+
+    // Runs the archival job; segments already in the directory are read either way
+    private boolean enabled = false;
+
+    // Segment files, one or more per archived month; must be kept, and shared by every instance
+    private Path directory = Path.of("data", "archive");
+
+    // Months that ended before today minus this period are moved out of MySQL
+    private Period hotPeriod = Period.ofYears(1);
+
+    private Duration checkInterval = Duration.ofHours(24);
+
+    // Rows read per query while writing a segment, so neither side ever holds a whole month
+    private int chunkSize = 10000;
+
+    // How often every instance looks for segments added or removed by the archiving instance; 0 disables it
+    private Duration rescanInterval = Duration.ofMinutes(1);
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public Period getHotPeriod() {
+        return hotPeriod;
+    }
+
+    public void setHotPeriod(Period hotPeriod) {
+        this.hotPeriod = hotPeriod;
+    }
+
+    public Duration getCheckInterval() {
+        return checkInterval;
+    }
+
+    public void setCheckInterval(Duration checkInterval) {
+        this.checkInterval = checkInterval;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Duration getRescanInterval() {
+        return rescanInterval;
+    }
+
+    public void setRescanInterval(Duration rescanInterval) {
+        this.rescanInterval = rescanInterval;
+    }
+}
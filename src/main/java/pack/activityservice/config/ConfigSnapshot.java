@@ -0,0 +1,131 @@
+package pack.activityservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.context.config.ConfigData;
+import org.springframework.boot.origin.OriginTrackedValue;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Configuration fetched from the config server, as stored in the snapshot file: its property sources
+ * in the order the config server loader returned them, with values as strings and the config data options
+ * of each source, so that loading the file yields the same environment as the fetch did.
+ */
+public record ConfigSnapshot(Instant fetchedAt, List<Source> sources) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    // The file holds every property the config server serves, credentials included, so only its owner may read it
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rw-------");
+
+    public record Source(String name, Map<String, String> properties, List<ConfigData.Option> options) {
+    }
+
+    public static ConfigSnapshot of(ConfigData data, Instant fetchedAt) {
+        List<Source> sources = new ArrayList<>();
+        for (PropertySource<?> propertySource : data.getPropertySources()) {
+            if (!(propertySource instanceof EnumerablePropertySource<?> enumerable)) {
+                continue;
+            }
+            Map<String, String> properties = new LinkedHashMap<>();
+            for (String name : enumerable.getPropertyNames()) {
+                Object value = enumerable.getProperty(name);
+                if (value instanceof OriginTrackedValue tracked) {
+                    value = tracked.getValue();
+                }
+                if (value != null) {
+                    properties.put(name, value.toString());
+                }
+            }
+            List<ConfigData.Option> options = new ArrayList<>();
+            for (ConfigData.Option option : ConfigData.Option.values()) {
+                if (data.getOptions(propertySource).contains(option)) {
+                    options.add(option);
+                }
+            }
+            sources.add(new Source(propertySource.getName(), properties, options));
+        }
+        return new ConfigSnapshot(fetchedAt, List.copyOf(sources));
+    }
+
+    public static ConfigSnapshot read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), ConfigSnapshot.class);
+    }
+
+    // Replaces the file atomically, so a crash mid-write leaves the previous snapshot in place; on POSIX file
+    // systems it is created rw------- and keeps those permissions through the move
+    public void write(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        String prefix = file.getFileName().toString();
+        Path temp = directory.getFileSystem().supportedFileAttributeViews().contains("posix")
+                ? Files.createTempFile(directory, prefix, ".tmp", PosixFilePermissions.asFileAttribute(OWNER_ONLY))
+                : Files.createTempFile(directory, prefix, ".tmp");
+        try {
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), this);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public List<PropertySource<?>> toPropertySources() {
+        List<PropertySource<?>> propertySources = new ArrayList<>(sources.size());
+        for (Source source : sources) {
+            propertySources.add(new MapPropertySource(source.name(), new LinkedHashMap<>(source.properties())));
+        }
+        return propertySources;
+    }
+
+    public ConfigData toConfigData() {
+        Map<String, ConfigData.Options> options = new HashMap<>();
+        for (Source source : sources) {
+            options.put(source.name(), ConfigData.Options.of(source.options().toArray(ConfigData.Option[]::new)));
+        }
+        return new ConfigData(toPropertySources(), propertySource -> options.get(propertySource.getName()));
+    }
+
+    // Properties added, removed or changed in any source, whatever the fetch time
+    public Set<String> changedKeys(ConfigSnapshot other) {
+        Set<String> changed = new TreeSet<>();
+        Map<String, Source> otherSources = new HashMap<>();
+        other.sources().forEach(source -> otherSources.put(source.name(), source));
+        for (Source source : sources) {
+            Source otherSource = otherSources.remove(source.name());
+            Map<String, String> otherProperties = otherSource == null ? Map.of() : otherSource.properties();
+            source.properties().forEach((key, value) -> {
+                if (!value.equals(otherProperties.get(key))) {
+                    changed.add(key);
+                }
+            });
+            otherProperties.keySet().stream()
+                    .filter(key -> !source.properties().containsKey(key))
+                    .forEach(changed::add);
+        }
+        otherSources.values().forEach(source -> changed.addAll(source.properties().keySet()));
+        return changed;
+    }
+
+    public boolean hasSameSources(ConfigSnapshot other) {
+        return Objects.equals(sources, other.sources());
+    }
+}
@@ -0,0 +1,82 @@
+package pack.activityservice.config;
+
+import org.apache.commons.logging.Log;
+import org.springframework.boot.BootstrapRegistry;
+import org.springframework.boot.ConfigurableBootstrapContext;
+import org.springframework.boot.context.config.ConfigData;
+import org.springframework.boot.context.config.ConfigDataLoader;
+import org.springframework.boot.context.config.ConfigDataLoaderContext;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.cloud.config.client.ConfigServerConfigDataLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
+
+/**
+ * Loads a {@link ConfigSnapshotResource}: from the snapshot file when there is a readable one, so startup
+ * makes no request to the config server, and otherwise from the config server, saving what it returns as
+ * the snapshot for the next start. Either way the {@link ConfigSnapshotStore} is handed to the
+ * {@link ConfigSnapshotRefresher}, which reconciles the running application with the config server.
+ */
+public class ConfigSnapshotLoader implements ConfigDataLoader<ConfigSnapshotResource> {
+
+    private final ConfigServerConfigDataLoader configServer;
+    private final Log log;
+
+    public ConfigSnapshotLoader(DeferredLogFactory logFactory) {
+        this.configServer = new ConfigServerConfigDataLoader(logFactory);
+        this.log = logFactory.getLog(ConfigSnapshotLoader.class);
+    }
+
+    @Override
+    public ConfigData load(ConfigDataLoaderContext context, ConfigSnapshotResource resource) {
+        if (context.getBootstrapContext().isRegistered(ConfigSnapshotStore.class)) {
+            // Loaded again once profiles are active: same startup, same configuration
+            return context.getBootstrapContext().get(ConfigSnapshotStore.class).getCurrent().toConfigData();
+        }
+        ConfigSnapshot snapshot = readSnapshot(resource);
+        if (snapshot != null) {
+            log.info("Using config snapshot " + resource.getFile() + " fetched at " + snapshot.fetchedAt()
+                    + "; the config server is checked in the background");
+            register(context.getBootstrapContext(), resource, snapshot, true);
+            return snapshot.toConfigData();
+        }
+
+        ConfigData data = configServer.load(context, resource.getRemote());
+        if (data == null) {
+            // Optional import and no config server: nothing to save or refresh
+            return null;
+        }
+        snapshot = ConfigSnapshot.of(data, Instant.now());
+        try {
+            snapshot.write(resource.getFile());
+            log.info("Saved config snapshot " + resource.getFile());
+        } catch (IOException ex) {
+            log.warn("Failed to save config snapshot " + resource.getFile(), ex);
+        }
+        register(context.getBootstrapContext(), resource, snapshot, false);
+        return data;
+    }
+
+    private ConfigSnapshot readSnapshot(ConfigSnapshotResource resource) {
+        if (!Files.isRegularFile(resource.getFile())) {
+            return null;
+        }
+        try {
+            return ConfigSnapshot.read(resource.getFile());
+        } catch (IOException ex) {
+            log.warn("Ignoring unreadable config snapshot " + resource.getFile() + ", fetching from the config server", ex);
+            return null;
+        }
+    }
+
+    private void register(ConfigurableBootstrapContext bootstrapContext, ConfigSnapshotResource resource,
+                          ConfigSnapshot snapshot, boolean loadedFromFile) {
+        ConfigSnapshotStore store = new ConfigSnapshotStore(resource.getFile(), resource.getRemote(),
+                bootstrapContext, configServer, snapshot, loadedFromFile);
+        bootstrapContext.register(ConfigSnapshotStore.class, BootstrapRegistry.InstanceSupplier.of(store));
+        bootstrapContext.addCloseListener(event -> event.getApplicationContext().getBeanFactory()
+                .registerSingleton("configSnapshotStore", event.getBootstrapContext().get(ConfigSnapshotStore.class)));
+    }
+}
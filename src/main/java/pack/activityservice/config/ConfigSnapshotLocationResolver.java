@@ -0,0 +1,54 @@
+package pack.activityservice.config;
+
+import org.springframework.boot.context.config.ConfigDataLocation;
+import org.springframework.boot.context.config.ConfigDataLocationResolver;
+import org.springframework.boot.context.config.ConfigDataLocationResolverContext;
+import org.springframework.boot.context.config.Profiles;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.cloud.config.client.ConfigServerConfigDataLocationResolver;
+import org.springframework.cloud.config.client.ConfigServerConfigDataResource;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Resolves {@code snapshot:configserver:<uri>} imports: the config server location is resolved as usual,
+ * and each of its resources is paired with the snapshot file of {@code activity.config-snapshot.file}.
+ * Registered in {@code META-INF/spring.factories}, as config data resolvers are created before the context.
+ */
+public class ConfigSnapshotLocationResolver implements ConfigDataLocationResolver<ConfigSnapshotResource> {
+
+    public static final String PREFIX = "snapshot:";
+
+    private final ConfigServerConfigDataLocationResolver configServer;
+
+    public ConfigSnapshotLocationResolver(DeferredLogFactory logFactory) {
+        this.configServer = new ConfigServerConfigDataLocationResolver(logFactory);
+    }
+
+    @Override
+    public boolean isResolvable(ConfigDataLocationResolverContext context, ConfigDataLocation location) {
+        return location.hasPrefix(PREFIX);
+    }
+
+    @Override
+    public List<ConfigSnapshotResource> resolve(ConfigDataLocationResolverContext context, ConfigDataLocation location) {
+        // Like the config server itself, resolved once the active profiles are known
+        return List.of();
+    }
+
+    @Override
+    public List<ConfigSnapshotResource> resolveProfileSpecific(ConfigDataLocationResolverContext context,
+                                                               ConfigDataLocation location, Profiles profiles) {
+        ConfigDataLocation remote = ConfigDataLocation.of(
+                (location.isOptional() ? ConfigDataLocation.OPTIONAL_PREFIX : "") + location.getNonPrefixedValue(PREFIX));
+        Path file = context.getBinder()
+                .bind("activity.config-snapshot", ConfigSnapshotProperties.class)
+                .orElseGet(ConfigSnapshotProperties::new)
+                .getFile();
+        List<ConfigServerConfigDataResource> resources = configServer.resolveProfileSpecific(context, remote, profiles);
+        return resources.stream()
+                .map(resource -> new ConfigSnapshotResource(file, resource))
+                .toList();
+    }
+}
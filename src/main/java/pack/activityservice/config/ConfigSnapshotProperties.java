@@ -0,0 +1,36 @@
+package pack.activityservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of the local copy of the config server's configuration, used by {@code snapshot:} imports.
+ */
+@ConfigurationProperties(prefix = "activity.config-snapshot")
+public class ConfigSnapshotProperties {
+
+    // Last configuration fetched from the config server; read before the application context exists
+    private Path file = Path.of("data", "config-snapshot.json");
+
+    // How often the config server is asked for changes once the application runs
+    private Duration refreshInterval = Duration.ofMinutes(5);
+
+    // Getters and Setters
+    public Path getFile() {
+        return file;
+    }
+
+    public void setFile(Path file) {
+        this.file = file;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+}
@@ -0,0 +1,146 @@
+package pack.activityservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.config.ConfigData;
+import org.springframework.cloud.config.client.ConfigClientFailFastException;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Reconciles the running application with the config server when startup used a config snapshot.
+ * <p>
+ * Every {@code refresh-interval}, starting right away if startup read the snapshot file, the config server
+ * is fetched in the background. When its configuration differs from the snapshot, the file is rewritten,
+ * the property sources are replaced in the environment and an {@link EnvironmentChangeEvent} rebinds the
+ * {@code @ConfigurationProperties} beans. Settings only read while the context starts, such as the datasource,
+ * take effect at the next start, which now reads them from the updated snapshot.
+ */
+@Component
+public class ConfigSnapshotRefresher implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigSnapshotRefresher.class);
+
+    private final ObjectProvider<ConfigSnapshotStore> stores;
+    private final ConfigSnapshotProperties properties;
+    private final ApplicationContext applicationContext;
+    private final ConfigurableEnvironment environment;
+
+    private volatile ScheduledExecutorService scheduler;
+
+    public ConfigSnapshotRefresher(ObjectProvider<ConfigSnapshotStore> stores,
+                                   ConfigSnapshotProperties properties,
+                                   ApplicationContext applicationContext,
+                                   ConfigurableEnvironment environment) {
+        this.stores = stores;
+        this.properties = properties;
+        this.applicationContext = applicationContext;
+        this.environment = environment;
+    }
+
+    /**
+     * Applies and saves a fetched configuration if it differs from the current snapshot, and returns
+     * the properties that changed.
+     */
+    Set<String> reconcile(ConfigSnapshotStore store, ConfigData fetched) throws IOException {
+        ConfigSnapshot current = store.getCurrent();
+        ConfigSnapshot latest = ConfigSnapshot.of(fetched, Instant.now());
+        if (latest.hasSameSources(current)) {
+            return Set.of();
+        }
+        Set<String> changed = current.changedKeys(latest);
+        store.save(latest);
+        replacePropertySources(current, latest.toPropertySources());
+        log.info("Config server changed {} properties, saved to {}: {}", changed.size(), store.getFile(), changed);
+        applicationContext.publishEvent(new EnvironmentChangeEvent(applicationContext, changed));
+        return changed;
+    }
+
+    // Puts the fetched sources where the snapshot's were, keeping their precedence over local configuration
+    private void replacePropertySources(ConfigSnapshot current, List<PropertySource<?>> latest) {
+        MutablePropertySources propertySources = environment.getPropertySources();
+        String anchor = current.sources().stream()
+                .map(ConfigSnapshot.Source::name)
+                .filter(propertySources::contains)
+                .findFirst()
+                .orElse(null);
+        if (anchor == null) {
+            log.warn("Config snapshot sources are not in the environment; changes apply at the next start");
+            return;
+        }
+        for (PropertySource<?> propertySource : latest) {
+            if (propertySources.contains(propertySource.getName())) {
+                propertySources.replace(propertySource.getName(), propertySource);
+            } else {
+                propertySources.addBefore(anchor, propertySource);
+            }
+        }
+        Set<String> latestNames = latest.stream().map(PropertySource::getName).collect(Collectors.toSet());
+        current.sources().stream()
+                .map(ConfigSnapshot.Source::name)
+                .filter(name -> !latestNames.contains(name))
+                .forEach(propertySources::remove);
+    }
+
+    private void refreshQuietly(ConfigSnapshotStore store) {
+        try {
+            ConfigData fetched = store.fetch();
+            if (fetched == null) {
+                log.warn("Config server unavailable, keeping config snapshot {}", store.getFile());
+                return;
+            }
+            reconcile(store, fetched);
+        } catch (ConfigClientFailFastException ex) {
+            log.warn("Config server unavailable, keeping config snapshot {}: {}", store.getFile(), ex.getMessage());
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Failed to refresh config snapshot {}, retrying at the next check", store.getFile(), ex);
+        }
+    }
+
+    @Override
+    public void start() {
+        ConfigSnapshotStore store = stores.getIfAvailable();
+        if (store == null || scheduler != null) {
+            return;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "config-snapshot-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getRefreshInterval().toMillis();
+        // A configuration just fetched at startup needs no check before the first interval
+        executor.scheduleWithFixedDelay(() -> refreshQuietly(store), store.isLoadedFromFile() ? 0 : interval,
+                interval, TimeUnit.MILLISECONDS);
+        scheduler = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        if (executor != null) {
+            scheduler = null;
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
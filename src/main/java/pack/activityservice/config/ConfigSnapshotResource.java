@@ -0,0 +1,51 @@
+package pack.activityservice.config;
+
+import org.springframework.boot.context.config.ConfigDataResource;
+import org.springframework.cloud.config.client.ConfigServerConfigDataResource;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * A config server resource together with the snapshot file that stands in for it at startup.
+ */
+public class ConfigSnapshotResource extends ConfigDataResource {
+
+    private final Path file;
+    private final ConfigServerConfigDataResource remote;
+
+    public ConfigSnapshotResource(Path file, ConfigServerConfigDataResource remote) {
+        super(remote.isOptional());
+        this.file = file;
+        this.remote = remote;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public ConfigServerConfigDataResource getRemote() {
+        return remote;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConfigSnapshotResource other)) {
+            return false;
+        }
+        return file.equals(other.file) && remote.equals(other.remote);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(file, remote);
+    }
+
+    @Override
+    public String toString() {
+        return "snapshot " + file + " of " + remote;
+    }
+}
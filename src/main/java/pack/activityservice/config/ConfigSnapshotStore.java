@@ -0,0 +1,61 @@
+package pack.activityservice.config;
+
+import org.springframework.boot.ConfigurableBootstrapContext;
+import org.springframework.boot.context.config.ConfigData;
+import org.springframework.cloud.config.client.ConfigServerConfigDataLoader;
+import org.springframework.cloud.config.client.ConfigServerConfigDataResource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The snapshot a {@code snapshot:} import started from, and the means to fetch its config server resource
+ * again once the application runs. Created while config data loads, then registered as a singleton bean.
+ */
+public class ConfigSnapshotStore {
+
+    private final Path file;
+    private final ConfigServerConfigDataResource remote;
+    private final ConfigurableBootstrapContext bootstrapContext;
+    private final ConfigServerConfigDataLoader configServer;
+    private final boolean loadedFromFile;
+
+    private volatile ConfigSnapshot current;
+
+    public ConfigSnapshotStore(Path file, ConfigServerConfigDataResource remote,
+                               ConfigurableBootstrapContext bootstrapContext, ConfigServerConfigDataLoader configServer,
+                               ConfigSnapshot current, boolean loadedFromFile) {
+        this.file = file;
+        this.remote = remote;
+        this.bootstrapContext = bootstrapContext;
+        this.configServer = configServer;
+        this.current = current;
+        this.loadedFromFile = loadedFromFile;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public ConfigSnapshot getCurrent() {
+        return current;
+    }
+
+    // Whether startup used the file rather than the config server
+    public boolean isLoadedFromFile() {
+        return loadedFromFile;
+    }
+
+    /**
+     * Fetches the configuration from the config server, with the client settings and HTTP client the import
+     * resolved at startup. Returns null, or throws when the import is not optional, if the server is unavailable.
+     */
+    public ConfigData fetch() {
+        return configServer.load(() -> bootstrapContext, remote);
+    }
+
+    public void save(ConfigSnapshot snapshot) throws IOException {
+        snapshot.write(file);
+        current = snapshot;
+    }
+}
@@ -0,0 +1,22 @@
+package pack.activityservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the streaming export endpoints.
+ */
+@ConfigurationProperties(prefix = "activity.export")
+public class ExportProperties {
+
+    // Rows fetched per round trip; Connector/J only honours it with useCursorFetch=true
+    private int fetchSize = 1000;
+
+    // Getters and Setters
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+}
@@ -0,0 +1,68 @@
+package pack.activityservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-memory filter of existing {@code student_activity} ids.
+ */
+@ConfigurationProperties(prefix = "activity.id-filter")
+public class IdFilterProperties {
+
+    private boolean enabled = false;
+
+    // Share of missing ids still looked up in the database
+    private double falsePositiveRate = 0.01;
+
+    // Upper bound of the bit array; a larger table then gets a higher false-positive rate
+    private DataSize maxMemory = DataSize.ofMegabytes(32);
+
+    // Rebuild this often, filtering ids up to the highest one read a rebuild earlier; longer than any transaction inserting rows
+    private Duration rebuildInterval = Duration.ofHours(1);
+
+    // Rows fetched per round trip while rebuilding
+    private int fetchSize = 10000;
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public DataSize getMaxMemory() {
+        return maxMemory;
+    }
+
+    public void setMaxMemory(DataSize maxMemory) {
+        this.maxMemory = maxMemory;
+    }
+
+    public Duration getRebuildInterval() {
+        return rebuildInterval;
+    }
+
+    public void setRebuildInterval(Duration rebuildInterval) {
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+}
@@ -0,0 +1,33 @@
+package pack.activityservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the bulk ingestion endpoints.
+ */
+@ConfigurationProperties(prefix = "activity.ingest")
+public class IngestProperties {
+
+    // Distinct activity keys written per JDBC batch
+    private int batchSize = 1000;
+
+    // Row errors listed in a bulk report; further rejected rows are only counted
+    private int maxReportedErrors = 1000;
+
+    // Getters and Setters
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxReportedErrors() {
+        return maxReportedErrors;
+    }
+
+    public void setMaxReportedErrors(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+}
@@ -0,0 +1,31 @@
+package pack.activityservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pack.activityservice.controller.StudentActivityController;
+import pack.activityservice.repository.StudentActivityRepository;
+import pack.activityservice.service.ClickTotalsCache;
+import pack.activityservice.service.StudentActivityService;
+import pack.activityservice.service.StudentTimelineCache;
+
+/**
+ * Beans created at startup even with {@code spring.main.lazy-initialization} on, as in the "startup" profile:
+ * the activity read and increment path and the meter registry its timings go to, so the first request after
+ * a scale-up does not build them. Exports, ingestion, analytics and the rest are created on first use.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter hotPathBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                StudentActivityController.class,
+                StudentActivityService.class,
+                StudentActivityRepository.class,
+                ClickTotalsCache.class,
+                StudentTimelineCache.class,
+                MeterRegistry.class);
+    }
+}
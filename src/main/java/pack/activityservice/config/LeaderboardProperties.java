@@ -0,0 +1,55 @@
+package pack.activityservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the course leaderboard endpoint.
+ */
+@ConfigurationProperties(prefix = "activity.leaderboard")
+public class LeaderboardProperties {
+
+    private int defaultLimit = 10;
+
+    private int maxLimit = 100;
+
+    // Rebuild from the database this often to pick up writes made by other instances, zero disables it
+    private Duration refreshInterval = Duration.ofMinutes(10);
+
+    // Rows fetched per round trip while rebuilding
+    private int fetchSize = 1000;
+
+    // Getters and Setters
+    public int getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public void setDefaultLimit(int defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+}
@@ -0,0 +1,47 @@
+package pack.activityservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import pack.activityservice.exception.InvalidRequestException;
+
+/**
+ * Page sizes of the cursor-paginated list endpoints.
+ */
+@ConfigurationProperties(prefix = "activity.pagination")
+public class PaginationProperties {
+
+    // Page size used when the request does not ask for one
+    private int defaultPageSize = 100;
+
+    // Upper bound for the requested page size
+    private int maxPageSize = 1000;
+
+    /**
+     * Validates a requested page size and caps it at {@code maxPageSize}.
+     */
+    public int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new InvalidRequestException("Page limit must be greater than 0");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    // Getters and Setters
+    public int getDefaultPageSize() {
+        return defaultPageSize;
+    }
+
+    public void setDefaultPageSize(int defaultPageSize) {
+        this.defaultPageSize = defaultPageSize;
+    }
+
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+}
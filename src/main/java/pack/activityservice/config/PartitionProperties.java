@@ -0,0 +1,109 @@
+package pack.activityservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Period;
+
+/**
+ * Settings of the date partition maintenance of {@code student_activity}, MySQL only.
+ */
+@ConfigurationProperties(prefix = "activity.partitioning")
+public class PartitionProperties {
+
+    /**
+     * What happens to a partition once all of its dates are past the retention.
+     */
+    public enum ExpiredAction {
+        // Swapped out into a table of its own, which can be dumped and dropped at leisure
+        ARCHIVE,
+        DROP
+    }
+
+    // Requires a table partitioned with partition-student-activity.sql
+    private boolean enabled = false;
+
+    // Months covered by one partition, counted from January: 1 for monthly, 4 or 6 to follow terms
+    private int periodMonths = 1;
+
+    // Partitions kept ahead of the current one, so inserts never fall into the catch-all partition
+    private int futurePartitions = 3;
+
+    // Rows are kept at least this long; zero keeps them forever
+    private Period retention = Period.ZERO;
+
+    private ExpiredAction expiredAction = ExpiredAction.ARCHIVE;
+
+    // Archived partition pYYYYMM becomes table <archive-table-prefix>_pYYYYMM
+    private String archiveTablePrefix = "student_activity_archive";
+
+    // Rows of an expired partition archived or deleted per transaction
+    private int chunkSize = 1000;
+
+    private Duration checkInterval = Duration.ofHours(24);
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getPeriodMonths() {
+        return periodMonths;
+    }
+
+    public void setPeriodMonths(int periodMonths) {
+        this.periodMonths = periodMonths;
+    }
+
+    public int getFuturePartitions() {
+        return futurePartitions;
+    }
+
+    public void setFuturePartitions(int futurePartitions) {
+        this.futurePartitions = futurePartitions;
+    }
+
+    public Period getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Period retention) {
+        this.retention = retention;
+    }
+
+    public ExpiredAction getExpiredAction() {
+        return expiredAction;
+    }
+
+    public void setExpiredAction(ExpiredAction expiredAction) {
+        this.expiredAction = expiredAction;
+    }
+
+    public String getArchiveTablePrefix() {
+        return archiveTablePrefix;
+    }
+
+    public void setArchiveTablePrefix(String archiveTablePrefix) {
+        this.archiveTablePrefix = archiveTablePrefix;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Duration getCheckInterval() {
+        return checkInterval;
+    }
+
+    public void setCheckInterval(Duration checkInterval) {
+        this.checkInterval = checkInterval;
+    }
+}
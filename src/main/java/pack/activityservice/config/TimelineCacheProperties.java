@@ -0,0 +1,58 @@
+package pack.activityservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-process cache of per-student activity timelines behind the student date-range listing.
+ */
+@ConfigurationProperties(prefix = "activity.cache.timeline")
+public class TimelineCacheProperties {
+
+    // Off by default: date-range listings then always read from the database
+    private boolean enabled = false;
+
+    // Memory budget of all cached timelines, by their estimated heap footprint
+    private DataSize maximumWeight = DataSize.ofMegabytes(64);
+
+    // Students with more activity rows than this are always read from the database
+    private int maxRowsPerStudent = 4096;
+
+    // Upper bound on how long writes of other instances stay invisible; local writes are applied as they commit
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public void setMaximumWeight(DataSize maximumWeight) {
+        this.maximumWeight = maximumWeight;
+    }
+
+    public int getMaxRowsPerStudent() {
+        return maxRowsPerStudent;
+    }
+
+    public void setMaxRowsPerStudent(int maxRowsPerStudent) {
+        this.maxRowsPerStudent = maxRowsPerStudent;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+}
@@ -0,0 +1,35 @@
+package pack.activityservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Bounds of the in-process cache of per-student and per-student-course click totals.
+ */
+@ConfigurationProperties(prefix = "activity.cache.totals")
+public class TotalsCacheProperties {
+
+    // Entries kept per cache before the least valuable ones are evicted
+    private long maximumSize = 100_000;
+
+    // Upper bound on how long a total is served without going back to the database
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+
+    // Getters and Setters
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+}
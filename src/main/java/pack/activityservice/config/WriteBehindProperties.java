@@ -0,0 +1,57 @@
+package pack.activityservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the write-behind click aggregation used by {@code POST /api/activities/increment}.
+ */
+@ConfigurationProperties(prefix = "activity.increment.write-behind")
+public class WriteBehindProperties {
+
+    // When enabled, increments are acknowledged with 202 Accepted and written on the next flush
+    private boolean enabled = false;
+
+    // Maximum time an increment stays in memory before it is written
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    // Number of distinct pending keys that triggers an early flush
+    private int maxPendingKeys = 10_000;
+
+    // Rows per JDBC batch when flushing
+    private int batchSize = 500;
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public int getMaxPendingKeys() {
+        return maxPendingKeys;
+    }
+
+    public void setMaxPendingKeys(int maxPendingKeys) {
+        this.maxPendingKeys = maxPendingKeys;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
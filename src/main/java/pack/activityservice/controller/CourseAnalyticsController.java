@@ -0,0 +1,60 @@
+package pack.activityservice.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pack.activityservice.dto.CourseRollupDTO;
+import pack.activityservice.dto.LeaderboardEntryDTO;
+import pack.activityservice.service.CourseAnalyticsService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/activities/course/{courseCode}/{moduleCode}")
+public class CourseAnalyticsController {
+
+    private final CourseAnalyticsService courseAnalyticsService;
+
+    public CourseAnalyticsController(CourseAnalyticsService courseAnalyticsService) {
+        this.courseAnalyticsService = courseAnalyticsService;
+    }
+
+    @GetMapping("/daily-totals")
+    public ResponseEntity<List<CourseRollupDTO>> getDailyTotals(
+            @PathVariable String courseCode,
+            @PathVariable String moduleCode,
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate) {
+        List<CourseRollupDTO> totals = courseAnalyticsService.getDailyTotals(courseCode, moduleCode, startDate, endDate);
+        return ResponseEntity.ok(totals);
+    }
+
+    @GetMapping("/weekly-totals")
+    public ResponseEntity<List<CourseRollupDTO>> getWeeklyTotals(
+            @PathVariable String courseCode,
+            @PathVariable String moduleCode,
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate) {
+        List<CourseRollupDTO> totals = courseAnalyticsService.getWeeklyTotals(courseCode, moduleCode, startDate, endDate);
+        return ResponseEntity.ok(totals);
+    }
+
+    @GetMapping("/leaderboard")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getLeaderboard(
+            @PathVariable String courseCode,
+            @PathVariable String moduleCode,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(required = false) Integer limit) {
+        List<LeaderboardEntryDTO> leaderboard = courseAnalyticsService.getLeaderboard(courseCode, moduleCode, startDate, endDate, limit);
+        return ResponseEntity.ok(leaderboard);
+    }
+
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Void> rebuildRollups(
+            @PathVariable String courseCode,
+            @PathVariable String moduleCode) {
+        courseAnalyticsService.rebuildRollups(courseCode, moduleCode);
+        return ResponseEntity.noContent().build();
+    }
+}
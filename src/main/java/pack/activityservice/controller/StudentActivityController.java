@@ -1,14 +1,30 @@
 package pack.activityservice.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pack.activityservice.dto.ActivityTotalDTO;
+import pack.activityservice.dto.BulkIngestResultDTO;
+import pack.activityservice.dto.ClickIncrementBatchDTO;
+import pack.activityservice.dto.CursorPageDTO;
 import pack.activityservice.dto.StudentActivityCreateDTO;
 import pack.activityservice.dto.StudentActivityDTO;
 import pack.activityservice.dto.StudentActivityUpdateDTO;
+import pack.activityservice.model.ExportFormat;
+import pack.activityservice.model.IngestMode;
+import pack.activityservice.service.ActivityExportService;
+import pack.activityservice.service.ActivityIngestionService;
+import pack.activityservice.service.ClickAggregationBuffer;
 import pack.activityservice.service.StudentActivityService;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -17,9 +33,18 @@ import java.util.List;
 public class StudentActivityController {
 
     private final StudentActivityService studentActivityService;
-
-    public StudentActivityController(StudentActivityService studentActivityService) {
+    private final ActivityIngestionService activityIngestionService;
+    private final ActivityExportService activityExportService;
+    private final ClickAggregationBuffer clickAggregationBuffer;
+
+    public StudentActivityController(StudentActivityService studentActivityService,
+                                     ActivityIngestionService activityIngestionService,
+                                     ActivityExportService activityExportService,
+                                     ClickAggregationBuffer clickAggregationBuffer) {
         this.studentActivityService = studentActivityService;
+        this.activityIngestionService = activityIngestionService;
+        this.activityExportService = activityExportService;
+        this.clickAggregationBuffer = clickAggregationBuffer;
     }
 
     @PostMapping
@@ -28,6 +53,33 @@ public class StudentActivityController {
         return new ResponseEntity<>(createdActivity, HttpStatus.CREATED);
     }
 
+    // /bulk takes a JSON array, /import streams NDJSON or CSV. Both store each row's sum clicks by default
+    // (mode=replace), so an import can be run again or retried; mode=add adds the rows instead. See IngestMode.
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkIngestResultDTO> bulkCreateActivities(
+            @RequestBody List<StudentActivityCreateDTO> rows,
+            @RequestParam(defaultValue = "replace") String mode) {
+        BulkIngestResultDTO result = activityIngestionService.ingest(rows, IngestMode.fromParameter(mode));
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkIngestResultDTO> importActivitiesFromNdjson(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "replace") String mode) throws IOException {
+        BulkIngestResultDTO result = activityIngestionService.ingestNdjson(request.getInputStream(), IngestMode.fromParameter(mode));
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<BulkIngestResultDTO> importActivitiesFromCsv(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "replace") String mode) throws IOException {
+        BulkIngestResultDTO result = activityIngestionService.ingestCsv(request.getInputStream(), IngestMode.fromParameter(mode));
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<StudentActivityDTO> getActivityById(@PathVariable Long id) {
         StudentActivityDTO activity = studentActivityService.getActivityById(id);
@@ -35,53 +87,91 @@ public class StudentActivityController {
     }
 
     @GetMapping
-    public ResponseEntity<List<StudentActivityDTO>> getAllActivities() {
-        List<StudentActivityDTO> activities = studentActivityService.getAllActivities();
+    public ResponseEntity<CursorPageDTO<StudentActivityDTO>> getAllActivities(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPageDTO<StudentActivityDTO> activities = studentActivityService.getAllActivities(cursor, limit);
         return ResponseEntity.ok(activities);
     }
 
     @GetMapping("/student/{studentId}")
-    public ResponseEntity<List<StudentActivityDTO>> getActivitiesByStudentId(@PathVariable Long studentId) {
-        List<StudentActivityDTO> activities = studentActivityService.getActivitiesByStudentId(studentId);
+    public ResponseEntity<CursorPageDTO<StudentActivityDTO>> getActivitiesByStudentId(
+            @PathVariable Long studentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPageDTO<StudentActivityDTO> activities = studentActivityService.getActivitiesByStudentId(studentId, cursor, limit);
         return ResponseEntity.ok(activities);
     }
 
     @GetMapping("/course/{courseCode}/{moduleCode}")
-    public ResponseEntity<List<StudentActivityDTO>> getActivitiesByCourse(
+    public ResponseEntity<CursorPageDTO<StudentActivityDTO>> getActivitiesByCourse(
             @PathVariable String courseCode,
-            @PathVariable String moduleCode) {
-        List<StudentActivityDTO> activities = studentActivityService.getActivitiesByCourse(courseCode, moduleCode);
+            @PathVariable String moduleCode,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPageDTO<StudentActivityDTO> activities = studentActivityService.getActivitiesByCourse(courseCode, moduleCode, cursor, limit);
         return ResponseEntity.ok(activities);
     }
 
     @GetMapping("/student/{studentId}/course/{courseCode}/{moduleCode}")
-    public ResponseEntity<List<StudentActivityDTO>> getActivitiesByStudentAndCourse(
+    public ResponseEntity<CursorPageDTO<StudentActivityDTO>> getActivitiesByStudentAndCourse(
             @PathVariable Long studentId,
             @PathVariable String courseCode,
-            @PathVariable String moduleCode) {
-        List<StudentActivityDTO> activities = studentActivityService.getActivitiesByStudentAndCourse(studentId, courseCode, moduleCode);
+            @PathVariable String moduleCode,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPageDTO<StudentActivityDTO> activities = studentActivityService.getActivitiesByStudentAndCourse(studentId, courseCode, moduleCode, cursor, limit);
         return ResponseEntity.ok(activities);
     }
 
     @GetMapping("/student/{studentId}/date-range")
-    public ResponseEntity<List<StudentActivityDTO>> getActivitiesByStudentAndDateRange(
+    public ResponseEntity<CursorPageDTO<StudentActivityDTO>> getActivitiesByStudentAndDateRange(
             @PathVariable Long studentId,
             @RequestParam LocalDate startDate,
-            @RequestParam LocalDate endDate) {
-        List<StudentActivityDTO> activities = studentActivityService.getActivitiesByStudentAndDateRange(studentId, startDate, endDate);
+            @RequestParam LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPageDTO<StudentActivityDTO> activities = studentActivityService.getActivitiesByStudentAndDateRange(studentId, startDate, endDate, cursor, limit);
         return ResponseEntity.ok(activities);
     }
 
     @GetMapping("/course/{courseCode}/{moduleCode}/date-range")
-    public ResponseEntity<List<StudentActivityDTO>> getActivitiesByCourseAndDateRange(
+    public ResponseEntity<CursorPageDTO<StudentActivityDTO>> getActivitiesByCourseAndDateRange(
             @PathVariable String courseCode,
             @PathVariable String moduleCode,
             @RequestParam LocalDate startDate,
-            @RequestParam LocalDate endDate) {
-        List<StudentActivityDTO> activities = studentActivityService.getActivitiesByCourseAndDateRange(courseCode, moduleCode, startDate, endDate);
+            @RequestParam LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPageDTO<StudentActivityDTO> activities = studentActivityService.getActivitiesByCourseAndDateRange(courseCode, moduleCode, startDate, endDate, cursor, limit);
         return ResponseEntity.ok(activities);
     }
 
+    @GetMapping("/course/{courseCode}/{moduleCode}/export")
+    public ResponseEntity<StreamingResponseBody> exportActivitiesByCourse(
+            @PathVariable String courseCode,
+            @PathVariable String moduleCode,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        StreamingResponseBody body = output -> activityExportService
+                .exportByCourse(courseCode, moduleCode, startDate, endDate, exportFormat, output);
+        return exportResponse(body, exportFormat, "activities-" + courseCode + "-" + moduleCode);
+    }
+
+    @GetMapping("/student/{studentId}/date-range/export")
+    public ResponseEntity<StreamingResponseBody> exportActivitiesByStudentAndDateRange(
+            @PathVariable Long studentId,
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        StreamingResponseBody body = output -> activityExportService
+                .exportByStudentAndDateRange(studentId, startDate, endDate, exportFormat, output);
+        return exportResponse(body, exportFormat, "activities-student-" + studentId);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<StudentActivityDTO> updateActivity(
             @PathVariable Long id,
@@ -118,8 +208,35 @@ public class StudentActivityController {
             @RequestParam String moduleCode,
             @RequestParam LocalDate date,
             @RequestParam(defaultValue = "1") Integer clicks) {
+        if (clickAggregationBuffer.isEnabled()) {
+            // Write-behind mode: the increment is persisted by the next buffer flush
+            clickAggregationBuffer.add(studentId, courseCode, moduleCode, date, clicks);
+            return ResponseEntity.accepted().build();
+        }
         StudentActivityDTO activity = studentActivityService.incrementClicks(studentId, courseCode, moduleCode, date, clicks);
         return ResponseEntity.ok(activity);
     }
-}
 
+    @PostMapping("/increment/batch")
+    public ResponseEntity<List<ActivityTotalDTO>> incrementClicksBatch(@Valid @RequestBody ClickIncrementBatchDTO batch) {
+        if (clickAggregationBuffer.isEnabled()) {
+            // Write-behind mode: the increments are persisted by the next buffer flush
+            batch.getIncrements().forEach(increment -> clickAggregationBuffer.add(increment.getStudentId(),
+                    increment.getCourseCode(), increment.getModuleCode(), increment.getDate(), increment.getClicks()));
+            return ResponseEntity.accepted().build();
+        }
+        List<ActivityTotalDTO> totals = studentActivityService.incrementClicksBatch(batch.getIncrements());
+        return ResponseEntity.ok(totals);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> exportResponse(
+            StreamingResponseBody body, ExportFormat format, String fileName) {
+        // Path variables end up in the file name, so quotes and non-ASCII characters are encoded, not concatenated
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(format.getContentType()));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(fileName + "." + format.getFileExtension(), StandardCharsets.UTF_8)
+                .build());
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+}
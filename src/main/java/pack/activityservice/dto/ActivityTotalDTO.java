@@ -0,0 +1,70 @@
+package pack.activityservice.dto;
+
+import java.time.LocalDate;
+
+// Sum clicks of one activity after a batch of increments was applied
+public class ActivityTotalDTO {
+
+    private Long studentId;
+
+    private String courseCode;
+
+    private String moduleCode;
+
+    private LocalDate date;
+
+    private Integer sumClicks;
+
+    // Constructors
+    public ActivityTotalDTO() {
+    }
+
+    public ActivityTotalDTO(Long studentId, String courseCode, String moduleCode, LocalDate date, Integer sumClicks) {
+        this.studentId = studentId;
+        this.courseCode = courseCode;
+        this.moduleCode = moduleCode;
+        this.date = date;
+        this.sumClicks = sumClicks;
+    }
+
+    // Getters and Setters
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    public void setCourseCode(String courseCode) {
+        this.courseCode = courseCode;
+    }
+
+    public String getModuleCode() {
+        return moduleCode;
+    }
+
+    public void setModuleCode(String moduleCode) {
+        this.moduleCode = moduleCode;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public Integer getSumClicks() {
+        return sumClicks;
+    }
+
+    public void setSumClicks(Integer sumClicks) {
+        this.sumClicks = sumClicks;
+    }
+}
@@ -0,0 +1,77 @@
+package pack.activityservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkIngestResultDTO {
+
+    private long received;
+    private long accepted;
+    private long rejected;
+    private long durationMillis;
+    private double rowsPerSecond;
+    private List<BulkRowErrorDTO> errors = new ArrayList<>();
+
+    // Constructors
+    public BulkIngestResultDTO() {
+    }
+
+    public BulkIngestResultDTO(long received, long accepted, long rejected, long durationMillis,
+                               double rowsPerSecond, List<BulkRowErrorDTO> errors) {
+        this.received = received;
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.durationMillis = durationMillis;
+        this.rowsPerSecond = rowsPerSecond;
+        this.errors = errors;
+    }
+
+    // Getters and Setters
+    public long getReceived() {
+        return received;
+    }
+
+    public void setReceived(long received) {
+        this.received = received;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public List<BulkRowErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<BulkRowErrorDTO> errors) {
+        this.errors = errors;
+    }
+}
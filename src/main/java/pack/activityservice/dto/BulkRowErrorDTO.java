@@ -0,0 +1,45 @@
+package pack.activityservice.dto;
+
+import java.util.Map;
+
+public class BulkRowErrorDTO {
+
+    private long row;
+    private String message;
+    private Map<String, String> validationErrors;
+
+    // Constructors
+    public BulkRowErrorDTO() {
+    }
+
+    public BulkRowErrorDTO(long row, String message, Map<String, String> validationErrors) {
+        this.row = row;
+        this.message = message;
+        this.validationErrors = validationErrors;
+    }
+
+    // Getters and Setters
+    public long getRow() {
+        return row;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Map<String, String> getValidationErrors() {
+        return validationErrors;
+    }
+
+    public void setValidationErrors(Map<String, String> validationErrors) {
+        this.validationErrors = validationErrors;
+    }
+}
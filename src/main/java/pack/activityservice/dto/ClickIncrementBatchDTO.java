@@ -0,0 +1,34 @@
+package pack.activityservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class ClickIncrementBatchDTO {
+
+    public static final int MAX_INCREMENTS = 10_000;
+
+    // One transaction holds a row lock per distinct key until every increment is applied
+    @NotEmpty(message = "At least one increment is required")
+    @Size(max = MAX_INCREMENTS, message = "At most " + MAX_INCREMENTS + " increments are accepted per batch")
+    private List<@Valid ClickIncrementDTO> increments;
+
+    // Constructors
+    public ClickIncrementBatchDTO() {
+    }
+
+    public ClickIncrementBatchDTO(List<ClickIncrementDTO> increments) {
+        this.increments = increments;
+    }
+
+    // Getters and Setters
+    public List<ClickIncrementDTO> getIncrements() {
+        return increments;
+    }
+
+    public void setIncrements(List<ClickIncrementDTO> increments) {
+        this.increments = increments;
+    }
+}
@@ -0,0 +1,78 @@
+package pack.activityservice.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+public class ClickIncrementDTO {
+
+    @NotNull(message = "Student ID is required")
+    private Long studentId;
+
+    @NotBlank(message = "Course code is required")
+    private String courseCode;
+
+    @NotBlank(message = "Module code is required")
+    private String moduleCode;
+
+    @NotNull(message = "Date is required")
+    private LocalDate date;
+
+    @Min(value = 0, message = "Clicks must be greater than or equal to 0")
+    private int clicks = 1;
+
+    // Constructors
+    public ClickIncrementDTO() {
+    }
+
+    public ClickIncrementDTO(Long studentId, String courseCode, String moduleCode, LocalDate date, int clicks) {
+        this.studentId = studentId;
+        this.courseCode = courseCode;
+        this.moduleCode = moduleCode;
+        this.date = date;
+        this.clicks = clicks;
+    }
+
+    // Getters and Setters
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    public void setCourseCode(String courseCode) {
+        this.courseCode = courseCode;
+    }
+
+    public String getModuleCode() {
+        return moduleCode;
+    }
+
+    public void setModuleCode(String moduleCode) {
+        this.moduleCode = moduleCode;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public int getClicks() {
+        return clicks;
+    }
+
+    public void setClicks(int clicks) {
+        this.clicks = clicks;
+    }
+}
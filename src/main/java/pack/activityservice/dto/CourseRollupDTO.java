@@ -0,0 +1,48 @@
+package pack.activityservice.dto;
+
+import java.time.LocalDate;
+
+public class CourseRollupDTO {
+
+    // The day, or the Monday of the ISO week, the totals belong to
+    private LocalDate periodStart;
+
+    private Long totalClicks;
+
+    private Integer activeStudents;
+
+    // Constructors
+    public CourseRollupDTO() {
+    }
+
+    public CourseRollupDTO(LocalDate periodStart, Long totalClicks, Integer activeStudents) {
+        this.periodStart = periodStart;
+        this.totalClicks = totalClicks;
+        this.activeStudents = activeStudents;
+    }
+
+    // Getters and Setters
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public Long getTotalClicks() {
+        return totalClicks;
+    }
+
+    public void setTotalClicks(Long totalClicks) {
+        this.totalClicks = totalClicks;
+    }
+
+    public Integer getActiveStudents() {
+        return activeStudents;
+    }
+
+    public void setActiveStudents(Integer activeStudents) {
+        this.activeStudents = activeStudents;
+    }
+}
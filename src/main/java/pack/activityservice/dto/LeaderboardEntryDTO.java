@@ -0,0 +1,51 @@
+package pack.activityservice.dto;
+
+public class LeaderboardEntryDTO {
+
+    // 1-based position, students with equal clicks are ordered by student ID
+    private Integer rank;
+
+    private Long studentId;
+
+    private Long totalClicks;
+
+    // Constructors
+    public LeaderboardEntryDTO() {
+    }
+
+    public LeaderboardEntryDTO(Long studentId, Long totalClicks) {
+        this.studentId = studentId;
+        this.totalClicks = totalClicks;
+    }
+
+    public LeaderboardEntryDTO(Integer rank, Long studentId, Long totalClicks) {
+        this.rank = rank;
+        this.studentId = studentId;
+        this.totalClicks = totalClicks;
+    }
+
+    // Getters and Setters
+    public Integer getRank() {
+        return rank;
+    }
+
+    public void setRank(Integer rank) {
+        this.rank = rank;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public Long getTotalClicks() {
+        return totalClicks;
+    }
+
+    public void setTotalClicks(Long totalClicks) {
+        this.totalClicks = totalClicks;
+    }
+}
@@ -3,6 +3,7 @@ package pack.activityservice.dto;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import pack.activityservice.model.CourseKey;
 
 import java.time.LocalDate;
 
@@ -39,6 +40,11 @@ public class StudentActivityDTO {
         this.sumClicks = sumClicks;
     }
 
+    // Projection of a row whose course presentation comes from the course_module dictionary
+    public StudentActivityDTO(Long id, Long studentId, CourseKey courseModule, LocalDate date, Integer sumClicks) {
+        this(id, studentId, courseModule.courseCode(), courseModule.moduleCode(), date, sumClicks);
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -0,0 +1,101 @@
+package pack.activityservice.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Clicks and active students of one course presentation on one day, maintained from the write paths.
+ */
+@Entity
+@Table(name = "course_daily_rollup")
+@IdClass(CourseDailyRollup.Id.class)
+public class CourseDailyRollup {
+
+    @jakarta.persistence.Id
+    @Column(name = "course_code", nullable = false, length = 50)
+    private String courseCode;
+
+    @jakarta.persistence.Id
+    @Column(name = "module_code", nullable = false, length = 50)
+    private String moduleCode;
+
+    @jakarta.persistence.Id
+    @Column(name = "date", nullable = false)
+    private LocalDate date;
+
+    @Column(name = "total_clicks", nullable = false)
+    private Long totalClicks;
+
+    @Column(name = "active_students", nullable = false)
+    private Integer activeStudents;
+
+    // Constructors
+    public CourseDailyRollup() {
+    }
+
+    // Getters and Setters
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    public void setCourseCode(String courseCode) {
+        this.courseCode = courseCode;
+    }
+
+    public String getModuleCode() {
+        return moduleCode;
+    }
+
+    public void setModuleCode(String moduleCode) {
+        this.moduleCode = moduleCode;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public Long getTotalClicks() {
+        return totalClicks;
+    }
+
+    public void setTotalClicks(Long totalClicks) {
+        this.totalClicks = totalClicks;
+    }
+
+    public Integer getActiveStudents() {
+        return activeStudents;
+    }
+
+    public void setActiveStudents(Integer activeStudents) {
+        this.activeStudents = activeStudents;
+    }
+
+    public static class Id implements Serializable {
+
+        private String courseCode;
+        private String moduleCode;
+        private LocalDate date;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Id that = (Id) o;
+            return Objects.equals(courseCode, that.courseCode) &&
+                   Objects.equals(moduleCode, that.moduleCode) &&
+                   Objects.equals(date, that.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(courseCode, moduleCode, date);
+        }
+    }
+}
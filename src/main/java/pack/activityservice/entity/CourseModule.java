@@ -0,0 +1,76 @@
+package pack.activityservice.entity;
+
+import jakarta.persistence.*;
+
+import java.util.Objects;
+
+/**
+ * Dictionary of course presentations. {@code student_activity} stores the small integer id of a row here
+ * instead of repeating both codes; see {@code CourseModuleDictionary}.
+ */
+@Entity
+@Table(name = "course_module",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"course_code", "module_code"}))
+public class CourseModule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "course_code", nullable = false, length = 50)
+    private String courseCode;
+
+    @Column(name = "module_code", nullable = false, length = 50)
+    private String moduleCode;
+
+    // Constructors
+    public CourseModule() {
+    }
+
+    public CourseModule(Integer id, String courseCode, String moduleCode) {
+        this.id = id;
+        this.courseCode = courseCode;
+        this.moduleCode = moduleCode;
+    }
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    public void setCourseCode(String courseCode) {
+        this.courseCode = courseCode;
+    }
+
+    public String getModuleCode() {
+        return moduleCode;
+    }
+
+    public void setModuleCode(String moduleCode) {
+        this.moduleCode = moduleCode;
+    }
+
+    // equals and hashCode
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CourseModule that = (CourseModule) o;
+        return Objects.equals(id, that.id) &&
+               Objects.equals(courseCode, that.courseCode) &&
+               Objects.equals(moduleCode, that.moduleCode);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, courseCode, moduleCode);
+    }
+}
@@ -0,0 +1,105 @@
+package pack.activityservice.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Number of days a student was active in a course presentation during one ISO week. Rows exist only while
+ * that number is positive and back the distinct active student counts of {@link CourseWeeklyRollup}.
+ */
+@Entity
+@Table(name = "course_week_student")
+@IdClass(CourseWeekStudent.Id.class)
+public class CourseWeekStudent {
+
+    @jakarta.persistence.Id
+    @Column(name = "course_code", nullable = false, length = 50)
+    private String courseCode;
+
+    @jakarta.persistence.Id
+    @Column(name = "module_code", nullable = false, length = 50)
+    private String moduleCode;
+
+    @jakarta.persistence.Id
+    @Column(name = "week_start", nullable = false)
+    private LocalDate weekStart;
+
+    @jakarta.persistence.Id
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "active_days", nullable = false)
+    private Integer activeDays;
+
+    // Constructors
+    public CourseWeekStudent() {
+    }
+
+    // Getters and Setters
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    public void setCourseCode(String courseCode) {
+        this.courseCode = courseCode;
+    }
+
+    public String getModuleCode() {
+        return moduleCode;
+    }
+
+    public void setModuleCode(String moduleCode) {
+        this.moduleCode = moduleCode;
+    }
+
+    public LocalDate getWeekStart() {
+        return weekStart;
+    }
+
+    public void setWeekStart(LocalDate weekStart) {
+        this.weekStart = weekStart;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public Integer getActiveDays() {
+        return activeDays;
+    }
+
+    public void setActiveDays(Integer activeDays) {
+        this.activeDays = activeDays;
+    }
+
+    public static class Id implements Serializable {
+
+        private String courseCode;
+        private String moduleCode;
+        private LocalDate weekStart;
+        private Long studentId;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Id that = (Id) o;
+            return Objects.equals(courseCode, that.courseCode) &&
+                   Objects.equals(moduleCode, that.moduleCode) &&
+                   Objects.equals(weekStart, that.weekStart) &&
+                   Objects.equals(studentId, that.studentId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(courseCode, moduleCode, weekStart, studentId);
+        }
+    }
+}
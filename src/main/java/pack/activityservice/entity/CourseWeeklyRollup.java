@@ -0,0 +1,101 @@
+package pack.activityservice.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Clicks and distinct active students of one course presentation in one ISO week, keyed by its Monday.
+ */
+@Entity
+@Table(name = "course_weekly_rollup")
+@IdClass(CourseWeeklyRollup.Id.class)
+public class CourseWeeklyRollup {
+
+    @jakarta.persistence.Id
+    @Column(name = "course_code", nullable = false, length = 50)
+    private String courseCode;
+
+    @jakarta.persistence.Id
+    @Column(name = "module_code", nullable = false, length = 50)
+    private String moduleCode;
+
+    @jakarta.persistence.Id
+    @Column(name = "week_start", nullable = false)
+    private LocalDate weekStart;
+
+    @Column(name = "total_clicks", nullable = false)
+    private Long totalClicks;
+
+    @Column(name = "active_students", nullable = false)
+    private Integer activeStudents;
+
+    // Constructors
+    public CourseWeeklyRollup() {
+    }
+
+    // Getters and Setters
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    public void setCourseCode(String courseCode) {
+        this.courseCode = courseCode;
+    }
+
+    public String getModuleCode() {
+        return moduleCode;
+    }
+
+    public void setModuleCode(String moduleCode) {
+        this.moduleCode = moduleCode;
+    }
+
+    public LocalDate getWeekStart() {
+        return weekStart;
+    }
+
+    public void setWeekStart(LocalDate weekStart) {
+        this.weekStart = weekStart;
+    }
+
+    public Long getTotalClicks() {
+        return totalClicks;
+    }
+
+    public void setTotalClicks(Long totalClicks) {
+        this.totalClicks = totalClicks;
+    }
+
+    public Integer getActiveStudents() {
+        return activeStudents;
+    }
+
+    public void setActiveStudents(Integer activeStudents) {
+        this.activeStudents = activeStudents;
+    }
+
+    public static class Id implements Serializable {
+
+        private String courseCode;
+        private String moduleCode;
+        private LocalDate weekStart;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Id that = (Id) o;
+            return Objects.equals(courseCode, that.courseCode) &&
+                   Objects.equals(moduleCode, that.moduleCode) &&
+                   Objects.equals(weekStart, that.weekStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(courseCode, moduleCode, weekStart);
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package pack.activityservice.entity;
 
 import jakarta.persistence.*;
+import pack.activityservice.model.CourseKey;
+import pack.activityservice.repository.CourseModuleConverter;
+import pack.activityservice.repository.CourseModuleListener;
 
 import java.time.LocalDate;
 import java.util.Objects;
 
 @Entity
+@EntityListeners(CourseModuleListener.class)
 @Table(name = "student_activity",
-       uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "course_code", "module_code", "date"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "course_module_id", "date"}))
 public class StudentActivity {
 
     @Id
@@ -17,11 +21,10 @@ public class StudentActivity {
     @Column(name = "student_id", nullable = false)
     private Long studentId;
 
-    @Column(name = "course_code", nullable = false, length = 50)
-    private String courseCode;
-
-    @Column(name = "module_code", nullable = false, length = 50)
-    private String moduleCode;
+    // Stored as the id of its course_module row
+    @Convert(converter = CourseModuleConverter.class)
+    @Column(name = "course_module_id", nullable = false)
+    private CourseKey courseModule;
 
     @Column(name = "date", nullable = false)
     private LocalDate date;
@@ -36,8 +39,7 @@ public class StudentActivity {
     public StudentActivity(Long id, Long studentId, String courseCode, String moduleCode, LocalDate date, Integer sumClicks) {
         this.id = id;
         this.studentId = studentId;
-        this.courseCode = courseCode;
-        this.moduleCode = moduleCode;
+        this.courseModule = new CourseKey(courseCode, moduleCode);
         this.date = date;
         this.sumClicks = sumClicks;
     }
@@ -59,20 +61,28 @@ public class StudentActivity {
         this.studentId = studentId;
     }
 
+    public CourseKey getCourseModule() {
+        return courseModule;
+    }
+
+    public void setCourseModule(CourseKey courseModule) {
+        this.courseModule = courseModule;
+    }
+
     public String getCourseCode() {
-        return courseCode;
+        return courseModule == null ? null : courseModule.courseCode();
     }
 
     public void setCourseCode(String courseCode) {
-        this.courseCode = courseCode;
+        this.courseModule = new CourseKey(courseCode, getModuleCode());
     }
 
     public String getModuleCode() {
-        return moduleCode;
+        return courseModule == null ? null : courseModule.moduleCode();
     }
 
     public void setModuleCode(String moduleCode) {
-        this.moduleCode = moduleCode;
+        this.courseModule = new CourseKey(getCourseCode(), moduleCode);
     }
 
     public LocalDate getDate() {
@@ -99,15 +109,14 @@ public class StudentActivity {
         StudentActivity that = (StudentActivity) o;
         return Objects.equals(id, that.id) &&
                Objects.equals(studentId, that.studentId) &&
-               Objects.equals(courseCode, that.courseCode) &&
-               Objects.equals(moduleCode, that.moduleCode) &&
+               Objects.equals(courseModule, that.courseModule) &&
                Objects.equals(date, that.date) &&
                Objects.equals(sumClicks, that.sumClicks);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, studentId, courseCode, moduleCode, date, sumClicks);
+        return Objects.hash(id, studentId, courseModule, date, sumClicks);
     }
 
     // toString
@@ -116,8 +125,8 @@ public class StudentActivity {
         return "StudentActivity{" +
                 "id=" + id +
                 ", studentId=" + studentId +
-                ", courseCode='" + courseCode + '\'' +
-                ", moduleCode='" + moduleCode + '\'' +
+                ", courseCode='" + getCourseCode() + '\'' +
+                ", moduleCode='" + getModuleCode() + '\'' +
                 ", date=" + date +
                 ", sumClicks=" + sumClicks +
                 '}';
@@ -0,0 +1,18 @@
+package pack.activityservice.event;
+
+import pack.activityservice.model.ActivityKey;
+
+/**
+ * The {@code sum_clicks} of one activity row before and after a write, {@code 0} standing for a missing row.
+ */
+public record ActivityChange(ActivityKey key, long previousClicks, long currentClicks) {
+
+    public long clicksDelta() {
+        return currentClicks - previousClicks;
+    }
+
+    // A student counts as active on a day once the row has at least one click
+    public int activeDelta() {
+        return (currentClicks > 0 ? 1 : 0) - (previousClicks > 0 ? 1 : 0);
+    }
+}
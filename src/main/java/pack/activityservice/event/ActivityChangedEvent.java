@@ -0,0 +1,15 @@
+package pack.activityservice.event;
+
+import java.util.List;
+
+/**
+ * Published by every write path, inside its transaction, after {@code student_activity} rows were created,
+ * changed or deleted. Listeners that maintain derived tables run synchronously so that they commit or roll
+ * back together with the write; in-memory state should only be touched once the transaction has committed.
+ */
+public record ActivityChangedEvent(List<ActivityChange> changes) {
+
+    public static ActivityChangedEvent of(ActivityChange... changes) {
+        return new ActivityChangedEvent(List.of(changes));
+    }
+}
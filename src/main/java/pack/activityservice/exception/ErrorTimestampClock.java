@@ -0,0 +1,38 @@
+package pack.activityservice.exception;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The current local time as written in error bodies, to the millisecond. Formatted again only when the
+ * millisecond changes, so errors answered in bursts share one formatted value.
+ */
+final class ErrorTimestampClock {
+
+    private record Formatted(long millis, byte[] bytes) {
+    }
+
+    private final Clock clock;
+
+    private volatile Formatted last = new Formatted(Long.MIN_VALUE, new byte[0]);
+
+    ErrorTimestampClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    // The same ISO format Jackson writes for ErrorResponse.timestamp; callers must not modify the array
+    byte[] now() {
+        long millis = clock.millis();
+        Formatted formatted = last;
+        if (formatted.millis() != millis) {
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), clock.getZone());
+            formatted = new Formatted(millis,
+                    DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time).getBytes(StandardCharsets.US_ASCII));
+            last = formatted;
+        }
+        return formatted.bytes();
+    }
+}
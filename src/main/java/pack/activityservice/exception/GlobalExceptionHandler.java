@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -19,30 +20,36 @@ public class GlobalExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    // Probes of unknown ids and paths are routine: logged at debug, answered with a pre-serialized body
+    private static final PreSerializedError NOT_FOUND = new PreSerializedError(HttpStatus.NOT_FOUND, "Not Found");
+
+    private final ErrorTimestampClock timestamps = new ErrorTimestampClock(Clock.systemDefaultZone());
+
     @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex) {
-        log.error("Resource not found: {}", ex.getMessage());
+    public ResponseEntity<byte[]> handleResourceNotFoundException(ResourceNotFoundException ex) {
+        log.debug("Resource not found: {}", ex.getMessage());
+
+        return NOT_FOUND.toResponse(timestamps.now(), ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidRequestException(InvalidRequestException ex) {
+        log.error("Invalid request: {}", ex.getMessage());
 
         ErrorResponse error = new ErrorResponse();
         error.setTimestamp(LocalDateTime.now());
-        error.setStatus(HttpStatus.NOT_FOUND.value());
-        error.setError("Not Found");
+        error.setStatus(HttpStatus.BAD_REQUEST.value());
+        error.setError("Bad Request");
         error.setMessage(ex.getMessage());
 
-        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(NoResourceFoundException.class)
-    public ResponseEntity<ErrorResponse> handleNoResourceFoundException(NoResourceFoundException ex) {
-        log.error("Resource not found: {}", ex.getMessage());
-
-        ErrorResponse error = new ErrorResponse();
-        error.setTimestamp(LocalDateTime.now());
-        error.setStatus(HttpStatus.NOT_FOUND.value());
-        error.setError("Not Found");
-        error.setMessage(ex.getMessage());
+    public ResponseEntity<byte[]> handleNoResourceFoundException(NoResourceFoundException ex) {
+        log.debug("Resource not found: {}", ex.getMessage());
 
-        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+        return NOT_FOUND.toResponse(timestamps.now(), ex.getMessage());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
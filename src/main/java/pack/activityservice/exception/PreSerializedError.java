@@ -0,0 +1,68 @@
+package pack.activityservice.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An {@link ErrorResponse} of fixed status and error text, serialized once but for its timestamp and message.
+ * Rendering copies the parts into one array, written as it is by the byte array message converter, with the
+ * same JSON the Jackson converter produces for the response object.
+ */
+final class PreSerializedError {
+
+    private static final byte[] TIMESTAMP_PREFIX = "{\"timestamp\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = ",\"validationErrors\":null}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+
+    private static final HttpHeaders JSON_HEADERS;
+
+    static {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        JSON_HEADERS = HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    private final HttpStatus status;
+    // ","status":404,"error":"Not Found","message":
+    private final byte[] messagePrefix;
+
+    PreSerializedError(HttpStatus status, String error) {
+        this.status = status;
+        this.messagePrefix = ("\",\"status\":" + status.value()
+                + ",\"error\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(error))
+                + "\",\"message\":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    ResponseEntity<byte[]> toResponse(byte[] timestamp, String message) {
+        return new ResponseEntity<>(render(timestamp, message), JSON_HEADERS, status);
+    }
+
+    byte[] render(byte[] timestamp, String message) {
+        byte[] quoted = message == null ? null : JsonStringEncoder.getInstance().quoteAsUTF8(message);
+        int messageLength = quoted == null ? NULL.length : quoted.length + 2;
+        byte[] body = new byte[TIMESTAMP_PREFIX.length + timestamp.length + messagePrefix.length
+                + messageLength + SUFFIX.length];
+        int position = copy(TIMESTAMP_PREFIX, body, 0);
+        position = copy(timestamp, body, position);
+        position = copy(messagePrefix, body, position);
+        if (quoted == null) {
+            position = copy(NULL, body, position);
+        } else {
+            body[position++] = '"';
+            position = copy(quoted, body, position);
+            body[position++] = '"';
+        }
+        copy(SUFFIX, body, position);
+        return body;
+    }
+
+    private static int copy(byte[] source, byte[] target, int position) {
+        System.arraycopy(source, 0, target, position, source.length);
+        return position + source.length;
+    }
+}
@@ -1,13 +1,17 @@
 package pack.activityservice.exception;
 
+/**
+ * A missing resource, answered with 404. Clients probe unknown ids routinely, so the exception is created
+ * without a stack trace: filling in the frames of a request thread was most of the cost of a miss, and the
+ * message already says what was not found.
+ */
 public class ResourceNotFoundException extends RuntimeException {
 
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public ResourceNotFoundException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 }
-
@@ -4,6 +4,7 @@ import pack.activityservice.dto.StudentActivityCreateDTO;
 import pack.activityservice.dto.StudentActivityDTO;
 import pack.activityservice.dto.StudentActivityUpdateDTO;
 import pack.activityservice.entity.StudentActivity;
+import pack.activityservice.model.ActivityKey;
 
 public class StudentActivityMapper {
 
@@ -34,6 +35,10 @@ public class StudentActivityMapper {
         return entity;
     }
 
+    public static ActivityKey toKey(StudentActivity entity) {
+        return new ActivityKey(entity.getStudentId(), entity.getCourseCode(), entity.getModuleCode(), entity.getDate());
+    }
+
     public static void updateEntityFromDTO(StudentActivity entity, StudentActivityUpdateDTO dto) {
         if (dto.getDate() != null) {
             entity.setDate(dto.getDate());
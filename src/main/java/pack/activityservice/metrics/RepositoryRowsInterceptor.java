@@ -0,0 +1,74 @@
+package pack.activityservice.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Slice;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Records the rows returned by each repository query as {@code activity.repository.rows}, tagged with the
+ * repository and the method. Call latency is already timed by Spring Boot as
+ * {@code spring.data.repository.invocations}.
+ * <p>
+ * Streams are counted as they are consumed and recorded when closed. Methods that return neither rows
+ * nor a container of rows, such as {@code @Modifying} queries and aggregates, are not recorded.
+ */
+public class RepositoryRowsInterceptor implements MethodInterceptor {
+
+    static final String METRIC_NAME = "activity.repository.rows";
+
+    private final String repository;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ConcurrentHashMap<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public RepositoryRowsInterceptor(Class<?> repositoryInterface, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.repository = repositoryInterface.getSimpleName();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        if (result instanceof Collection<?> rows) {
+            summary(invocation.getMethod()).record(rows.size());
+        } else if (result instanceof Slice<?> slice) {
+            summary(invocation.getMethod()).record(slice.getNumberOfElements());
+        } else if (result instanceof Optional<?> row) {
+            summary(invocation.getMethod()).record(row.isPresent() ? 1 : 0);
+        } else if (result instanceof Map<?, ?> rows) {
+            summary(invocation.getMethod()).record(rows.size());
+        } else if (result instanceof Stream<?> stream) {
+            DistributionSummary summary = summary(invocation.getMethod());
+            long[] count = new long[1];
+            // A filter rather than peek, which count() may skip on sized streams
+            return stream.filter(row -> ++count[0] > 0).onClose(() -> summary.record(count[0]));
+        }
+        return result;
+    }
+
+    private DistributionSummary summary(Method method) {
+        DistributionSummary summary = summaries.get(method);
+        if (summary == null) {
+            summary = summaries.computeIfAbsent(method, this::register);
+        }
+        return summary;
+    }
+
+    private DistributionSummary register(Method method) {
+        return DistributionSummary.builder(METRIC_NAME)
+                .description("Rows returned per repository query")
+                .baseUnit("rows")
+                .tag("repository", repository)
+                .tag("method", method.getName())
+                .register(meterRegistry.getObject());
+    }
+}
@@ -0,0 +1,65 @@
+package pack.activityservice.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call of a service method as {@code activity.service}, tagged with the service, the method
+ * and an outcome of {@code SUCCESS} or {@code ERROR}.
+ * <p>
+ * Timers are resolved once per method and cached, so a timed call costs two {@link System#nanoTime()}
+ * reads and a map lookup without allocating.
+ */
+public class ServiceTimingInterceptor implements MethodInterceptor {
+
+    static final String METRIC_NAME = "activity.service";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ConcurrentHashMap<Method, MethodTimers> timers = new ConcurrentHashMap<>();
+
+    public ServiceTimingInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MethodTimers methodTimers = timers.get(invocation.getMethod());
+        if (methodTimers == null) {
+            methodTimers = timers.computeIfAbsent(invocation.getMethod(), this::register);
+        }
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            methodTimers.success().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable ex) {
+            methodTimers.error().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw ex;
+        }
+    }
+
+    private MethodTimers register(Method method) {
+        MeterRegistry registry = meterRegistry.getObject();
+        String service = method.getDeclaringClass().getSimpleName();
+        return new MethodTimers(timer(registry, service, method, "SUCCESS"), timer(registry, service, method, "ERROR"));
+    }
+
+    private static Timer timer(MeterRegistry registry, String service, Method method, String outcome) {
+        return Timer.builder(METRIC_NAME)
+                .description("Service method calls")
+                .tag("service", service)
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private record MethodTimers(Timer success, Timer error) {
+    }
+}
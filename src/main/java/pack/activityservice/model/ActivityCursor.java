@@ -0,0 +1,60 @@
+package pack.activityservice.model;
+
+import pack.activityservice.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Keyset position of a paginated activity listing: the last {@code id} returned, and for listings
+ * ordered by date also the last {@code date}. Clients only ever see the opaque {@link #encode()} form.
+ */
+public record ActivityCursor(LocalDate date, long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public static ActivityCursor afterId(long id) {
+        return new ActivityCursor(null, id);
+    }
+
+    public static ActivityCursor after(LocalDate date, long id) {
+        return new ActivityCursor(date, id);
+    }
+
+    // Position a listing starts from: the beginning, or right after the client's cursor
+    public static ActivityCursor startingAfter(String cursor) {
+        return cursor == null ? afterId(0L) : decode(cursor, false);
+    }
+
+    // The first page of a date range starts at (startDate, 0), later pages continue after the cursor
+    public static ActivityCursor startingAfter(String cursor, LocalDate startDate) {
+        if (cursor == null) {
+            return after(startDate, 0L);
+        }
+        ActivityCursor after = decode(cursor, true);
+        return after.date().isBefore(startDate) ? after(startDate, 0L) : after;
+    }
+
+    public String encode() {
+        String raw = date == null ? "i:" + id : "d:" + date.toEpochDay() + ":" + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static ActivityCursor decode(String token, boolean dated) {
+        try {
+            String[] parts = new String(DECODER.decode(token), StandardCharsets.US_ASCII).split(":");
+            if (!dated && parts.length == 2 && parts[0].equals("i")) {
+                return afterId(Long.parseLong(parts[1]));
+            }
+            if (dated && parts.length == 3 && parts[0].equals("d")) {
+                return after(LocalDate.ofEpochDay(Long.parseLong(parts[1])), Long.parseLong(parts[2]));
+            }
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            throw new InvalidRequestException("Invalid cursor: " + token, ex);
+        }
+        throw new InvalidRequestException("Invalid cursor: " + token);
+    }
+}
@@ -0,0 +1,31 @@
+package pack.activityservice.model;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * Natural key of a {@code student_activity} row, mirroring the {@code uk_student_activity} constraint.
+ * <p>
+ * The student id and the day are held as primitives: a key is built and hashed for every buffered or
+ * ingested click, and a boxed id plus a {@code LocalDate} would cost two more objects each time.
+ */
+public record ActivityKey(long studentId, String courseCode, String moduleCode, int epochDay) {
+
+    /**
+     * Column order of {@code uk_student_activity}; writers that touch several rows in one transaction
+     * apply them in this order so concurrent batches lock index entries in the same sequence.
+     */
+    public static final Comparator<ActivityKey> INDEX_ORDER = Comparator
+            .comparingLong(ActivityKey::studentId)
+            .thenComparing(ActivityKey::courseCode)
+            .thenComparing(ActivityKey::moduleCode)
+            .thenComparingInt(ActivityKey::epochDay);
+
+    public ActivityKey(long studentId, String courseCode, String moduleCode, LocalDate date) {
+        this(studentId, courseCode, moduleCode, Math.toIntExact(date.toEpochDay()));
+    }
+
+    public LocalDate date() {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+}
@@ -0,0 +1,14 @@
+package pack.activityservice.model;
+
+import java.time.LocalDate;
+
+/**
+ * One RANGE COLUMNS partition of {@code student_activity}, holding dates before {@code lessThan};
+ * a null bound is the MAXVALUE catch-all.
+ */
+public record ActivityPartition(String name, LocalDate lessThan) {
+
+    public boolean isCatchAll() {
+        return lessThan == null;
+    }
+}
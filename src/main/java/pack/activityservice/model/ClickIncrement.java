@@ -0,0 +1,8 @@
+package pack.activityservice.model;
+
+/**
+ * A number of clicks to add to the activity row identified by {@code key}, or to store in place of its sum
+ * clicks when replacing.
+ */
+public record ClickIncrement(ActivityKey key, int clicks) {
+}
@@ -0,0 +1,7 @@
+package pack.activityservice.model;
+
+/**
+ * One presentation of a course, a course code taught in one module code.
+ */
+public record CourseKey(String courseCode, String moduleCode) {
+}
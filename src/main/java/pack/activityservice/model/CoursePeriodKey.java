@@ -0,0 +1,30 @@
+package pack.activityservice.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Comparator;
+
+/**
+ * A day or an ISO week of one course presentation, weeks being identified by their Monday.
+ */
+public record CoursePeriodKey(String courseCode, String moduleCode, LocalDate periodStart) {
+
+    // Primary key order of the rollup tables, used to lock rollup rows in the same sequence in every transaction
+    public static final Comparator<CoursePeriodKey> INDEX_ORDER = Comparator
+            .comparing(CoursePeriodKey::courseCode)
+            .thenComparing(CoursePeriodKey::moduleCode)
+            .thenComparing(CoursePeriodKey::periodStart);
+
+    public static CoursePeriodKey day(ActivityKey key) {
+        return new CoursePeriodKey(key.courseCode(), key.moduleCode(), key.date());
+    }
+
+    public static CoursePeriodKey week(ActivityKey key) {
+        return new CoursePeriodKey(key.courseCode(), key.moduleCode(), weekStart(key.date()));
+    }
+
+    public static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
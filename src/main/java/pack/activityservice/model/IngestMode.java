@@ -0,0 +1,24 @@
+package pack.activityservice.model;
+
+import pack.activityservice.exception.InvalidRequestException;
+
+import java.util.Locale;
+
+/**
+ * How bulk-ingested rows are written. {@code REPLACE} stores the sum clicks of each row, the last row of a
+ * key winning, so running an import again or retrying part of it leaves the same values; {@code ADD} adds
+ * every row to what is stored, for inputs that append to existing activities.
+ */
+public enum IngestMode {
+
+    REPLACE,
+    ADD;
+
+    public static IngestMode fromParameter(String value) {
+        try {
+            return IngestMode.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("Unsupported ingest mode: " + value + ", expected replace or add");
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package pack.activityservice.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Bloom filter over long values: {@link #mightContain} is false only for values never {@link #put}.
+ * <p>
+ * Sized from the expected number of values and the wanted false-positive rate, within a memory budget that
+ * wins when both cannot be met. Bits are set with atomic ORs and read with acquire semantics, so any number
+ * of threads can add and query at once and a value is found as soon as its put returned.
+ */
+public final class LongBloomFilter {
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final double LN2 = Math.log(2);
+
+    private final long[] words;
+    private final long bitCount;
+    private final int hashCount;
+
+    private LongBloomFilter(long bitCount, int hashCount) {
+        this.words = new long[Math.toIntExact((bitCount + Long.SIZE - 1) / Long.SIZE)];
+        this.bitCount = (long) words.length * Long.SIZE;
+        this.hashCount = hashCount;
+    }
+
+    public static LongBloomFilter create(long expectedValues, double falsePositiveRate, long maxBytes) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long values = Math.max(1, expectedValues);
+        long optimalBits = (long) Math.ceil(-values * Math.log(falsePositiveRate) / (LN2 * LN2));
+        long bits = Math.max(Long.SIZE, Math.min(optimalBits, maxBytes * Byte.SIZE));
+        int hashes = (int) Math.max(1, Math.min(16, Math.round((double) bits / values * LN2)));
+        return new LongBloomFilter(bits, hashes);
+    }
+
+    public void put(long value) {
+        long hash = mix(value);
+        long step = mix(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(hash, bitCount);
+            WORDS.getAndBitwiseOr(words, (int) (bit >>> 6), 1L << bit);
+            hash += step;
+        }
+    }
+
+    public boolean mightContain(long value) {
+        long hash = mix(value);
+        long step = mix(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(hash, bitCount);
+            if (((long) WORDS.getAcquire(words, (int) (bit >>> 6)) & 1L << bit) == 0) {
+                return false;
+            }
+            hash += step;
+        }
+        return true;
+    }
+
+    public long byteSize() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    // False-positive rate once the filter holds this many values
+    public double expectedFalsePositiveRate(long values) {
+        return Math.pow(1 - Math.exp(-(double) hashCount * values / bitCount), hashCount);
+    }
+
+    // SplitMix64 finalizer: sequential ids spread over the whole bit array
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
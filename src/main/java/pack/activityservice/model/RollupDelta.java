@@ -0,0 +1,15 @@
+package pack.activityservice.model;
+
+/**
+ * Change to apply to one rollup row.
+ */
+public record RollupDelta(long clicks, int activeStudents) {
+
+    public RollupDelta plus(RollupDelta other) {
+        return new RollupDelta(clicks + other.clicks, activeStudents + other.activeStudents);
+    }
+
+    public boolean isZero() {
+        return clicks == 0 && activeStudents == 0;
+    }
+}
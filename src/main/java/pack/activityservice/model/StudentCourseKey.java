@@ -0,0 +1,11 @@
+package pack.activityservice.model;
+
+/**
+ * A student's enrolment in one course presentation.
+ */
+public record StudentCourseKey(Long studentId, String courseCode, String moduleCode) {
+
+    public static StudentCourseKey of(ActivityKey key) {
+        return new StudentCourseKey(key.studentId(), key.courseCode(), key.moduleCode());
+    }
+}
@@ -0,0 +1,11 @@
+package pack.activityservice.model;
+
+/**
+ * All clicks of a student in one course presentation.
+ */
+public record StudentCourseTotal(Long studentId, String courseCode, String moduleCode, Long totalClicks) {
+
+    public StudentCourseTotal(Long studentId, CourseKey courseModule, Long totalClicks) {
+        this(studentId, courseModule.courseCode(), courseModule.moduleCode(), totalClicks);
+    }
+}
@@ -0,0 +1,151 @@
+package pack.activityservice.model;
+
+import pack.activityservice.dto.StudentActivityDTO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every activity row of one student in {@code (date, id)} order, held column by column in primitive
+ * arrays: a row costs 18 bytes instead of a boxed DTO with its own strings and {@code LocalDate}. Course
+ * and module codes are stored once per student and referenced by index.
+ * <p>
+ * Instances are immutable; {@link #withClicks} returns an updated copy.
+ */
+public final class StudentTimeline {
+
+    private final long studentId;
+    private final int[] epochDays;
+    private final long[] ids;
+    private final int[] clicks;
+    private final short[] courseIndexes;
+    private final String[] courseCodes;
+    private final String[] moduleCodes;
+
+    private StudentTimeline(long studentId, int[] epochDays, long[] ids, int[] clicks,
+                            short[] courseIndexes, String[] courseCodes, String[] moduleCodes) {
+        this.studentId = studentId;
+        this.epochDays = epochDays;
+        this.ids = ids;
+        this.clicks = clicks;
+        this.courseIndexes = courseIndexes;
+        this.courseCodes = courseCodes;
+        this.moduleCodes = moduleCodes;
+    }
+
+    /**
+     * Builds the timeline of a student from all of their rows, which must be ordered by date and id.
+     */
+    public static StudentTimeline of(long studentId, List<StudentActivityDTO> rows) {
+        int size = rows.size();
+        int[] epochDays = new int[size];
+        long[] ids = new long[size];
+        int[] clicks = new int[size];
+        short[] courseIndexes = new short[size];
+        List<String> courseCodes = new ArrayList<>();
+        List<String> moduleCodes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            StudentActivityDTO row = rows.get(i);
+            epochDays[i] = (int) row.getDate().toEpochDay();
+            ids[i] = row.getId();
+            clicks[i] = row.getSumClicks();
+            int course = indexOf(courseCodes, moduleCodes, row.getCourseCode(), row.getModuleCode());
+            if (course < 0) {
+                course = courseCodes.size();
+                courseCodes.add(row.getCourseCode());
+                moduleCodes.add(row.getModuleCode());
+            }
+            courseIndexes[i] = (short) course;
+        }
+        return new StudentTimeline(studentId, epochDays, ids, clicks, courseIndexes,
+                courseCodes.toArray(String[]::new), moduleCodes.toArray(String[]::new));
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Rows after {@code (afterDate, afterId)} up to and including {@code endDate}, at most {@code limit} of
+     * them: the same rows, in the same order, as {@code findStudentDateRangePage}.
+     */
+    public List<StudentActivityDTO> range(LocalDate afterDate, long afterId, LocalDate endDate, int limit) {
+        long endDay = endDate.toEpochDay();
+        int from = firstAfter(afterDate.toEpochDay(), afterId);
+        List<StudentActivityDTO> rows = new ArrayList<>(Math.max(0, Math.min(limit, ids.length - from)));
+        for (int i = from; i < ids.length && rows.size() < limit && epochDays[i] <= endDay; i++) {
+            rows.add(new StudentActivityDTO(ids[i], studentId, courseCodes[courseIndexes[i]],
+                    moduleCodes[courseIndexes[i]], LocalDate.ofEpochDay(epochDays[i]), clicks[i]));
+        }
+        return rows;
+    }
+
+    /**
+     * A copy with the click count of the row with the given key replaced, or {@code null} if the timeline
+     * has no such row.
+     */
+    public StudentTimeline withClicks(ActivityKey key, int newClicks) {
+        long day = key.epochDay();
+        for (int i = firstAfter(day - 1, Long.MAX_VALUE); i < ids.length && epochDays[i] == day; i++) {
+            if (courseCodes[courseIndexes[i]].equals(key.courseCode())
+                    && moduleCodes[courseIndexes[i]].equals(key.moduleCode())) {
+                int[] updated = clicks.clone();
+                updated[i] = newClicks;
+                return new StudentTimeline(studentId, epochDays, ids, updated, courseIndexes, courseCodes, moduleCodes);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Heap retained by this timeline on a 64-bit JVM with compressed references, for cache weighing.
+     */
+    public long estimatedBytes() {
+        long rows = ids.length;
+        long bytes = align(12 + 8 + 6 * 4)
+                + arrayBytes(4 * rows) + arrayBytes(8 * rows) + arrayBytes(4 * rows) + arrayBytes(2 * rows)
+                + 2 * arrayBytes(4L * courseCodes.length);
+        for (int i = 0; i < courseCodes.length; i++) {
+            bytes += stringBytes(courseCodes[i]) + stringBytes(moduleCodes[i]);
+        }
+        return bytes;
+    }
+
+    // Index of the first row ordered after (day, id)
+    private int firstAfter(long day, long id) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < day || (epochDays[mid] == day && ids[mid] <= id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int indexOf(List<String> courseCodes, List<String> moduleCodes, String courseCode, String moduleCode) {
+        for (int i = 0; i < courseCodes.size(); i++) {
+            if (courseCodes.get(i).equals(courseCode) && moduleCodes.get(i).equals(moduleCode)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long arrayBytes(long payload) {
+        return align(16 + payload);
+    }
+
+    // Compact Latin-1 strings: the String object plus its byte[]
+    private static long stringBytes(String value) {
+        return align(24) + arrayBytes(value.length());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
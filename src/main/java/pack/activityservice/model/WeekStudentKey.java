@@ -0,0 +1,13 @@
+package pack.activityservice.model;
+
+import java.util.Comparator;
+
+/**
+ * A student's membership in one ISO week of a course presentation.
+ */
+public record WeekStudentKey(CoursePeriodKey week, Long studentId) {
+
+    public static final Comparator<WeekStudentKey> INDEX_ORDER = Comparator
+            .comparing(WeekStudentKey::week, CoursePeriodKey.INDEX_ORDER)
+            .thenComparing(WeekStudentKey::studentId);
+}
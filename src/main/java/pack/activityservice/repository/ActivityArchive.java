@@ -0,0 +1,412 @@
+package pack.activityservice.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import pack.activityservice.config.ArchiveProperties;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.model.CourseKey;
+import pack.activityservice.model.StudentCourseTotal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Archived {@code student_activity} rows: the {@link ArchiveSegment} files of the archive directory,
+ * memory-mapped when the application starts and as the archival job writes them.
+ * <p>
+ * The directory is shared by every instance, and only one of them archives. The others rescan it every
+ * {@code rescan-interval}, opening the segments written since and dropping those that were removed.
+ * Once the directory exists, every instance rejects writes dated before the hot period, so an archived
+ * month never changes again.
+ * <p>
+ * Listings merge these rows with live ones in (date, id) order, and list a row found in both once.
+ * Totals count archived rows from a {@link Snapshot} and live rows from its {@link Snapshot#boundary()}
+ * on, which stays exact while the archiver has a month both in a segment and in the table.
+ */
+@Component
+public class ActivityArchive implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityArchive.class);
+
+    public static final Comparator<StudentActivityDTO> LISTING_ORDER = Comparator
+            .comparing(StudentActivityDTO::getDate)
+            .thenComparing(StudentActivityDTO::getId);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final Path directory;
+    private final ArchiveProperties properties;
+
+    // Copied on write and ordered by first date; segments are few and read far more often than added
+    private volatile List<ArchiveSegment> segments = List.of();
+    private volatile boolean inUse;
+    private volatile ScheduledExecutorService scheduler;
+
+    public ActivityArchive(ArchiveProperties properties) {
+        this.directory = properties.getDirectory();
+        this.properties = properties;
+        this.inUse = properties.isEnabled() || Files.isDirectory(directory);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<ArchiveSegment> opened = new ArrayList<>();
+        long rows = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                ArchiveSegment segment = ArchiveSegment.open(file);
+                opened.add(segment);
+                rows += segment.size();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open activity archive " + directory, ex);
+        }
+        opened.sort(Comparator.comparing(ArchiveSegment::firstDate));
+        segments = List.copyOf(opened);
+        log.info("Opened {} activity archive segments with {} rows from {}", opened.size(), rows, directory);
+    }
+
+    /**
+     * Opens the segments added to the directory since the last scan and drops those no longer in it,
+     * and returns whether anything changed. A segment that cannot be opened is retried at the next scan.
+     */
+    public boolean rescan() {
+        inUse = properties.isEnabled() || Files.isDirectory(directory);
+        if (!Files.isDirectory(directory)) {
+            return false;
+        }
+        synchronized (this) {
+            Map<Path, ArchiveSegment> current = new HashMap<>();
+            segments.forEach(segment -> current.put(segment.file(), segment));
+            List<ArchiveSegment> scanned = new ArrayList<>();
+            int added = 0;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    ArchiveSegment segment = current.get(file);
+                    if (segment == null) {
+                        try {
+                            segment = ArchiveSegment.open(file);
+                            added++;
+                        } catch (IOException ex) {
+                            log.warn("Failed to open activity archive segment {}, retrying at the next scan", file, ex);
+                            continue;
+                        }
+                    }
+                    scanned.add(segment);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to scan activity archive " + directory, ex);
+            }
+            int removed = segments.size() - (scanned.size() - added);
+            if (added == 0 && removed == 0) {
+                return false;
+            }
+            scanned.sort(Comparator.comparing(ArchiveSegment::firstDate));
+            segments = List.copyOf(scanned);
+            log.info("Rescanned activity archive {}: {} segments opened, {} dropped", directory, added, removed);
+            return true;
+        }
+    }
+
+    // Only the archiving instance may call this: on a shared directory another instance's temp file is a segment being written
+    public void deleteTemporaryFiles() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + TEMP_SUFFIX)) {
+            for (Path file : files) {
+                // Left over by an archival run that never got to register it
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Whether writes dated on this day are rejected: once archiving is in use, months that ended before
+     * the hot period are read-only on every instance, whether or not they are archived yet.
+     */
+    public boolean isReadOnly(LocalDate date) {
+        return inUse && date.isBefore(LocalDate.now().minus(properties.getHotPeriod()).withDayOfMonth(1));
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(segments);
+    }
+
+    // Whether no segment was opened or dropped since the snapshot was taken
+    public boolean isCurrent(Snapshot snapshot) {
+        return snapshot.segments == segments;
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    public boolean covers(LocalDate startDate, LocalDate endDate) {
+        return snapshot().covers(startDate, endDate);
+    }
+
+    public Iterator<StudentActivityDTO> courseRows(CourseKey course, LocalDate afterDate, long afterId, LocalDate endDate) {
+        return snapshot().courseRows(course, afterDate, afterId, endDate);
+    }
+
+    public Iterator<StudentActivityDTO> studentRows(long studentId, LocalDate afterDate, long afterId, LocalDate endDate) {
+        return snapshot().studentRows(studentId, afterDate, afterId, endDate);
+    }
+
+    public StudentActivityDTO findById(long id) {
+        return snapshot().findById(id);
+    }
+
+    /**
+     * Starts a segment of the month in a temporary file, laid out for the given number of rows per course.
+     */
+    public ArchiveSegmentWriter newSegment(YearMonth month, List<CourseKey> courses, int[] courseRowCounts) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = directory.resolve("student_activity_" + MONTH_FORMAT.format(month) + TEMP_SUFFIX);
+        return new ArchiveSegmentWriter(temp, month.atDay(1), courses, courseRowCounts);
+    }
+
+    /**
+     * Finishes a segment started by {@link #newSegment} and makes its rows readable, before the caller deletes
+     * them from the table. The file name is derived from the rows, so a retried run replaces its own segment.
+     */
+    public ArchiveSegment publish(YearMonth month, ArchiveSegmentWriter writer) throws IOException {
+        writer.finish();
+        writer.close();
+        String name = "student_activity_" + MONTH_FORMAT.format(month) + "_" + writer.minId() + "-" + writer.maxId();
+        Path file = directory.resolve(name + SEGMENT_SUFFIX);
+        Files.move(writer.file(), file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        ArchiveSegment segment = ArchiveSegment.open(file);
+        synchronized (this) {
+            List<ArchiveSegment> updated = new ArrayList<>(segments);
+            updated.removeIf(existing -> existing.file().equals(file));
+            updated.add(segment);
+            updated.sort(Comparator.comparing(ArchiveSegment::firstDate));
+            segments = List.copyOf(updated);
+        }
+        return segment;
+    }
+
+    private void rescanQuietly() {
+        try {
+            rescan();
+        } catch (RuntimeException ex) {
+            log.error("Failed to rescan activity archive {}, keeping the current segments", directory, ex);
+        }
+    }
+
+    @Override
+    public void start() {
+        long intervalMillis = properties.getRescanInterval().toMillis();
+        if (intervalMillis <= 0 || scheduler != null) {
+            return;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "activity-archive-rescan");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::rescanQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        scheduler = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        if (executor != null) {
+            scheduler = null;
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * The segments at one point in time, read without locking however many segments are added meanwhile.
+     */
+    public static final class Snapshot {
+
+        private final List<ArchiveSegment> segments;
+
+        private Snapshot(List<ArchiveSegment> segments) {
+            this.segments = segments;
+        }
+
+        public boolean isEmpty() {
+            return segments.isEmpty();
+        }
+
+        /**
+         * First day of the month after the newest segment, or null without segments. Every archived row is
+         * dated before it, and the table only still holds rows before it while they are being archived.
+         */
+        public LocalDate boundary() {
+            LocalDate boundary = null;
+            for (ArchiveSegment segment : segments) {
+                LocalDate next = segment.lastDate().withDayOfMonth(1).plusMonths(1);
+                if (boundary == null || next.isAfter(boundary)) {
+                    boundary = next;
+                }
+            }
+            return boundary;
+        }
+
+        // Whether archived rows can fall between the dates; a null bound is open
+        public boolean covers(LocalDate startDate, LocalDate endDate) {
+            long afterDay = startDate == null ? Long.MIN_VALUE : startDate.toEpochDay();
+            long endDay = endDate == null ? Long.MAX_VALUE : endDate.toEpochDay();
+            for (ArchiveSegment segment : segments) {
+                if (segment.overlaps(afterDay, endDay)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // A course's archived rows after (afterDate, afterId) up to endDate, in listing order; null dates are open
+        public Iterator<StudentActivityDTO> courseRows(CourseKey course, LocalDate afterDate, long afterId, LocalDate endDate) {
+            long afterDay = afterDate == null ? Long.MIN_VALUE : afterDate.toEpochDay();
+            long endDay = endDate == null ? Long.MAX_VALUE : endDate.toEpochDay();
+            List<Iterator<StudentActivityDTO>> sources = new ArrayList<>();
+            for (ArchiveSegment segment : segments) {
+                if (segment.overlaps(afterDay, endDay)) {
+                    sources.add(segment.courseRows(course, afterDay, afterId, endDay));
+                }
+            }
+            return merge(sources);
+        }
+
+        // A student's archived rows after (afterDate, afterId) up to endDate, in listing order; null dates are open
+        public Iterator<StudentActivityDTO> studentRows(long studentId, LocalDate afterDate, long afterId, LocalDate endDate) {
+            long afterDay = afterDate == null ? Long.MIN_VALUE : afterDate.toEpochDay();
+            long endDay = endDate == null ? Long.MAX_VALUE : endDate.toEpochDay();
+            List<Iterator<StudentActivityDTO>> sources = new ArrayList<>();
+            for (ArchiveSegment segment : segments) {
+                if (segment.overlaps(afterDay, endDay)) {
+                    sources.add(segment.studentRows(studentId, afterDay, afterId, endDay));
+                }
+            }
+            return merge(sources);
+        }
+
+        // The archived row with this id, or null
+        public StudentActivityDTO findById(long id) {
+            for (ArchiveSegment segment : segments) {
+                StudentActivityDTO row = segment.findById(id);
+                if (row != null) {
+                    return row;
+                }
+            }
+            return null;
+        }
+
+        // Archived clicks of a student, in every course or in one when course is not null
+        public long studentTotal(long studentId, CourseKey course) {
+            long total = 0;
+            for (ArchiveSegment segment : segments) {
+                Iterator<StudentActivityDTO> rows = segment.studentRows(studentId, Long.MIN_VALUE, 0L, Long.MAX_VALUE);
+                while (rows.hasNext()) {
+                    StudentActivityDTO row = rows.next();
+                    if (course == null || course.courseCode().equals(row.getCourseCode())
+                                          && course.moduleCode().equals(row.getModuleCode())) {
+                        total += row.getSumClicks();
+                    }
+                }
+            }
+            return total;
+        }
+
+        // Archived clicks per student and course, once per segment a student has rows in
+        public void forEachStudentCourseTotal(Consumer<StudentCourseTotal> action) {
+            segments.forEach(segment -> segment.forEachStudentCourseTotal(action));
+        }
+    }
+
+    /**
+     * Merges sources that are each in listing order. Rows with the same date and id are listed once,
+     * taken from the earliest source, so pass live rows first.
+     */
+    public static Iterator<StudentActivityDTO> merge(List<Iterator<StudentActivityDTO>> sources) {
+        return new MergedRows(sources);
+    }
+
+    public static List<StudentActivityDTO> take(Iterator<StudentActivityDTO> rows, int limit) {
+        List<StudentActivityDTO> taken = new ArrayList<>(Math.min(limit, 1024));
+        while (taken.size() < limit && rows.hasNext()) {
+            taken.add(rows.next());
+        }
+        return taken;
+    }
+
+    private static final class MergedRows implements Iterator<StudentActivityDTO> {
+
+        private record Head(StudentActivityDTO row, int source) {
+        }
+
+        private final List<Iterator<StudentActivityDTO>> sources;
+        private final PriorityQueue<Head> heads = new PriorityQueue<>(Comparator
+                .comparing(Head::row, LISTING_ORDER)
+                .thenComparingInt(Head::source));
+        private StudentActivityDTO last;
+
+        MergedRows(List<Iterator<StudentActivityDTO>> sources) {
+            this.sources = sources;
+            for (int source = 0; source < sources.size(); source++) {
+                advance(source);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!heads.isEmpty() && last != null && LISTING_ORDER.compare(heads.peek().row(), last) == 0) {
+                advance(heads.poll().source());
+            }
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public StudentActivityDTO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Head head = heads.poll();
+            advance(head.source());
+            last = head.row();
+            return last;
+        }
+
+        private void advance(int source) {
+            Iterator<StudentActivityDTO> rows = sources.get(source);
+            if (rows.hasNext()) {
+                heads.add(new Head(rows.next(), source));
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package pack.activityservice.repository;
+
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.model.CourseKey;
+import pack.activityservice.model.StudentCourseTotal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Read-only, memory-mapped file of archived {@code student_activity} rows, stored column by column.
+ * <p>
+ * Layout: a header (magic, row count, first and last epoch day, base epoch day, course count), then the
+ * columns in id order: ids and student ids as longs, clicks as ints, dates as unsigned 16-bit offsets from
+ * the base day and courses as unsigned 16-bit indexes into the course table. Two indexes of row numbers
+ * follow, one in (course, date, id) and one in (student, date, id) order, and finally the course table
+ * (end of the course's slice of the course index, course code, module code). Every column is fixed width,
+ * so rows are read in place and nothing is decoded up front: an id is a binary search of the id column,
+ * a course's or a student's date range a binary search of an index and a slice of it.
+ * Reads only use absolute positions and are safe from any number of threads.
+ */
+public class ArchiveSegment {
+
+    static final int MAGIC = 0x53414332;
+    static final int HEADER_SIZE = 24;
+    static final int ROW_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES + Character.BYTES + Character.BYTES
+                                + Integer.BYTES + Integer.BYTES;
+    static final int MAX_DAY_OFFSET = Character.MAX_VALUE;
+    static final int MAX_COURSES = Character.MAX_VALUE + 1;
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int rowCount;
+    private final int firstDay;
+    private final int lastDay;
+    private final int baseDay;
+    private final int studentIdsOffset;
+    private final int clicksOffset;
+    private final int daysOffset;
+    private final int coursesOffset;
+    private final int courseOrderOffset;
+    private final int studentOrderOffset;
+    private final CourseKey[] courses;
+    private final int[] courseEnds;
+    private final Map<CourseKey, Integer> courseIndex;
+
+    private ArchiveSegment(Path file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an archive segment: " + file);
+        }
+        rowCount = buffer.getInt(4);
+        firstDay = buffer.getInt(8);
+        lastDay = buffer.getInt(12);
+        baseDay = buffer.getInt(16);
+        int courseCount = buffer.getInt(20);
+        studentIdsOffset = HEADER_SIZE + rowCount * Long.BYTES;
+        clicksOffset = studentIdsOffset + rowCount * Long.BYTES;
+        daysOffset = clicksOffset + rowCount * Integer.BYTES;
+        coursesOffset = daysOffset + rowCount * Character.BYTES;
+        courseOrderOffset = coursesOffset + rowCount * Character.BYTES;
+        studentOrderOffset = courseOrderOffset + rowCount * Integer.BYTES;
+
+        courses = new CourseKey[courseCount];
+        courseEnds = new int[courseCount];
+        courseIndex = new HashMap<>(courseCount * 2);
+        int position = studentOrderOffset + rowCount * Integer.BYTES;
+        try {
+            for (int course = 0; course < courseCount; course++) {
+                courseEnds[course] = buffer.getInt(position);
+                position += Integer.BYTES;
+                String courseCode = readString(position);
+                position += Short.BYTES + buffer.getShort(position);
+                String moduleCode = readString(position);
+                position += Short.BYTES + buffer.getShort(position);
+                courses[course] = new CourseKey(courseCode, moduleCode);
+                courseIndex.put(courses[course], course);
+            }
+        } catch (IndexOutOfBoundsException ex) {
+            throw new IOException("Truncated archive segment: " + file, ex);
+        }
+    }
+
+    public static ArchiveSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new ArchiveSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    public LocalDate firstDate() {
+        return LocalDate.ofEpochDay(firstDay);
+    }
+
+    public LocalDate lastDate() {
+        return LocalDate.ofEpochDay(lastDay);
+    }
+
+    // Whether rows after day afterDay and up to endDay can be in this segment
+    boolean overlaps(long afterDay, long endDay) {
+        return lastDay >= afterDay && firstDay <= endDay;
+    }
+
+    // Every row in id order
+    public Iterator<StudentActivityDTO> rows() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < rowCount;
+            }
+
+            @Override
+            public StudentActivityDTO next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return row(next++);
+            }
+        };
+    }
+
+    // The row with this id, or null
+    StudentActivityDTO findById(long id) {
+        int row = rowOf(id);
+        return row < 0 ? null : row(row);
+    }
+
+    // A course's rows after (afterDay, afterId) up to endDay, in (date, id) order
+    Iterator<StudentActivityDTO> courseRows(CourseKey course, long afterDay, long afterId, long endDay) {
+        Integer index = courseIndex.get(course);
+        if (index == null) {
+            return Collections.emptyIterator();
+        }
+        int start = index == 0 ? 0 : courseEnds[index - 1];
+        return slice(courseOrderOffset, start, courseEnds[index], afterDay, afterId, endDay);
+    }
+
+    // A student's rows after (afterDay, afterId) up to endDay, in (date, id) order
+    Iterator<StudentActivityDTO> studentRows(long studentId, long afterDay, long afterId, long endDay) {
+        int start = studentStart(studentId);
+        int end = studentId == Long.MAX_VALUE ? rowCount : studentStart(studentId + 1);
+        return slice(studentOrderOffset, start, end, afterDay, afterId, endDay);
+    }
+
+    // Clicks per student of every course, summed over the course's slice of the course index
+    void forEachStudentCourseTotal(Consumer<StudentCourseTotal> action) {
+        Map<Long, Long> totals = new HashMap<>();
+        int start = 0;
+        for (int course = 0; course < courses.length; course++) {
+            for (int position = start; position < courseEnds[course]; position++) {
+                int row = rowAt(courseOrderOffset, position);
+                totals.merge(studentId(row), (long) buffer.getInt(clicksOffset + row * Integer.BYTES), Long::sum);
+            }
+            CourseKey key = courses[course];
+            totals.forEach((studentId, clicks) -> action.accept(new StudentCourseTotal(studentId, key, clicks)));
+            totals.clear();
+            start = courseEnds[course];
+        }
+    }
+
+    // Rows of an index slice in (date, id) order, starting after (afterDay, afterId) and ending after endDay
+    private Iterator<StudentActivityDTO> slice(int indexOffset, int start, int end, long afterDay, long afterId, long endDay) {
+        int low = start;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (isAfter(rowAt(indexOffset, mid), afterDay, afterId)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        int first = low;
+        return new Iterator<>() {
+            private int next = first;
+
+            @Override
+            public boolean hasNext() {
+                return next < end && day(rowAt(indexOffset, next)) <= endDay;
+            }
+
+            @Override
+            public StudentActivityDTO next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return row(rowAt(indexOffset, next++));
+            }
+        };
+    }
+
+    // First position of the student index holding this student or a later one
+    private int studentStart(long studentId) {
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (studentId(rowAt(studentOrderOffset, mid)) >= studentId) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    // Row number of an id, or -1
+    private int rowOf(long id) {
+        int low = 0;
+        int high = rowCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = id(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isAfter(int row, long afterDay, long afterId) {
+        int day = day(row);
+        return day > afterDay || day == afterDay && id(row) > afterId;
+    }
+
+    private int rowAt(int indexOffset, int position) {
+        return buffer.getInt(indexOffset + position * Integer.BYTES);
+    }
+
+    private long id(int row) {
+        return buffer.getLong(HEADER_SIZE + row * Long.BYTES);
+    }
+
+    private long studentId(int row) {
+        return buffer.getLong(studentIdsOffset + row * Long.BYTES);
+    }
+
+    private int day(int row) {
+        return baseDay + buffer.getChar(daysOffset + row * Character.BYTES);
+    }
+
+    private StudentActivityDTO row(int row) {
+        return new StudentActivityDTO(id(row),
+                studentId(row),
+                courses[buffer.getChar(coursesOffset + row * Character.BYTES)],
+                LocalDate.ofEpochDay(day(row)),
+                buffer.getInt(clicksOffset + row * Integer.BYTES));
+    }
+
+    private String readString(int position) {
+        byte[] bytes = new byte[buffer.getShort(position)];
+        buffer.get(position + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return file.getFileName() + " [" + firstDate() + ", " + lastDate() + "]";
+    }
+}
@@ -0,0 +1,248 @@
+package pack.activityservice.repository;
+
+import pack.activityservice.model.CourseKey;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes one {@link ArchiveSegment} straight into its memory-mapped file, so no month is ever held in memory.
+ * <p>
+ * The courses and their row counts are given up front, which fixes the layout of the file. The rows are
+ * then added in three passes, each of which may arrive in any number of chunks: every row in id order,
+ * then the ids of each course in (date, id) order, course after course, then every id in
+ * (student, date, id) order. Each pass is checked against the rows of the first one.
+ */
+public class ArchiveSegmentWriter implements Closeable {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int rowCount;
+    private final int baseDay;
+    private final List<CourseKey> courses;
+    private final int[] courseEnds;
+    private final int studentIdsOffset;
+    private final int clicksOffset;
+    private final int daysOffset;
+    private final int coursesOffset;
+    private final int courseOrderOffset;
+    private final int studentOrderOffset;
+
+    private int rows;
+    private int courseOrdered;
+    private int currentCourse;
+    private int studentOrdered;
+    private int minDay = Integer.MAX_VALUE;
+    private int maxDay = Integer.MIN_VALUE;
+
+    /**
+     * Creates the file, laid out for {@code courseRowCounts[i]} rows of {@code courses.get(i)}; dates are
+     * stored as days from {@code baseDate}.
+     */
+    public ArchiveSegmentWriter(Path file, LocalDate baseDate, List<CourseKey> courses, int[] courseRowCounts) throws IOException {
+        if (courses.size() != courseRowCounts.length) {
+            throw new IllegalArgumentException("Every course needs a row count");
+        }
+        if (courses.size() > ArchiveSegment.MAX_COURSES) {
+            throw new IllegalArgumentException("An archive segment holds at most " + ArchiveSegment.MAX_COURSES + " courses");
+        }
+        this.file = file;
+        this.baseDay = Math.toIntExact(baseDate.toEpochDay());
+        this.courses = List.copyOf(courses);
+        this.courseEnds = new int[courseRowCounts.length];
+        long total = 0;
+        long courseTableSize = 0;
+        List<byte[]> encodedCourses = new ArrayList<>(courses.size() * 2);
+        for (int course = 0; course < courseRowCounts.length; course++) {
+            total += courseRowCounts[course];
+            byte[] courseCode = courses.get(course).courseCode().getBytes(StandardCharsets.UTF_8);
+            byte[] moduleCode = courses.get(course).moduleCode().getBytes(StandardCharsets.UTF_8);
+            encodedCourses.add(courseCode);
+            encodedCourses.add(moduleCode);
+            courseTableSize += Integer.BYTES + Short.BYTES + courseCode.length + Short.BYTES + moduleCode.length;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("An archive segment needs at least one row");
+        }
+        long size = ArchiveSegment.HEADER_SIZE + total * ArchiveSegment.ROW_SIZE + courseTableSize;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Archive segment of " + total + " rows exceeds 2 GB");
+        }
+        this.rowCount = (int) total;
+        int end = 0;
+        for (int course = 0; course < courseRowCounts.length; course++) {
+            end += courseRowCounts[course];
+            courseEnds[course] = end;
+        }
+        studentIdsOffset = ArchiveSegment.HEADER_SIZE + rowCount * Long.BYTES;
+        clicksOffset = studentIdsOffset + rowCount * Long.BYTES;
+        daysOffset = clicksOffset + rowCount * Integer.BYTES;
+        coursesOffset = daysOffset + rowCount * Character.BYTES;
+        courseOrderOffset = coursesOffset + rowCount * Character.BYTES;
+        studentOrderOffset = courseOrderOffset + rowCount * Integer.BYTES;
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.position(studentOrderOffset + rowCount * Integer.BYTES);
+        for (int course = 0; course < courseEnds.length; course++) {
+            byte[] courseCode = encodedCourses.get(course * 2);
+            byte[] moduleCode = encodedCourses.get(course * 2 + 1);
+            buffer.putInt(courseEnds[course]);
+            buffer.putShort((short) courseCode.length).put(courseCode);
+            buffer.putShort((short) moduleCode.length).put(moduleCode);
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    public long minId() {
+        return id(0);
+    }
+
+    public long maxId() {
+        return id(rowCount - 1);
+    }
+
+    // First pass: every row, in id order; course is an index into the courses given to the constructor
+    public void addRow(long id, long studentId, int course, LocalDate date, int sumClicks) {
+        if (rows == rowCount) {
+            throw new IllegalStateException("More rows than the " + rowCount + " counted");
+        }
+        if (rows > 0 && id <= id(rows - 1)) {
+            throw new IllegalArgumentException("Rows are not in id order at id " + id);
+        }
+        int day = Math.toIntExact(date.toEpochDay());
+        if (day < baseDay || day - baseDay > ArchiveSegment.MAX_DAY_OFFSET) {
+            throw new IllegalArgumentException("Date " + date + " is out of range of the segment");
+        }
+        if (course < 0 || course >= courses.size()) {
+            throw new IllegalArgumentException("Unknown course index " + course);
+        }
+        buffer.putLong(ArchiveSegment.HEADER_SIZE + rows * Long.BYTES, id);
+        buffer.putLong(studentIdsOffset + rows * Long.BYTES, studentId);
+        buffer.putInt(clicksOffset + rows * Integer.BYTES, sumClicks);
+        buffer.putChar(daysOffset + rows * Character.BYTES, (char) (day - baseDay));
+        buffer.putChar(coursesOffset + rows * Character.BYTES, (char) course);
+        rows++;
+        minDay = Math.min(minDay, day);
+        maxDay = Math.max(maxDay, day);
+    }
+
+    // Second pass: the ids of each course in (date, id) order, in the order of the courses
+    public void addCourseOrder(long id) {
+        if (courseOrdered == rowCount) {
+            throw new IllegalStateException("More course rows than the " + rowCount + " counted");
+        }
+        int row = rowOf(id);
+        while (courseEnds[currentCourse] <= courseOrdered) {
+            currentCourse++;
+        }
+        if (course(row) != currentCourse) {
+            throw new IllegalArgumentException("Id " + id + " is not a row of " + courses.get(currentCourse));
+        }
+        int start = currentCourse == 0 ? 0 : courseEnds[currentCourse - 1];
+        if (courseOrdered > start && compareDateId(rowAt(courseOrderOffset, courseOrdered - 1), row) >= 0) {
+            throw new IllegalArgumentException("Rows of " + courses.get(currentCourse) + " are not in (date, id) order");
+        }
+        buffer.putInt(courseOrderOffset + courseOrdered * Integer.BYTES, row);
+        courseOrdered++;
+    }
+
+    // Third pass: every id in (student, date, id) order
+    public void addStudentOrder(long id) {
+        if (studentOrdered == rowCount) {
+            throw new IllegalStateException("More student rows than the " + rowCount + " counted");
+        }
+        int row = rowOf(id);
+        if (studentOrdered > 0) {
+            int previous = rowAt(studentOrderOffset, studentOrdered - 1);
+            int order = Long.compare(studentId(previous), studentId(row));
+            if (order > 0 || order == 0 && compareDateId(previous, row) >= 0) {
+                throw new IllegalArgumentException("Rows are not in (student, date, id) order at id " + id);
+            }
+        }
+        buffer.putInt(studentOrderOffset + studentOrdered * Integer.BYTES, row);
+        studentOrdered++;
+    }
+
+    /**
+     * Writes the header once every pass is complete and flushes the file to disk.
+     */
+    public void finish() throws IOException {
+        if (rows != rowCount || courseOrdered != rowCount || studentOrdered != rowCount) {
+            throw new IllegalStateException("Archive segment is incomplete: " + rows + " rows, " + courseOrdered
+                    + " in course order and " + studentOrdered + " in student order of " + rowCount);
+        }
+        buffer.putInt(0, ArchiveSegment.MAGIC)
+                .putInt(4, rowCount)
+                .putInt(8, minDay)
+                .putInt(12, maxDay)
+                .putInt(16, baseDay)
+                .putInt(20, courses.size());
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Row number of an id added in the first pass
+    private int rowOf(long id) {
+        if (rows != rowCount) {
+            throw new IllegalStateException("Every row must be added before the indexes");
+        }
+        int low = 0;
+        int high = rowCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = id(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        throw new IllegalArgumentException("Id " + id + " is not a row of the segment");
+    }
+
+    private int compareDateId(int row, int other) {
+        int order = Character.compare(buffer.getChar(daysOffset + row * Character.BYTES),
+                buffer.getChar(daysOffset + other * Character.BYTES));
+        return order != 0 ? order : Long.compare(id(row), id(other));
+    }
+
+    private int rowAt(int indexOffset, int position) {
+        return buffer.getInt(indexOffset + position * Integer.BYTES);
+    }
+
+    private long id(int row) {
+        return buffer.getLong(ArchiveSegment.HEADER_SIZE + row * Long.BYTES);
+    }
+
+    private long studentId(int row) {
+        return buffer.getLong(studentIdsOffset + row * Long.BYTES);
+    }
+
+    private int course(int row) {
+        return buffer.getChar(coursesOffset + row * Character.BYTES);
+    }
+}
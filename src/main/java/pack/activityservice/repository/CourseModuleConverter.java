@@ -0,0 +1,30 @@
+package pack.activityservice.repository;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import pack.activityservice.model.CourseKey;
+
+/**
+ * Maps {@code StudentActivity.courseModule} to its {@code course_module_id}. Created by Hibernate through
+ * Spring, so the dictionary is injected. Never registers a pair: that is {@link CourseModuleListener}'s job
+ * for entities, and query parameters of an unknown course must simply match nothing.
+ */
+@Converter
+public class CourseModuleConverter implements AttributeConverter<CourseKey, Integer> {
+
+    private final CourseModuleDictionary courseModules;
+
+    public CourseModuleConverter(CourseModuleDictionary courseModules) {
+        this.courseModules = courseModules;
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(CourseKey course) {
+        return course == null ? null : courseModules.find(course);
+    }
+
+    @Override
+    public CourseKey convertToEntityAttribute(Integer id) {
+        return id == null ? null : courseModules.get(id);
+    }
+}
@@ -0,0 +1,232 @@
+package pack.activityservice.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pack.activityservice.model.CourseKey;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Both directions of the {@code course_module} dictionary, loaded when the context starts, ahead of the
+ * leaderboards; refreshing the context does not touch the database.
+ * <p>
+ * {@code student_activity} stores a course presentation as a small integer id, converted back and forth
+ * here without a round trip. Only {@link #register} inserts a pair: write paths call it before storing
+ * rows of a new course, while reads of an unknown course bind {@link #UNKNOWN_ID} and match nothing.
+ * Pairs added by other instances are looked up on the first miss, and a course found missing is not
+ * looked up again for a few seconds. Misses run on the connection of the caller's transaction, so they
+ * never wait for a second pooled connection while holding one, and what they read inside a transaction is
+ * only cached once it commits: an id inserted by a transaction that rolls back is never seen by others.
+ */
+@Component
+public class CourseModuleDictionary implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CourseModuleDictionary.class);
+
+    // Identity columns start at 1
+    public static final int UNKNOWN_ID = 0;
+
+    // Load before CourseLeaderboard reads totals by course
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 16384;
+
+    // How long a course found missing is reported unknown without asking the database again
+    private static final Duration MISS_TTL = Duration.ofSeconds(5);
+
+    private static final String SELECT_ALL_SQL = "SELECT id, course_code, module_code FROM course_module";
+    private static final String SELECT_BY_CODES_SQL = "SELECT id FROM course_module WHERE course_code = ? AND module_code = ?";
+    // A locking read sees a pair committed by a concurrent registration after this transaction's snapshot
+    private static final String LOCK_BY_CODES_SQL = SELECT_BY_CODES_SQL + " FOR UPDATE";
+    private static final String SELECT_BY_ID_SQL = SELECT_ALL_SQL + " WHERE id = ?";
+    private static final String INSERT_SQL = "INSERT INTO course_module (course_code, module_code) VALUES (?, ?)";
+
+    private static final RowMapper<CourseKey> COURSE_MAPPER =
+            (rs, rowNum) -> new CourseKey(rs.getString(2), rs.getString(3));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentHashMap<CourseKey, Integer> ids = new ConcurrentHashMap<>();
+    private final Cache<CourseKey, Boolean> misses = Caffeine.newBuilder().expireAfterWrite(MISS_TTL).build();
+    private volatile CourseKey[] courses = new CourseKey[16];
+    private volatile boolean running;
+
+    public CourseModuleDictionary(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        jdbcTemplate.query(SELECT_ALL_SQL, rs -> {
+            put(rs.getInt(1), COURSE_MAPPER.mapRow(rs, 0));
+        });
+        running = true;
+        log.info("Loaded {} course modules", ids.size());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Id of a course presentation, or {@link #UNKNOWN_ID} if no row was ever written for it.
+     */
+    public int find(CourseKey course) {
+        Integer id = ids.get(course);
+        return id != null ? id : lookup(course, false);
+    }
+
+    /**
+     * Id of a course presentation, adding it to the dictionary if it is new.
+     */
+    public int register(CourseKey course) {
+        Integer id = ids.get(course);
+        return id != null ? id : lookup(course, true);
+    }
+
+    public CourseKey get(int id) {
+        CourseKey[] current = courses;
+        CourseKey course = id < current.length ? current[id] : null;
+        return course != null ? course : lookup(id);
+    }
+
+    /**
+     * The dictionary's own instance of a known course presentation, so that keys held in memory share
+     * their strings; an unknown one is returned as is.
+     */
+    public CourseKey canonical(String courseCode, String moduleCode) {
+        CourseKey course = new CourseKey(courseCode, moduleCode);
+        Integer id = ids.get(course);
+        return id != null ? courses[id] : course;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    private int lookup(CourseKey course, boolean insert) {
+        PendingCourses pending = pending(false);
+        Integer pendingId = pending != null ? pending.ids.get(course) : null;
+        if (pendingId != null) {
+            return pendingId;
+        }
+        if (!insert && misses.getIfPresent(course) != null) {
+            return UNKNOWN_ID;
+        }
+        int found = select(SELECT_BY_CODES_SQL, course);
+        if (found == UNKNOWN_ID && insert) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, course.courseCode(), course.moduleCode());
+            } catch (DuplicateKeyException ex) {
+                // Another transaction registered the same pair first
+            }
+            found = select(LOCK_BY_CODES_SQL, course);
+        }
+        if (found != UNKNOWN_ID) {
+            cache(found, course);
+        } else if (!insert) {
+            misses.put(course, Boolean.TRUE);
+        }
+        return found;
+    }
+
+    private CourseKey lookup(int id) {
+        PendingCourses pending = pending(false);
+        CourseKey pendingCourse = pending != null ? pending.courses.get(id) : null;
+        if (pendingCourse != null) {
+            return pendingCourse;
+        }
+        List<CourseKey> found = jdbcTemplate.query(SELECT_BY_ID_SQL, COURSE_MAPPER, id);
+        if (found.isEmpty()) {
+            throw new IllegalStateException("Unknown course module id: " + id);
+        }
+        CourseKey course = found.get(0);
+        cache(id, course);
+        return course;
+    }
+
+    private int select(String sql, CourseKey course) {
+        List<Integer> found = jdbcTemplate.queryForList(sql, Integer.class, course.courseCode(), course.moduleCode());
+        return found.isEmpty() ? UNKNOWN_ID : found.get(0);
+    }
+
+    // A pair read inside a transaction may be its own uncommitted insert, so it is only cached on commit
+    private void cache(int id, CourseKey course) {
+        PendingCourses pending = pending(true);
+        if (pending == null) {
+            put(id, course);
+        } else {
+            pending.ids.put(course, id);
+            pending.courses.put(id, course);
+        }
+    }
+
+    // Pairs read by the current transaction, or null outside one
+    private PendingCourses pending(boolean create) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingCourses pending = (PendingCourses) TransactionSynchronizationManager.getResource(this);
+        if (pending == null && create) {
+            pending = new PendingCourses();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    // The id to course direction is published first, so a key found in ids always resolves
+    private synchronized void put(int id, CourseKey course) {
+        CourseKey[] current = courses;
+        if (id >= current.length) {
+            current = Arrays.copyOf(current, Math.max(id + 1, current.length * 2));
+        }
+        current[id] = course;
+        courses = current;
+        ids.put(course, id);
+        misses.invalidate(course);
+    }
+
+    private final class PendingCourses implements TransactionSynchronization {
+
+        private final Map<CourseKey, Integer> ids = new HashMap<>();
+        private final Map<Integer, CourseKey> courses = new HashMap<>();
+
+        @Override
+        public void afterCommit() {
+            courses.forEach(CourseModuleDictionary.this::put);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CourseModuleDictionary.this);
+        }
+    }
+}
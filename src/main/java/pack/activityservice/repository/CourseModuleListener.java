@@ -0,0 +1,25 @@
+package pack.activityservice.repository;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import pack.activityservice.entity.StudentActivity;
+
+/**
+ * Registers the course presentation of an activity before its row is written.
+ */
+public class CourseModuleListener {
+
+    private final CourseModuleDictionary courseModules;
+
+    public CourseModuleListener(CourseModuleDictionary courseModules) {
+        this.courseModules = courseModules;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void registerCourseModule(StudentActivity activity) {
+        if (activity.getCourseModule() != null) {
+            courseModules.register(activity.getCourseModule());
+        }
+    }
+}
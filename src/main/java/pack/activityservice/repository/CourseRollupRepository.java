@@ -0,0 +1,42 @@
+package pack.activityservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pack.activityservice.dto.CourseRollupDTO;
+import pack.activityservice.entity.CourseDailyRollup;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CourseRollupRepository extends JpaRepository<CourseDailyRollup, CourseDailyRollup.Id>, CourseRollupRepositoryCustom {
+
+    // One row per day with activity, read from the primary key range of the course
+    @Query("SELECT new pack.activityservice.dto.CourseRollupDTO(r.date, r.totalClicks, r.activeStudents) " +
+           "FROM CourseDailyRollup r WHERE r.courseCode = :courseCode AND r.moduleCode = :moduleCode " +
+           "AND r.date BETWEEN :startDate AND :endDate ORDER BY r.date")
+    List<CourseRollupDTO> findDailySeries(
+            @Param("courseCode") String courseCode,
+            @Param("moduleCode") String moduleCode,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    // One row per ISO week with activity, weeks are identified by their Monday
+    @Query("SELECT new pack.activityservice.dto.CourseRollupDTO(r.weekStart, r.totalClicks, r.activeStudents) " +
+           "FROM CourseWeeklyRollup r WHERE r.courseCode = :courseCode AND r.moduleCode = :moduleCode " +
+           "AND r.weekStart BETWEEN :startWeek AND :endWeek ORDER BY r.weekStart")
+    List<CourseRollupDTO> findWeeklySeries(
+            @Param("courseCode") String courseCode,
+            @Param("moduleCode") String moduleCode,
+            @Param("startWeek") LocalDate startWeek,
+            @Param("endWeek") LocalDate endWeek);
+
+    // First and last week with a weekly rollup, null while the course has none
+    @Query("SELECT MIN(r.weekStart) FROM CourseWeeklyRollup r WHERE r.courseCode = :courseCode AND r.moduleCode = :moduleCode")
+    LocalDate findFirstWeek(@Param("courseCode") String courseCode, @Param("moduleCode") String moduleCode);
+
+    @Query("SELECT MAX(r.weekStart) FROM CourseWeeklyRollup r WHERE r.courseCode = :courseCode AND r.moduleCode = :moduleCode")
+    LocalDate findLastWeek(@Param("courseCode") String courseCode, @Param("moduleCode") String moduleCode);
+}
@@ -0,0 +1,23 @@
+package pack.activityservice.repository;
+
+import pack.activityservice.model.CoursePeriodKey;
+import pack.activityservice.model.RollupDelta;
+import pack.activityservice.model.WeekStudentKey;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+public interface CourseRollupRepositoryCustom {
+
+    // Add deltas to course_daily_rollup rows keyed by day, creating missing rows
+    void applyDailyDeltas(Map<CoursePeriodKey, RollupDelta> deltas);
+
+    // Add deltas to course_weekly_rollup rows keyed by the Monday of the week, creating missing rows
+    void applyWeeklyDeltas(Map<CoursePeriodKey, RollupDelta> deltas);
+
+    // Add active-day deltas to course_week_student, drop memberships that reach zero and return the days left per key
+    Map<WeekStudentKey, Integer> applyWeekStudentDeltas(Map<WeekStudentKey, Integer> deltas);
+
+    // Remove the rollup and membership rows of one week of a course presentation, weeks start on Monday
+    void deleteWeekRollups(String courseCode, String moduleCode, LocalDate weekStart);
+}
@@ -0,0 +1,133 @@
+package pack.activityservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import pack.activityservice.model.CoursePeriodKey;
+import pack.activityservice.model.RollupDelta;
+import pack.activityservice.model.WeekStudentKey;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CourseRollupRepositoryImpl implements CourseRollupRepositoryCustom {
+
+    private static final String UPSERT_DAILY_SQL =
+            "INSERT INTO course_daily_rollup (course_code, module_code, date, total_clicks, active_students) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total_clicks = total_clicks + VALUES(total_clicks), " +
+            "active_students = active_students + VALUES(active_students)";
+
+    private static final String UPSERT_WEEKLY_SQL =
+            "INSERT INTO course_weekly_rollup (course_code, module_code, week_start, total_clicks, active_students) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total_clicks = total_clicks + VALUES(total_clicks), " +
+            "active_students = active_students + VALUES(active_students)";
+
+    private static final String UPSERT_WEEK_STUDENT_SQL =
+            "INSERT INTO course_week_student (course_code, module_code, week_start, student_id, active_days) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE active_days = active_days + VALUES(active_days)";
+
+    private static final String SELECT_WEEK_STUDENTS_SQL =
+            "SELECT course_code, module_code, week_start, student_id, active_days FROM course_week_student " +
+            "WHERE (course_code, module_code, week_start, student_id) IN (";
+
+    private static final String DELETE_EMPTY_WEEK_STUDENT_SQL =
+            "DELETE FROM course_week_student " +
+            "WHERE course_code = ? AND module_code = ? AND week_start = ? AND student_id = ? AND active_days <= 0";
+
+    // Keys per lookup, four bind parameters each
+    private static final int KEYS_PER_LOOKUP = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CourseRollupRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void applyDailyDeltas(Map<CoursePeriodKey, RollupDelta> deltas) {
+        upsertPeriods(UPSERT_DAILY_SQL, deltas);
+    }
+
+    @Override
+    public void applyWeeklyDeltas(Map<CoursePeriodKey, RollupDelta> deltas) {
+        upsertPeriods(UPSERT_WEEKLY_SQL, deltas);
+    }
+
+    @Override
+    public Map<WeekStudentKey, Integer> applyWeekStudentDeltas(Map<WeekStudentKey, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return Map.of();
+        }
+        List<Map.Entry<WeekStudentKey, Integer>> entries = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_WEEK_STUDENT_SQL, entries, entries.size(), (ps, entry) -> {
+            setWeekStudentKey(ps, entry.getKey());
+            ps.setInt(5, entry.getValue());
+        });
+
+        List<WeekStudentKey> keys = new ArrayList<>(deltas.keySet());
+        Map<WeekStudentKey, Integer> activeDays = new HashMap<>(keys.size() * 2);
+        for (int from = 0; from < keys.size(); from += KEYS_PER_LOOKUP) {
+            List<WeekStudentKey> chunk = keys.subList(from, Math.min(from + KEYS_PER_LOOKUP, keys.size()));
+            Object[] args = new Object[chunk.size() * 4];
+            for (int i = 0; i < chunk.size(); i++) {
+                WeekStudentKey key = chunk.get(i);
+                args[i * 4] = key.week().courseCode();
+                args[i * 4 + 1] = key.week().moduleCode();
+                args[i * 4 + 2] = Date.valueOf(key.week().periodStart());
+                args[i * 4 + 3] = key.studentId();
+            }
+            String sql = SELECT_WEEK_STUDENTS_SQL + String.join(",", Collections.nCopies(chunk.size(), "(?, ?, ?, ?)")) + ")";
+            jdbcTemplate.query(sql, rs -> {
+                CoursePeriodKey week = new CoursePeriodKey(rs.getString(1), rs.getString(2), rs.getDate(3).toLocalDate());
+                activeDays.put(new WeekStudentKey(week, rs.getLong(4)), rs.getInt(5));
+            }, args);
+        }
+
+        List<WeekStudentKey> emptied = keys.stream().filter(key -> activeDays.getOrDefault(key, 0) <= 0).toList();
+        if (!emptied.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_EMPTY_WEEK_STUDENT_SQL, emptied, emptied.size(), this::setWeekStudentKey);
+        }
+        return activeDays;
+    }
+
+    @Override
+    public void deleteWeekRollups(String courseCode, String moduleCode, LocalDate weekStart) {
+        Date start = Date.valueOf(weekStart);
+        for (String table : List.of("course_week_student", "course_weekly_rollup")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE course_code = ? AND module_code = ? AND week_start = ?",
+                    courseCode, moduleCode, start);
+        }
+        jdbcTemplate.update("DELETE FROM course_daily_rollup WHERE course_code = ? AND module_code = ? AND date BETWEEN ? AND ?",
+                courseCode, moduleCode, start, Date.valueOf(weekStart.plusDays(6)));
+    }
+
+    private void upsertPeriods(String sql, Map<CoursePeriodKey, RollupDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<CoursePeriodKey, RollupDelta>> entries = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(sql, entries, entries.size(), (ps, entry) -> {
+            CoursePeriodKey key = entry.getKey();
+            ps.setString(1, key.courseCode());
+            ps.setString(2, key.moduleCode());
+            ps.setDate(3, Date.valueOf(key.periodStart()));
+            ps.setLong(4, entry.getValue().clicks());
+            ps.setInt(5, entry.getValue().activeStudents());
+        });
+    }
+
+    private void setWeekStudentKey(PreparedStatement ps, WeekStudentKey key) throws SQLException {
+        ps.setString(1, key.week().courseCode());
+        ps.setString(2, key.week().moduleCode());
+        ps.setDate(3, Date.valueOf(key.week().periodStart()));
+        ps.setLong(4, key.studentId());
+    }
+}
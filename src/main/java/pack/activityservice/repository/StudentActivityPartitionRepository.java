@@ -0,0 +1,100 @@
+package pack.activityservice.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.model.ActivityPartition;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Partition DDL of {@code student_activity}. MySQL only: other databases report no partitions.
+ */
+@Repository
+public class StudentActivityPartitionRepository {
+
+    private static final String SELECT_PARTITIONS_SQL =
+            "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'student_activity' AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private static final String COUNT_TABLES_SQL =
+            "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+
+    // The partition name is never a bind parameter, so it is spliced in like in the DDL
+    private static final String LOCK_ROWS_SQL =
+            "SELECT a.id, a.student_id, m.course_code, m.module_code, a.date, a.sum_clicks " +
+            "FROM student_activity PARTITION (%s) a JOIN course_module m ON m.id = a.course_module_id " +
+            "WHERE a.id > ? ORDER BY a.id LIMIT ? FOR UPDATE OF a";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StudentActivityPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isSupported() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return product != null && product.toLowerCase(Locale.ROOT).contains("mysql");
+    }
+
+    // Partitions in bound order, empty if the table is not partitioned
+    public List<ActivityPartition> findPartitions() {
+        return jdbcTemplate.query(SELECT_PARTITIONS_SQL, (rs, rowNum) -> {
+            String bound = rs.getString(2);
+            return new ActivityPartition(rs.getString(1),
+                    "MAXVALUE".equals(bound) ? null : LocalDate.parse(bound.replace("'", "")));
+        });
+    }
+
+    // Splits the catch-all partition, or appends after the last bound if there is none
+    public void addPartitions(List<ActivityPartition> partitions, ActivityPartition catchAll) {
+        String definitions = partitions.stream()
+                .map(partition -> "PARTITION " + partition.name() + " VALUES LESS THAN ('" + partition.lessThan() + "')")
+                .collect(Collectors.joining(", "));
+        if (catchAll != null) {
+            jdbcTemplate.execute("ALTER TABLE student_activity REORGANIZE PARTITION " + catchAll.name() + " INTO (" +
+                    definitions + ", PARTITION " + catchAll.name() + " VALUES LESS THAN (MAXVALUE))");
+        } else {
+            jdbcTemplate.execute("ALTER TABLE student_activity ADD PARTITION (" + definitions + ")");
+        }
+    }
+
+    // Creates the unpartitioned table expired rows are copied into, unless an interrupted run already did
+    public void createArchiveTable(String archiveTable) {
+        Integer existing = jdbcTemplate.queryForObject(COUNT_TABLES_SQL, Integer.class, archiveTable);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE " + archiveTable + " LIKE student_activity");
+        jdbcTemplate.execute("ALTER TABLE " + archiveTable + " REMOVE PARTITIONING");
+    }
+
+    // Up to limit rows of the partition after afterId in id order, locked until the transaction ends
+    public List<StudentActivityDTO> lockRows(ActivityPartition partition, long afterId, int limit) {
+        return jdbcTemplate.query(String.format(LOCK_ROWS_SQL, partition.name()), (rs, rowNum) ->
+                new StudentActivityDTO(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4),
+                        rs.getDate(5).toLocalDate(), rs.getInt(6)), afterId, limit);
+    }
+
+    // Copies the partition's rows with ids in (afterId, lastId] into the archive table
+    public void copyRows(ActivityPartition partition, long afterId, long lastId, String archiveTable) {
+        jdbcTemplate.update("INSERT INTO " + archiveTable + " SELECT * FROM student_activity PARTITION (" +
+                partition.name() + ") WHERE id > ? AND id <= ?", afterId, lastId);
+    }
+
+    // Deletes the partition's rows with ids in (afterId, lastId]
+    public int deleteRows(ActivityPartition partition, long afterId, long lastId) {
+        return jdbcTemplate.update("DELETE FROM student_activity PARTITION (" + partition.name() +
+                ") WHERE id > ? AND id <= ?", afterId, lastId);
+    }
+
+    public void dropPartition(ActivityPartition partition) {
+        jdbcTemplate.execute("ALTER TABLE student_activity DROP PARTITION " + partition.name());
+    }
+}
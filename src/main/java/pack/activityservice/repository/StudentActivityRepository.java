@@ -1,42 +1,109 @@
 package pack.activityservice.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import pack.activityservice.dto.LeaderboardEntryDTO;
+import pack.activityservice.dto.StudentActivityDTO;
 import pack.activityservice.entity.StudentActivity;
+import pack.activityservice.model.CourseKey;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface StudentActivityRepository extends JpaRepository<StudentActivity, Long> {
+public interface StudentActivityRepository extends JpaRepository<StudentActivity, Long>, StudentActivityRepositoryCustom {
 
-    // Find all activities for a specific student
-    List<StudentActivity> findByStudentId(Long studentId);
+    // Read paths project straight into DTOs: no managed entities, dirty-checking snapshots or first-level cache entries
+    String SELECT_DTO = "SELECT new pack.activityservice.dto.StudentActivityDTO(" +
+                        "sa.id, sa.studentId, sa.courseModule, sa.date, sa.sumClicks) " +
+                        "FROM StudentActivity sa ";
 
-    // Find all activities for a specific course
-    List<StudentActivity> findByCourseCodeAndModuleCode(String courseCode, String moduleCode);
+    // Row lock for updates and deletes, so the pre-image handed to change listeners is the one being replaced
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT sa FROM StudentActivity sa WHERE sa.id = :id")
+    Optional<StudentActivity> findByIdForUpdate(@Param("id") Long id);
 
-    // Find activities for a student in a specific course
-    List<StudentActivity> findByStudentIdAndCourseCodeAndModuleCode(
-            Long studentId, String courseCode, String moduleCode);
+    @Query(SELECT_DTO + "WHERE sa.id = :id")
+    Optional<StudentActivityDTO> findDTOById(@Param("id") Long id);
+
+    @Query(SELECT_DTO + "WHERE sa.studentId = :studentId AND sa.courseModule = :courseModule AND sa.date = :date")
+    Optional<StudentActivityDTO> findDTOByKey(
+            @Param("studentId") Long studentId,
+            @Param("courseModule") CourseKey courseModule,
+            @Param("date") LocalDate date);
+
+    // Keyset pages ordered by id: each page starts after the last id of the previous one
+    @Query(SELECT_DTO + "WHERE sa.id > :afterId ORDER BY sa.id")
+    List<StudentActivityDTO> findPage(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(SELECT_DTO + "WHERE sa.studentId = :studentId AND sa.id > :afterId ORDER BY sa.id")
+    List<StudentActivityDTO> findStudentPage(
+            @Param("studentId") Long studentId,
+            @Param("afterId") Long afterId,
+            Limit limit);
+
+    @Query(SELECT_DTO + "WHERE sa.courseModule = :courseModule AND sa.id > :afterId ORDER BY sa.id")
+    List<StudentActivityDTO> findCoursePage(
+            @Param("courseModule") CourseKey courseModule,
+            @Param("afterId") Long afterId,
+            Limit limit);
+
+    @Query(SELECT_DTO + "WHERE sa.studentId = :studentId AND sa.courseModule = :courseModule " +
+           "AND sa.id > :afterId ORDER BY sa.id")
+    List<StudentActivityDTO> findStudentCoursePage(
+            @Param("studentId") Long studentId,
+            @Param("courseModule") CourseKey courseModule,
+            @Param("afterId") Long afterId,
+            Limit limit);
 
     // Find activities for a student on a specific date
     List<StudentActivity> findByStudentIdAndDate(Long studentId, LocalDate date);
 
-    // Find activities for a student between dates
-    List<StudentActivity> findByStudentIdAndDateBetween(
-            Long studentId, LocalDate startDate, LocalDate endDate);
+    // Keyset pages of a date range ordered by (date, id); the leading date >= bound keeps it an index range scan
+    // and lets a table partitioned by date skip the partitions outside [afterDate, endDate]
+    @Query(SELECT_DTO + "WHERE sa.studentId = :studentId " +
+           "AND sa.date >= :afterDate AND sa.date <= :endDate " +
+           "AND (sa.date > :afterDate OR sa.id > :afterId) " +
+           "ORDER BY sa.date, sa.id")
+    List<StudentActivityDTO> findStudentDateRangePage(
+            @Param("studentId") Long studentId,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            @Param("endDate") LocalDate endDate,
+            Limit limit);
+
+    @Query(SELECT_DTO + "WHERE sa.courseModule = :courseModule " +
+           "AND sa.date >= :afterDate AND sa.date <= :endDate " +
+           "AND (sa.date > :afterDate OR sa.id > :afterId) " +
+           "ORDER BY sa.date, sa.id")
+    List<StudentActivityDTO> findCourseDateRangePage(
+            @Param("courseModule") CourseKey courseModule,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            @Param("endDate") LocalDate endDate,
+            Limit limit);
+
+    // Every row of a student in date-range listing order, for StudentTimelineCache
+    @Query(SELECT_DTO + "WHERE sa.studentId = :studentId ORDER BY sa.date, sa.id")
+    List<StudentActivityDTO> findStudentTimeline(@Param("studentId") Long studentId, Limit limit);
 
-    // Find activities for a course between dates
-    List<StudentActivity> findByCourseCodeAndModuleCodeAndDateBetween(
-            String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate);
+    // First and last day with activity of a course, read from the ends of idx_course_date; null without rows
+    @Query("SELECT MIN(sa.date) FROM StudentActivity sa WHERE sa.courseModule = :courseModule")
+    LocalDate findFirstCourseDate(@Param("courseModule") CourseKey courseModule);
 
-    // Check if activity exists for student on a specific date and course
-    Optional<StudentActivity> findByStudentIdAndCourseCodeAndModuleCodeAndDate(
-            Long studentId, String courseCode, String moduleCode, LocalDate date);
+    @Query("SELECT MAX(sa.date) FROM StudentActivity sa WHERE sa.courseModule = :courseModule")
+    LocalDate findLastCourseDate(@Param("courseModule") CourseKey courseModule);
+
+    // Highest id handed out so far, null while the table is empty
+    @Query("SELECT MAX(sa.id) FROM StudentActivity sa")
+    Long findMaxId();
 
     // Get total clicks for a student
     @Query("SELECT SUM(sa.sumClicks) FROM StudentActivity sa WHERE sa.studentId = :studentId")
@@ -44,10 +111,45 @@ public interface StudentActivityRepository extends JpaRepository<StudentActivity
 
     // Get total clicks for a student in a specific course
     @Query("SELECT SUM(sa.sumClicks) FROM StudentActivity sa WHERE sa.studentId = :studentId " +
-           "AND sa.courseCode = :courseCode AND sa.moduleCode = :moduleCode")
+           "AND sa.courseModule = :courseModule")
     Long getTotalClicksByStudentIdAndCourse(
             @Param("studentId") Long studentId,
-            @Param("courseCode") String courseCode,
-            @Param("moduleCode") String moduleCode);
-}
+            @Param("courseModule") CourseKey courseModule);
+
+    // Totals from a date on, added to the archived clicks dated before it
+    @Query("SELECT SUM(sa.sumClicks) FROM StudentActivity sa WHERE sa.studentId = :studentId " +
+           "AND sa.date >= :fromDate")
+    Long getTotalClicksByStudentIdFrom(
+            @Param("studentId") Long studentId,
+            @Param("fromDate") LocalDate fromDate);
 
+    @Query("SELECT SUM(sa.sumClicks) FROM StudentActivity sa WHERE sa.studentId = :studentId " +
+           "AND sa.courseModule = :courseModule AND sa.date >= :fromDate")
+    Long getTotalClicksByStudentIdAndCourseFrom(
+            @Param("studentId") Long studentId,
+            @Param("courseModule") CourseKey courseModule,
+            @Param("fromDate") LocalDate fromDate);
+
+    // Most active students of a course within a date window, aggregated over idx_course_date
+    @Query("SELECT new pack.activityservice.dto.LeaderboardEntryDTO(sa.studentId, SUM(sa.sumClicks)) " +
+           "FROM StudentActivity sa WHERE sa.courseModule = :courseModule " +
+           "AND sa.date BETWEEN :startDate AND :endDate " +
+           "GROUP BY sa.studentId ORDER BY SUM(sa.sumClicks) DESC, sa.studentId")
+    List<LeaderboardEntryDTO> findTopStudents(
+            @Param("courseModule") CourseKey courseModule,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            Limit limit);
+
+    // Atomically add clicks to an activity, creating the row if it does not exist yet; the course module must be registered
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO student_activity (student_id, course_module_id, date, sum_clicks) " +
+                   "VALUES (:studentId, :courseModuleId, :date, :clicks) " +
+                   "ON DUPLICATE KEY UPDATE sum_clicks = sum_clicks + :clicks",
+           nativeQuery = true)
+    int upsertClicks(
+            @Param("studentId") Long studentId,
+            @Param("courseModuleId") Integer courseModuleId,
+            @Param("date") LocalDate date,
+            @Param("clicks") Integer clicks);
+}
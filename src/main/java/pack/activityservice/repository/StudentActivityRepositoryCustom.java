@@ -0,0 +1,42 @@
+package pack.activityservice.repository;
+
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.model.ClickIncrement;
+import pack.activityservice.model.CourseKey;
+import pack.activityservice.model.StudentCourseTotal;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface StudentActivityRepositoryCustom {
+
+    // Add clicks to many activities in JDBC batches, creating missing rows and course modules
+    void batchUpsertClicks(List<ClickIncrement> increments);
+
+    // Set the sum clicks of many activities in JDBC batches, creating missing rows and course modules
+    void batchReplaceClicks(List<ClickIncrement> values);
+
+    // Current sum clicks of the given activities, keys without a row are left out
+    Map<ActivityKey, Integer> findClicksByKeys(Collection<ActivityKey> keys);
+
+    // findClicksByKeys with the rows locked until the transaction ends
+    Map<ActivityKey, Integer> lockClicksByKeys(Collection<ActivityKey> keys);
+
+    // Forward-only stream of a course's activities ordered by (date, id), optionally limited to a date range
+    Stream<StudentActivityDTO> streamByCourse(
+            CourseKey courseModule, LocalDate startDate, LocalDate endDate, int fetchSize);
+
+    // Forward-only stream of a student's activities between dates ordered by (date, id)
+    Stream<StudentActivityDTO> streamByStudentAndDateRange(
+            Long studentId, LocalDate startDate, LocalDate endDate, int fetchSize);
+
+    // Forward-only stream of every student's click total per course presentation, from fromDate on unless it is null
+    Stream<StudentCourseTotal> streamStudentCourseTotals(LocalDate fromDate, int fetchSize);
+
+    // Forward-only stream of every id up to maxId, in primary key order
+    Stream<Long> streamIdsUpTo(long maxId, int fetchSize);
+}
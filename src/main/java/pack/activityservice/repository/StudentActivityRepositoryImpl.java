@@ -0,0 +1,199 @@
+package pack.activityservice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.model.ClickIncrement;
+import pack.activityservice.model.CourseKey;
+import pack.activityservice.model.StudentCourseTotal;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class StudentActivityRepositoryImpl implements StudentActivityRepositoryCustom {
+
+    // VALUES(sum_clicks) instead of a second placeholder keeps the statement rewritable into a multi-row INSERT
+    private static final String UPSERT_CLICKS_SQL =
+            "INSERT INTO student_activity (student_id, course_module_id, date, sum_clicks) " +
+            "VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE sum_clicks = sum_clicks + VALUES(sum_clicks)";
+
+    private static final String REPLACE_CLICKS_SQL =
+            "INSERT INTO student_activity (student_id, course_module_id, date, sum_clicks) " +
+            "VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE sum_clicks = VALUES(sum_clicks)";
+
+    private static final String SELECT_CLICKS_BY_KEYS_SQL =
+            "SELECT student_id, course_module_id, date, sum_clicks FROM student_activity " +
+            "WHERE date BETWEEN ? AND ? AND (student_id, course_module_id, date) IN (";
+
+    // Keys per lookup, three bind parameters each
+    private static final int KEYS_PER_LOOKUP = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final CourseModuleDictionary courseModules;
+
+    public StudentActivityRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                                         CourseModuleDictionary courseModules) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.courseModules = courseModules;
+    }
+
+    @Override
+    @Transactional
+    public void batchUpsertClicks(List<ClickIncrement> increments) {
+        batchUpsert(UPSERT_CLICKS_SQL, increments);
+    }
+
+    @Override
+    @Transactional
+    public void batchReplaceClicks(List<ClickIncrement> values) {
+        batchUpsert(REPLACE_CLICKS_SQL, values);
+    }
+
+    private void batchUpsert(String sql, List<ClickIncrement> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        // Resolved up front, a new course module is registered before the statement references it
+        int[] courseModuleIds = new int[increments.size()];
+        for (int i = 0; i < courseModuleIds.length; i++) {
+            ActivityKey key = increments.get(i).key();
+            courseModuleIds[i] = courseModules.register(new CourseKey(key.courseCode(), key.moduleCode()));
+        }
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ClickIncrement increment = increments.get(i);
+                ps.setLong(1, increment.key().studentId());
+                ps.setInt(2, courseModuleIds[i]);
+                ps.setDate(3, Date.valueOf(increment.key().date()));
+                ps.setInt(4, increment.clicks());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return increments.size();
+            }
+        });
+    }
+
+    @Override
+    public Map<ActivityKey, Integer> findClicksByKeys(Collection<ActivityKey> keys) {
+        return selectClicksByKeys(keys, false);
+    }
+
+    @Override
+    public Map<ActivityKey, Integer> lockClicksByKeys(Collection<ActivityKey> keys) {
+        return selectClicksByKeys(keys, true);
+    }
+
+    private Map<ActivityKey, Integer> selectClicksByKeys(Collection<ActivityKey> keys, boolean lock) {
+        List<ActivityKey> remaining = List.copyOf(keys);
+        Map<ActivityKey, Integer> clicks = new HashMap<>(keys.size() * 2);
+        for (int from = 0; from < remaining.size(); from += KEYS_PER_LOOKUP) {
+            List<ActivityKey> chunk = remaining.subList(from, Math.min(from + KEYS_PER_LOOKUP, remaining.size()));
+            // The date range lets a partitioned table skip partitions the row constructors cannot prune
+            Object[] args = new Object[2 + chunk.size() * 3];
+            int minEpochDay = Integer.MAX_VALUE;
+            int maxEpochDay = Integer.MIN_VALUE;
+            for (int i = 0; i < chunk.size(); i++) {
+                ActivityKey key = chunk.get(i);
+                minEpochDay = Math.min(minEpochDay, key.epochDay());
+                maxEpochDay = Math.max(maxEpochDay, key.epochDay());
+                args[2 + i * 3] = key.studentId();
+                args[2 + i * 3 + 1] = courseModules.find(new CourseKey(key.courseCode(), key.moduleCode()));
+                args[2 + i * 3 + 2] = Date.valueOf(key.date());
+            }
+            args[0] = Date.valueOf(LocalDate.ofEpochDay(minEpochDay));
+            args[1] = Date.valueOf(LocalDate.ofEpochDay(maxEpochDay));
+            String sql = SELECT_CLICKS_BY_KEYS_SQL + String.join(",", Collections.nCopies(chunk.size(), "(?, ?, ?)")) + ")"
+                         + (lock ? " FOR UPDATE" : "");
+            jdbcTemplate.query(sql, rs -> {
+                CourseKey course = courseModules.get(rs.getInt(2));
+                clicks.put(new ActivityKey(rs.getLong(1), course.courseCode(), course.moduleCode(),
+                        rs.getDate(3).toLocalDate()), rs.getInt(4));
+            }, args);
+        }
+        return clicks;
+    }
+
+    @Override
+    public Stream<StudentActivityDTO> streamByCourse(
+            CourseKey courseModule, LocalDate startDate, LocalDate endDate, int fetchSize) {
+        StringBuilder jpql = new StringBuilder(StudentActivityRepository.SELECT_DTO)
+                .append("WHERE sa.courseModule = :courseModule");
+        if (startDate != null) {
+            jpql.append(" AND sa.date >= :startDate");
+        }
+        if (endDate != null) {
+            jpql.append(" AND sa.date <= :endDate");
+        }
+        jpql.append(" ORDER BY sa.date, sa.id");
+
+        TypedQuery<StudentActivityDTO> query = entityManager.createQuery(jpql.toString(), StudentActivityDTO.class)
+                .setParameter("courseModule", courseModule);
+        if (startDate != null) {
+            query.setParameter("startDate", startDate);
+        }
+        if (endDate != null) {
+            query.setParameter("endDate", endDate);
+        }
+        return stream(query, fetchSize);
+    }
+
+    @Override
+    public Stream<StudentActivityDTO> streamByStudentAndDateRange(
+            Long studentId, LocalDate startDate, LocalDate endDate, int fetchSize) {
+        TypedQuery<StudentActivityDTO> query = entityManager.createQuery(
+                        StudentActivityRepository.SELECT_DTO + "WHERE sa.studentId = :studentId " +
+                        "AND sa.date BETWEEN :startDate AND :endDate ORDER BY sa.date, sa.id", StudentActivityDTO.class)
+                .setParameter("studentId", studentId)
+                .setParameter("startDate", startDate)
+                .setParameter("endDate", endDate);
+        return stream(query, fetchSize);
+    }
+
+    @Override
+    public Stream<StudentCourseTotal> streamStudentCourseTotals(LocalDate fromDate, int fetchSize) {
+        TypedQuery<StudentCourseTotal> query = entityManager.createQuery(
+                "SELECT new pack.activityservice.model.StudentCourseTotal(" +
+                "sa.studentId, sa.courseModule, SUM(sa.sumClicks)) " +
+                "FROM StudentActivity sa " + (fromDate != null ? "WHERE sa.date >= :fromDate " : "") +
+                "GROUP BY sa.studentId, sa.courseModule", StudentCourseTotal.class);
+        if (fromDate != null) {
+            query.setParameter("fromDate", fromDate);
+        }
+        return stream(query, fetchSize);
+    }
+
+    @Override
+    public Stream<Long> streamIdsUpTo(long maxId, int fetchSize) {
+        TypedQuery<Long> query = entityManager.createQuery(
+                        "SELECT sa.id FROM StudentActivity sa WHERE sa.id <= :maxId ORDER BY sa.id", Long.class)
+                .setParameter("maxId", maxId);
+        return stream(query, fetchSize);
+    }
+
+    // Forward-only, fetch-size bounded scroll over projections, so nothing accumulates in the persistence context
+    private static <T> Stream<T> stream(TypedQuery<T> query, int fetchSize) {
+        return query
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+}
@@ -4,27 +4,60 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.stereotype.Component;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
-
 
+/**
+ * Authenticates requests from the {@code X-User-Id} and {@code X-User-Role} headers set by the API gateway.
+ * <p>
+ * The caller is set in a fresh security context for the rest of the chain and cleared when the chain returns,
+ * so nothing is left on the thread for the next request. Async dispatches, such as the end of an export,
+ * are authenticated again from the same headers.
+ */
 public class HeaderAuthFilter extends OncePerRequestFilter {
+
+    static final String USER_ID_HEADER = "X-User-Id";
+    static final String ROLE_HEADER = "X-User-Role";
+
+    // OncePerRequestFilter would build this name on every request
+    private static final String ALREADY_FILTERED_ATTRIBUTE = HeaderAuthFilter.class.getName() + ALREADY_FILTERED_SUFFIX;
+
+    private SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder.getContextHolderStrategy();
+
     @Override
     protected void doFilterInternal(HttpServletRequest req, HttpServletResponse resp, FilterChain chain)
             throws ServletException, IOException {
-        String id = req.getHeader("X-User-Id");
-        String role = req.getHeader("X-User-Role");
-        if(id!=null && role!=null){
-            var auth = new UsernamePasswordAuthenticationToken(id,null,
-                    List.of(new SimpleGrantedAuthority("ROLE_" + role)));
-            SecurityContextHolder.getContext().setAuthentication(auth);
+        String id = req.getHeader(USER_ID_HEADER);
+        String role = req.getHeader(ROLE_HEADER);
+        if (id == null || role == null) {
+            chain.doFilter(req, resp);
+            return;
+        }
+        SecurityContext context = securityContextHolderStrategy.createEmptyContext();
+        context.setAuthentication(HeaderAuthentication.of(id, role));
+        securityContextHolderStrategy.setContext(context);
+        try {
+            chain.doFilter(req, resp);
+        } finally {
+            securityContextHolderStrategy.clearContext();
         }
-        chain.doFilter(req,resp);
+    }
+
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return ALREADY_FILTERED_ATTRIBUTE;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    public void setSecurityContextHolderStrategy(SecurityContextHolderStrategy securityContextHolderStrategy) {
+        this.securityContextHolderStrategy = securityContextHolderStrategy;
     }
 }
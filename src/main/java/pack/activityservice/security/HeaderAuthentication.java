@@ -0,0 +1,116 @@
+package pack.activityservice.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serial;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The caller named by the {@code X-User-Id} and {@code X-User-Role} headers of the API gateway.
+ * <p>
+ * Immutable and always authenticated. The {@code ROLE_} authority of each role is created once and shared,
+ * so authenticating a request allocates this object and nothing else.
+ */
+public final class HeaderAuthentication implements Authentication {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // Roles come from a request header, so the cache stops growing past the roles the gateway really sends
+    static final int MAX_CACHED_ROLES = 64;
+
+    private static final ConcurrentHashMap<String, List<GrantedAuthority>> ROLE_AUTHORITIES = new ConcurrentHashMap<>();
+
+    private final String userId;
+    private final String role;
+    private final List<GrantedAuthority> authorities;
+
+    private HeaderAuthentication(String userId, String role, List<GrantedAuthority> authorities) {
+        this.userId = userId;
+        this.role = role;
+        this.authorities = authorities;
+    }
+
+    public static HeaderAuthentication of(String userId, String role) {
+        return new HeaderAuthentication(userId, role, authorities(role));
+    }
+
+    static List<GrantedAuthority> authorities(String role) {
+        List<GrantedAuthority> authorities = ROLE_AUTHORITIES.get(role);
+        if (authorities != null) {
+            return authorities;
+        }
+        authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
+        if (ROLE_AUTHORITIES.size() < MAX_CACHED_ROLES) {
+            List<GrantedAuthority> cached = ROLE_AUTHORITIES.putIfAbsent(role, authorities);
+            return cached != null ? cached : authorities;
+        }
+        return authorities;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    @Override
+    public String getName() {
+        return userId;
+    }
+
+    @Override
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return userId;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (!authenticated) {
+            throw new IllegalArgumentException("Header authentication cannot be revoked; clear the security context instead");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HeaderAuthentication other)) {
+            return false;
+        }
+        return userId.equals(other.userId) && role.equals(other.role);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, role);
+    }
+
+    @Override
+    public String toString() {
+        return "HeaderAuthentication[user=" + userId + ", role=" + role + "]";
+    }
+}
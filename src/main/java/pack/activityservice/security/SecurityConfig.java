@@ -2,16 +2,34 @@ package pack.activityservice.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.web.DefaultSecurityFilterChain;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
 
 @Configuration
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    // Gateway role of the Prometheus scraper, which metrics reveal per endpoint, query and course
+    static final String METRICS_ROLE = "METRICS";
+
+    // The API docs are public and static: matched first, they pass through no security filter at all
+    @Bean
+    @Order(0)
+    public SecurityFilterChain apiDocsFilterChain() {
+        PathPatternRequestMatcher.Builder paths = PathPatternRequestMatcher.withDefaults();
+        return new DefaultSecurityFilterChain(new OrRequestMatcher(
+                paths.matcher("/v3/api-docs/**"),
+                paths.matcher("/swagger-ui/**"),
+                paths.matcher("/swagger-ui.html")));
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -20,11 +38,8 @@ public class SecurityConfig {
                 .addFilterBefore(new HeaderAuthFilter(), UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(
                         auth -> auth
-                                .requestMatchers(
-                                        "/v3/api-docs/**",
-                                        "/swagger-ui/**",
-                                        "/swagger-ui.html"
-                                ).permitAll()
+                                .requestMatchers("/actuator/health/**").permitAll()
+                                .requestMatchers("/actuator/prometheus", "/actuator/metrics/**").hasRole(METRICS_ROLE)
                                 .anyRequest().authenticated()
                 );
 
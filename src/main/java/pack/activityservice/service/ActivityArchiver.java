@@ -0,0 +1,333 @@
+package pack.activityservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pack.activityservice.config.ArchiveProperties;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.event.ActivityChange;
+import pack.activityservice.event.ActivityChangedEvent;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.repository.ActivityArchive;
+import pack.activityservice.repository.ArchiveSegment;
+import pack.activityservice.repository.ArchiveSegmentWriter;
+import pack.activityservice.repository.CourseModuleDictionary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves closed months of {@code student_activity} to the {@link ActivityArchive}.
+ * <p>
+ * Every {@code check-interval}, each month that ended before today minus {@code hot-period} is archived,
+ * oldest first. Such months no longer accept writes, so no row locks or long transactions are needed: the
+ * month is read in chunks into a segment, which is published, and once every instance has had two rescans
+ * to open it the rows are deleted in chunked transactions. Each delete publishes an unchanged
+ * {@link ActivityChange} per row, so caches drop what they hold for the key while rollups and leaderboards,
+ * which count archived rows too, stay as they are. A run that stops halfway leaves rows in both places,
+ * which every reader tolerates, and the next run deletes them.
+ * <p>
+ * Enable it on one instance only, with the archive directory on storage every instance reads. The job
+ * creates the directory and waits two rescan intervals before its first run, so that every instance
+ * rejects writes to closed months before any of them is read.
+ */
+@Component
+public class ActivityArchiver implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityArchiver.class);
+
+    private static final String SELECT_OLDEST_DATE_SQL = "SELECT MIN(date) FROM student_activity WHERE date < ?";
+
+    private static final String SELECT_MONTH_COURSES_SQL =
+            "SELECT course_module_id, COUNT(*) FROM student_activity WHERE date >= ? AND date < ? " +
+            "GROUP BY course_module_id ORDER BY course_module_id";
+
+    // Each pass reads the month in keyset chunks that go straight into the segment file
+    private static final String SELECT_ROWS_SQL =
+            "SELECT id, student_id, course_module_id, date, sum_clicks FROM student_activity " +
+            "WHERE date >= ? AND date < ? AND id > ? ORDER BY id LIMIT ?";
+
+    private static final String SELECT_COURSE_ORDER_SQL =
+            "SELECT id, student_id, course_module_id, date, sum_clicks FROM student_activity " +
+            "WHERE course_module_id = ? AND date >= ? AND date < ? AND (date > ? OR date = ? AND id > ?) " +
+            "ORDER BY date, id LIMIT ?";
+
+    private static final String SELECT_STUDENT_ORDER_SQL =
+            "SELECT id, student_id, course_module_id, date, sum_clicks FROM student_activity " +
+            "WHERE date >= ? AND date < ? " +
+            "AND (student_id > ? OR student_id = ? AND (date > ? OR date = ? AND id > ?)) " +
+            "ORDER BY student_id, date, id LIMIT ?";
+
+    private static final RowMapper<MonthRow> MONTH_ROW_MAPPER = (rs, rowNum) -> new MonthRow(
+            rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getDate(4).toLocalDate(), rs.getInt(5));
+
+    private static final String COUNT_MONTH_SQL = "SELECT COUNT(*) FROM student_activity WHERE date >= ? AND date < ?";
+
+    private static final String DELETE_SQL = "DELETE FROM student_activity WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CourseModuleDictionary courseModules;
+    private final ActivityArchive activityArchive;
+    private final ArchiveProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile ScheduledExecutorService scheduler;
+
+    public ActivityArchiver(JdbcTemplate jdbcTemplate,
+                            CourseModuleDictionary courseModules,
+                            ActivityArchive activityArchive,
+                            ArchiveProperties properties,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.courseModules = courseModules;
+        this.activityArchive = activityArchive;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Archives every month that ended before the hot period, and returns the number of rows moved.
+     */
+    long archive(LocalDate today) {
+        try {
+            activityArchive.deleteTemporaryFiles();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to clean up the activity archive", ex);
+        }
+        LocalDate cutoff = today.minus(properties.getHotPeriod()).withDayOfMonth(1);
+        long archived = 0;
+        LocalDate oldest;
+        while ((oldest = jdbcTemplate.queryForObject(SELECT_OLDEST_DATE_SQL, LocalDate.class, Date.valueOf(cutoff))) != null) {
+            archived += archiveMonth(YearMonth.from(oldest));
+        }
+        return archived;
+    }
+
+    private int archiveMonth(YearMonth month) {
+        Date start = Date.valueOf(month.atDay(1));
+        Date end = Date.valueOf(month.plusMonths(1).atDay(1));
+        int leftOver = deleteArchived(month);
+
+        // Course table of the segment, in course_module_id order like the course pass
+        List<Integer> courseIds = new ArrayList<>();
+        List<Integer> rowCounts = new ArrayList<>();
+        jdbcTemplate.query(SELECT_MONTH_COURSES_SQL, rs -> {
+            courseIds.add(rs.getInt(1));
+            rowCounts.add(rs.getInt(2));
+        }, start, end);
+        if (courseIds.isEmpty()) {
+            return leftOver;
+        }
+        ArchiveSegment segment;
+        try (ArchiveSegmentWriter writer = activityArchive.newSegment(month,
+                courseIds.stream().map(courseModules::get).toList(),
+                rowCounts.stream().mapToInt(Integer::intValue).toArray())) {
+            writeRows(writer, month, courseIds);
+            writeCourseOrder(writer, month, courseIds);
+            writeStudentOrder(writer, month);
+            segment = activityArchive.publish(month, writer);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write archive segment of " + month, ex);
+        }
+
+        awaitRescans(month);
+        List<StudentActivityDTO> chunk = new ArrayList<>(properties.getChunkSize());
+        for (Iterator<StudentActivityDTO> rows = segment.rows(); rows.hasNext(); ) {
+            chunk.add(rows.next());
+            if (chunk.size() == properties.getChunkSize()) {
+                delete(chunk);
+                chunk.clear();
+            }
+        }
+        delete(chunk);
+
+        Integer remaining = jdbcTemplate.queryForObject(COUNT_MONTH_SQL, Integer.class, start, end);
+        if (remaining != null && remaining > 0) {
+            log.warn("{} activities of {} were written while it was archived, archiving them into another segment",
+                    remaining, month);
+        }
+        log.info("Archived {} activities of {} into {}", segment.size(), month, segment.file());
+        return leftOver + segment.size();
+    }
+
+    // Deletes the rows of the month that are already in a segment, left over by a run that stopped while deleting
+    private int deleteArchived(YearMonth month) {
+        ActivityArchive.Snapshot archived = activityArchive.snapshot();
+        if (!archived.covers(month.atDay(1), month.atEndOfMonth())) {
+            return 0;
+        }
+        int deleted = 0;
+        long afterId = 0;
+        List<MonthRow> chunk;
+        do {
+            chunk = jdbcTemplate.query(SELECT_ROWS_SQL, MONTH_ROW_MAPPER, Date.valueOf(month.atDay(1)),
+                    Date.valueOf(month.plusMonths(1).atDay(1)), afterId, properties.getChunkSize());
+            List<StudentActivityDTO> rows = new ArrayList<>();
+            for (MonthRow row : chunk) {
+                StudentActivityDTO archivedRow = archived.findById(row.id());
+                if (archivedRow != null) {
+                    rows.add(archivedRow);
+                }
+                afterId = row.id();
+            }
+            deleted += delete(rows);
+        } while (chunk.size() == properties.getChunkSize());
+        if (deleted > 0) {
+            log.info("Deleted {} activities of {} left over by an earlier run", deleted, month);
+        }
+        return deleted;
+    }
+
+    // Archived rows stay part of every total, so each change leaves the clicks as they were
+    private int delete(List<StudentActivityDTO> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> ids = new ArrayList<>(rows.size());
+            List<ActivityChange> changes = new ArrayList<>(rows.size());
+            for (StudentActivityDTO row : rows) {
+                ids.add(new Object[]{row.getId()});
+                changes.add(new ActivityChange(new ActivityKey(row.getStudentId(), row.getCourseCode(),
+                        row.getModuleCode(), row.getDate()), row.getSumClicks(), row.getSumClicks()));
+            }
+            jdbcTemplate.batchUpdate(DELETE_SQL, ids);
+            eventPublisher.publishEvent(new ActivityChangedEvent(changes));
+        });
+        return rows.size();
+    }
+
+    // Instances that have not opened the segment yet still read the month from the table
+    private void awaitRescans(YearMonth month) {
+        try {
+            Thread.sleep(properties.getRescanInterval().multipliedBy(2));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted before deleting the archived activities of " + month, ex);
+        }
+    }
+
+    // Every row of the month in id order
+    private void writeRows(ArchiveSegmentWriter writer, YearMonth month, List<Integer> courseIds) {
+        Map<Integer, Integer> courseIndexes = new HashMap<>();
+        for (int i = 0; i < courseIds.size(); i++) {
+            courseIndexes.put(courseIds.get(i), i);
+        }
+        long afterId = 0;
+        List<MonthRow> chunk;
+        do {
+            chunk = jdbcTemplate.query(SELECT_ROWS_SQL, MONTH_ROW_MAPPER, Date.valueOf(month.atDay(1)),
+                    Date.valueOf(month.plusMonths(1).atDay(1)), afterId, properties.getChunkSize());
+            for (MonthRow row : chunk) {
+                // A course missing from the course table means the month changed since it was counted
+                writer.addRow(row.id(), row.studentId(), courseIndexes.getOrDefault(row.courseModuleId(), -1),
+                        row.date(), row.sumClicks());
+                afterId = row.id();
+            }
+        } while (chunk.size() == properties.getChunkSize());
+    }
+
+    private void writeCourseOrder(ArchiveSegmentWriter writer, YearMonth month, List<Integer> courseIds) {
+        for (int courseId : courseIds) {
+            LocalDate afterDate = month.atDay(1).minusDays(1);
+            long afterId = 0;
+            List<MonthRow> chunk;
+            do {
+                chunk = jdbcTemplate.query(SELECT_COURSE_ORDER_SQL, MONTH_ROW_MAPPER, courseId,
+                        Date.valueOf(month.atDay(1)), Date.valueOf(month.plusMonths(1).atDay(1)),
+                        Date.valueOf(afterDate), Date.valueOf(afterDate), afterId, properties.getChunkSize());
+                for (MonthRow row : chunk) {
+                    writer.addCourseOrder(row.id());
+                    afterDate = row.date();
+                    afterId = row.id();
+                }
+            } while (chunk.size() == properties.getChunkSize());
+        }
+    }
+
+    private void writeStudentOrder(ArchiveSegmentWriter writer, YearMonth month) {
+        long afterStudentId = Long.MIN_VALUE;
+        LocalDate afterDate = month.atDay(1).minusDays(1);
+        long afterId = 0;
+        List<MonthRow> chunk;
+        do {
+            chunk = jdbcTemplate.query(SELECT_STUDENT_ORDER_SQL, MONTH_ROW_MAPPER,
+                    Date.valueOf(month.atDay(1)), Date.valueOf(month.plusMonths(1).atDay(1)),
+                    afterStudentId, afterStudentId, Date.valueOf(afterDate), Date.valueOf(afterDate), afterId,
+                    properties.getChunkSize());
+            for (MonthRow row : chunk) {
+                writer.addStudentOrder(row.id());
+                afterStudentId = row.studentId();
+                afterDate = row.date();
+                afterId = row.id();
+            }
+        } while (chunk.size() == properties.getChunkSize());
+    }
+
+    private void archiveQuietly() {
+        try {
+            archive(LocalDate.now());
+        } catch (RuntimeException ex) {
+            log.error("Failed to archive student activities, retrying at the next check", ex);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || scheduler != null) {
+            return;
+        }
+        try {
+            Files.createDirectories(properties.getDirectory());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to create activity archive " + properties.getDirectory(), ex);
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "activity-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Other instances reject writes to closed months once a rescan has found the directory
+        executor.scheduleWithFixedDelay(this::archiveQuietly, properties.getRescanInterval().toMillis() * 2,
+                properties.getCheckInterval().toMillis(), TimeUnit.MILLISECONDS);
+        scheduler = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        if (executor != null) {
+            scheduler = null;
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private record MonthRow(long id, long studentId, int courseModuleId, LocalDate date, int sumClicks) {
+    }
+}
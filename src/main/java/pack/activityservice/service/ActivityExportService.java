@@ -0,0 +1,16 @@
+package pack.activityservice.service;
+
+import pack.activityservice.model.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface ActivityExportService {
+
+    long exportByCourse(String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate,
+                        ExportFormat format, OutputStream output) throws IOException;
+
+    long exportByStudentAndDateRange(Long studentId, LocalDate startDate, LocalDate endDate,
+                                     ExportFormat format, OutputStream output) throws IOException;
+}
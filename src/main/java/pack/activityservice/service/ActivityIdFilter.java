@@ -0,0 +1,126 @@
+package pack.activityservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pack.activityservice.config.IdFilterProperties;
+import pack.activityservice.model.LongBloomFilter;
+import pack.activityservice.repository.StudentActivityRepository;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter of the activity ids up to a watermark, so lookups of ids that never existed are answered
+ * without a database round trip.
+ * <p>
+ * Ids are handed out by auto-increment on every instance, so ids above the watermark always go to the
+ * database and need not be added here; rows deleted since the rebuild only cost a wasted lookup. An id
+ * below the highest one read may still be uncommitted, so each rebuild reads the highest id but only
+ * scans up to the one read by the rebuild before: a row is missed only if its transaction stayed open for
+ * a whole rebuild interval. Until the second rebuild finishes, or while disabled, every id might exist.
+ */
+@Component
+public class ActivityIdFilter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityIdFilter.class);
+
+    private final StudentActivityRepository studentActivityRepository;
+    private final IdFilterProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile Snapshot snapshot;
+    // Highest id read by the last rebuild, the watermark of the next one; only used on the rebuild thread
+    private long nextMaxId = -1;
+    private volatile ScheduledExecutorService scheduler;
+
+    public ActivityIdFilter(StudentActivityRepository studentActivityRepository,
+                            IdFilterProperties properties,
+                            PlatformTransactionManager transactionManager) {
+        this.studentActivityRepository = studentActivityRepository;
+        this.properties = properties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * False only if no activity with this id existed at the last rebuild.
+     */
+    public boolean mightExist(long id) {
+        Snapshot current = snapshot;
+        return current == null || id > current.maxId() || current.filter().mightContain(id);
+    }
+
+    void rebuild() {
+        Long highestId = readOnlyTransaction.execute(status -> studentActivityRepository.findMaxId());
+        long maxId = nextMaxId;
+        nextMaxId = highestId == null ? 0 : highestId;
+        if (maxId < 0) {
+            log.info("Read activity id watermark {}, filtering up to it from the next rebuild", nextMaxId);
+            return;
+        }
+
+        // Rows added since the watermark are counted too, which only lowers the false-positive rate
+        long count = readOnlyTransaction.execute(status -> studentActivityRepository.count());
+        LongBloomFilter filter = LongBloomFilter.create(count, properties.getFalsePositiveRate(),
+                properties.getMaxMemory().toBytes());
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Long> ids = studentActivityRepository.streamIdsUpTo(maxId, properties.getFetchSize())) {
+                ids.forEach(filter::put);
+            }
+        });
+        snapshot = new Snapshot(filter, maxId);
+        log.info("Rebuilt activity id filter for {} ids up to {} in {} KB, expected false-positive rate {}",
+                count, maxId, filter.byteSize() / 1024, String.format("%.4f", filter.expectedFalsePositiveRate(count)));
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.error("Failed to rebuild activity id filter, keeping the current one", ex);
+        }
+    }
+
+    // The first rebuild only reads the watermark; the filter takes effect one rebuild interval later
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || scheduler != null) {
+            return;
+        }
+        long intervalMillis = properties.getRebuildInterval().toMillis();
+        if (intervalMillis <= 0) {
+            log.warn("Activity id filter needs a positive rebuild interval, not filtering");
+            return;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "activity-id-filter-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::rebuildQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        scheduler = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        if (executor != null) {
+            scheduler = null;
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private record Snapshot(LongBloomFilter filter, long maxId) {
+    }
+}
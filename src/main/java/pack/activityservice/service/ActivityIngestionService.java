@@ -0,0 +1,18 @@
+package pack.activityservice.service;
+
+import pack.activityservice.dto.BulkIngestResultDTO;
+import pack.activityservice.dto.StudentActivityCreateDTO;
+import pack.activityservice.model.IngestMode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+public interface ActivityIngestionService {
+
+    BulkIngestResultDTO ingest(List<StudentActivityCreateDTO> rows, IngestMode mode);
+
+    BulkIngestResultDTO ingestNdjson(InputStream input, IngestMode mode) throws IOException;
+
+    BulkIngestResultDTO ingestCsv(InputStream input, IngestMode mode) throws IOException;
+}
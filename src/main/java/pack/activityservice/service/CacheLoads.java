@@ -0,0 +1,44 @@
+package pack.activityservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Read-through loading for the in-process caches.
+ * <p>
+ * Loads run on the calling thread, outside Caffeine's map locks, rather than through
+ * {@code Cache.get(key, loader)}: that would hold a {@code synchronized} hash bin for the whole database
+ * query and pin the carrier thread when requests run on virtual threads. Concurrent readers of the same
+ * key still share a single load, and invalidating a key while it loads drops the in-flight entry, so
+ * a value read before a write is not cached after it.
+ */
+final class CacheLoads {
+
+    private CacheLoads() {
+    }
+
+    static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> cached = cache.get(key, (k, executor) -> loading);
+        if (cached == loading) {
+            try {
+                loading.complete(loader.apply(key));
+            } catch (RuntimeException | Error ex) {
+                // Failed futures are removed by the cache, so the next reader loads again
+                loading.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        try {
+            return cached.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package pack.activityservice.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Component;
+import pack.activityservice.config.WriteBehindProperties;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.model.ClickIncrement;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind stage for click increments.
+ * <p>
+ * Increments are coalesced per {@link ActivityKey} and written to {@code student_activity} as batched
+ * upserts every {@code flush-interval}, as soon as {@code max-pending-keys} distinct keys are pending,
+ * and once more when the application shuts down. Each pending sum is an {@link AtomicLong} added to
+ * with compare-and-set, and {@link ConcurrentHashMap#remove} hands it to exactly one flush, which marks
+ * it drained so a late adder starts a new sum; totals stay exact however increments and flushes interleave.
+ */
+@Component
+public class ClickAggregationBuffer implements SmartLifecycle, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ClickAggregationBuffer.class);
+
+    // Stop after the web server so that requests accepted during graceful shutdown are still flushed
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private static final long DRAINED = Long.MIN_VALUE;
+
+    private final StudentActivityService studentActivityService;
+    private final WriteBehindProperties properties;
+
+    // Running sums are updated in place, so buffering a click allocates nothing beyond its key
+    private final ConcurrentHashMap<ActivityKey, AtomicLong> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private volatile ScheduledExecutorService scheduler;
+
+    public ClickAggregationBuffer(StudentActivityService studentActivityService,
+                                  WriteBehindProperties properties) {
+        this.studentActivityService = studentActivityService;
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // Closed months are rejected before buffering, a flush must not fail on them
+    public void add(long studentId, String courseCode, String moduleCode, LocalDate date, int clicks) {
+        studentActivityService.checkWritable(date);
+        merge(new ActivityKey(studentId, courseCode, moduleCode, date), clicks);
+
+        ScheduledExecutorService executor = scheduler;
+        if (executor != null && pending.size() >= properties.getMaxPendingKeys()
+                && flushRequested.compareAndSet(false, true)) {
+            executor.execute(this::flushQuietly);
+        }
+    }
+
+    // A drained sum is marked DRAINED, adders that still hold it start a new one
+    private void merge(ActivityKey key, long clicks) {
+        while (true) {
+            AtomicLong sum = pending.computeIfAbsent(key, k -> new AtomicLong());
+            long current = sum.get();
+            while (current != DRAINED) {
+                if (sum.compareAndSet(current, current + clicks)) {
+                    return;
+                }
+                current = sum.get();
+            }
+        }
+    }
+
+    public int getPendingKeyCount() {
+        return pending.size();
+    }
+
+    public long getDroppedIncrementCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("activity.increment.buffer.pending", pending, ConcurrentHashMap::size)
+                .description("Distinct activity keys waiting for the next write-behind flush")
+                .register(registry);
+        FunctionCounter.builder("activity.increment.buffer.dropped", dropped, AtomicLong::get)
+                .description("Buffered click increments dropped because the database rejected them on their own")
+                .register(registry);
+    }
+
+    /**
+     * Writes every pending increment and returns the number of keys written. A batch the database rejects
+     * for its values is written again key by key, and keys that fail on their own are logged and dropped, so
+     * one bad key cannot hold back the rest forever. Batches that fail for any other reason, such as the
+     * database being unavailable, are put back into the buffer and retried on the next flush.
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            List<ClickIncrement> increments = drain();
+            if (increments.isEmpty()) {
+                return 0;
+            }
+            increments.sort((a, b) -> ActivityKey.INDEX_ORDER.compare(a.key(), b.key()));
+
+            int written = 0;
+            int batchSize = Math.max(1, properties.getBatchSize());
+            for (int from = 0; from < increments.size(); from += batchSize) {
+                List<ClickIncrement> batch = increments.subList(from, Math.min(from + batchSize, increments.size()));
+                try {
+                    studentActivityService.applyIncrements(batch);
+                    written += batch.size();
+                } catch (RuntimeException ex) {
+                    if (isRejected(ex) && batch.size() > 1) {
+                        log.warn("Batch of {} buffered click increments was rejected, writing them one by one: {}",
+                                batch.size(), ex.getMessage());
+                        written += writeSingly(batch);
+                    } else {
+                        requeue(batch, 0, ex);
+                    }
+                }
+            }
+            log.debug("Flushed {} buffered click increments", written);
+            return written;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int writeSingly(List<ClickIncrement> batch) {
+        int written = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            ClickIncrement increment = batch.get(i);
+            try {
+                studentActivityService.applyIncrements(List.of(increment));
+                written++;
+            } catch (RuntimeException ex) {
+                if (!isRejected(ex)) {
+                    requeue(batch, i, ex);
+                    break;
+                }
+                dropped.incrementAndGet();
+                log.error("Dropping {} buffered clicks of {}, the database rejected them", increment.clicks(), increment.key(), ex);
+            }
+        }
+        return written;
+    }
+
+    private void requeue(List<ClickIncrement> batch, int from, RuntimeException ex) {
+        log.error("Failed to flush {} buffered click increments, re-queueing them", batch.size() - from, ex);
+        batch.subList(from, batch.size()).forEach(increment -> merge(increment.key(), increment.clicks()));
+    }
+
+    // Constraint violations and out of range sums fail the same way on every retry, unlike an unreachable database
+    private static boolean isRejected(RuntimeException ex) {
+        return ex instanceof NonTransientDataAccessException && !(ex instanceof DataAccessResourceFailureException);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.error("Unexpected error while flushing buffered click increments", ex);
+        }
+    }
+
+    private List<ClickIncrement> drain() {
+        List<ClickIncrement> increments = new ArrayList<>(pending.size());
+        for (ActivityKey key : pending.keySet()) {
+            AtomicLong sum = pending.remove(key);
+            if (sum == null) {
+                continue;
+            }
+            long remaining = sum.getAndSet(DRAINED);
+            // sum_clicks is an INT column, split sums that do not fit into a single statement
+            while (remaining > Integer.MAX_VALUE) {
+                increments.add(new ClickIncrement(key, Integer.MAX_VALUE));
+                remaining -= Integer.MAX_VALUE;
+            }
+            increments.add(new ClickIncrement(key, (int) remaining));
+        }
+        return increments;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || scheduler != null) {
+            return;
+        }
+        long intervalMillis = properties.getFlushInterval().toMillis();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "click-aggregation-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        scheduler = executor;
+        log.info("Write-behind click aggregation enabled, flushing every {} ms", intervalMillis);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        if (executor == null) {
+            return;
+        }
+        scheduler = null;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(properties.getFlushInterval().toMillis() + 5_000, TimeUnit.MILLISECONDS)) {
+                log.warn("Timed out waiting for the click aggregation flusher to stop");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        int written = flush();
+        log.info("Flushed {} buffered click increments on shutdown", written);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,68 @@
+package pack.activityservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pack.activityservice.config.TotalsCacheProperties;
+import pack.activityservice.event.ActivityChange;
+import pack.activityservice.event.ActivityChangedEvent;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.model.StudentCourseKey;
+
+import java.util.function.Function;
+
+/**
+ * Read-through cache of the click totals served by the total-clicks endpoints.
+ * <p>
+ * Entries are invalidated after every committed write of this instance that touches the student, so
+ * this instance never serves a total stale past its own commit-to-invalidation window; a load that races
+ * with such a write is safe as well, see {@link CacheLoads}. Invalidation is local: writes made by other
+ * instances are only seen once the entry expires, {@code expire-after-write} after it was loaded.
+ * Hit, miss and eviction counts are published as {@code cache.*} meters through the actuator.
+ */
+@Component
+public class ClickTotalsCache implements MeterBinder {
+
+    private final AsyncCache<Long, Long> studentTotals;
+    private final AsyncCache<StudentCourseKey, Long> studentCourseTotals;
+
+    public ClickTotalsCache(TotalsCacheProperties properties) {
+        this.studentTotals = buildCache(properties);
+        this.studentCourseTotals = buildCache(properties);
+    }
+
+    public Long getStudentTotal(Long studentId, Function<Long, Long> loader) {
+        return CacheLoads.getOrLoad(studentTotals, studentId, loader);
+    }
+
+    public Long getStudentCourseTotal(StudentCourseKey key, Function<StudentCourseKey, Long> loader) {
+        return CacheLoads.getOrLoad(studentCourseTotals, key, loader);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivityChanged(ActivityChangedEvent event) {
+        for (ActivityChange change : event.changes()) {
+            ActivityKey key = change.key();
+            studentTotals.synchronous().invalidate(key.studentId());
+            studentCourseTotals.synchronous().invalidate(StudentCourseKey.of(key));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, studentTotals, "studentTotalClicks");
+        CaffeineCacheMetrics.monitor(registry, studentCourseTotals, "studentCourseTotalClicks");
+    }
+
+    private static <K, V> AsyncCache<K, V> buildCache(TotalsCacheProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .buildAsync();
+    }
+}
@@ -0,0 +1,19 @@
+package pack.activityservice.service;
+
+import pack.activityservice.dto.CourseRollupDTO;
+import pack.activityservice.dto.LeaderboardEntryDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CourseAnalyticsService {
+
+    List<CourseRollupDTO> getDailyTotals(String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate);
+
+    List<CourseRollupDTO> getWeeklyTotals(String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate);
+
+    void rebuildRollups(String courseCode, String moduleCode);
+
+    List<LeaderboardEntryDTO> getLeaderboard(
+            String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate, Integer limit);
+}
@@ -0,0 +1,342 @@
+package pack.activityservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pack.activityservice.config.LeaderboardProperties;
+import pack.activityservice.dto.LeaderboardEntryDTO;
+import pack.activityservice.event.ActivityChange;
+import pack.activityservice.event.ActivityChangedEvent;
+import pack.activityservice.model.CourseKey;
+import pack.activityservice.model.StudentCourseTotal;
+import pack.activityservice.repository.ActivityArchive;
+import pack.activityservice.repository.StudentActivityRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory ranking of every student of every course presentation by total clicks.
+ * <p>
+ * Loaded from the database before the web server and the write-behind buffer start, then kept current
+ * from committed {@link ActivityChangedEvent}s, so a top-N read walks N entries of a sorted set. Writes
+ * made by other instances are picked up by the periodic rebuild; changes committed on this instance
+ * after the rebuild's snapshot are replayed onto the new rankings before they replace the old ones.
+ * <p>
+ * Commits are never blocked: a rebuild starts collecting applied changes, fixes its snapshot and then
+ * checks through {@link InFlightCommits} that no commit of this instance was in flight meanwhile, retrying
+ * with a new snapshot otherwise. A change is therefore either committed and applied before the snapshot,
+ * or committed after it and replayed, never both. Rebuilt totals include archived clicks, counted from an
+ * {@link ActivityArchive.Snapshot}, and live ones from its boundary on.
+ */
+@Component
+public class CourseLeaderboard implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CourseLeaderboard.class);
+
+    // Load before ClickAggregationBuffer and the web server start producing changes
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 8192;
+
+    private static final Comparator<StudentTotal> RANK_ORDER = Comparator
+            .comparingLong(StudentTotal::clicks).reversed()
+            .thenComparingLong(StudentTotal::studentId);
+
+    // A snapshot that keeps racing this instance's commits is retried this often, a short pause apart
+    private static final int SNAPSHOT_ATTEMPTS = 50;
+    private static final long SNAPSHOT_RETRY_PAUSE_MILLIS = 20;
+
+    private final StudentActivityRepository studentActivityRepository;
+    private final ActivityArchive activityArchive;
+    private final LeaderboardProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Serializes applying changes with swapping in rebuilt rankings
+    private final ReentrantLock changeLock = new ReentrantLock();
+    private final InFlightCommits commits = new InFlightCommits();
+
+    private volatile Map<CourseKey, Ranking> rankings = new ConcurrentHashMap<>();
+    private List<ActivityChange> changesDuringRebuild;
+    private volatile ScheduledExecutorService scheduler;
+
+    public CourseLeaderboard(StudentActivityRepository studentActivityRepository,
+                             ActivityArchive activityArchive,
+                             LeaderboardProperties properties,
+                             PlatformTransactionManager transactionManager) {
+        this.studentActivityRepository = studentActivityRepository;
+        this.activityArchive = activityArchive;
+        this.properties = properties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Every read of a rebuild sees the snapshot fixed by its first one
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    public List<LeaderboardEntryDTO> top(String courseCode, String moduleCode, int limit) {
+        Ranking ranking = rankings.get(new CourseKey(courseCode, moduleCode));
+        return ranking == null ? List.of() : ranking.top(limit);
+    }
+
+    // Runs in the writing transaction, the changes are applied once it has committed
+    @EventListener
+    public void onActivityChanged(ActivityChangedEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            commits.enter();
+            try {
+                applyCommitted(event.changes());
+            } finally {
+                commits.exit();
+            }
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.addAll(event.changes());
+    }
+
+    private void applyCommitted(List<ActivityChange> changes) {
+        changeLock.lock();
+        try {
+            apply(rankings, changes);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.addAll(changes);
+            }
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the rankings with totals read from the database.
+     */
+    public void rebuild() {
+        try {
+            Map<CourseKey, Ranking> rebuilt;
+            ActivityArchive.Snapshot archived;
+            // A segment published meanwhile may have had its rows deleted before the stream reached them
+            do {
+                archived = activityArchive.snapshot();
+                rebuilt = load(archived);
+            } while (!activityArchive.isCurrent(archived));
+
+            changeLock.lock();
+            try {
+                apply(rebuilt, changesDuringRebuild);
+                rankings = rebuilt;
+            } finally {
+                changeLock.unlock();
+            }
+            log.info("Rebuilt course leaderboards for {} courses", rebuilt.size());
+        } finally {
+            changeLock.lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                changeLock.unlock();
+            }
+        }
+    }
+
+    private Map<CourseKey, Ranking> load(ActivityArchive.Snapshot archived) {
+        for (int attempt = 1; attempt <= SNAPSHOT_ATTEMPTS; attempt++) {
+            Map<CourseKey, Ranking> loaded = readOnlyTransaction.execute(status -> loadSnapshot(archived));
+            if (loaded != null) {
+                archived.forEachStudentCourseTotal(total -> add(loaded, total));
+                return loaded;
+            }
+            try {
+                Thread.sleep(SNAPSHOT_RETRY_PAUSE_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while rebuilding course leaderboards", ex);
+            }
+        }
+        throw new IllegalStateException("Commits kept racing the course leaderboard snapshot, keeping the current rankings");
+    }
+
+    // Reads the live totals, or returns null when a commit of this instance may have raced the snapshot
+    private Map<CourseKey, Ranking> loadSnapshot(ActivityArchive.Snapshot archived) {
+        long stamp = commits.tryStamp();
+        if (stamp < 0) {
+            return null;
+        }
+        changeLock.lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            changeLock.unlock();
+        }
+        // The first read fixes the snapshot, every change applied from here on is replayed onto it
+        studentActivityRepository.findMaxId();
+        if (!commits.validate(stamp)) {
+            return null;
+        }
+        Map<CourseKey, Ranking> loaded = new ConcurrentHashMap<>();
+        try (Stream<StudentCourseTotal> totals =
+                     studentActivityRepository.streamStudentCourseTotals(archived.boundary(), properties.getFetchSize())) {
+            totals.forEach(total -> add(loaded, total));
+        }
+        return loaded;
+    }
+
+    private static void add(Map<CourseKey, Ranking> target, StudentCourseTotal total) {
+        target.computeIfAbsent(new CourseKey(total.courseCode(), total.moduleCode()), key -> new Ranking())
+                .add(total.studentId(), total.totalClicks());
+    }
+
+    private static void apply(Map<CourseKey, Ranking> target, List<ActivityChange> changes) {
+        for (ActivityChange change : changes) {
+            long delta = change.clicksDelta();
+            if (delta != 0) {
+                target.computeIfAbsent(new CourseKey(change.key().courseCode(), change.key().moduleCode()), key -> new Ranking())
+                        .add(change.key().studentId(), delta);
+            }
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.error("Failed to rebuild course leaderboards, keeping the current ones", ex);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (scheduler != null) {
+            return;
+        }
+        rebuild();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "course-leaderboard-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getRefreshInterval().toMillis();
+        if (intervalMillis > 0) {
+            executor.scheduleWithFixedDelay(this::rebuildQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        scheduler = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        if (executor != null) {
+            scheduler = null;
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private record StudentTotal(long studentId, long clicks) {
+    }
+
+    /**
+     * Changes of one transaction, applied after it commits; the transaction is in flight from just before its
+     * commit until then.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final List<ActivityChange> changes = new ArrayList<>();
+        private boolean entered;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            commits.enter();
+            entered = true;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CourseLeaderboard.this);
+            try {
+                if (status == STATUS_COMMITTED) {
+                    applyCommitted(changes);
+                }
+            } finally {
+                if (entered) {
+                    commits.exit();
+                }
+            }
+        }
+    }
+
+    /**
+     * Totals of one course presentation, indexed both by student and by rank.
+     */
+    private static final class Ranking {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Long> totals = new HashMap<>();
+        private final NavigableSet<StudentTotal> byRank = new TreeSet<>(RANK_ORDER);
+
+        void add(long studentId, long delta) {
+            lock.writeLock().lock();
+            try {
+                Long previous = totals.get(studentId);
+                long current = (previous == null ? 0 : previous) + delta;
+                if (previous != null) {
+                    byRank.remove(new StudentTotal(studentId, previous));
+                }
+                // Students without clicks have nothing to rank by
+                if (current > 0) {
+                    totals.put(studentId, current);
+                    byRank.add(new StudentTotal(studentId, current));
+                } else {
+                    totals.remove(studentId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<LeaderboardEntryDTO> top(int limit) {
+            lock.readLock().lock();
+            try {
+                List<LeaderboardEntryDTO> entries = new ArrayList<>(Math.min(limit, byRank.size()));
+                for (StudentTotal total : byRank) {
+                    if (entries.size() == limit) {
+                        break;
+                    }
+                    entries.add(new LeaderboardEntryDTO(entries.size() + 1, total.studentId(), total.clicks()));
+                }
+                return entries;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package pack.activityservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.event.ActivityChange;
+import pack.activityservice.event.ActivityChangedEvent;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.model.CourseKey;
+import pack.activityservice.model.CoursePeriodKey;
+import pack.activityservice.model.RollupDelta;
+import pack.activityservice.model.WeekStudentKey;
+import pack.activityservice.repository.ActivityArchive;
+import pack.activityservice.repository.CourseRollupRepository;
+import pack.activityservice.repository.StudentActivityRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Maintains the course rollup tables read by {@link CourseAnalyticsService}.
+ * <p>
+ * A transaction's {@link ActivityChangedEvent}s are collected while it runs and queued once it has committed.
+ * A single writer thread applies everything queued in one short transaction, so writers neither hold rollup
+ * row locks nor need a second connection, and the rollups trail the activity rows by one write cycle. A
+ * batch that fails is logged with its courses, which a rebuild then repairs.
+ * <p>
+ * Rebuilds replace one week per transaction on the writer thread, after applying what is queued. A week is
+ * redone when a commit of this instance raced the read that fixed its snapshot, tracked through
+ * {@link InFlightCommits}, so every change is either applied before the week is deleted or on top of the
+ * rebuilt week, never both. Writes of other instances committing during a rebuild are not tracked, and the
+ * week they land in may be off until it is rebuilt again.
+ */
+@Component
+public class CourseRollups implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CourseRollups.class);
+
+    // Stop after ClickAggregationBuffer's final flush has queued its changes
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 8192;
+
+    // Queued changes applied per transaction
+    private static final int APPLY_BATCH_SIZE = 5000;
+
+    // Activity rows replayed per round trip when rebuilding a course's rollups
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    // A week whose snapshot keeps racing this instance's commits is retried this often, a short pause apart
+    private static final int REBUILD_WEEK_ATTEMPTS = 50;
+    private static final long REBUILD_RETRY_PAUSE_MILLIS = 20;
+
+    private final CourseRollupRepository courseRollupRepository;
+    private final StudentActivityRepository studentActivityRepository;
+    private final ActivityArchive activityArchive;
+    private final TransactionTemplate applyTransaction;
+    private final TransactionTemplate rebuildTransaction;
+
+    private final InFlightCommits commits = new InFlightCommits();
+    private final Queue<List<ActivityChange>> queued = new ConcurrentLinkedQueue<>();
+    private volatile ExecutorService writer;
+
+    public CourseRollups(CourseRollupRepository courseRollupRepository,
+                         StudentActivityRepository studentActivityRepository,
+                         ActivityArchive activityArchive,
+                         PlatformTransactionManager transactionManager) {
+        this.courseRollupRepository = courseRollupRepository;
+        this.studentActivityRepository = studentActivityRepository;
+        this.activityArchive = activityArchive;
+        // Also used while stopping, when a writing transaction may still be bound to the calling thread
+        this.applyTransaction = new TransactionTemplate(transactionManager);
+        this.applyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Every page of a rebuilt week is read from the snapshot its stamp was validated against
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        this.rebuildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rebuildTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    // Runs in the writing transaction, the changes are queued once it has committed
+    @EventListener
+    public void onActivityChanged(ActivityChangedEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            commits.enter();
+            enqueue(event.changes());
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.addAll(event.changes());
+    }
+
+    // Leaves the commit's in-flight window once its changes are queued behind any rebuild that could miss them
+    private void enqueue(List<ActivityChange> changes) {
+        queued.add(changes);
+        commits.exit();
+        ExecutorService executor = writer;
+        if (executor == null) {
+            applyQueued();
+            return;
+        }
+        try {
+            executor.execute(this::applyQueued);
+        } catch (RejectedExecutionException ex) {
+            applyQueued();
+        }
+    }
+
+    /**
+     * Applies every change queued so far, waiting for the writer thread if it runs.
+     */
+    public void flush() {
+        onWriter(() -> {
+            applyQueued();
+            return null;
+        });
+    }
+
+    private void applyQueued() {
+        List<ActivityChange> batch = new ArrayList<>();
+        List<ActivityChange> changes;
+        while ((changes = queued.poll()) != null) {
+            batch.addAll(changes);
+            if (batch.size() >= APPLY_BATCH_SIZE) {
+                applyBatch(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            applyBatch(batch);
+        }
+    }
+
+    private void applyBatch(List<ActivityChange> batch) {
+        try {
+            applyTransaction.executeWithoutResult(status -> apply(batch));
+        } catch (RuntimeException ex) {
+            // The activity rows are committed already, only a rebuild can bring their courses' rollups back in line
+            log.error("Failed to update the rollups of courses {}, rebuild them",
+                    batch.stream().map(change -> change.key().courseCode() + "-" + change.key().moduleCode())
+                            .distinct().toList(), ex);
+        }
+    }
+
+    /**
+     * Replaces a course presentation's rollups, including archived weeks, one week per transaction.
+     */
+    public void rebuild(String courseCode, String moduleCode) {
+        CourseKey course = new CourseKey(courseCode, moduleCode);
+        LocalDate firstArchived = firstArchivedDate(course);
+        LocalDate first = earliest(
+                courseRollupRepository.findFirstWeek(courseCode, moduleCode),
+                studentActivityRepository.findFirstCourseDate(course),
+                firstArchived);
+        LocalDate last = latest(
+                courseRollupRepository.findLastWeek(courseCode, moduleCode),
+                studentActivityRepository.findLastCourseDate(course),
+                firstArchived == null ? null : activityArchive.snapshot().boundary().minusDays(1));
+        long replayed = 0;
+        int weeks = 0;
+        if (first != null) {
+            for (LocalDate week = CoursePeriodKey.weekStart(first); !week.isAfter(last); week = week.plusWeeks(1)) {
+                replayed += rebuildWeek(course, week);
+                weeks++;
+            }
+        }
+        log.info("Rebuilt rollups for course: {}-{} from {} activities in {} weeks", courseCode, moduleCode, replayed, weeks);
+    }
+
+    private int rebuildWeek(CourseKey course, LocalDate week) {
+        for (int attempt = 1; attempt <= REBUILD_WEEK_ATTEMPTS; attempt++) {
+            Integer replayed = onWriter(() -> {
+                long stamp = commits.tryStamp();
+                if (stamp < 0) {
+                    return null;
+                }
+                // Changes queued before the stamp reach the old rollups and are deleted with them
+                applyQueued();
+                return rebuildTransaction.execute(status -> {
+                    Integer rows = replayWeek(course, week, stamp);
+                    if (rows == null) {
+                        status.setRollbackOnly();
+                    }
+                    return rows;
+                });
+            });
+            if (replayed != null) {
+                return replayed;
+            }
+            try {
+                Thread.sleep(REBUILD_RETRY_PAUSE_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while rebuilding the rollups of " + course + " for " + week, ex);
+            }
+        }
+        throw new ConcurrencyFailureException("Writes kept committing while rebuilding the rollups of "
+                + course + " for the week of " + week + ", retry the rebuild");
+    }
+
+    // Replaces one week's rollups, or returns null when a commit raced the snapshot and the week has to be redone
+    private Integer replayWeek(CourseKey course, LocalDate week, long stamp) {
+        ActivityArchive.Snapshot archived = activityArchive.snapshot();
+        LocalDate boundary = archived.boundary();
+        LocalDate weekEnd = week.plusDays(6);
+
+        courseRollupRepository.deleteWeekRollups(course.courseCode(), course.moduleCode(), week);
+
+        int replayed = 0;
+        if (boundary == null || !weekEnd.isBefore(boundary)) {
+            LocalDate afterDate = boundary == null || week.isAfter(boundary) ? week : boundary;
+            long afterId = 0;
+            List<StudentActivityDTO> page = studentActivityRepository.findCourseDateRangePage(
+                    course, afterDate, afterId, weekEnd, Limit.of(REBUILD_PAGE_SIZE));
+            // The first read fixes the snapshot, a change committed before it must already be in the rollups
+            if (!commits.validate(stamp)) {
+                return null;
+            }
+            while (true) {
+                replay(page);
+                replayed += page.size();
+                if (page.size() < REBUILD_PAGE_SIZE) {
+                    break;
+                }
+                StudentActivityDTO lastRow = page.get(page.size() - 1);
+                page = studentActivityRepository.findCourseDateRangePage(
+                        course, lastRow.getDate(), lastRow.getId(), weekEnd, Limit.of(REBUILD_PAGE_SIZE));
+            }
+        }
+        // Archived weeks take no more writes, their rows only have to come from one snapshot
+        if (boundary != null && week.isBefore(boundary)) {
+            Iterator<StudentActivityDTO> archivedRows = archived.courseRows(course, week.minusDays(1), Long.MAX_VALUE, weekEnd);
+            List<StudentActivityDTO> page;
+            do {
+                page = ActivityArchive.take(archivedRows, REBUILD_PAGE_SIZE);
+                replay(page);
+                replayed += page.size();
+            } while (page.size() == REBUILD_PAGE_SIZE);
+        }
+        // A segment published meanwhile may have had its rows deleted before the live read
+        return activityArchive.isCurrent(archived) ? replayed : null;
+    }
+
+    private LocalDate firstArchivedDate(CourseKey course) {
+        Iterator<StudentActivityDTO> rows = activityArchive.courseRows(course, null, 0L, null);
+        return rows.hasNext() ? rows.next().getDate() : null;
+    }
+
+    private static LocalDate earliest(LocalDate... dates) {
+        return Arrays.stream(dates).filter(Objects::nonNull).min(Comparator.naturalOrder()).orElse(null);
+    }
+
+    private static LocalDate latest(LocalDate... dates) {
+        return Arrays.stream(dates).filter(Objects::nonNull).max(Comparator.naturalOrder()).orElse(null);
+    }
+
+    private void replay(List<StudentActivityDTO> rows) {
+        apply(rows.stream()
+                .map(row -> new ActivityChange(
+                        new ActivityKey(row.getStudentId(), row.getCourseCode(), row.getModuleCode(), row.getDate()),
+                        0, row.getSumClicks()))
+                .toList());
+    }
+
+    private void apply(List<ActivityChange> changes) {
+        // Sorted maps, so every transaction locks rollup rows in primary key order
+        Map<CoursePeriodKey, RollupDelta> daily = new TreeMap<>(CoursePeriodKey.INDEX_ORDER);
+        Map<CoursePeriodKey, RollupDelta> weekly = new TreeMap<>(CoursePeriodKey.INDEX_ORDER);
+        Map<WeekStudentKey, Integer> weekStudents = new TreeMap<>(WeekStudentKey.INDEX_ORDER);
+
+        for (ActivityChange change : changes) {
+            long clicks = change.clicksDelta();
+            int active = change.activeDelta();
+            if (clicks == 0 && active == 0) {
+                continue;
+            }
+            CoursePeriodKey week = CoursePeriodKey.week(change.key());
+            daily.merge(CoursePeriodKey.day(change.key()), new RollupDelta(clicks, active), RollupDelta::plus);
+            weekly.merge(week, new RollupDelta(clicks, 0), RollupDelta::plus);
+            if (active != 0) {
+                weekStudents.merge(new WeekStudentKey(week, change.key().studentId()), active, Integer::sum);
+            }
+        }
+        weekStudents.values().removeIf(days -> days == 0);
+
+        // A student joins or leaves a week's distinct count when their active days cross zero
+        Map<WeekStudentKey, Integer> activeDays = courseRollupRepository.applyWeekStudentDeltas(weekStudents);
+        weekStudents.forEach((key, delta) -> {
+            int after = activeDays.getOrDefault(key, 0);
+            int before = after - delta;
+            int joined = (after > 0 ? 1 : 0) - (before > 0 ? 1 : 0);
+            if (joined != 0) {
+                weekly.merge(key.week(), new RollupDelta(0, joined), RollupDelta::plus);
+            }
+        });
+
+        daily.values().removeIf(RollupDelta::isZero);
+        weekly.values().removeIf(RollupDelta::isZero);
+        courseRollupRepository.applyDailyDeltas(daily);
+        courseRollupRepository.applyWeeklyDeltas(weekly);
+    }
+
+    // Runs the task on the writer thread and waits for it, or on the calling thread while the writer is stopped
+    private <T> T onWriter(Supplier<T> task) {
+        ExecutorService executor = writer;
+        if (executor == null) {
+            return task.get();
+        }
+        try {
+            return executor.submit(task::get).get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("The rollup writer failed", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the rollup writer", ex);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (writer != null) {
+            return;
+        }
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "course-rollup-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void stop() {
+        ExecutorService executor = writer;
+        if (executor == null) {
+            return;
+        }
+        writer = null;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        applyQueued();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Changes of one transaction, queued after it commits; the transaction is in flight from just before its
+     * commit until then.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final List<ActivityChange> changes = new ArrayList<>();
+        private boolean entered;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            commits.enter();
+            entered = true;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CourseRollups.this);
+            if (status == STATUS_COMMITTED) {
+                enqueue(changes);
+            } else if (entered) {
+                commits.exit();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package pack.activityservice.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks this instance's transactions from just before they commit until their after-commit work is done,
+ * without ever blocking them.
+ * <p>
+ * A rebuild that reads a snapshot and then has to reconcile it with changes applied after commit takes a
+ * stamp before the read and validates it once the snapshot is fixed, the way a {@code StampedLock}
+ * optimistic read works. A valid stamp means no commit was in flight in between, so every change is either
+ * in the snapshot and already applied, or committed after it; an invalid one means the read is retried.
+ */
+public final class InFlightCommits {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong entered = new AtomicLong();
+
+    // Called from beforeCommit, before the transaction can become visible to a snapshot
+    public void enter() {
+        inFlight.incrementAndGet();
+        entered.incrementAndGet();
+    }
+
+    // Called once the committed changes have been applied, or the transaction rolled back
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Returns a stamp to validate after the snapshot read, or -1 while a commit is in flight.
+     */
+    public long tryStamp() {
+        long stamp = entered.get();
+        return inFlight.get() == 0 ? stamp : -1;
+    }
+
+    /**
+     * Tells whether no transaction has started committing since the stamp was taken.
+     */
+    public boolean validate(long stamp) {
+        return stamp >= 0 && entered.get() == stamp;
+    }
+}
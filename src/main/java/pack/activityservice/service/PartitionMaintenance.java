@@ -0,0 +1,213 @@
+package pack.activityservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pack.activityservice.config.PartitionProperties;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.event.ActivityChange;
+import pack.activityservice.event.ActivityChangedEvent;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.model.ActivityPartition;
+import pack.activityservice.repository.StudentActivityPartitionRepository;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the date partitions of {@code student_activity} rolling.
+ * <p>
+ * At start and every {@code check-interval}, partitions are added so that the current period and
+ * {@code future-partitions} periods after it have one of their own, and partitions whose dates are all past
+ * the retention are archived or dropped. Each partition covers {@code period-months} months starting in a
+ * month aligned to January and is named {@code pYYYYMM} after its first month.
+ * <p>
+ * An expired partition is emptied in chunked transactions before it is dropped: each chunk is locked, copied
+ * into the archive table when archiving, deleted, and published as removed {@link ActivityChange}s, so that
+ * rollups, leaderboards and caches all forget the expired rows together. This copies rows where
+ * {@code EXCHANGE PARTITION} would only swap metadata, in exchange for every view agreeing. Rows written
+ * into the expired dates between the last chunk and the drop go without an event.
+ * <p>
+ * Missing periods are backfilled from the last bound by a single {@code REORGANIZE PARTITION} of the
+ * catch-all, which copies every row of the catch-all under a metadata lock that blocks writes. The first run
+ * after partition-student-activity.sql therefore costs as much as the rows dated after {@code p_past}: set
+ * its bound to the start of the current period, or run the first check in a maintenance window.
+ * <p>
+ * Enable it on one instance only: the DDL of a concurrent run fails and is retried at the next check.
+ */
+@Component
+public class PartitionMaintenance implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionMaintenance.class);
+
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final StudentActivityPartitionRepository partitionRepository;
+    private final PartitionProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile ScheduledExecutorService scheduler;
+
+    public PartitionMaintenance(StudentActivityPartitionRepository partitionRepository,
+                                PartitionProperties properties,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager) {
+        this.partitionRepository = partitionRepository;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    void maintain(LocalDate today) {
+        List<ActivityPartition> partitions = partitionRepository.findPartitions();
+        if (partitions.isEmpty()) {
+            log.warn("student_activity is not partitioned, run partition-student-activity.sql to enable maintenance");
+            return;
+        }
+        ActivityPartition catchAll = null;
+        LocalDate lastBound = null;
+        for (ActivityPartition partition : partitions) {
+            if (partition.isCatchAll()) {
+                catchAll = partition;
+            } else if (lastBound == null || partition.lessThan().isAfter(lastBound)) {
+                lastBound = partition.lessThan();
+            }
+        }
+
+        int periodMonths = properties.getPeriodMonths();
+        LocalDate currentStart = periodStart(today);
+        LocalDate coveredUntil = currentStart.plusMonths((long) periodMonths * (properties.getFuturePartitions() + 1));
+        List<ActivityPartition> added = new ArrayList<>();
+        // Continue from the last bound, backfilling periods missed while maintenance was off
+        LocalDate start = lastBound == null ? currentStart : lastBound;
+        while (start.isBefore(coveredUntil)) {
+            LocalDate end = start.plusMonths(periodMonths);
+            added.add(new ActivityPartition(NAME_FORMAT.format(start), end));
+            start = end;
+        }
+        if (!added.isEmpty()) {
+            if (catchAll != null && lastBound != null && lastBound.isBefore(currentStart)) {
+                log.warn("Backfilling student_activity partitions from {}, {} is copied under a lock that blocks writes",
+                        lastBound, catchAll.name());
+            }
+            partitionRepository.addPartitions(added, catchAll);
+            log.info("Added student_activity partitions {}", added.stream().map(ActivityPartition::name).toList());
+        }
+
+        Period retention = properties.getRetention();
+        if (retention.isZero()) {
+            return;
+        }
+        LocalDate cutoff = periodStart(today.minus(retention));
+        for (ActivityPartition partition : partitions) {
+            if (partition.isCatchAll() || partition.lessThan().isAfter(cutoff)) {
+                continue;
+            }
+            if (properties.getExpiredAction() == PartitionProperties.ExpiredAction.ARCHIVE) {
+                String archiveTable = properties.getArchiveTablePrefix() + "_" + partition.name();
+                partitionRepository.createArchiveTable(archiveTable);
+                long removed = expire(partition, archiveTable);
+                log.info("Archived {} activities of student_activity partition {} into {}",
+                        removed, partition.name(), archiveTable);
+            } else {
+                long removed = expire(partition, null);
+                log.info("Dropped student_activity partition {} with {} activities", partition.name(), removed);
+            }
+        }
+    }
+
+    // Empties the partition chunk by chunk, copying each chunk into archiveTable unless null, then drops it
+    private long expire(ActivityPartition partition, String archiveTable) {
+        int chunkSize = properties.getChunkSize();
+        long removed = 0;
+        long afterId = 0;
+        int chunk;
+        do {
+            long from = afterId;
+            List<StudentActivityDTO> rows = transactionTemplate.execute(status -> {
+                List<StudentActivityDTO> locked = partitionRepository.lockRows(partition, from, chunkSize);
+                if (locked.isEmpty()) {
+                    return locked;
+                }
+                long lastId = locked.get(locked.size() - 1).getId();
+                if (archiveTable != null) {
+                    partitionRepository.copyRows(partition, from, lastId, archiveTable);
+                }
+                partitionRepository.deleteRows(partition, from, lastId);
+                List<ActivityChange> changes = new ArrayList<>(locked.size());
+                for (StudentActivityDTO row : locked) {
+                    changes.add(new ActivityChange(new ActivityKey(row.getStudentId(), row.getCourseCode(),
+                            row.getModuleCode(), row.getDate()), row.getSumClicks(), 0));
+                }
+                eventPublisher.publishEvent(new ActivityChangedEvent(changes));
+                return locked;
+            });
+            chunk = rows.size();
+            if (chunk > 0) {
+                afterId = rows.get(chunk - 1).getId();
+            }
+            removed += chunk;
+        } while (chunk == chunkSize);
+        partitionRepository.dropPartition(partition);
+        return removed;
+    }
+
+    // First day of the period containing the date
+    LocalDate periodStart(LocalDate date) {
+        int periodMonths = properties.getPeriodMonths();
+        int firstMonth = (date.getMonthValue() - 1) / periodMonths * periodMonths + 1;
+        return LocalDate.of(date.getYear(), firstMonth, 1);
+    }
+
+    private void maintainQuietly() {
+        try {
+            maintain(LocalDate.now());
+        } catch (RuntimeException ex) {
+            log.error("Failed to maintain student_activity partitions, retrying at the next check", ex);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || scheduler != null) {
+            return;
+        }
+        if (!partitionRepository.isSupported()) {
+            log.warn("Partition maintenance is enabled but the database is not MySQL, skipping it");
+            return;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::maintainQuietly, 0,
+                properties.getCheckInterval().toMillis(), TimeUnit.MILLISECONDS);
+        scheduler = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        if (executor != null) {
+            scheduler = null;
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -1,8 +1,12 @@
 package pack.activityservice.service;
 
+import pack.activityservice.dto.ActivityTotalDTO;
+import pack.activityservice.dto.ClickIncrementDTO;
+import pack.activityservice.dto.CursorPageDTO;
 import pack.activityservice.dto.StudentActivityCreateDTO;
 import pack.activityservice.dto.StudentActivityDTO;
 import pack.activityservice.dto.StudentActivityUpdateDTO;
+import pack.activityservice.model.ClickIncrement;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -13,20 +17,21 @@ public interface StudentActivityService {
 
     StudentActivityDTO getActivityById(Long id);
 
-    List<StudentActivityDTO> getAllActivities();
+    CursorPageDTO<StudentActivityDTO> getAllActivities(String cursor, Integer limit);
 
-    List<StudentActivityDTO> getActivitiesByStudentId(Long studentId);
+    CursorPageDTO<StudentActivityDTO> getActivitiesByStudentId(Long studentId, String cursor, Integer limit);
 
-    List<StudentActivityDTO> getActivitiesByCourse(String courseCode, String moduleCode);
+    CursorPageDTO<StudentActivityDTO> getActivitiesByCourse(
+            String courseCode, String moduleCode, String cursor, Integer limit);
 
-    List<StudentActivityDTO> getActivitiesByStudentAndCourse(
-            Long studentId, String courseCode, String moduleCode);
+    CursorPageDTO<StudentActivityDTO> getActivitiesByStudentAndCourse(
+            Long studentId, String courseCode, String moduleCode, String cursor, Integer limit);
 
-    List<StudentActivityDTO> getActivitiesByStudentAndDateRange(
-            Long studentId, LocalDate startDate, LocalDate endDate);
+    CursorPageDTO<StudentActivityDTO> getActivitiesByStudentAndDateRange(
+            Long studentId, LocalDate startDate, LocalDate endDate, String cursor, Integer limit);
 
-    List<StudentActivityDTO> getActivitiesByCourseAndDateRange(
-            String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate);
+    CursorPageDTO<StudentActivityDTO> getActivitiesByCourseAndDateRange(
+            String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate, String cursor, Integer limit);
 
     StudentActivityDTO updateActivity(Long id, StudentActivityUpdateDTO updateDTO);
 
@@ -37,5 +42,19 @@ public interface StudentActivityService {
     Long getTotalClicksByStudentAndCourse(Long studentId, String courseCode, String moduleCode);
 
     StudentActivityDTO incrementClicks(Long studentId, String courseCode, String moduleCode, LocalDate date, Integer clicks);
+
+    // Merges increments of the same key and applies them in one transaction, returning the resulting totals in key order
+    List<ActivityTotalDTO> incrementClicksBatch(List<ClickIncrementDTO> increments);
+
+    // Batched form of incrementClicks used by the write-behind buffer and bulk ingestion, increments should be sorted by ActivityKey.INDEX_ORDER;
+    // callers check every date with checkWritable first
+    void applyIncrements(List<ClickIncrement> increments);
+
+    // Stores the clicks of each value as its activity's sum clicks, used by bulk ingestion in replace mode; keys must be
+    // distinct and sorted by ActivityKey.INDEX_ORDER, callers check every date with checkWritable first
+    void replaceClicks(List<ClickIncrement> values);
+
+    // Rejects dates of closed months, which are archived or about to be and no longer accept writes
+    void checkWritable(LocalDate date);
 }
 
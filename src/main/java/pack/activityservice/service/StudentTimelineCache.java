@@ -0,0 +1,108 @@
+package pack.activityservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pack.activityservice.config.TimelineCacheProperties;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.event.ActivityChange;
+import pack.activityservice.event.ActivityChangedEvent;
+import pack.activityservice.model.StudentTimeline;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Optional hot-set cache of whole student timelines, from which student date-range listings are sliced
+ * with a binary search instead of a query.
+ * <p>
+ * Timelines are weighed by their estimated heap footprint and evicted by Caffeine's frequency-aware LRU
+ * once {@code maximum-weight} is reached; {@code activity.timeline.cache.weight} reports the bytes in use.
+ * Committed click changes to rows a timeline already holds are applied in place, any other change drops
+ * the student's timeline. Entries expire {@code expire-after-write} after they were loaded, whatever local
+ * updates they received since, so writes of other instances become visible within that bound.
+ */
+@Component
+public class StudentTimelineCache implements MeterBinder {
+
+    // Remembers students above max-rows-per-student, so their reads skip the load
+    private static final StudentTimeline OVERSIZED = StudentTimeline.of(0L, List.of());
+
+    private final TimelineCacheProperties properties;
+    private final AsyncCache<Long, StudentTimeline> timelines;
+
+    public StudentTimelineCache(TimelineCacheProperties properties) {
+        this.properties = properties;
+        this.timelines = properties.isEnabled() ? buildCache(properties) : null;
+    }
+
+    /**
+     * The cached timeline of a student, loaded with {@code loader} on a miss; {@code null} when the cache
+     * is disabled or the student has too many rows to be cached.
+     */
+    public StudentTimeline getTimeline(Long studentId, BiFunction<Long, Limit, List<StudentActivityDTO>> loader) {
+        if (timelines == null) {
+            return null;
+        }
+        StudentTimeline timeline = CacheLoads.getOrLoad(timelines, studentId, id -> {
+            List<StudentActivityDTO> rows = loader.apply(id, Limit.of(properties.getMaxRowsPerStudent() + 1));
+            return rows.size() > properties.getMaxRowsPerStudent() ? OVERSIZED : StudentTimeline.of(id, rows);
+        });
+        return timeline == OVERSIZED ? null : timeline;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivityChanged(ActivityChangedEvent event) {
+        if (timelines == null) {
+            return;
+        }
+        for (ActivityChange change : event.changes()) {
+            timelines.asMap().computeIfPresent(change.key().studentId(), (studentId, cached) -> apply(cached, change));
+        }
+    }
+
+    // Deleted rows and rows the timeline does not hold yet need their id, so only a reload brings them in
+    private static CompletableFuture<StudentTimeline> apply(CompletableFuture<StudentTimeline> cached, ActivityChange change) {
+        if (change.currentClicks() <= 0 || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return null;
+        }
+        StudentTimeline timeline = cached.join();
+        if (timeline == OVERSIZED) {
+            return cached;
+        }
+        StudentTimeline updated = timeline.withClicks(change.key(), (int) change.currentClicks());
+        return updated == null ? null : CompletableFuture.completedFuture(updated);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (timelines == null) {
+            return;
+        }
+        CaffeineCacheMetrics.monitor(registry, timelines, "studentTimelines");
+        Gauge.builder("activity.timeline.cache.weight", timelines,
+                        cache -> cache.synchronous().policy().eviction()
+                                .map(eviction -> eviction.weightedSize().orElse(0L))
+                                .orElse(0L))
+                .description("Estimated heap retained by cached student timelines")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private static AsyncCache<Long, StudentTimeline> buildCache(TimelineCacheProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumWeight().toBytes())
+                .weigher((Long studentId, StudentTimeline timeline) -> (int) Math.min(Integer.MAX_VALUE, timeline.estimatedBytes()))
+                .expireAfter(Expiry.creating((Long studentId, StudentTimeline timeline) -> properties.getExpireAfterWrite()))
+                .recordStats()
+                .buildAsync();
+    }
+}
@@ -0,0 +1,139 @@
+package pack.activityservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pack.activityservice.config.ExportProperties;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.model.CourseKey;
+import pack.activityservice.model.ExportFormat;
+import pack.activityservice.repository.ActivityArchive;
+import pack.activityservice.repository.StudentActivityRepository;
+import pack.activityservice.service.ActivityExportService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+@Transactional(readOnly = true)
+public class ActivityExportServiceImpl implements ActivityExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityExportServiceImpl.class);
+
+    private static final String CSV_HEADER = "id,studentId,courseCode,moduleCode,date,sumClicks\n";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final StudentActivityRepository studentActivityRepository;
+    private final ObjectWriter dtoWriter;
+    private final ExportProperties exportProperties;
+    private final ActivityArchive activityArchive;
+
+    public ActivityExportServiceImpl(StudentActivityRepository studentActivityRepository,
+                                     ObjectMapper objectMapper,
+                                     ExportProperties exportProperties,
+                                     ActivityArchive activityArchive) {
+        this.studentActivityRepository = studentActivityRepository;
+        this.dtoWriter = objectMapper.writerFor(StudentActivityDTO.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.exportProperties = exportProperties;
+        this.activityArchive = activityArchive;
+    }
+
+    @Override
+    public long exportByCourse(String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate,
+                               ExportFormat format, OutputStream output) throws IOException {
+        log.info("Exporting activities for course: {}-{} between {} and {} as {}",
+                courseCode, moduleCode, startDate, endDate, format);
+
+        CourseKey course = new CourseKey(courseCode, moduleCode);
+        try (Stream<StudentActivityDTO> rows = studentActivityRepository
+                .streamByCourse(course, startDate, endDate, exportProperties.getFetchSize())) {
+            Iterator<StudentActivityDTO> iterator = rows.iterator();
+            if (activityArchive.covers(startDate, endDate)) {
+                iterator = ActivityArchive.merge(List.of(iterator,
+                        activityArchive.courseRows(course, dayBefore(startDate), 0L, endDate)));
+            }
+            return write(iterator, format, output);
+        }
+    }
+
+    @Override
+    public long exportByStudentAndDateRange(Long studentId, LocalDate startDate, LocalDate endDate,
+                                            ExportFormat format, OutputStream output) throws IOException {
+        log.info("Exporting activities for student ID: {} between {} and {} as {}",
+                studentId, startDate, endDate, format);
+
+        try (Stream<StudentActivityDTO> rows = studentActivityRepository
+                .streamByStudentAndDateRange(studentId, startDate, endDate, exportProperties.getFetchSize())) {
+            Iterator<StudentActivityDTO> iterator = rows.iterator();
+            if (activityArchive.covers(startDate, endDate)) {
+                iterator = ActivityArchive.merge(List.of(iterator,
+                        activityArchive.studentRows(studentId, dayBefore(startDate), 0L, endDate)));
+            }
+            return write(iterator, format, output);
+        }
+    }
+
+    // Archive lookups start after a date, ids start at 1
+    private static LocalDate dayBefore(LocalDate startDate) {
+        return startDate == null ? null : startDate.minusDays(1);
+    }
+
+    // Rows go to the response one at a time; nothing but the write buffer is held between them
+    private long write(Iterator<StudentActivityDTO> rows, ExportFormat format, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+        }
+
+        long count = 0;
+        while (rows.hasNext()) {
+            StudentActivityDTO dto = rows.next();
+            if (format == ExportFormat.CSV) {
+                writeCsvRow(writer, dto);
+            } else {
+                dtoWriter.writeValue(writer, dto);
+                writer.write('\n');
+            }
+            count++;
+        }
+        writer.flush();
+
+        log.info("Exported {} activities", count);
+        return count;
+    }
+
+    private static void writeCsvRow(Writer writer, StudentActivityDTO dto) throws IOException {
+        writer.write(String.valueOf(dto.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(dto.getStudentId()));
+        writer.write(',');
+        writer.write(csvField(dto.getCourseCode()));
+        writer.write(',');
+        writer.write(csvField(dto.getModuleCode()));
+        writer.write(',');
+        writer.write(dto.getDate().toString());
+        writer.write(',');
+        writer.write(String.valueOf(dto.getSumClicks()));
+        writer.write('\n');
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
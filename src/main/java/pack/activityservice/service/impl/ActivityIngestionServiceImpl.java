@@ -0,0 +1,332 @@
+package pack.activityservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import pack.activityservice.config.IngestProperties;
+import pack.activityservice.dto.BulkIngestResultDTO;
+import pack.activityservice.dto.BulkRowErrorDTO;
+import pack.activityservice.dto.StudentActivityCreateDTO;
+import pack.activityservice.exception.InvalidRequestException;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.model.ClickIncrement;
+import pack.activityservice.model.IngestMode;
+import pack.activityservice.service.ActivityIngestionService;
+import pack.activityservice.service.StudentActivityService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+@Service
+public class ActivityIngestionServiceImpl implements ActivityIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityIngestionServiceImpl.class);
+
+    private static final List<String> CSV_COLUMNS = List.of("studentid", "coursecode", "modulecode", "date", "sumclicks");
+
+    private final StudentActivityService studentActivityService;
+    private final Validator validator;
+    private final ObjectReader createDTOReader;
+    private final IngestProperties properties;
+
+    public ActivityIngestionServiceImpl(StudentActivityService studentActivityService,
+                                        Validator validator,
+                                        ObjectMapper objectMapper,
+                                        IngestProperties properties) {
+        this.studentActivityService = studentActivityService;
+        this.validator = validator;
+        this.createDTOReader = objectMapper.readerFor(StudentActivityCreateDTO.class);
+        this.properties = properties;
+    }
+
+    @Override
+    public BulkIngestResultDTO ingest(List<StudentActivityCreateDTO> rows, IngestMode mode) {
+        log.info("Bulk ingesting {} student activities in {} mode", rows.size(), mode);
+
+        BatchWriter writer = new BatchWriter(mode);
+        for (StudentActivityCreateDTO row : rows) {
+            writer.accept(row);
+        }
+        return writer.finish();
+    }
+
+    @Override
+    public BulkIngestResultDTO ingestNdjson(InputStream input, IngestMode mode) throws IOException {
+        log.info("Importing student activities from NDJSON in {} mode", mode);
+
+        // One record per line, read straight from the request stream; only the current batch is kept in memory
+        BatchWriter writer = new BatchWriter(mode);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                writer.accept(createDTOReader.readValue(line));
+            } catch (JsonProcessingException ex) {
+                writer.reject("Malformed JSON: " + ex.getOriginalMessage());
+            }
+        }
+        return writer.finish();
+    }
+
+    @Override
+    public BulkIngestResultDTO ingestCsv(InputStream input, IngestMode mode) throws IOException {
+        log.info("Importing student activities from CSV in {} mode", mode);
+
+        BatchWriter writer = new BatchWriter(mode);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            return writer.finish();
+        }
+        int[] columnIndexes = csvColumnIndexes(splitCsvLine(header));
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = splitCsvLine(line);
+            try {
+                writer.accept(new StudentActivityCreateDTO(
+                        parseCsvField(fields, columnIndexes[0], Long::valueOf),
+                        parseCsvField(fields, columnIndexes[1], value -> value),
+                        parseCsvField(fields, columnIndexes[2], value -> value),
+                        parseCsvField(fields, columnIndexes[3], LocalDate::parse),
+                        parseCsvField(fields, columnIndexes[4], Integer::valueOf)));
+            } catch (NumberFormatException | DateTimeParseException ex) {
+                writer.reject("Malformed CSV row: " + ex.getMessage());
+            }
+        }
+        return writer.finish();
+    }
+
+    // Maps the expected columns to their position in the header, accepting camelCase and snake_case names
+    private static int[] csvColumnIndexes(List<String> header) {
+        List<String> normalized = header.stream()
+                .map(name -> name.replace("_", "").trim().toLowerCase(Locale.ROOT))
+                .toList();
+        int[] indexes = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < CSV_COLUMNS.size(); i++) {
+            indexes[i] = normalized.indexOf(CSV_COLUMNS.get(i));
+            if (indexes[i] < 0) {
+                throw new InvalidRequestException("CSV header must contain the columns " +
+                        "studentId, courseCode, moduleCode, date and sumClicks");
+            }
+        }
+        return indexes;
+    }
+
+    private static <T> T parseCsvField(List<String> fields, int index, Function<String, T> parser) {
+        if (index >= fields.size() || fields.get(index).isBlank()) {
+            return null;
+        }
+        return parser.apply(fields.get(index).trim());
+    }
+
+    // RFC 4180 style splitting: fields may be double-quoted and quotes inside them are doubled
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>(CSV_COLUMNS.size());
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Validates rows one at a time and writes them as batched upserts. Rows sharing an activity key are
+     * merged into a single value, the last row's in replace mode and their sum in add mode; a batch that fails is retried key by key so that one bad row does
+     * not abort the rows around it. Memory is bounded by the batch size and the number of reported
+     * errors, not by the size of the input.
+     */
+    private final class BatchWriter {
+
+        private final IngestMode mode;
+        private final Map<ActivityKey, PendingRows> batch = new LinkedHashMap<>();
+        private final List<BulkRowErrorDTO> errors = new ArrayList<>();
+        private final long startedAt = System.nanoTime();
+        private long received;
+        private long accepted;
+        private long rejected;
+
+        BatchWriter(IngestMode mode) {
+            this.mode = mode;
+        }
+
+        void accept(StudentActivityCreateDTO dto) {
+            long row = received++;
+            if (dto == null) {
+                reject(row, "Row is empty", null);
+                return;
+            }
+
+            Set<ConstraintViolation<StudentActivityCreateDTO>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                Map<String, String> validationErrors = new HashMap<>();
+                violations.forEach(violation ->
+                        validationErrors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+                reject(row, "Invalid input data", validationErrors);
+                return;
+            }
+
+            try {
+                studentActivityService.checkWritable(dto.getDate());
+            } catch (InvalidRequestException ex) {
+                reject(row, ex.getMessage(), null);
+                return;
+            }
+
+            ActivityKey key = new ActivityKey(dto.getStudentId(), dto.getCourseCode(), dto.getModuleCode(), dto.getDate());
+            batch.computeIfAbsent(key, k -> new PendingRows(properties.getMaxReportedErrors()))
+                    .add(row, dto.getSumClicks(), mode);
+            if (batch.size() >= Math.max(1, properties.getBatchSize())) {
+                write();
+            }
+        }
+
+        void reject(String message) {
+            reject(received++, message, null);
+        }
+
+        BulkIngestResultDTO finish() {
+            write();
+            errors.sort(Comparator.comparingLong(BulkRowErrorDTO::getRow));
+
+            long durationNanos = System.nanoTime() - startedAt;
+            double rowsPerSecond = durationNanos > 0 ? received * 1_000_000_000d / durationNanos : 0d;
+            log.info("Bulk ingestion finished: {} received, {} accepted, {} rejected in {} ms ({} rows/s)",
+                    received, accepted, rejected, durationNanos / 1_000_000, Math.round(rowsPerSecond));
+            return new BulkIngestResultDTO(received, accepted, rejected, durationNanos / 1_000_000, rowsPerSecond, errors);
+        }
+
+        private void reject(long row, String message, Map<String, String> validationErrors) {
+            rejected++;
+            if (errors.size() < properties.getMaxReportedErrors()) {
+                errors.add(new BulkRowErrorDTO(row, message, validationErrors));
+            }
+        }
+
+        private void write() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<ClickIncrement> increments = new ArrayList<>(batch.size());
+            batch.forEach((key, pending) -> {
+                if (pending.clicks > Integer.MAX_VALUE) {
+                    rejectAll(pending, "Merged sum clicks exceeds " + Integer.MAX_VALUE);
+                } else {
+                    increments.add(new ClickIncrement(key, (int) pending.clicks));
+                }
+            });
+            increments.sort((a, b) -> ActivityKey.INDEX_ORDER.compare(a.key(), b.key()));
+
+            try {
+                apply(increments);
+                increments.forEach(increment -> accepted += batch.get(increment.key()).count);
+            } catch (DataAccessException ex) {
+                log.warn("Batch of {} activities failed, retrying them one by one: {}",
+                        increments.size(), ex.getMostSpecificCause().getMessage());
+                increments.forEach(this::writeSingle);
+            }
+            batch.clear();
+        }
+
+        private void writeSingle(ClickIncrement increment) {
+            PendingRows pending = batch.get(increment.key());
+            try {
+                apply(List.of(increment));
+                accepted += pending.count;
+            } catch (DataAccessException ex) {
+                rejectAll(pending, "Failed to store activity: " + ex.getMostSpecificCause().getMessage());
+            }
+        }
+
+        private void apply(List<ClickIncrement> values) {
+            if (mode == IngestMode.REPLACE) {
+                studentActivityService.replaceClicks(values);
+            } else {
+                studentActivityService.applyIncrements(values);
+            }
+        }
+
+        // Rows past the ones kept could never be reported, so they only count as rejected
+        private void rejectAll(PendingRows pending, String message) {
+            for (int i = 0; i < pending.kept; i++) {
+                reject(pending.rows[i], message, null);
+            }
+            rejected += pending.count - pending.kept;
+        }
+    }
+
+    /**
+     * Rows merged into one increment. Only the first row numbers are kept, unboxed, as many as could be
+     * reported if the increment failed; the rest are counted, so a key repeated throughout a large input
+     * costs no more memory than any other.
+     */
+    private static final class PendingRows {
+
+        private final int maxKept;
+        private long[] rows = new long[1];
+        private int kept;
+        private long count;
+        private long clicks;
+
+        PendingRows(int maxKept) {
+            this.maxKept = maxKept;
+        }
+
+        void add(long row, int sumClicks, IngestMode mode) {
+            if (kept < maxKept) {
+                if (kept == rows.length) {
+                    rows = Arrays.copyOf(rows, Math.min(kept * 2, maxKept));
+                }
+                rows[kept++] = row;
+            }
+            count++;
+            clicks = mode == IngestMode.REPLACE ? sumClicks : clicks + sumClicks;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package pack.activityservice.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pack.activityservice.config.LeaderboardProperties;
+import pack.activityservice.dto.CourseRollupDTO;
+import pack.activityservice.dto.LeaderboardEntryDTO;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.event.ActivityChangedEvent;
+import pack.activityservice.exception.InvalidRequestException;
+import pack.activityservice.model.CourseKey;
+import pack.activityservice.model.CoursePeriodKey;
+import pack.activityservice.repository.ActivityArchive;
+import pack.activityservice.repository.CourseRollupRepository;
+import pack.activityservice.repository.StudentActivityRepository;
+import pack.activityservice.service.CourseAnalyticsService;
+import pack.activityservice.service.CourseLeaderboard;
+import pack.activityservice.service.CourseRollups;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Course time series served from rollup tables instead of scanning {@code student_activity}.
+ * <p>
+ * The rollups are maintained by {@link CourseRollups} from committed {@link ActivityChangedEvent}s, shortly
+ * after the writes that caused them. Distinct weekly active students are counted
+ * through {@code course_week_student}, which holds the number of active days per student and week.
+ * Archived rows stay in the rollups, and rebuilds and date-window leaderboards read them from the
+ * {@link ActivityArchive}.
+ */
+@Service
+@Transactional
+public class CourseAnalyticsServiceImpl implements CourseAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(CourseAnalyticsServiceImpl.class);
+
+    private final CourseRollupRepository courseRollupRepository;
+    private final StudentActivityRepository studentActivityRepository;
+    private final CourseLeaderboard courseLeaderboard;
+    private final ActivityArchive activityArchive;
+    private final LeaderboardProperties leaderboardProperties;
+    private final CourseRollups courseRollups;
+
+    public CourseAnalyticsServiceImpl(CourseRollupRepository courseRollupRepository,
+                                      StudentActivityRepository studentActivityRepository,
+                                      CourseLeaderboard courseLeaderboard,
+                                      ActivityArchive activityArchive,
+                                      LeaderboardProperties leaderboardProperties,
+                                      CourseRollups courseRollups) {
+        this.courseRollupRepository = courseRollupRepository;
+        this.studentActivityRepository = studentActivityRepository;
+        this.courseLeaderboard = courseLeaderboard;
+        this.activityArchive = activityArchive;
+        this.leaderboardProperties = leaderboardProperties;
+        this.courseRollups = courseRollups;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CourseRollupDTO> getDailyTotals(String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate) {
+        log.info("Fetching daily totals for course: {}-{} between {} and {}", courseCode, moduleCode, startDate, endDate);
+
+        checkRange(startDate, endDate);
+        return courseRollupRepository.findDailySeries(courseCode, moduleCode, startDate, endDate);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CourseRollupDTO> getWeeklyTotals(String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate) {
+        log.info("Fetching weekly totals for course: {}-{} between {} and {}", courseCode, moduleCode, startDate, endDate);
+
+        checkRange(startDate, endDate);
+        return courseRollupRepository.findWeeklySeries(
+                courseCode, moduleCode, CoursePeriodKey.weekStart(startDate), CoursePeriodKey.weekStart(endDate));
+    }
+
+    // Each week is rebuilt in its own transaction, while writes keep committing
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildRollups(String courseCode, String moduleCode) {
+        log.info("Rebuilding rollups for course: {}-{}", courseCode, moduleCode);
+
+        courseRollups.rebuild(courseCode, moduleCode);
+    }
+
+    // All-time rankings come from memory, a date window is aggregated from idx_course_date
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<LeaderboardEntryDTO> getLeaderboard(
+            String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate, Integer limit) {
+        log.info("Fetching leaderboard for course: {}-{}", courseCode, moduleCode);
+
+        int size = leaderboardSize(limit);
+        if (startDate == null && endDate == null) {
+            return courseLeaderboard.top(courseCode, moduleCode, size);
+        }
+        if (startDate == null || endDate == null) {
+            throw new InvalidRequestException("A leaderboard window needs both a start date and an end date");
+        }
+        checkRange(startDate, endDate);
+
+        CourseKey course = new CourseKey(courseCode, moduleCode);
+        ActivityArchive.Snapshot archived = activityArchive.snapshot();
+        List<LeaderboardEntryDTO> entries = archived.covers(startDate, endDate)
+                ? topStudentsWithArchive(course, startDate, endDate, size, archived)
+                : studentActivityRepository.findTopStudents(course, startDate, endDate, Limit.of(size));
+        for (int i = 0; i < entries.size(); i++) {
+            entries.get(i).setRank(i + 1);
+        }
+        return entries;
+    }
+
+    // Every student of the window is aggregated, as archived clicks can lift anyone into the top
+    private List<LeaderboardEntryDTO> topStudentsWithArchive(
+            CourseKey course, LocalDate startDate, LocalDate endDate, int size, ActivityArchive.Snapshot archived) {
+        LocalDate boundary = archived.boundary();
+        Map<Long, Long> totals = new HashMap<>();
+        if (!endDate.isBefore(boundary)) {
+            LocalDate liveStart = startDate.isBefore(boundary) ? boundary : startDate;
+            studentActivityRepository.findTopStudents(course, liveStart, endDate, Limit.unlimited())
+                    .forEach(entry -> totals.merge(entry.getStudentId(), entry.getTotalClicks(), Long::sum));
+        }
+        LocalDate archiveEnd = endDate.isBefore(boundary) ? endDate : boundary.minusDays(1);
+        Iterator<StudentActivityDTO> rows = archived.courseRows(course, startDate.minusDays(1), Long.MAX_VALUE, archiveEnd);
+        while (rows.hasNext()) {
+            StudentActivityDTO row = rows.next();
+            totals.merge(row.getStudentId(), (long) row.getSumClicks(), Long::sum);
+        }
+        return totals.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(size)
+                .map(entry -> new LeaderboardEntryDTO(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private int leaderboardSize(Integer limit) {
+        if (limit == null) {
+            return leaderboardProperties.getDefaultLimit();
+        }
+        if (limit < 1) {
+            throw new InvalidRequestException("Leaderboard limit must be greater than 0");
+        }
+        return Math.min(limit, leaderboardProperties.getMaxLimit());
+    }
+
+    private static void checkRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new InvalidRequestException("Start date must not be after end date");
+        }
+    }
+}
@@ -1,21 +1,49 @@
 package pack.activityservice.service.impl;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pack.activityservice.config.PaginationProperties;
+import pack.activityservice.dto.ActivityTotalDTO;
+import pack.activityservice.dto.ClickIncrementDTO;
+import pack.activityservice.dto.CursorPageDTO;
 import pack.activityservice.dto.StudentActivityCreateDTO;
 import pack.activityservice.dto.StudentActivityDTO;
 import pack.activityservice.dto.StudentActivityUpdateDTO;
 import pack.activityservice.entity.StudentActivity;
+import pack.activityservice.event.ActivityChange;
+import pack.activityservice.event.ActivityChangedEvent;
+import pack.activityservice.exception.InvalidRequestException;
 import pack.activityservice.exception.ResourceNotFoundException;
 import pack.activityservice.mapper.StudentActivityMapper;
+import pack.activityservice.model.ActivityCursor;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.model.ClickIncrement;
+import pack.activityservice.model.CourseKey;
+import pack.activityservice.model.StudentCourseKey;
+import pack.activityservice.model.StudentTimeline;
+import pack.activityservice.repository.ActivityArchive;
+import pack.activityservice.repository.CourseModuleDictionary;
 import pack.activityservice.repository.StudentActivityRepository;
+import pack.activityservice.service.ActivityIdFilter;
+import pack.activityservice.service.ClickTotalsCache;
 import pack.activityservice.service.StudentActivityService;
+import pack.activityservice.service.StudentTimelineCache;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 @Transactional
@@ -24,146 +52,282 @@ public class StudentActivityServiceImpl implements StudentActivityService {
     private static final Logger log = LoggerFactory.getLogger(StudentActivityServiceImpl.class);
 
     private final StudentActivityRepository studentActivityRepository;
-
-    public StudentActivityServiceImpl(StudentActivityRepository studentActivityRepository) {
+    private final CourseModuleDictionary courseModules;
+    private final PaginationProperties paginationProperties;
+    private final ClickTotalsCache clickTotalsCache;
+    private final StudentTimelineCache studentTimelineCache;
+    private final ActivityArchive activityArchive;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ActivityIdFilter activityIdFilter;
+    private final TransactionTemplate transaction;
+    private final DistributionSummary incrementBatchSize;
+
+    public StudentActivityServiceImpl(StudentActivityRepository studentActivityRepository,
+                                      CourseModuleDictionary courseModules,
+                                      PaginationProperties paginationProperties,
+                                      ClickTotalsCache clickTotalsCache,
+                                      StudentTimelineCache studentTimelineCache,
+                                      ActivityArchive activityArchive,
+                                      ApplicationEventPublisher eventPublisher,
+                                      ActivityIdFilter activityIdFilter,
+                                      MeterRegistry meterRegistry,
+                                      PlatformTransactionManager transactionManager) {
         this.studentActivityRepository = studentActivityRepository;
+        this.courseModules = courseModules;
+        this.paginationProperties = paginationProperties;
+        this.clickTotalsCache = clickTotalsCache;
+        this.studentTimelineCache = studentTimelineCache;
+        this.activityArchive = activityArchive;
+        this.eventPublisher = eventPublisher;
+        this.activityIdFilter = activityIdFilter;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.incrementBatchSize = DistributionSummary.builder("activity.increment.batch.size")
+                .description("Click increments per batched upsert")
+                .baseUnit("increments")
+                .register(meterRegistry);
     }
 
     @Override
     public StudentActivityDTO createActivity(StudentActivityCreateDTO createDTO) {
         log.info("Creating new student activity for student ID: {}", createDTO.getStudentId());
 
+        checkWritable(createDTO.getDate());
         StudentActivity activity = StudentActivityMapper.toEntity(createDTO);
         StudentActivity savedActivity = studentActivityRepository.save(activity);
+        eventPublisher.publishEvent(ActivityChangedEvent.of(
+                new ActivityChange(StudentActivityMapper.toKey(savedActivity), 0, savedActivity.getSumClicks())));
 
         log.info("Successfully created student activity with ID: {}", savedActivity.getId());
         return StudentActivityMapper.toDTO(savedActivity);
     }
 
+    // Ids that never existed are turned away by the id filter and the in-memory archive before a transaction takes a connection
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public StudentActivityDTO getActivityById(Long id) {
         log.info("Fetching student activity with ID: {}", id);
 
-        StudentActivity activity = studentActivityRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Student activity not found with ID: " + id));
-
-        return StudentActivityMapper.toDTO(activity);
+        StudentActivityDTO activity = activityIdFilter.mightExist(id)
+                ? studentActivityRepository.findDTOById(id).orElse(null)
+                : null;
+        if (activity == null) {
+            activity = activityArchive.findById(id);
+        }
+        if (activity == null) {
+            throw notFound(id);
+        }
+        return activity;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<StudentActivityDTO> getAllActivities() {
-        log.info("Fetching all student activities");
+    public CursorPageDTO<StudentActivityDTO> getAllActivities(String cursor, Integer limit) {
+        log.info("Fetching page of all student activities");
 
-        return studentActivityRepository.findAll().stream()
-                .map(StudentActivityMapper::toDTO)
-                .collect(Collectors.toList());
+        int pageSize = paginationProperties.resolvePageSize(limit);
+        ActivityCursor after = ActivityCursor.startingAfter(cursor);
+        return idPage(studentActivityRepository
+                .findPage(after.id(), Limit.of(pageSize + 1)), pageSize);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<StudentActivityDTO> getActivitiesByStudentId(Long studentId) {
+    public CursorPageDTO<StudentActivityDTO> getActivitiesByStudentId(Long studentId, String cursor, Integer limit) {
         log.info("Fetching activities for student ID: {}", studentId);
 
-        return studentActivityRepository.findByStudentId(studentId).stream()
-                .map(StudentActivityMapper::toDTO)
-                .collect(Collectors.toList());
+        int pageSize = paginationProperties.resolvePageSize(limit);
+        ActivityCursor after = ActivityCursor.startingAfter(cursor);
+        return idPage(studentActivityRepository
+                .findStudentPage(studentId, after.id(), Limit.of(pageSize + 1)), pageSize);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<StudentActivityDTO> getActivitiesByCourse(String courseCode, String moduleCode) {
+    public CursorPageDTO<StudentActivityDTO> getActivitiesByCourse(
+            String courseCode, String moduleCode, String cursor, Integer limit) {
         log.info("Fetching activities for course: {}-{}", courseCode, moduleCode);
 
-        return studentActivityRepository.findByCourseCodeAndModuleCode(courseCode, moduleCode).stream()
-                .map(StudentActivityMapper::toDTO)
-                .collect(Collectors.toList());
+        int pageSize = paginationProperties.resolvePageSize(limit);
+        ActivityCursor after = ActivityCursor.startingAfter(cursor);
+        return idPage(studentActivityRepository
+                .findCoursePage(
+                        new CourseKey(courseCode, moduleCode), after.id(), Limit.of(pageSize + 1)), pageSize);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<StudentActivityDTO> getActivitiesByStudentAndCourse(
-            Long studentId, String courseCode, String moduleCode) {
+    public CursorPageDTO<StudentActivityDTO> getActivitiesByStudentAndCourse(
+            Long studentId, String courseCode, String moduleCode, String cursor, Integer limit) {
         log.info("Fetching activities for student ID: {} in course: {}-{}",
                 studentId, courseCode, moduleCode);
 
-        return studentActivityRepository
-                .findByStudentIdAndCourseCodeAndModuleCode(studentId, courseCode, moduleCode).stream()
-                .map(StudentActivityMapper::toDTO)
-                .collect(Collectors.toList());
+        int pageSize = paginationProperties.resolvePageSize(limit);
+        ActivityCursor after = ActivityCursor.startingAfter(cursor);
+        return idPage(studentActivityRepository
+                .findStudentCoursePage(
+                        studentId, new CourseKey(courseCode, moduleCode), after.id(), Limit.of(pageSize + 1)), pageSize);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<StudentActivityDTO> getActivitiesByStudentAndDateRange(
-            Long studentId, LocalDate startDate, LocalDate endDate) {
+    public CursorPageDTO<StudentActivityDTO> getActivitiesByStudentAndDateRange(
+            Long studentId, LocalDate startDate, LocalDate endDate, String cursor, Integer limit) {
         log.info("Fetching activities for student ID: {} between {} and {}",
                 studentId, startDate, endDate);
 
-        return studentActivityRepository
-                .findByStudentIdAndDateBetween(studentId, startDate, endDate).stream()
-                .map(StudentActivityMapper::toDTO)
-                .collect(Collectors.toList());
+        int pageSize = paginationProperties.resolvePageSize(limit);
+        ActivityCursor after = ActivityCursor.startingAfter(cursor, startDate);
+        StudentTimeline timeline = studentTimelineCache.getTimeline(studentId, this::loadTimeline);
+        if (timeline != null) {
+            return datePage(timeline.range(after.date(), after.id(), endDate, pageSize + 1), pageSize);
+        }
+        List<StudentActivityDTO> rows = studentActivityRepository.findStudentDateRangePage(
+                studentId, after.date(), after.id(), endDate, Limit.of(pageSize + 1));
+        if (activityArchive.covers(after.date(), endDate)) {
+            rows = ActivityArchive.take(ActivityArchive.merge(List.of(rows.iterator(),
+                    activityArchive.studentRows(studentId, after.date(), after.id(), endDate))), pageSize + 1);
+        }
+        return datePage(rows, pageSize);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<StudentActivityDTO> getActivitiesByCourseAndDateRange(
-            String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate) {
+    public CursorPageDTO<StudentActivityDTO> getActivitiesByCourseAndDateRange(
+            String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate, String cursor, Integer limit) {
         log.info("Fetching activities for course: {}-{} between {} and {}",
                 courseCode, moduleCode, startDate, endDate);
 
-        return studentActivityRepository
-                .findByCourseCodeAndModuleCodeAndDateBetween(courseCode, moduleCode, startDate, endDate).stream()
-                .map(StudentActivityMapper::toDTO)
-                .collect(Collectors.toList());
+        int pageSize = paginationProperties.resolvePageSize(limit);
+        ActivityCursor after = ActivityCursor.startingAfter(cursor, startDate);
+        CourseKey course = new CourseKey(courseCode, moduleCode);
+        List<StudentActivityDTO> rows = studentActivityRepository
+                .findCourseDateRangePage(course, after.date(), after.id(), endDate, Limit.of(pageSize + 1));
+        if (activityArchive.covers(after.date(), endDate)) {
+            rows = ActivityArchive.take(ActivityArchive.merge(List.of(rows.iterator(),
+                    activityArchive.courseRows(course, after.date(), after.id(), endDate))), pageSize + 1);
+        }
+        return datePage(rows, pageSize);
+    }
+
+    // Archived rows are part of a cached timeline, so slicing it needs no archive lookup
+    private List<StudentActivityDTO> loadTimeline(Long studentId, Limit limit) {
+        List<StudentActivityDTO> rows = studentActivityRepository.findStudentTimeline(studentId, limit);
+        if (activityArchive.isEmpty()) {
+            return rows;
+        }
+        return ActivityArchive.take(ActivityArchive.merge(List.of(rows.iterator(),
+                activityArchive.studentRows(studentId, null, 0L, null))), limit.max());
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public StudentActivityDTO updateActivity(Long id, StudentActivityUpdateDTO updateDTO) {
         log.info("Updating student activity with ID: {}", id);
 
-        StudentActivity activity = studentActivityRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Student activity not found with ID: " + id));
+        if (!activityIdFilter.mightExist(id)) {
+            throw missing(id);
+        }
+        StudentActivityDTO updated = transaction.execute(status -> update(id, updateDTO));
+
+        log.info("Successfully updated student activity with ID: {}", id);
+        return updated;
+    }
+
+    private StudentActivityDTO update(Long id, StudentActivityUpdateDTO updateDTO) {
+        StudentActivity activity = studentActivityRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> missing(id));
 
+        ActivityKey previousKey = StudentActivityMapper.toKey(activity);
+        int previousClicks = activity.getSumClicks();
+        checkWritable(activity.getDate());
         StudentActivityMapper.updateEntityFromDTO(activity, updateDTO);
+        checkWritable(activity.getDate());
         StudentActivity updatedActivity = studentActivityRepository.save(activity);
 
-        log.info("Successfully updated student activity with ID: {}", id);
+        ActivityKey currentKey = StudentActivityMapper.toKey(updatedActivity);
+        if (currentKey.equals(previousKey)) {
+            eventPublisher.publishEvent(ActivityChangedEvent.of(
+                    new ActivityChange(currentKey, previousClicks, updatedActivity.getSumClicks())));
+        } else {
+            // Moving the row to another date empties the old key, the unique key guarantees the new one was empty
+            eventPublisher.publishEvent(ActivityChangedEvent.of(
+                    new ActivityChange(previousKey, previousClicks, 0),
+                    new ActivityChange(currentKey, 0, updatedActivity.getSumClicks())));
+        }
         return StudentActivityMapper.toDTO(updatedActivity);
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void deleteActivity(Long id) {
         log.info("Deleting student activity with ID: {}", id);
 
-        if (!studentActivityRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Student activity not found with ID: " + id);
+        if (!activityIdFilter.mightExist(id)) {
+            throw missing(id);
         }
-
-        studentActivityRepository.deleteById(id);
+        transaction.executeWithoutResult(status -> {
+            // Loaded rather than checked for existence, listeners need to know which row and how many clicks went away
+            StudentActivity activity = studentActivityRepository.findByIdForUpdate(id)
+                    .orElseThrow(() -> missing(id));
+            checkWritable(activity.getDate());
+
+            studentActivityRepository.delete(activity);
+            eventPublisher.publishEvent(ActivityChangedEvent.of(
+                    new ActivityChange(StudentActivityMapper.toKey(activity), activity.getSumClicks(), 0)));
+        });
         log.info("Successfully deleted student activity with ID: {}", id);
     }
 
+    private static ResourceNotFoundException notFound(Long id) {
+        return new ResourceNotFoundException("Student activity not found with ID: " + id);
+    }
+
+    // Archived rows can be read by id but not changed
+    private RuntimeException missing(Long id) {
+        return activityArchive.findById(id) != null
+                ? new InvalidRequestException("Student activity with ID: " + id + " is archived and read-only")
+                : notFound(id);
+    }
+
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void checkWritable(LocalDate date) {
+        if (date != null && activityArchive.isReadOnly(date)) {
+            throw new InvalidRequestException("Student activities dated " + date + " belong to a closed month and are read-only");
+        }
+    }
+
+    // Totals are served from the cache, a transaction is only needed for the SUM run on a miss;
+    // archived clicks are added from the segments, which also cover the table's rows before the boundary
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Long getTotalClicksByStudent(Long studentId) {
         log.info("Calculating total clicks for student ID: {}", studentId);
 
-        Long totalClicks = studentActivityRepository.getTotalClicksByStudentId(studentId);
-        return totalClicks != null ? totalClicks : 0L;
+        return clickTotalsCache.getStudentTotal(studentId, id -> {
+            ActivityArchive.Snapshot archived = activityArchive.snapshot();
+            Long totalClicks = archived.isEmpty()
+                    ? studentActivityRepository.getTotalClicksByStudentId(id)
+                    : studentActivityRepository.getTotalClicksByStudentIdFrom(id, archived.boundary());
+            return (totalClicks != null ? totalClicks : 0L) + archived.studentTotal(id, null);
+        });
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Long getTotalClicksByStudentAndCourse(Long studentId, String courseCode, String moduleCode) {
         log.info("Calculating total clicks for student ID: {} in course: {}-{}",
                 studentId, courseCode, moduleCode);
 
-        Long totalClicks = studentActivityRepository
-                .getTotalClicksByStudentIdAndCourse(studentId, courseCode, moduleCode);
-        return totalClicks != null ? totalClicks : 0L;
+        // Cached keys share the dictionary's strings rather than holding on to the request's
+        CourseKey course = courseModules.canonical(courseCode, moduleCode);
+        return clickTotalsCache.getStudentCourseTotal(new StudentCourseKey(studentId, course.courseCode(), course.moduleCode()), key -> {
+            ActivityArchive.Snapshot archived = activityArchive.snapshot();
+            Long totalClicks = archived.isEmpty()
+                    ? studentActivityRepository.getTotalClicksByStudentIdAndCourse(key.studentId(), course)
+                    : studentActivityRepository.getTotalClicksByStudentIdAndCourseFrom(key.studentId(), course, archived.boundary());
+            return (totalClicks != null ? totalClicks : 0L) + archived.studentTotal(key.studentId(), course);
+        });
     }
 
     @Override
@@ -171,27 +335,121 @@ public class StudentActivityServiceImpl implements StudentActivityService {
                                               String moduleCode, LocalDate date, Integer clicks) {
         log.info("Incrementing clicks for student ID: {} on date: {}", studentId, date);
 
-        // Try to find existing activity for this student, course, and date
-        StudentActivity activity = studentActivityRepository
-                .findByStudentIdAndCourseCodeAndModuleCodeAndDate(studentId, courseCode, moduleCode, date)
-                .orElseGet(() -> {
-                    // Create new activity if not exists
-                    log.info("Creating new activity record for student ID: {} on date: {}", studentId, date);
-                    StudentActivity newActivity = new StudentActivity();
-                    newActivity.setStudentId(studentId);
-                    newActivity.setCourseCode(courseCode);
-                    newActivity.setModuleCode(moduleCode);
-                    newActivity.setDate(date);
-                    newActivity.setSumClicks(0);
-                    return newActivity;
-                });
-
-        // Increment clicks
-        activity.setSumClicks(activity.getSumClicks() + clicks);
-        StudentActivity savedActivity = studentActivityRepository.save(activity);
+        checkWritable(date);
+        // Single INSERT ... ON DUPLICATE KEY UPDATE, so concurrent increments on the same key never lose updates
+        CourseKey course = new CourseKey(courseCode, moduleCode);
+        studentActivityRepository.upsertClicks(studentId, courseModules.register(course), date, clicks);
+
+        // The upsert locked the row, so its post-image minus the increment is exactly the previous value
+        StudentActivityDTO savedActivity = studentActivityRepository
+                .findDTOByKey(studentId, course, date)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Student activity missing after increment for student ID: " + studentId));
+        eventPublisher.publishEvent(ActivityChangedEvent.of(new ActivityChange(
+                new ActivityKey(studentId, courseCode, moduleCode, date),
+                savedActivity.getSumClicks() - clicks, savedActivity.getSumClicks())));
 
         log.info("Successfully incremented clicks for activity ID: {}", savedActivity.getId());
-        return StudentActivityMapper.toDTO(savedActivity);
+        return savedActivity;
+    }
+
+    @Override
+    public List<ActivityTotalDTO> incrementClicksBatch(List<ClickIncrementDTO> increments) {
+        log.info("Incrementing clicks for a batch of {} increments", increments.size());
+
+        // Each key is upserted and locked once, whatever the number of increments naming it
+        Map<ActivityKey, Long> merged = new HashMap<>();
+        for (ClickIncrementDTO increment : increments) {
+            checkWritable(increment.getDate());
+            merged.merge(new ActivityKey(increment.getStudentId(), increment.getCourseCode(),
+                    increment.getModuleCode(), increment.getDate()), (long) increment.getClicks(), Long::sum);
+        }
+        List<ClickIncrement> sorted = new ArrayList<>(merged.size());
+        merged.forEach((key, clicks) -> {
+            if (clicks > Integer.MAX_VALUE) {
+                throw new InvalidRequestException("Merged clicks exceed " + Integer.MAX_VALUE + " for student ID: "
+                        + key.studentId() + " in course: " + key.courseCode() + "-" + key.moduleCode() + " on " + key.date());
+            }
+            sorted.add(new ClickIncrement(key, clicks.intValue()));
+        });
+        // Same lock order as every other batch writer, so concurrent batches cannot deadlock on uk_student_activity
+        sorted.sort((a, b) -> ActivityKey.INDEX_ORDER.compare(a.key(), b.key()));
+
+        Map<ActivityKey, Integer> totals = upsertIncrements(sorted);
+        List<ActivityTotalDTO> results = new ArrayList<>(sorted.size());
+        for (ClickIncrement increment : sorted) {
+            ActivityKey key = increment.key();
+            results.add(new ActivityTotalDTO(key.studentId(), key.courseCode(), key.moduleCode(), key.date(),
+                    totals.getOrDefault(key, 0)));
+        }
+
+        log.info("Successfully incremented clicks of {} activities", results.size());
+        return results;
+    }
+
+    @Override
+    public void applyIncrements(List<ClickIncrement> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        upsertIncrements(increments);
+    }
+
+    @Override
+    public void replaceClicks(List<ClickIncrement> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        // Locked first, so the values read are exactly the ones replaced
+        Map<ActivityKey, Integer> previousClicks = studentActivityRepository
+                .lockClicksByKeys(values.stream().map(ClickIncrement::key).toList());
+        studentActivityRepository.batchReplaceClicks(values);
+
+        List<ActivityChange> changes = new ArrayList<>(values.size());
+        for (ClickIncrement value : values) {
+            changes.add(new ActivityChange(value.key(), previousClicks.getOrDefault(value.key(), 0), value.clicks()));
+        }
+        eventPublisher.publishEvent(new ActivityChangedEvent(changes));
+    }
+
+    // Upserts the increments and publishes the resulting changes, returns the sum clicks of every key afterwards
+    private Map<ActivityKey, Integer> upsertIncrements(List<ClickIncrement> increments) {
+        incrementBatchSize.record(increments.size());
+        studentActivityRepository.batchUpsertClicks(increments);
+
+        Map<ActivityKey, Long> deltas = new LinkedHashMap<>();
+        increments.forEach(increment -> deltas.merge(increment.key(), (long) increment.clicks(), Long::sum));
+        // Post-images of rows this transaction has just locked, the previous values follow from the deltas
+        Map<ActivityKey, Integer> currentClicks = studentActivityRepository.findClicksByKeys(deltas.keySet());
+
+        List<ActivityChange> changes = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            long current = currentClicks.getOrDefault(key, 0);
+            changes.add(new ActivityChange(key, current - delta, current));
+        });
+        eventPublisher.publishEvent(new ActivityChangedEvent(changes));
+        return currentClicks;
+    }
+
+    // Pages are fetched with one extra row to find out whether another page follows
+    private static CursorPageDTO<StudentActivityDTO> idPage(List<StudentActivityDTO> rows, int pageSize) {
+        List<StudentActivityDTO> items = toPageItems(rows, pageSize);
+        String nextCursor = rows.size() > pageSize
+                ? ActivityCursor.afterId(items.get(items.size() - 1).getId()).encode()
+                : null;
+        return new CursorPageDTO<>(items, nextCursor);
     }
-}
 
+    private static CursorPageDTO<StudentActivityDTO> datePage(List<StudentActivityDTO> rows, int pageSize) {
+        List<StudentActivityDTO> items = toPageItems(rows, pageSize);
+        StudentActivityDTO last = items.isEmpty() ? null : items.get(items.size() - 1);
+        String nextCursor = rows.size() > pageSize
+                ? ActivityCursor.after(last.getDate(), last.getId()).encode()
+                : null;
+        return new CursorPageDTO<>(items, nextCursor);
+    }
+
+    private static List<StudentActivityDTO> toPageItems(List<StudentActivityDTO> rows, int pageSize) {
+        return rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+    }
+}
@@ -0,0 +1,34 @@
+-- One-off migration of a student_activity table created before the course_module dictionary.
+-- Run once against activity_service_db while no instance is writing.
+
+USE activity_service_db;
+
+CREATE TABLE IF NOT EXISTS course_module (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    course_code VARCHAR(50) NOT NULL,
+    module_code VARCHAR(50) NOT NULL,
+    CONSTRAINT uk_course_module UNIQUE (course_code, module_code)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT IGNORE INTO course_module (course_code, module_code)
+SELECT DISTINCT course_code, module_code FROM student_activity;
+
+ALTER TABLE student_activity ADD COLUMN course_module_id INT NULL AFTER student_id;
+
+UPDATE student_activity sa
+JOIN course_module cm ON cm.course_code = sa.course_code AND cm.module_code = sa.module_code
+SET sa.course_module_id = cm.id;
+
+ALTER TABLE student_activity
+    MODIFY course_module_id INT NOT NULL,
+    DROP INDEX uk_student_activity,
+    DROP INDEX idx_course,
+    DROP INDEX idx_student_course,
+    DROP INDEX idx_course_date,
+    DROP COLUMN course_code,
+    DROP COLUMN module_code,
+    ADD CONSTRAINT uk_student_activity UNIQUE (student_id, course_module_id, date),
+    ADD CONSTRAINT fk_student_activity_course_module FOREIGN KEY (course_module_id) REFERENCES course_module (id),
+    ADD INDEX idx_course (course_module_id),
+    ADD INDEX idx_student_course (student_id, course_module_id),
+    ADD INDEX idx_course_date (course_module_id, date);
@@ -0,0 +1,24 @@
+-- One-off migration partitioning student_activity by date, for activity.partitioning.
+-- Run once against activity_service_db while no instance is writing; PartitionMaintenance then adds the
+-- monthly (or per-term) partitions after p_past and archives or drops the expired ones.
+--
+-- MySQL requires every unique key of a partitioned table to include the partitioning column and does not
+-- support foreign keys on it: the primary key becomes (id, date) and course_module_id is no longer enforced.
+
+USE activity_service_db;
+
+ALTER TABLE student_activity DROP FOREIGN KEY fk_student_activity_course_module;
+
+ALTER TABLE student_activity
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, date);
+
+-- Rows before the first maintained period stay in p_past until it expires. Set its bound to the first day of
+-- the current period: the first maintenance run splits pmax into one partition per period after p_past in a
+-- single REORGANIZE PARTITION, copying every row of pmax while writes are blocked, so an older bound costs a
+-- table copy of everything after it at startup.
+ALTER TABLE student_activity
+    PARTITION BY RANGE COLUMNS (date) (
+        PARTITION p_past VALUES LESS THAN ('2024-01-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
@@ -3,28 +3,77 @@ CREATE DATABASE IF NOT EXISTS activity_service_db;
 
 USE activity_service_db;
 
+-- Course presentations, student_activity stores their id instead of both codes
+CREATE TABLE IF NOT EXISTS course_module (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    course_code VARCHAR(50) NOT NULL,
+    module_code VARCHAR(50) NOT NULL,
+    CONSTRAINT uk_course_module UNIQUE (course_code, module_code)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 -- Create student_activity table
 CREATE TABLE IF NOT EXISTS student_activity (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     student_id BIGINT NOT NULL,
-    course_code VARCHAR(50) NOT NULL,
-    module_code VARCHAR(50) NOT NULL,
+    course_module_id INT NOT NULL,
     date DATE NOT NULL,
     sum_clicks INT NOT NULL DEFAULT 0,
-    CONSTRAINT uk_student_activity UNIQUE (student_id, course_code, module_code, date),
+    CONSTRAINT uk_student_activity UNIQUE (student_id, course_module_id, date),
+    CONSTRAINT fk_student_activity_course_module FOREIGN KEY (course_module_id) REFERENCES course_module (id),
     INDEX idx_student_id (student_id),
-    INDEX idx_course (course_code, module_code),
+    INDEX idx_course (course_module_id),
     INDEX idx_date (date),
-    INDEX idx_student_course (student_id, course_code, module_code)
+    INDEX idx_student_course (student_id, course_module_id),
+    -- keyset pagination of the date-range endpoints, ordered by (date, id)
+    INDEX idx_student_date (student_id, date),
+    INDEX idx_course_date (course_module_id, date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Course rollups, maintained by the service on every write path
+CREATE TABLE IF NOT EXISTS course_daily_rollup (
+    course_code VARCHAR(50) NOT NULL,
+    module_code VARCHAR(50) NOT NULL,
+    date DATE NOT NULL,
+    total_clicks BIGINT NOT NULL,
+    active_students INT NOT NULL,
+    PRIMARY KEY (course_code, module_code, date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- week_start is the Monday of the ISO week
+CREATE TABLE IF NOT EXISTS course_weekly_rollup (
+    course_code VARCHAR(50) NOT NULL,
+    module_code VARCHAR(50) NOT NULL,
+    week_start DATE NOT NULL,
+    total_clicks BIGINT NOT NULL,
+    active_students INT NOT NULL,
+    PRIMARY KEY (course_code, module_code, week_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Active days per student and week, backs the distinct active_students of course_weekly_rollup
+CREATE TABLE IF NOT EXISTS course_week_student (
+    course_code VARCHAR(50) NOT NULL,
+    module_code VARCHAR(50) NOT NULL,
+    week_start DATE NOT NULL,
+    student_id BIGINT NOT NULL,
+    active_days INT NOT NULL,
+    PRIMARY KEY (course_code, module_code, week_start, student_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- Sample data for testing (optional)
-INSERT INTO student_activity (student_id, course_code, module_code, date, sum_clicks)
+INSERT IGNORE INTO course_module (course_code, module_code)
 VALUES
-    (1, 'AAA', '2013J', '2024-01-15', 25),
-    (1, 'AAA', '2013J', '2024-01-16', 30),
-    (1, 'BBB', '2013J', '2024-01-15', 15),
-    (2, 'AAA', '2013J', '2024-01-15', 40),
-    (2, 'AAA', '2013J', '2024-01-16', 35)
+    ('AAA', '2013J'),
+    ('BBB', '2013J');
+
+INSERT INTO student_activity (student_id, course_module_id, date, sum_clicks)
+SELECT sample.student_id, cm.id, sample.date, sample.sum_clicks
+FROM (
+    SELECT 1 AS student_id, 'AAA' AS course_code, '2013J' AS module_code, DATE '2024-01-15' AS date, 25 AS sum_clicks
+    UNION ALL SELECT 1, 'AAA', '2013J', DATE '2024-01-16', 30
+    UNION ALL SELECT 1, 'BBB', '2013J', DATE '2024-01-15', 15
+    UNION ALL SELECT 2, 'AAA', '2013J', DATE '2024-01-15', 40
+    UNION ALL SELECT 2, 'AAA', '2013J', DATE '2024-01-16', 35
+) sample
+JOIN course_module cm ON cm.course_code = sample.course_code AND cm.module_code = sample.module_code
 ON DUPLICATE KEY UPDATE sum_clicks = VALUES(sum_clicks);
 
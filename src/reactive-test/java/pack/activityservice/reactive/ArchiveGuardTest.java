@@ -0,0 +1,55 @@
+package pack.activityservice.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.server.ResponseStatusException;
+import pack.activityservice.config.ArchiveProperties;
+import pack.activityservice.reactive.service.ArchiveGuard;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveGuardTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testStart_FailsWhileTheArchiveDirectoryExists() {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(directory);
+
+        assertThrows(IllegalStateException.class, () -> new ArchiveGuard(properties).start());
+    }
+
+    @Test
+    void testCheck_RefusesReadsOnceTheArchiveAppears() throws Exception {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(directory.resolve("archive"));
+        properties.setRescanInterval(Duration.ofMillis(20));
+        ArchiveGuard archiveGuard = new ArchiveGuard(properties);
+        archiveGuard.start();
+        try {
+            archiveGuard.check();
+
+            Files.createDirectory(properties.getDirectory());
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            boolean refused = false;
+            while (!refused && System.nanoTime() < deadline) {
+                try {
+                    archiveGuard.check();
+                    Thread.sleep(10);
+                } catch (ResponseStatusException ex) {
+                    assertEquals(503, ex.getStatusCode().value());
+                    refused = true;
+                }
+            }
+            assertTrue(refused);
+        } finally {
+            archiveGuard.stop();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package pack.activityservice.reactive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.model.ActivityCursor;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = ReactiveActivityApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.main.web-application-type=reactive",
+                "spring.r2dbc.url=r2dbc:h2:mem:///reactive_activity_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "spring.r2dbc.username=sa",
+                "spring.r2dbc.password="})
+@ActiveProfiles("reactive")
+class ReactiveStudentActivityControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("CREATE TABLE IF NOT EXISTS course_module (" +
+                        "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                        "course_code VARCHAR(50) NOT NULL, module_code VARCHAR(50) NOT NULL)")
+                .then()
+                .then(databaseClient.sql("CREATE TABLE IF NOT EXISTS student_activity (" +
+                                "id BIGINT AUTO_INCREMENT PRIMARY KEY, student_id BIGINT NOT NULL, " +
+                                "course_module_id INT NOT NULL, date DATE NOT NULL, sum_clicks INT NOT NULL)")
+                        .then())
+                .then(databaseClient.sql("DELETE FROM student_activity").then())
+                .then(databaseClient.sql("DELETE FROM course_module").then())
+                .then(databaseClient.sql("INSERT INTO course_module (id, course_code, module_code) " +
+                                "VALUES (1, 'AAA', '2013J'), (2, 'BBB', '2013J')")
+                        .then())
+                .then(databaseClient.sql("INSERT INTO student_activity (id, student_id, course_module_id, date, sum_clicks) " +
+                                "VALUES (1, 1, 1, DATE '2024-01-03', 10), " +
+                                "(2, 1, 1, DATE '2024-01-01', 20), " +
+                                "(3, 1, 2, DATE '2024-01-02', 30), " +
+                                "(4, 2, 1, DATE '2024-01-01', 40)")
+                        .then())
+                .block();
+    }
+
+    @Test
+    void testGetActivitiesByStudentId_StreamsAsNdjson() {
+        Flux<StudentActivityDTO> body = webTestClient.get()
+                .uri("/api/activities/student/1")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .header("X-User-Id", "1")
+                .header("X-User-Role", "STUDENT")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(StudentActivityDTO.class)
+                .getResponseBody();
+
+        StepVerifier.create(body.map(StudentActivityDTO::getId))
+                .expectNext(1L, 2L, 3L)
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetActivitiesByStudentAndDateRange_ContinuesAfterCursor() {
+        String cursor = ActivityCursor.after(LocalDate.of(2024, 1, 1), 2L).encode();
+
+        List<StudentActivityDTO> activities = webTestClient.get()
+                .uri("/api/activities/student/1/date-range?startDate=2024-01-01&endDate=2024-01-31&cursor=" + cursor)
+                .header("X-User-Id", "1")
+                .header("X-User-Role", "STUDENT")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(StudentActivityDTO.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(activities);
+        assertEquals(List.of(3L, 1L), activities.stream().map(StudentActivityDTO::getId).toList());
+    }
+
+    @Test
+    void testGetTotalClicks() {
+        webTestClient.get()
+                .uri("/api/activities/student/1/course/AAA/2013J/total-clicks")
+                .header("X-User-Id", "1")
+                .header("X-User-Role", "STUDENT")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Long.class).isEqualTo(30L);
+
+        webTestClient.get()
+                .uri("/api/activities/student/99/total-clicks")
+                .header("X-User-Id", "1")
+                .header("X-User-Role", "STUDENT")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Long.class).isEqualTo(0L);
+    }
+
+    @Test
+    void testValidationAndAuthentication_MatchServletApi() {
+        webTestClient.get()
+                .uri("/api/activities/course/AAA/2013J?limit=0")
+                .header("X-User-Id", "1")
+                .header("X-User-Role", "STUDENT")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Page limit must be greater than 0");
+
+        webTestClient.get()
+                .uri("/api/activities/course/AAA/2013J")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+}
@@ -0,0 +1,42 @@
+package pack.activityservice.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+import pack.activityservice.config.ArchiveProperties;
+import pack.activityservice.config.ExportProperties;
+import pack.activityservice.config.PaginationProperties;
+
+/**
+ * Non-blocking variant of the activity read API: WebFlux on Netty over R2DBC, for many slow clients served
+ * by a handful of event-loop threads. Built with the {@code reactive} Maven profile and started with the
+ * {@code reactive} Spring profile; only this package is scanned, so none of the JPA write path is loaded.
+ * It reads {@code student_activity} only and refuses to run next to the activity archive, see {@code ArchiveGuard}.
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+@EnableDiscoveryClient
+@EnableConfigurationProperties({PaginationProperties.class, ExportProperties.class, ArchiveProperties.class})
+@Profile("reactive")
+public class ReactiveActivityApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveActivityApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles("reactive")
+                .run(args);
+    }
+
+    // Tomcat is on the classpath for the servlet application and would otherwise be chosen over Netty
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+}
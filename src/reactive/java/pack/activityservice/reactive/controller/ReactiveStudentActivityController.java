@@ -0,0 +1,100 @@
+package pack.activityservice.reactive.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.reactive.service.ReactiveStudentActivityService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Read endpoints of {@code StudentActivityController} on the same paths. Listings are written as a JSON
+ * array or, with {@code Accept: application/x-ndjson}, one activity per line; either way rows are read
+ * from the database only as fast as the client consumes them.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/activities")
+public class ReactiveStudentActivityController {
+
+    private final ReactiveStudentActivityService reactiveStudentActivityService;
+
+    public ReactiveStudentActivityController(ReactiveStudentActivityService reactiveStudentActivityService) {
+        this.reactiveStudentActivityService = reactiveStudentActivityService;
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<StudentActivityDTO> getAllActivities(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return reactiveStudentActivityService.getAllActivities(cursor, limit);
+    }
+
+    @GetMapping(value = "/student/{studentId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<StudentActivityDTO> getActivitiesByStudentId(
+            @PathVariable Long studentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return reactiveStudentActivityService.getActivitiesByStudentId(studentId, cursor, limit);
+    }
+
+    @GetMapping(value = "/course/{courseCode}/{moduleCode}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<StudentActivityDTO> getActivitiesByCourse(
+            @PathVariable String courseCode,
+            @PathVariable String moduleCode,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return reactiveStudentActivityService.getActivitiesByCourse(courseCode, moduleCode, cursor, limit);
+    }
+
+    @GetMapping(value = "/student/{studentId}/course/{courseCode}/{moduleCode}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<StudentActivityDTO> getActivitiesByStudentAndCourse(
+            @PathVariable Long studentId,
+            @PathVariable String courseCode,
+            @PathVariable String moduleCode,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return reactiveStudentActivityService.getActivitiesByStudentAndCourse(studentId, courseCode, moduleCode, cursor, limit);
+    }
+
+    @GetMapping(value = "/student/{studentId}/date-range", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<StudentActivityDTO> getActivitiesByStudentAndDateRange(
+            @PathVariable Long studentId,
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return reactiveStudentActivityService.getActivitiesByStudentAndDateRange(studentId, startDate, endDate, cursor, limit);
+    }
+
+    @GetMapping(value = "/course/{courseCode}/{moduleCode}/date-range", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<StudentActivityDTO> getActivitiesByCourseAndDateRange(
+            @PathVariable String courseCode,
+            @PathVariable String moduleCode,
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return reactiveStudentActivityService.getActivitiesByCourseAndDateRange(courseCode, moduleCode, startDate, endDate, cursor, limit);
+    }
+
+    @GetMapping("/student/{studentId}/total-clicks")
+    public Mono<Long> getTotalClicksByStudent(@PathVariable Long studentId) {
+        return reactiveStudentActivityService.getTotalClicksByStudent(studentId);
+    }
+
+    @GetMapping("/student/{studentId}/course/{courseCode}/{moduleCode}/total-clicks")
+    public Mono<Long> getTotalClicksByStudentAndCourse(
+            @PathVariable Long studentId,
+            @PathVariable String courseCode,
+            @PathVariable String moduleCode) {
+        return reactiveStudentActivityService.getTotalClicksByStudentAndCourse(studentId, courseCode, moduleCode);
+    }
+}
@@ -0,0 +1,39 @@
+package pack.activityservice.reactive.exception;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+import pack.activityservice.exception.ErrorResponse;
+import pack.activityservice.exception.GlobalExceptionHandler;
+
+import java.time.LocalDateTime;
+
+/**
+ * The error bodies of {@link GlobalExceptionHandler}, plus the status WebFlux itself assigns to unknown
+ * paths and to missing or malformed parameters, which would otherwise fall through to the 500 handler.
+ */
+@RestControllerAdvice
+@Profile("reactive")
+public class ReactiveExceptionHandler extends GlobalExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveExceptionHandler.class);
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponse> handleResponseStatusException(ResponseStatusException ex) {
+        log.error("Request rejected: {}", ex.getMessage());
+
+        HttpStatus status = HttpStatus.valueOf(ex.getStatusCode().value());
+        ErrorResponse error = new ErrorResponse();
+        error.setTimestamp(LocalDateTime.now());
+        error.setStatus(status.value());
+        error.setError(status.getReasonPhrase());
+        error.setMessage(ex.getReason());
+
+        return new ResponseEntity<>(error, status);
+    }
+}
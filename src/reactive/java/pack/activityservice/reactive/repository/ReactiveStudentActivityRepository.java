@@ -0,0 +1,122 @@
+package pack.activityservice.reactive.repository;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import pack.activityservice.config.ExportProperties;
+import pack.activityservice.dto.StudentActivityDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * R2DBC counterpart of the read queries of {@code StudentActivityRepository}, with the same keyset
+ * conditions and ordering. Rows are fetched {@code activity.export.fetch-size} at a time and only as fast
+ * as subscribers request them. Course codes come from joining {@code course_module}, there is no JDBC
+ * connection here to load {@code CourseModuleDictionary} over; the join is a primary key lookup into a
+ * table of a few rows, and a course filter resolves its {@code course_module} row through the unique key
+ * before reading {@code idx_course} or {@code idx_course_date}.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveStudentActivityRepository {
+
+    private static final String SELECT_DTO =
+            "SELECT sa.id, sa.student_id, cm.course_code, cm.module_code, sa.date, sa.sum_clicks " +
+            "FROM student_activity sa JOIN course_module cm ON cm.id = sa.course_module_id ";
+
+    private final DatabaseClient databaseClient;
+    private final ExportProperties exportProperties;
+
+    public ReactiveStudentActivityRepository(DatabaseClient databaseClient, ExportProperties exportProperties) {
+        this.databaseClient = databaseClient;
+        this.exportProperties = exportProperties;
+    }
+
+    // Keyset listings ordered by id; a null limit streams every remaining row
+    public Flux<StudentActivityDTO> findAll(long afterId, Integer limit) {
+        return select("WHERE sa.id > :afterId ORDER BY sa.id", limit,
+                Map.of("afterId", afterId));
+    }
+
+    public Flux<StudentActivityDTO> findByStudent(long studentId, long afterId, Integer limit) {
+        return select("WHERE sa.student_id = :studentId AND sa.id > :afterId ORDER BY sa.id", limit,
+                Map.of("studentId", studentId, "afterId", afterId));
+    }
+
+    public Flux<StudentActivityDTO> findByCourse(String courseCode, String moduleCode, long afterId, Integer limit) {
+        return select("WHERE cm.course_code = :courseCode AND cm.module_code = :moduleCode AND sa.id > :afterId ORDER BY sa.id", limit,
+                Map.of("courseCode", courseCode, "moduleCode", moduleCode, "afterId", afterId));
+    }
+
+    public Flux<StudentActivityDTO> findByStudentAndCourse(
+            long studentId, String courseCode, String moduleCode, long afterId, Integer limit) {
+        return select("WHERE sa.student_id = :studentId AND cm.course_code = :courseCode AND cm.module_code = :moduleCode " +
+                      "AND sa.id > :afterId ORDER BY sa.id", limit,
+                Map.of("studentId", studentId, "courseCode", courseCode, "moduleCode", moduleCode, "afterId", afterId));
+    }
+
+    // Keyset listings of a date range ordered by (date, id)
+    public Flux<StudentActivityDTO> findByStudentAndDateRange(
+            long studentId, LocalDate afterDate, long afterId, LocalDate endDate, Integer limit) {
+        return select("WHERE sa.student_id = :studentId " +
+                      "AND sa.date >= :afterDate AND sa.date <= :endDate AND (sa.date > :afterDate OR sa.id > :afterId) " +
+                      "ORDER BY sa.date, sa.id", limit,
+                Map.of("studentId", studentId, "afterDate", afterDate, "afterId", afterId, "endDate", endDate));
+    }
+
+    public Flux<StudentActivityDTO> findByCourseAndDateRange(
+            String courseCode, String moduleCode, LocalDate afterDate, long afterId, LocalDate endDate, Integer limit) {
+        return select("WHERE cm.course_code = :courseCode AND cm.module_code = :moduleCode " +
+                      "AND sa.date >= :afterDate AND sa.date <= :endDate AND (sa.date > :afterDate OR sa.id > :afterId) " +
+                      "ORDER BY sa.date, sa.id", limit,
+                Map.of("courseCode", courseCode, "moduleCode", moduleCode,
+                        "afterDate", afterDate, "afterId", afterId, "endDate", endDate));
+    }
+
+    // Get total clicks for a student
+    public Mono<Long> getTotalClicksByStudentId(long studentId) {
+        return total("WHERE sa.student_id = :studentId", Map.of("studentId", studentId));
+    }
+
+    // Get total clicks for a student in a specific course
+    public Mono<Long> getTotalClicksByStudentIdAndCourse(long studentId, String courseCode, String moduleCode) {
+        return total("WHERE sa.student_id = :studentId AND cm.course_code = :courseCode AND cm.module_code = :moduleCode",
+                Map.of("studentId", studentId, "courseCode", courseCode, "moduleCode", moduleCode));
+    }
+
+    private Flux<StudentActivityDTO> select(String condition, Integer limit, Map<String, ?> parameters) {
+        String sql = SELECT_DTO + condition + (limit == null ? "" : " LIMIT " + limit);
+        return databaseClient.sql(sql)
+                .bindValues(parameters)
+                .filter(statement -> statement.fetchSize(exportProperties.getFetchSize()))
+                .map(ReactiveStudentActivityRepository::toDTO)
+                .all();
+    }
+
+    // SUM is DECIMAL on MySQL and BIGINT elsewhere; no rows count as zero clicks
+    private Mono<Long> total(String condition, Map<String, ?> parameters) {
+        return databaseClient.sql("SELECT SUM(sa.sum_clicks) " +
+                        "FROM student_activity sa JOIN course_module cm ON cm.id = sa.course_module_id " + condition)
+                .bindValues(parameters)
+                .map(row -> {
+                    Number total = row.get(0, Number.class);
+                    return total == null ? 0L : total.longValue();
+                })
+                .one()
+                .defaultIfEmpty(0L);
+    }
+
+    private static StudentActivityDTO toDTO(Readable row) {
+        return new StudentActivityDTO(
+                row.get("id", Long.class),
+                row.get("student_id", Long.class),
+                row.get("course_code", String.class),
+                row.get("module_code", String.class),
+                row.get("date", LocalDate.class),
+                row.get("sum_clicks", Integer.class));
+    }
+}
@@ -0,0 +1,25 @@
+package pack.activityservice.reactive.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+import org.springframework.web.server.ServerWebExchange;
+import pack.activityservice.security.HeaderAuthentication;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads the caller from the {@code X-User-Id} and {@code X-User-Role} headers, like {@code HeaderAuthFilter}.
+ */
+public class HeaderAuthConverter implements ServerAuthenticationConverter {
+
+    @Override
+    public Mono<Authentication> convert(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        String id = headers.getFirst("X-User-Id");
+        String role = headers.getFirst("X-User-Role");
+        if (id == null || role == null) {
+            return Mono.empty();
+        }
+        return Mono.just(HeaderAuthentication.of(id, role));
+    }
+}
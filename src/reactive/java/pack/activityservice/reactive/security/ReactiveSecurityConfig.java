@@ -0,0 +1,56 @@
+package pack.activityservice.reactive.security;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux equivalent of {@code SecurityConfig}: same header authentication, same public paths, and
+ * 403 for unauthenticated requests.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@Profile("reactive")
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        // The gateway has already authenticated the caller; the headers are trusted as they are
+        ReactiveAuthenticationManager trustHeaders = Mono::just;
+        AuthenticationWebFilter headerAuthFilter = new AuthenticationWebFilter(trustHeaders);
+        headerAuthFilter.setServerAuthenticationConverter(new HeaderAuthConverter());
+        headerAuthFilter.setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+
+        http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .cors(ServerHttpSecurity.CorsSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .addFilterAt(headerAuthFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .exceptionHandling(
+                        exceptions -> exceptions
+                                .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN))
+                )
+                .authorizeExchange(
+                        exchanges -> exchanges
+                                .pathMatchers(
+                                        "/actuator/health/**",
+                                        "/actuator/prometheus"
+                                ).permitAll()
+                                .anyExchange().authenticated()
+                );
+
+        return http.build();
+    }
+}
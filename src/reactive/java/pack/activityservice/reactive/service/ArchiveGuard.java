@@ -0,0 +1,97 @@
+package pack.activityservice.reactive.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import pack.activityservice.config.ArchiveProperties;
+
+import java.nio.file.Files;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the reactive API away from an activity archive, which it cannot read: R2DBC only sees
+ * {@code student_activity}, so archived months would silently be missing from listings and totals.
+ * <p>
+ * Startup fails while the archive is in use, that is enabled here or its shared directory exists. The
+ * directory is checked again every {@code rescan-interval}, like the servlet instances rescan it, and once
+ * it appears every request is refused with 503 instead of being answered without the archived rows.
+ */
+@Component
+@Profile("reactive")
+public class ArchiveGuard implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveGuard.class);
+
+    private final ArchiveProperties properties;
+
+    private volatile boolean archiveInUse;
+    private volatile ScheduledExecutorService scheduler;
+
+    public ArchiveGuard(ArchiveProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Signals 503 once the activity archive is in use.
+     */
+    public void check() {
+        if (archiveInUse) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Activities are archived, which the reactive API cannot read");
+        }
+    }
+
+    private boolean isArchiveInUse() {
+        return properties.isEnabled() || Files.isDirectory(properties.getDirectory());
+    }
+
+    private void recheck() {
+        if (!archiveInUse && isArchiveInUse()) {
+            archiveInUse = true;
+            log.error("Activity archive appeared at {}, refusing reactive reads; serve them from the servlet API",
+                    properties.getDirectory());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (scheduler != null) {
+            return;
+        }
+        if (isArchiveInUse()) {
+            throw new IllegalStateException("The reactive API cannot read archived activities, but the archive is "
+                    + "enabled or " + properties.getDirectory() + " exists; serve reads from the servlet API");
+        }
+        long intervalMillis = properties.getRescanInterval().toMillis();
+        if (intervalMillis <= 0) {
+            return;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reactive-archive-guard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::recheck, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        scheduler = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        if (executor != null) {
+            scheduler = null;
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
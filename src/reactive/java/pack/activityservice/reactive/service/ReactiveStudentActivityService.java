@@ -0,0 +1,33 @@
+package pack.activityservice.reactive.service;
+
+import pack.activityservice.dto.StudentActivityDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Read operations of {@code StudentActivityService} as publishers. Listings take the same cursors as the
+ * paginated endpoints; without a {@code limit} they stream to the end of the listing.
+ */
+public interface ReactiveStudentActivityService {
+
+    Flux<StudentActivityDTO> getAllActivities(String cursor, Integer limit);
+
+    Flux<StudentActivityDTO> getActivitiesByStudentId(Long studentId, String cursor, Integer limit);
+
+    Flux<StudentActivityDTO> getActivitiesByCourse(String courseCode, String moduleCode, String cursor, Integer limit);
+
+    Flux<StudentActivityDTO> getActivitiesByStudentAndCourse(
+            Long studentId, String courseCode, String moduleCode, String cursor, Integer limit);
+
+    Flux<StudentActivityDTO> getActivitiesByStudentAndDateRange(
+            Long studentId, LocalDate startDate, LocalDate endDate, String cursor, Integer limit);
+
+    Flux<StudentActivityDTO> getActivitiesByCourseAndDateRange(
+            String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate, String cursor, Integer limit);
+
+    Mono<Long> getTotalClicksByStudent(Long studentId);
+
+    Mono<Long> getTotalClicksByStudentAndCourse(Long studentId, String courseCode, String moduleCode);
+}
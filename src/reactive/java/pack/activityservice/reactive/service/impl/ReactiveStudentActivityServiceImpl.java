@@ -0,0 +1,139 @@
+package pack.activityservice.reactive.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import pack.activityservice.config.PaginationProperties;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.model.ActivityCursor;
+import pack.activityservice.reactive.repository.ReactiveStudentActivityRepository;
+import pack.activityservice.reactive.service.ArchiveGuard;
+import pack.activityservice.reactive.service.ReactiveStudentActivityService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@Service
+@Profile("reactive")
+public class ReactiveStudentActivityServiceImpl implements ReactiveStudentActivityService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveStudentActivityServiceImpl.class);
+
+    private final ReactiveStudentActivityRepository reactiveStudentActivityRepository;
+    private final PaginationProperties paginationProperties;
+    private final ArchiveGuard archiveGuard;
+
+    public ReactiveStudentActivityServiceImpl(ReactiveStudentActivityRepository reactiveStudentActivityRepository,
+                                              PaginationProperties paginationProperties,
+                                              ArchiveGuard archiveGuard) {
+        this.reactiveStudentActivityRepository = reactiveStudentActivityRepository;
+        this.paginationProperties = paginationProperties;
+        this.archiveGuard = archiveGuard;
+    }
+
+    // Cursors, limits and the archive guard are checked on subscription, so failures are signalled as errors
+
+    @Override
+    public Flux<StudentActivityDTO> getAllActivities(String cursor, Integer limit) {
+        log.info("Streaming all student activities");
+
+        return Flux.defer(() -> {
+            archiveGuard.check();
+            return reactiveStudentActivityRepository
+                    .findAll(ActivityCursor.startingAfter(cursor).id(), streamLimit(limit));
+        });
+    }
+
+    @Override
+    public Flux<StudentActivityDTO> getActivitiesByStudentId(Long studentId, String cursor, Integer limit) {
+        log.info("Streaming activities for student ID: {}", studentId);
+
+        return Flux.defer(() -> {
+            archiveGuard.check();
+            return reactiveStudentActivityRepository
+                    .findByStudent(studentId, ActivityCursor.startingAfter(cursor).id(), streamLimit(limit));
+        });
+    }
+
+    @Override
+    public Flux<StudentActivityDTO> getActivitiesByCourse(
+            String courseCode, String moduleCode, String cursor, Integer limit) {
+        log.info("Streaming activities for course: {}-{}", courseCode, moduleCode);
+
+        return Flux.defer(() -> {
+            archiveGuard.check();
+            return reactiveStudentActivityRepository
+                    .findByCourse(courseCode, moduleCode, ActivityCursor.startingAfter(cursor).id(), streamLimit(limit));
+        });
+    }
+
+    @Override
+    public Flux<StudentActivityDTO> getActivitiesByStudentAndCourse(
+            Long studentId, String courseCode, String moduleCode, String cursor, Integer limit) {
+        log.info("Streaming activities for student ID: {} in course: {}-{}",
+                studentId, courseCode, moduleCode);
+
+        return Flux.defer(() -> {
+            archiveGuard.check();
+            return reactiveStudentActivityRepository
+                    .findByStudentAndCourse(studentId, courseCode, moduleCode,
+                        ActivityCursor.startingAfter(cursor).id(), streamLimit(limit));
+        });
+    }
+
+    @Override
+    public Flux<StudentActivityDTO> getActivitiesByStudentAndDateRange(
+            Long studentId, LocalDate startDate, LocalDate endDate, String cursor, Integer limit) {
+        log.info("Streaming activities for student ID: {} between {} and {}",
+                studentId, startDate, endDate);
+
+        return Flux.defer(() -> {
+            archiveGuard.check();
+            ActivityCursor after = ActivityCursor.startingAfter(cursor, startDate);
+            return reactiveStudentActivityRepository
+                    .findByStudentAndDateRange(studentId, after.date(), after.id(), endDate, streamLimit(limit));
+        });
+    }
+
+    @Override
+    public Flux<StudentActivityDTO> getActivitiesByCourseAndDateRange(
+            String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate, String cursor, Integer limit) {
+        log.info("Streaming activities for course: {}-{} between {} and {}",
+                courseCode, moduleCode, startDate, endDate);
+
+        return Flux.defer(() -> {
+            archiveGuard.check();
+            ActivityCursor after = ActivityCursor.startingAfter(cursor, startDate);
+            return reactiveStudentActivityRepository
+                    .findByCourseAndDateRange(courseCode, moduleCode, after.date(), after.id(), endDate, streamLimit(limit));
+        });
+    }
+
+    @Override
+    public Mono<Long> getTotalClicksByStudent(Long studentId) {
+        log.info("Calculating total clicks for student ID: {}", studentId);
+
+        return Mono.defer(() -> {
+            archiveGuard.check();
+            return reactiveStudentActivityRepository.getTotalClicksByStudentId(studentId);
+        });
+    }
+
+    @Override
+    public Mono<Long> getTotalClicksByStudentAndCourse(Long studentId, String courseCode, String moduleCode) {
+        log.info("Calculating total clicks for student ID: {} in course: {}-{}",
+                studentId, courseCode, moduleCode);
+
+        return Mono.defer(() -> {
+            archiveGuard.check();
+            return reactiveStudentActivityRepository.getTotalClicksByStudentIdAndCourse(studentId, courseCode, moduleCode);
+        });
+    }
+
+    // Streams run to the end unless a limit is given, which is validated and capped like a page size
+    private Integer streamLimit(Integer limit) {
+        return limit == null ? null : paginationProperties.resolvePageSize(limit);
+    }
+}
@@ -0,0 +1,72 @@
+#!/usr/bin/env bash
+# Startup time and first-request latency of the standard jar against the startup build (mvn -Pstartup package).
+#
+#   src/startup/measure-startup.sh [runs]
+#
+# Both are started from target/ with the same arguments: APP_ARGS for the application (datasource, no config
+# server, ...) and EXTRA_CLASSPATH appended to the class path, e.g. a JDBC driver for a local database.
+# Reported per run: the "Started ... in" time, the time until the first response, and the latency of the
+# first and second request to a student date-range listing.
+set -euo pipefail
+
+RUNS=${1:-3}
+PORT=${PORT:-18083}
+APP_ARGS=${APP_ARGS:-}
+EXTRA_CLASSPATH=${EXTRA_CLASSPATH:-}
+TARGET=$(cd "$(dirname "$0")/../../target" && pwd)
+JAR=$(cd "$TARGET" && ls activity-service-*.jar | head -1)
+URL="http://localhost:$PORT/api/activities/student/1/date-range?startDate=2024-01-01&endDate=2024-01-31&limit=20"
+MAIN_CLASS=pack.activityservice.ActivityServiceApplication
+
+now_ms() {
+    date +%s%3N
+}
+
+request_ms() {
+    curl -s -o /dev/null -w '%{time_total}' -H 'X-User-Id: 1' -H 'X-User-Role: STUDENT' "$URL" \
+        | awk '{ printf "%.0f", $1 * 1000 }'
+}
+
+measure() {
+    local name=$1 dir=$2
+    shift 2
+    local log
+    log=$(mktemp)
+    local start
+    start=$(now_ms)
+    (cd "$dir" && exec "$@" --server.port="$PORT" $APP_ARGS) > "$log" 2>&1 &
+    local pid=$!
+    until grep -q 'Started [A-Za-z]* in' "$log"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "$name failed to start, see $log" >&2
+            return 1
+        fi
+        sleep 0.05
+    done
+    local started first first_response second
+    started=$(grep -o 'Started [A-Za-z]* in [0-9.]* seconds' "$log" | awk '{ print $4 }')
+    first=$(request_ms)
+    first_response=$(( $(now_ms) - start ))
+    second=$(request_ms)
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    rm -f "$log"
+    printf '%-10s started %6ss  first response %6sms  request #1 %4sms  request #2 %4sms\n' \
+        "$name" "$started" "$first_response" "$first" "$second"
+}
+
+if [[ ! -f "$TARGET/startup/application.jsa" ]]; then
+    echo "Build the startup layout first: mvn -Pstartup package" >&2
+    exit 1
+fi
+
+for ((run = 1; run <= RUNS; run++)); do
+    if [[ -n "$EXTRA_CLASSPATH" ]]; then
+        measure standard "$TARGET" java -Dloader.path="$EXTRA_CLASSPATH" -cp "$JAR" \
+            org.springframework.boot.loader.launch.PropertiesLauncher
+    else
+        measure standard "$TARGET" java -jar "$JAR"
+    fi
+    measure optimized "$TARGET/startup" java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+        -Dspring.profiles.active=startup -cp "$JAR${EXTRA_CLASSPATH:+:$EXTRA_CLASSPATH}" "$MAIN_CLASS"
+done
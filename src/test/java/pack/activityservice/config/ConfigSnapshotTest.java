@@ -0,0 +1,130 @@
+package pack.activityservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.DefaultBootstrapContext;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.context.config.ConfigData;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.autoconfigure.ConfigurationPropertiesRebinderAutoConfiguration;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.client.ConfigServerConfigDataResource;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ConfigSnapshotTest {
+
+    private static final String SERVER_SOURCE = "configserver:file:/config/activity-service.yml";
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void writtenSnapshotReadsBackWithSourceOrderAndOptions() throws Exception {
+        ConfigSnapshot snapshot = ConfigSnapshot.of(serverData(Map.of("activity.pagination.max-page-size", "500")),
+                Instant.parse("2024-05-01T10:00:00Z"));
+        Path file = directory.resolve("nested/config-snapshot.json");
+
+        snapshot.write(file);
+        ConfigSnapshot read = ConfigSnapshot.read(file);
+
+        assertEquals(snapshot, read);
+        assertEquals(List.of("configClient", SERVER_SOURCE),
+                read.sources().stream().map(ConfigSnapshot.Source::name).toList());
+        ConfigData data = read.toConfigData();
+        assertEquals("500", data.getPropertySources().get(1).getProperty("activity.pagination.max-page-size"));
+        assertTrue(data.getOptions(data.getPropertySources().get(0)).contains(ConfigData.Option.IGNORE_IMPORTS));
+    }
+
+    @Test
+    void writtenSnapshotIsReadableByItsOwnerOnly() throws Exception {
+        assumeTrue(directory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path file = directory.resolve("config-snapshot.json");
+        Files.writeString(file, "{}");
+        Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-r--r--"));
+
+        ConfigSnapshot.of(serverData(Map.of("spring.datasource.password", "secret")), Instant.now()).write(file);
+
+        assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(file));
+    }
+
+    @Test
+    void startsFromSnapshotWithoutConfigServer() throws Exception {
+        Path file = directory.resolve("config-snapshot.json");
+        ConfigSnapshot.of(serverData(Map.of("activity.pagination.max-page-size", "500")), Instant.now()).write(file);
+        // Nothing listens on port 1: any request to the config server would fail the load
+        ConfigClientProperties client = new ConfigClientProperties(new StandardEnvironment());
+        client.setUri(new String[]{"http://127.0.0.1:1"});
+        ConfigSnapshotResource resource = new ConfigSnapshotResource(file,
+                new ConfigServerConfigDataResource(client, false, null));
+        DefaultBootstrapContext bootstrapContext = new DefaultBootstrapContext();
+
+        ConfigData data = new ConfigSnapshotLoader(destination -> destination.get())
+                .load(() -> bootstrapContext, resource);
+
+        assertEquals("500", data.getPropertySources().get(1).getProperty("activity.pagination.max-page-size"));
+        ConfigSnapshotStore store = bootstrapContext.get(ConfigSnapshotStore.class);
+        assertTrue(store.isLoadedFromFile());
+        assertEquals(file, store.getFile());
+    }
+
+    @Test
+    void reconcileAppliesChangesSavesThemAndRebindsProperties() {
+        Path file = directory.resolve("config-snapshot.json");
+        ConfigSnapshot started = ConfigSnapshot.of(serverData(Map.of("activity.pagination.max-page-size", "500")),
+                Instant.now());
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(ConfigurationPropertiesRebinderAutoConfiguration.class))
+                .withUserConfiguration(PaginationConfig.class)
+                .withInitializer(context -> started.toPropertySources()
+                        .forEach(context.getEnvironment().getPropertySources()::addLast))
+                .run(context -> {
+                    ConfigSnapshotStore store = new ConfigSnapshotStore(file, null, null, null, started, true);
+                    ConfigSnapshotRefresher refresher = new ConfigSnapshotRefresher(
+                            context.getBeanProvider(ConfigSnapshotStore.class), new ConfigSnapshotProperties(),
+                            context.getSourceApplicationContext(), context.getEnvironment());
+                    assertEquals(500, context.getBean(PaginationProperties.class).getMaxPageSize());
+
+                    Set<String> unchanged = refresher.reconcile(store,
+                            serverData(Map.of("activity.pagination.max-page-size", "500")));
+                    Set<String> changed = refresher.reconcile(store,
+                            serverData(Map.of("activity.pagination.max-page-size", "700",
+                                    "activity.pagination.default-page-size", "50")));
+
+                    assertEquals(Set.of(), unchanged);
+                    assertEquals(Set.of("activity.pagination.max-page-size", "activity.pagination.default-page-size"),
+                            changed);
+                    assertEquals(700, context.getBean(PaginationProperties.class).getMaxPageSize());
+                    assertEquals(50, context.getBean(PaginationProperties.class).getDefaultPageSize());
+                    assertEquals("700", ConfigSnapshot.read(file).sources().get(1).properties()
+                            .get("activity.pagination.max-page-size"));
+                });
+    }
+
+    // Shaped like what the config server loader returns: client metadata, then the served files
+    private static ConfigData serverData(Map<String, Object> properties) {
+        MapPropertySource client = new MapPropertySource("configClient", Map.of("config.client.version", "v1"));
+        MapPropertySource served = new MapPropertySource(SERVER_SOURCE, properties);
+        return new ConfigData(List.of(client, served), source -> source == client
+                ? ConfigData.Options.of(ConfigData.Option.IGNORE_IMPORTS)
+                : ConfigData.Options.of(ConfigData.Option.IGNORE_IMPORTS, ConfigData.Option.IGNORE_PROFILES));
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(PaginationProperties.class)
+    static class PaginationConfig {
+    }
+}
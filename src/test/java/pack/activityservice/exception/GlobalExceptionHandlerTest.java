@@ -0,0 +1,69 @@
+package pack.activityservice.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+
+    // Configured like Spring Boot's mapper, which serializes ErrorResponse in the other handlers
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void notFoundBodyMatchesSerializedErrorResponse() throws Exception {
+        ResponseEntity<byte[]> response = new GlobalExceptionHandler()
+                .handleResourceNotFoundException(new ResourceNotFoundException("Student activity not found with ID: 7"));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        ErrorResponse body = objectMapper.readValue(response.getBody(), ErrorResponse.class);
+        ErrorResponse expected = new ErrorResponse(body.getTimestamp(), 404, "Not Found",
+                "Student activity not found with ID: 7", null);
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(expected)),
+                objectMapper.readTree(response.getBody()));
+    }
+
+    @Test
+    void preSerializedErrorEscapesMessages() throws Exception {
+        PreSerializedError error = new PreSerializedError(HttpStatus.NOT_FOUND, "Not Found");
+        byte[] timestamp = "2024-05-01T10:00:00.123".getBytes(StandardCharsets.US_ASCII);
+
+        ErrorResponse quoted = objectMapper.readValue(error.render(timestamp, "No \"course\" \\ é\n"), ErrorResponse.class);
+        ErrorResponse missing = objectMapper.readValue(error.render(timestamp, null), ErrorResponse.class);
+
+        assertEquals("No \"course\" \\ é\n", quoted.getMessage());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 0, 0, 123_000_000), quoted.getTimestamp());
+        assertNull(missing.getMessage());
+    }
+
+    @Test
+    void timestampIsFormattedOncePerMillisecond() {
+        Clock clock = Clock.fixed(Instant.parse("2024-05-01T10:00:00.120Z"), ZoneOffset.UTC);
+        ErrorTimestampClock timestamps = new ErrorTimestampClock(clock);
+
+        byte[] first = timestamps.now();
+
+        assertSame(first, timestamps.now());
+        assertEquals("2024-05-01T10:00:00.12", new String(first, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void notFoundExceptionHasNoStackTrace() {
+        assertEquals(0, new ResourceNotFoundException("missing").getStackTrace().length);
+    }
+}
@@ -0,0 +1,116 @@
+package pack.activityservice.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsInterceptorsTest {
+
+    interface SampleService {
+        String greet(String name);
+    }
+
+    interface SampleRepository {
+        List<String> findAll();
+
+        Optional<String> findFirst();
+
+        Stream<String> streamAll();
+
+        long count();
+    }
+
+    private MeterRegistry meterRegistry;
+    private StaticListableBeanFactory beanFactory;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+    }
+
+    @Test
+    void testServiceTiming_TaggedByMethodAndOutcome() {
+        SampleService target = name -> {
+            if (name == null) {
+                throw new IllegalArgumentException("name");
+            }
+            return "Hello " + name;
+        };
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addInterface(SampleService.class);
+        proxyFactory.addAdvice(new ServiceTimingInterceptor(beanFactory.getBeanProvider(MeterRegistry.class)));
+        SampleService service = (SampleService) proxyFactory.getProxy();
+
+        assertEquals("Hello Ann", service.greet("Ann"));
+        assertEquals("Hello Bob", service.greet("Bob"));
+        assertThrows(IllegalArgumentException.class, () -> service.greet(null));
+
+        Timer success = meterRegistry.get(ServiceTimingInterceptor.METRIC_NAME)
+                .tags("service", "SampleService", "method", "greet", "outcome", "SUCCESS").timer();
+        Timer error = meterRegistry.get(ServiceTimingInterceptor.METRIC_NAME)
+                .tags("service", "SampleService", "method", "greet", "outcome", "ERROR").timer();
+        assertEquals(2, success.count());
+        assertEquals(1, error.count());
+    }
+
+    @Test
+    void testRepositoryRows_RecordedPerQuery() {
+        SampleRepository target = new SampleRepository() {
+            @Override
+            public List<String> findAll() {
+                return List.of("a", "b", "c");
+            }
+
+            @Override
+            public Optional<String> findFirst() {
+                return Optional.empty();
+            }
+
+            @Override
+            public Stream<String> streamAll() {
+                return Stream.of("a", "b");
+            }
+
+            @Override
+            public long count() {
+                return 3;
+            }
+        };
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addInterface(SampleRepository.class);
+        proxyFactory.addAdvice(new RepositoryRowsInterceptor(SampleRepository.class,
+                beanFactory.getBeanProvider(MeterRegistry.class)));
+        SampleRepository repository = (SampleRepository) proxyFactory.getProxy();
+
+        repository.findAll();
+        repository.findFirst();
+        repository.count();
+        try (Stream<String> rows = repository.streamAll()) {
+            assertEquals(2, rows.count());
+        }
+
+        assertEquals(3, rows("findAll").totalAmount());
+        assertEquals(1, rows("findFirst").count());
+        assertEquals(0, rows("findFirst").totalAmount());
+        assertEquals(2, rows("streamAll").totalAmount());
+        assertNull(meterRegistry.find(RepositoryRowsInterceptor.METRIC_NAME).tag("method", "count").summary());
+    }
+
+    private DistributionSummary rows(String method) {
+        return meterRegistry.get(RepositoryRowsInterceptor.METRIC_NAME)
+                .tags("repository", "SampleRepository", "method", method).summary();
+    }
+}
@@ -0,0 +1,161 @@
+package pack.activityservice.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pack.activityservice.config.ArchiveProperties;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.model.CourseKey;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityArchiveTest {
+
+    private static final CourseKey AAA = new CourseKey("AAA", "2013J");
+    private static final CourseKey BBB = new CourseKey("BBB", "2013J");
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @TempDir
+    private Path directory;
+
+    private ActivityArchive activityArchive;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(directory);
+        activityArchive = new ActivityArchive(properties);
+
+        List<StudentActivityDTO> rows = new ArrayList<>();
+        for (int day = 0; day < 10; day++) {
+            rows.add(new StudentActivityDTO(100L + day, 1L, AAA, START.plusDays(day), day));
+            rows.add(new StudentActivityDTO(200L + day, 2L, AAA, START.plusDays(day), day * 2));
+        }
+        rows.add(new StudentActivityDTO(300L, 1L, BBB, START.plusDays(3), 7));
+        write(YearMonth.from(START), rows);
+    }
+
+    // Writes the rows in the three passes of the archiver
+    private ArchiveSegment write(YearMonth month, List<StudentActivityDTO> rows) throws Exception {
+        List<CourseKey> courses = rows.stream().map(row -> new CourseKey(row.getCourseCode(), row.getModuleCode()))
+                .distinct().sorted(Comparator.comparing(CourseKey::courseCode)).toList();
+        int[] counts = new int[courses.size()];
+        rows.forEach(row -> counts[courses.indexOf(new CourseKey(row.getCourseCode(), row.getModuleCode()))]++);
+        try (ArchiveSegmentWriter writer = activityArchive.newSegment(month, courses, counts)) {
+            List<StudentActivityDTO> byId = rows.stream().sorted(Comparator.comparing(StudentActivityDTO::getId)).toList();
+            for (StudentActivityDTO row : byId) {
+                writer.addRow(row.getId(), row.getStudentId(),
+                        courses.indexOf(new CourseKey(row.getCourseCode(), row.getModuleCode())), row.getDate(), row.getSumClicks());
+            }
+            rows.stream().sorted(Comparator.comparing(StudentActivityDTO::getCourseCode).thenComparing(ActivityArchive.LISTING_ORDER))
+                    .forEach(row -> writer.addCourseOrder(row.getId()));
+            rows.stream().sorted(Comparator.comparing(StudentActivityDTO::getStudentId).thenComparing(ActivityArchive.LISTING_ORDER))
+                    .forEach(row -> writer.addStudentOrder(row.getId()));
+            return activityArchive.publish(month, writer);
+        }
+    }
+
+    @Test
+    void testCourseRows_StartAfterCursorInListingOrder() {
+        List<StudentActivityDTO> rows = ActivityArchive.take(
+                activityArchive.courseRows(AAA, START.plusDays(2), 102L, START.plusDays(3)), 10);
+
+        assertEquals(List.of(202L, 103L, 203L), rows.stream().map(StudentActivityDTO::getId).toList());
+        assertEquals("AAA", rows.get(0).getCourseCode());
+        assertEquals(4, rows.get(0).getSumClicks());
+    }
+
+    @Test
+    void testStudentRows_SpanCoursesAndSurviveReopening() {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(directory);
+        ActivityArchive reopened = new ActivityArchive(properties);
+
+        List<StudentActivityDTO> rows = ActivityArchive.take(
+                reopened.studentRows(1L, START.plusDays(2), 0L, START.plusDays(4)), 10);
+
+        assertEquals(List.of(102L, 103L, 300L, 104L), rows.stream().map(StudentActivityDTO::getId).toList());
+        assertEquals("BBB", rows.get(2).getCourseCode());
+        assertTrue(reopened.covers(START.plusDays(9), null));
+        assertFalse(reopened.covers(START.plusDays(10), null));
+    }
+
+    @Test
+    void testRescan_OpensSegmentsWrittenElsewhereAndDropsRemovedOnes() throws Exception {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(directory);
+        ActivityArchive replica = new ActivityArchive(properties);
+        ArchiveSegment february = write(YearMonth.from(START.plusMonths(1)),
+                List.of(new StudentActivityDTO(400L, 3L, AAA, START.plusMonths(1), 9)));
+
+        assertFalse(replica.covers(START.plusMonths(1), null));
+        assertTrue(replica.rescan());
+        assertEquals(List.of(400L), ActivityArchive.take(replica.studentRows(3L, null, 0L, null), 10).stream()
+                .map(StudentActivityDTO::getId).toList());
+        assertFalse(replica.rescan());
+
+        Files.delete(february.file());
+        assertTrue(replica.rescan());
+        assertFalse(replica.covers(START.plusMonths(1), null));
+        assertTrue(replica.covers(START, null));
+    }
+
+    @Test
+    void testMerge_RowInBothSourcesListedOnceFromFirst() {
+        StudentActivityDTO live = new StudentActivityDTO(103L, 1L, AAA, START.plusDays(3), 99);
+        StudentActivityDTO later = new StudentActivityDTO(1000L, 1L, AAA, START.plusDays(3), 5);
+
+        List<StudentActivityDTO> rows = ActivityArchive.take(ActivityArchive.merge(List.of(
+                List.of(live, later).iterator(),
+                activityArchive.courseRows(AAA, START.plusDays(2), 202L, START.plusDays(3)))), 10);
+
+        assertEquals(List.of(103L, 203L, 1000L), rows.stream().map(StudentActivityDTO::getId).toList());
+        assertEquals(99, rows.get(0).getSumClicks());
+    }
+
+    @Test
+    void testStudentRowsAndFindById_UseTheIndexesOfEverySegment() throws Exception {
+        write(YearMonth.from(START.plusMonths(1)), List.of(
+                new StudentActivityDTO(150L, 2L, BBB, START.plusMonths(1), 3),
+                new StudentActivityDTO(151L, 1L, AAA, START.plusMonths(1).plusDays(1), 4)));
+
+        List<StudentActivityDTO> rows = ActivityArchive.take(
+                activityArchive.studentRows(2L, START.plusDays(8), 0L, null), 10);
+
+        assertEquals(List.of(208L, 209L, 150L), rows.stream().map(StudentActivityDTO::getId).toList());
+        assertEquals(List.of(), ActivityArchive.take(activityArchive.studentRows(3L, null, 0L, null), 10));
+        assertEquals(14, activityArchive.findById(207L).getSumClicks());
+        assertEquals(START.plusMonths(1).plusDays(1), activityArchive.findById(151L).getDate());
+        assertNull(activityArchive.findById(110L));
+    }
+
+    @Test
+    void testWriter_RejectsPassesOutOfOrderAndIncompleteSegments() throws Exception {
+        try (ArchiveSegmentWriter writer = activityArchive.newSegment(YearMonth.from(START.plusMonths(1)),
+                List.of(AAA, BBB), new int[]{2, 1})) {
+            assertThrows(IllegalStateException.class, () -> writer.addCourseOrder(1));
+            writer.addRow(1, 1L, 0, START.plusMonths(1), 1);
+            writer.addRow(2, 1L, 1, START.plusMonths(1), 1);
+            assertThrows(IllegalArgumentException.class, () -> writer.addRow(2, 1L, 0, START.plusMonths(1), 1));
+            writer.addRow(3, 2L, 0, START.plusMonths(1), 1);
+
+            // Id 2 is a row of BBB, which comes after both rows of AAA
+            assertThrows(IllegalArgumentException.class, () -> writer.addCourseOrder(2));
+            writer.addCourseOrder(1);
+            assertThrows(IllegalArgumentException.class, () -> writer.addCourseOrder(1));
+            writer.addCourseOrder(3);
+            writer.addCourseOrder(2);
+            writer.addStudentOrder(1);
+            assertThrows(IllegalArgumentException.class, () -> writer.addStudentOrder(4));
+            assertThrows(IllegalStateException.class, writer::finish);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package pack.activityservice.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.entity.StudentActivity;
+import pack.activityservice.model.CourseKey;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CourseModuleDictionary.class)
+class StudentActivityRepositoryTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Autowired
+    private StudentActivityRepository studentActivityRepository;
+
+    @Autowired
+    private CourseModuleDictionary courseModules;
+
+    @BeforeEach
+    void setUp() {
+        // Dates run backwards while ids grow, so (date, id) order differs from id order
+        for (int day = 9; day >= 0; day--) {
+            studentActivityRepository.save(new StudentActivity(null, 1L, "AAA", "2013J", START.plusDays(day), day));
+            studentActivityRepository.save(new StudentActivity(null, 2L, "AAA", "2013J", START.plusDays(day), day));
+        }
+        studentActivityRepository.save(new StudentActivity(null, 1L, "BBB", "2013J", START, 1));
+    }
+
+    @Test
+    void testIdKeysetPagesCoverCourseExactlyOnce() {
+        List<StudentActivityDTO> seen = new ArrayList<>();
+        long afterId = 0L;
+        List<StudentActivityDTO> page;
+        do {
+            page = studentActivityRepository.findCoursePage(
+                    new CourseKey("AAA", "2013J"), afterId, Limit.of(3));
+            seen.addAll(page);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 3);
+
+        assertEquals(20, seen.size());
+        assertEquals(20, seen.stream().map(StudentActivityDTO::getId).distinct().count());
+    }
+
+    @Test
+    void testDateKeysetPagesFollowDateThenIdOrder() {
+        LocalDate end = START.plusDays(4);
+        List<StudentActivityDTO> seen = new ArrayList<>();
+        LocalDate afterDate = START;
+        long afterId = 0L;
+        List<StudentActivityDTO> page;
+        do {
+            page = studentActivityRepository.findCourseDateRangePage(new CourseKey("AAA", "2013J"), afterDate, afterId, end, Limit.of(3));
+            seen.addAll(page);
+            if (!page.isEmpty()) {
+                StudentActivityDTO last = page.get(page.size() - 1);
+                afterDate = last.getDate();
+                afterId = last.getId();
+            }
+        } while (page.size() == 3);
+
+        assertEquals(10, seen.size());
+        for (int i = 1; i < seen.size(); i++) {
+            StudentActivityDTO previous = seen.get(i - 1);
+            StudentActivityDTO current = seen.get(i);
+            assertTrue(previous.getDate().isBefore(current.getDate())
+                    || (previous.getDate().equals(current.getDate()) && previous.getId() < current.getId()));
+        }
+    }
+
+    @Test
+    void testStudentDateRangePageRespectsBounds() {
+        List<StudentActivityDTO> page = studentActivityRepository.findStudentDateRangePage(
+                1L, START.plusDays(2), 0L, START.plusDays(3), Limit.of(10));
+
+        assertEquals(2, page.size());
+        assertTrue(page.stream().allMatch(activity -> activity.getStudentId() == 1L));
+    }
+
+    @Test
+    void testCourseModules_RegisteredOnSaveAndSharedByRows() {
+        CourseKey course = new CourseKey("AAA", "2013J");
+        assertNotEquals(CourseModuleDictionary.UNKNOWN_ID, courseModules.find(course));
+
+        List<StudentActivityDTO> rows = studentActivityRepository.findCoursePage(course, 0L, Limit.of(2));
+        assertEquals(2, rows.size());
+        assertSame(rows.get(0).getCourseCode(), rows.get(1).getCourseCode());
+        assertEquals("AAA", rows.get(0).getCourseCode());
+        assertEquals("2013J", rows.get(0).getModuleCode());
+    }
+
+    @Test
+    void testCourseModules_UnknownCourseMatchesNothingAndIsNotRegistered() {
+        CourseKey unknown = new CourseKey("ZZZ", "2013J");
+        int known = courseModules.size();
+
+        assertTrue(studentActivityRepository.findCoursePage(unknown, 0L, Limit.of(3)).isEmpty());
+        assertEquals(CourseModuleDictionary.UNKNOWN_ID, courseModules.find(unknown));
+        assertEquals(known, courseModules.size());
+    }
+
+    @Test
+    void testCourseModules_RegisteredInTransactionAreCachedOnlyOnCommit() {
+        CourseKey course = new CourseKey("CCC", "2014B");
+        int known = courseModules.size();
+
+        int id = courseModules.register(course);
+
+        assertNotEquals(CourseModuleDictionary.UNKNOWN_ID, id);
+        assertEquals(id, courseModules.find(course));
+        assertSame(courseModules.get(id), courseModules.get(id));
+        // The test transaction rolls back, so the pair never reaches the shared dictionary
+        assertEquals(known, courseModules.size());
+    }
+}
@@ -0,0 +1,63 @@
+package pack.activityservice.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeaderAuthFilterTest {
+
+    private final HeaderAuthFilter filter = new HeaderAuthFilter();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesForTheChainAndClearsTheContextAfterwards() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/activities/1");
+        request.addHeader(HeaderAuthFilter.USER_ID_HEADER, "42");
+        request.addHeader(HeaderAuthFilter.ROLE_HEADER, "STUDENT");
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, resp) -> seen.set(SecurityContextHolder.getContext().getAuthentication()));
+
+        assertEquals("42", seen.get().getName());
+        assertTrue(seen.get().isAuthenticated());
+        assertEquals("ROLE_STUDENT", seen.get().getAuthorities().iterator().next().getAuthority());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void leavesRequestsWithoutHeadersUnauthenticated() throws Exception {
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/activities/1"), new MockHttpServletResponse(),
+                (req, resp) -> seen.set(SecurityContextHolder.getContext().getAuthentication()));
+
+        assertNull(seen.get());
+    }
+
+    @Test
+    void sharesAuthoritiesPerRoleUpToTheBound() {
+        assertSame(HeaderAuthentication.of("1", "TEACHER").getAuthorities(),
+                HeaderAuthentication.of("2", "TEACHER").getAuthorities());
+
+        for (int i = 0; i < HeaderAuthentication.MAX_CACHED_ROLES; i++) {
+            HeaderAuthentication.authorities("ROLE" + i);
+        }
+        HeaderAuthentication uncached = HeaderAuthentication.of("3", "UNKNOWN");
+        assertEquals("ROLE_UNKNOWN", uncached.getAuthorities().get(0).getAuthority());
+        assertNotSame(uncached.getAuthorities(), HeaderAuthentication.of("4", "UNKNOWN").getAuthorities());
+        assertSame(HeaderAuthentication.of("1", "TEACHER").getAuthorities(),
+                HeaderAuthentication.of("5", "TEACHER").getAuthorities());
+    }
+}
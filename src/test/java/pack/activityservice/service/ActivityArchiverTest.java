@@ -0,0 +1,170 @@
+package pack.activityservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pack.activityservice.config.ArchiveProperties;
+import pack.activityservice.config.IdFilterProperties;
+import pack.activityservice.config.LeaderboardProperties;
+import pack.activityservice.config.PaginationProperties;
+import pack.activityservice.config.TimelineCacheProperties;
+import pack.activityservice.config.TotalsCacheProperties;
+import pack.activityservice.dto.CursorPageDTO;
+import pack.activityservice.dto.LeaderboardEntryDTO;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.entity.StudentActivity;
+import pack.activityservice.exception.InvalidRequestException;
+import pack.activityservice.model.CourseKey;
+import pack.activityservice.repository.ActivityArchive;
+import pack.activityservice.repository.CourseModuleDictionary;
+import pack.activityservice.repository.StudentActivityRepository;
+import pack.activityservice.service.impl.StudentActivityServiceImpl;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CourseModuleDictionary.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ActivityArchiverTest {
+
+    private static final LocalDate JANUARY = LocalDate.of(2024, 1, 10);
+    private static final LocalDate FEBRUARY = LocalDate.of(2024, 2, 10);
+    private static final LocalDate SEPTEMBER = LocalDate.of(2024, 9, 10);
+
+    @TempDir
+    private Path directory;
+
+    @Autowired
+    private StudentActivityRepository studentActivityRepository;
+
+    @Autowired
+    private CourseModuleDictionary courseModules;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private ActivityArchive activityArchive;
+    private ActivityArchiver activityArchiver;
+    private StudentActivityService studentActivityService;
+
+    @BeforeEach
+    void setUp() {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(directory);
+        properties.setHotPeriod(Period.ofMonths(6));
+        // Every row is a chunk of its own, so each pass resumes from its keyset
+        properties.setChunkSize(1);
+        properties.setRescanInterval(Duration.ZERO);
+        activityArchive = new ActivityArchive(properties);
+        activityArchiver = new ActivityArchiver(jdbcTemplate, courseModules, activityArchive, properties,
+                eventPublisher, transactionManager);
+        studentActivityService = new StudentActivityServiceImpl(studentActivityRepository, courseModules,
+                new PaginationProperties(), new ClickTotalsCache(new TotalsCacheProperties()),
+                new StudentTimelineCache(new TimelineCacheProperties()), activityArchive, eventPublisher,
+                new ActivityIdFilter(studentActivityRepository, new IdFilterProperties(), transactionManager),
+                new SimpleMeterRegistry(), transactionManager);
+
+        studentActivityRepository.save(new StudentActivity(null, 1L, "AAA", "2013J", JANUARY, 10));
+        studentActivityRepository.save(new StudentActivity(null, 2L, "AAA", "2013J", JANUARY, 20));
+        studentActivityRepository.save(new StudentActivity(null, 1L, "BBB", "2013J", FEBRUARY, 30));
+        studentActivityRepository.save(new StudentActivity(null, 1L, "AAA", "2013J", FEBRUARY.plusDays(1), 40));
+        studentActivityRepository.save(new StudentActivity(null, 1L, "AAA", "2013J", SEPTEMBER, 50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentActivityRepository.deleteAll();
+    }
+
+    @Test
+    void testArchive_MovesClosedMonthsOutOfTable() throws Exception {
+        long archived = activityArchiver.archive(LocalDate.of(2024, 9, 5));
+
+        assertEquals(4, archived);
+        assertEquals(1, studentActivityRepository.count());
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+        assertEquals(0, activityArchiver.archive(LocalDate.of(2024, 9, 5)));
+    }
+
+    @Test
+    void testTotalsAndLookups_CountArchivedRowsOnce() {
+        long januaryId = studentActivityRepository.findAll().stream()
+                .filter(activity -> activity.getDate().equals(JANUARY) && activity.getStudentId() == 1L)
+                .findFirst().orElseThrow().getId();
+        activityArchiver.archive(LocalDate.of(2024, 9, 5));
+
+        assertEquals(130L, studentActivityService.getTotalClicksByStudent(1L));
+        assertEquals(100L, studentActivityService.getTotalClicksByStudentAndCourse(1L, "AAA", "2013J"));
+        assertEquals(10, studentActivityService.getActivityById(januaryId).getSumClicks());
+        assertThrows(InvalidRequestException.class, () -> studentActivityService.deleteActivity(januaryId));
+        assertThrows(InvalidRequestException.class,
+                () -> studentActivityService.incrementClicks(1L, "AAA", "2013J", JANUARY, 5));
+
+        CourseLeaderboard courseLeaderboard = new CourseLeaderboard(studentActivityRepository, activityArchive,
+                new LeaderboardProperties(), transactionManager);
+        courseLeaderboard.rebuild();
+        assertEquals(List.of(100L, 20L), courseLeaderboard.top("AAA", "2013J", 10).stream()
+                .map(LeaderboardEntryDTO::getTotalClicks).toList());
+    }
+
+    @Test
+    void testArchive_DeletesRowsLeftOverByAnInterruptedRun() {
+        activityArchiver.archive(LocalDate.of(2024, 9, 5));
+        // As if the run had stopped before deleting this row
+        jdbcTemplate.update("INSERT INTO student_activity (id, student_id, course_module_id, date, sum_clicks) " +
+                            "VALUES (?, 2, ?, ?, 20)", activityArchive.studentRows(2L, null, 0L, null).next().getId(),
+                courseModules.register(new CourseKey("AAA", "2013J")), JANUARY);
+
+        assertEquals(1, activityArchiver.archive(LocalDate.of(2024, 9, 5)));
+        assertEquals(1, studentActivityRepository.count());
+        assertEquals(20L, studentActivityService.getTotalClicksByStudent(2L));
+    }
+
+    @Test
+    void testDateRangeListings_MergeArchivedAndLiveRows() {
+        activityArchiver.archive(LocalDate.of(2024, 9, 5));
+
+        List<StudentActivityDTO> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<StudentActivityDTO> page = studentActivityService.getActivitiesByStudentAndDateRange(
+                    1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), cursor, 2);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(10, 30, 40, 50), seen.stream().map(StudentActivityDTO::getSumClicks).toList());
+
+        CursorPageDTO<StudentActivityDTO> course = studentActivityService.getActivitiesByCourseAndDateRange(
+                "AAA", "2013J", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), null, 10);
+        assertEquals(List.of(10, 20, 40, 50), course.getItems().stream().map(StudentActivityDTO::getSumClicks).toList());
+    }
+}
@@ -0,0 +1,90 @@
+package pack.activityservice.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import pack.activityservice.config.ArchiveProperties;
+import pack.activityservice.config.ExportProperties;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.entity.StudentActivity;
+import pack.activityservice.model.CourseKey;
+import pack.activityservice.model.ExportFormat;
+import pack.activityservice.repository.ActivityArchive;
+import pack.activityservice.repository.CourseModuleDictionary;
+import pack.activityservice.repository.StudentActivityRepository;
+import pack.activityservice.service.impl.ActivityExportServiceImpl;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ActivityExportServiceImpl.class, CourseModuleDictionary.class, ExportProperties.class, JacksonAutoConfiguration.class,
+        ActivityArchive.class, ArchiveProperties.class})
+class ActivityExportServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 1, 15);
+
+    @Autowired
+    private ActivityExportService activityExportService;
+
+    @Autowired
+    private StudentActivityRepository studentActivityRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        studentActivityRepository.save(new StudentActivity(null, 1L, "AAA", "2013J", DATE.plusDays(1), 30));
+        studentActivityRepository.save(new StudentActivity(null, 2L, "AAA", "2013J", DATE, 40));
+        studentActivityRepository.save(new StudentActivity(null, 1L, "BBB", "2013J", DATE, 15));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testExportByCourse_WritesNdjsonInDateOrder() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = activityExportService.exportByCourse("AAA", "2013J", null, null, ExportFormat.NDJSON, output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, count);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"studentId\":2") && lines.get(0).contains("\"date\":\"2024-01-15\""));
+        assertTrue(lines.get(1).contains("\"studentId\":1") && lines.get(1).contains("\"sumClicks\":30"));
+    }
+
+    @Test
+    void testExportByStudentAndDateRange_WritesCsv() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = activityExportService.exportByStudentAndDateRange(1L, DATE, DATE, ExportFormat.CSV, output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(1, count);
+        assertEquals("id,studentId,courseCode,moduleCode,date,sumClicks", lines.get(0));
+        assertTrue(lines.get(1).endsWith(",1,BBB,2013J,2024-01-15,15"));
+    }
+
+    @Test
+    void testStreamByCourse_LeavesPersistenceContextEmpty() {
+        try (Stream<StudentActivityDTO> rows = studentActivityRepository.streamByCourse(new CourseKey("AAA", "2013J"), DATE, null, 1)) {
+            assertEquals(2, rows.count());
+        }
+
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+}
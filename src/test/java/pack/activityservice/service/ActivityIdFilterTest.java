@@ -0,0 +1,148 @@
+package pack.activityservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+import pack.activityservice.config.IdFilterProperties;
+import pack.activityservice.entity.StudentActivity;
+import pack.activityservice.model.LongBloomFilter;
+import pack.activityservice.repository.CourseModuleDictionary;
+import pack.activityservice.repository.StudentActivityRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CourseModuleDictionary.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ActivityIdFilterTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 2, 5);
+
+    @Autowired
+    private StudentActivityRepository studentActivityRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private IdFilterProperties properties;
+    private ActivityIdFilter activityIdFilter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IdFilterProperties();
+        activityIdFilter = new ActivityIdFilter(studentActivityRepository, properties, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentActivityRepository.deleteAll();
+    }
+
+    @Test
+    void testBloomFilter_NoFalseNegativesAndConfiguredFalsePositiveRate() {
+        LongBloomFilter filter = LongBloomFilter.create(100_000, 0.01, DataSize.ofMegabytes(1).toBytes());
+        for (long id = 1; id <= 100_000; id++) {
+            filter.put(id);
+        }
+
+        int falsePositives = 0;
+        for (long id = 1; id <= 100_000; id++) {
+            assertTrue(filter.mightContain(id));
+            if (filter.mightContain(id + 100_000)) {
+                falsePositives++;
+            }
+        }
+        assertEquals(0.01, filter.expectedFalsePositiveRate(100_000), 0.002);
+        assertTrue(falsePositives < 1_500, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void testBloomFilter_MemoryBudgetWinsOverFalsePositiveRate() {
+        LongBloomFilter filter = LongBloomFilter.create(1_000_000, 0.001, DataSize.ofKilobytes(64).toBytes());
+
+        assertEquals(DataSize.ofKilobytes(64).toBytes(), filter.byteSize());
+        assertTrue(filter.expectedFalsePositiveRate(1_000_000) > 0.001);
+    }
+
+    @Test
+    void testMightExist_EverythingUntilSecondRebuild() {
+        studentActivityRepository.save(new StudentActivity(null, 1L, "AAA", "2013J", DATE, 10));
+        assertTrue(activityIdFilter.mightExist(1L));
+
+        activityIdFilter.rebuild();
+
+        assertTrue(activityIdFilter.mightExist(1L));
+        assertTrue(activityIdFilter.mightExist(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testRebuild_FiltersMissingIdsUpToWatermarkOnly() {
+        List<Long> ids = new ArrayList<>();
+        for (long studentId = 1; studentId <= 200; studentId++) {
+            ids.add(studentActivityRepository.save(new StudentActivity(null, studentId, "AAA", "2013J", DATE, 10)).getId());
+        }
+        // Every other row goes away, leaving holes below the highest id
+        List<Long> deleted = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += 2) {
+            studentActivityRepository.deleteById(ids.get(i));
+            deleted.add(ids.get(i));
+        }
+        long maxId = ids.get(ids.size() - 1);
+
+        activityIdFilter.rebuild();
+        activityIdFilter.rebuild();
+
+        for (int i = 1; i < ids.size(); i += 2) {
+            assertTrue(activityIdFilter.mightExist(ids.get(i)));
+        }
+        long filteredOut = deleted.stream().filter(id -> !activityIdFilter.mightExist(id)).count();
+        assertTrue(filteredOut >= deleted.size() * 9 / 10, "filtered out: " + filteredOut);
+        // Created after the rebuild, here or on another instance: always looked up
+        assertTrue(activityIdFilter.mightExist(maxId + 1));
+        Long created = studentActivityRepository.save(new StudentActivity(null, 999L, "AAA", "2013J", DATE, 10)).getId();
+        assertTrue(activityIdFilter.mightExist(created));
+    }
+
+    @Test
+    void testRebuild_LooksUpIdsAboveThePreviousWatermark() {
+        Long watermark = studentActivityRepository.save(new StudentActivity(null, 1L, "AAA", "2013J", DATE, 10)).getId();
+        activityIdFilter.rebuild();
+        // Committed after the first rebuild read the watermark, like an insert that was still open then
+        Long committedLate = studentActivityRepository.save(new StudentActivity(null, 2L, "AAA", "2013J", DATE, 10)).getId();
+        Long deletedLate = studentActivityRepository.save(new StudentActivity(null, 3L, "AAA", "2013J", DATE, 10)).getId();
+        studentActivityRepository.save(new StudentActivity(null, 4L, "AAA", "2013J", DATE, 10));
+        studentActivityRepository.deleteById(deletedLate);
+
+        activityIdFilter.rebuild();
+
+        assertTrue(activityIdFilter.mightExist(watermark));
+        assertTrue(activityIdFilter.mightExist(committedLate));
+        assertTrue(activityIdFilter.mightExist(deletedLate));
+
+        activityIdFilter.rebuild();
+
+        assertTrue(activityIdFilter.mightExist(committedLate));
+        assertFalse(activityIdFilter.mightExist(deletedLate));
+    }
+
+    @Test
+    void testRebuild_EmptyTable() {
+        activityIdFilter.rebuild();
+        activityIdFilter.rebuild();
+
+        assertTrue(activityIdFilter.mightExist(1L));
+    }
+}
@@ -0,0 +1,250 @@
+package pack.activityservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import pack.activityservice.config.IngestProperties;
+import pack.activityservice.dto.BulkIngestResultDTO;
+import pack.activityservice.dto.BulkRowErrorDTO;
+import pack.activityservice.dto.StudentActivityCreateDTO;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.model.ClickIncrement;
+import pack.activityservice.model.IngestMode;
+import pack.activityservice.service.impl.ActivityIngestionServiceImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityIngestionServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 1, 15);
+
+    @Mock
+    private StudentActivityService studentActivityService;
+
+    private ValidatorFactory validatorFactory;
+    private IngestProperties properties;
+    private ActivityIngestionServiceImpl activityIngestionService;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        properties = new IngestProperties();
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        activityIngestionService = new ActivityIngestionServiceImpl(
+                studentActivityService, validatorFactory.getValidator(), objectMapper, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIngest_AddModeMergesDuplicateKeysIntoOneUpsert() {
+        List<StudentActivityCreateDTO> rows = Arrays.asList(
+                new StudentActivityCreateDTO(1L, "AAA", "2013J", DATE, 5),
+                new StudentActivityCreateDTO(2L, "AAA", "2013J", DATE, 1),
+                new StudentActivityCreateDTO(1L, "AAA", "2013J", DATE, 7));
+
+        BulkIngestResultDTO result = activityIngestionService.ingest(rows, IngestMode.ADD);
+
+        ArgumentCaptor<List<ClickIncrement>> captor = ArgumentCaptor.forClass(List.class);
+        verify(studentActivityService, times(1)).applyIncrements(captor.capture());
+        verify(studentActivityService, never()).replaceClicks(anyList());
+        assertEquals(List.of(
+                new ClickIncrement(new ActivityKey(1L, "AAA", "2013J", DATE), 12),
+                new ClickIncrement(new ActivityKey(2L, "AAA", "2013J", DATE), 1)), captor.getValue());
+        assertEquals(3, result.getReceived());
+        assertEquals(3, result.getAccepted());
+        assertEquals(0, result.getRejected());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIngest_ReplaceModeStoresTheLastRowOfEachKey() {
+        List<StudentActivityCreateDTO> rows = Arrays.asList(
+                new StudentActivityCreateDTO(1L, "AAA", "2013J", DATE, 5),
+                new StudentActivityCreateDTO(2L, "AAA", "2013J", DATE, 1),
+                new StudentActivityCreateDTO(1L, "AAA", "2013J", DATE, 7));
+
+        // Running the same import twice writes the same values twice
+        activityIngestionService.ingest(rows, IngestMode.REPLACE);
+        BulkIngestResultDTO result = activityIngestionService.ingest(rows, IngestMode.REPLACE);
+
+        ArgumentCaptor<List<ClickIncrement>> captor = ArgumentCaptor.forClass(List.class);
+        verify(studentActivityService, times(2)).replaceClicks(captor.capture());
+        List<ClickIncrement> expected = List.of(
+                new ClickIncrement(new ActivityKey(1L, "AAA", "2013J", DATE), 7),
+                new ClickIncrement(new ActivityKey(2L, "AAA", "2013J", DATE), 1));
+        assertEquals(List.of(expected, expected), captor.getAllValues());
+        verify(studentActivityService, never()).applyIncrements(anyList());
+        assertEquals(3, result.getAccepted());
+    }
+
+    @Test
+    void testIngest_ReportsInvalidRowsWithoutAbortingBatch() {
+        List<StudentActivityCreateDTO> rows = Arrays.asList(
+                new StudentActivityCreateDTO(1L, "AAA", "2013J", DATE, 5),
+                new StudentActivityCreateDTO(null, "AAA", "2013J", DATE, -1),
+                null);
+
+        BulkIngestResultDTO result = activityIngestionService.ingest(rows, IngestMode.REPLACE);
+
+        verify(studentActivityService, times(1)).replaceClicks(argThat(batch -> batch.size() == 1));
+        assertEquals(1, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        assertEquals(1, result.getErrors().get(0).getRow());
+        assertEquals(2, result.getErrors().get(0).getValidationErrors().size());
+        assertEquals(2, result.getErrors().get(1).getRow());
+    }
+
+    @Test
+    void testIngest_WritesInConfiguredBatchSizes() {
+        properties.setBatchSize(2);
+        List<StudentActivityCreateDTO> rows = Arrays.asList(
+                new StudentActivityCreateDTO(1L, "AAA", "2013J", DATE, 1),
+                new StudentActivityCreateDTO(2L, "AAA", "2013J", DATE, 1),
+                new StudentActivityCreateDTO(3L, "AAA", "2013J", DATE, 1));
+
+        BulkIngestResultDTO result = activityIngestionService.ingest(rows, IngestMode.REPLACE);
+
+        verify(studentActivityService, times(2)).replaceClicks(anyList());
+        assertEquals(3, result.getAccepted());
+    }
+
+    @Test
+    void testIngest_FailedBatchIsRetriedRowByRow() {
+        doAnswer(invocation -> {
+            List<ClickIncrement> batch = invocation.getArgument(0);
+            if (batch.size() > 1) {
+                throw new DataIntegrityViolationException("batch failed");
+            }
+            if (batch.get(0).key().studentId() == 2L) {
+                throw new DataIntegrityViolationException("course code too long");
+            }
+            return null;
+        }).when(studentActivityService).replaceClicks(anyList());
+        List<StudentActivityCreateDTO> rows = Arrays.asList(
+                new StudentActivityCreateDTO(1L, "AAA", "2013J", DATE, 1),
+                new StudentActivityCreateDTO(2L, "AAA", "2013J", DATE, 1));
+
+        BulkIngestResultDTO result = activityIngestionService.ingest(rows, IngestMode.REPLACE);
+
+        assertEquals(1, result.getAccepted());
+        assertEquals(1, result.getRejected());
+        assertEquals(1, result.getErrors().get(0).getRow());
+        assertTrue(result.getErrors().get(0).getMessage().contains("course code too long"));
+    }
+
+    @Test
+    void testIngest_RepeatedKeyKeepsOnlyReportableRowNumbers() {
+        properties.setMaxReportedErrors(3);
+        doThrow(new DataIntegrityViolationException("course code too long"))
+                .when(studentActivityService).replaceClicks(anyList());
+        List<StudentActivityCreateDTO> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new StudentActivityCreateDTO(1L, "AAA", "2013J", DATE, 1));
+        }
+
+        BulkIngestResultDTO result = activityIngestionService.ingest(rows, IngestMode.REPLACE);
+
+        assertEquals(0, result.getAccepted());
+        assertEquals(10, result.getRejected());
+        assertEquals(List.of(0L, 1L, 2L), result.getErrors().stream().map(BulkRowErrorDTO::getRow).toList());
+    }
+
+    @Test
+    void testIngestNdjson_ReportsMalformedLines() throws Exception {
+        String ndjson = """
+                {"studentId":1,"courseCode":"AAA","moduleCode":"2013J","date":"2024-01-15","sumClicks":4}
+                {"studentId":2,"courseCode":
+                
+                {"studentId":3,"courseCode":"AAA","moduleCode":"2013J","date":"2024-01-15","sumClicks":2}
+                """;
+
+        BulkIngestResultDTO result = activityIngestionService.ingestNdjson(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), IngestMode.REPLACE);
+
+        assertEquals(3, result.getReceived());
+        assertEquals(2, result.getAccepted());
+        assertEquals(1, result.getRejected());
+        assertEquals(1, result.getErrors().get(0).getRow());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Malformed JSON"));
+    }
+
+    @Test
+    void testIngestCsv_MapsColumnsByHeader() throws Exception {
+        String csv = """
+                sum_clicks,date,student_id,course_code,module_code
+                4,2024-01-15,1,AAA,2013J
+                "2",2024-01-15,2,"AAA","2013J"
+                x,2024-01-15,3,AAA,2013J
+                5,2024-01-15,4,,2013J
+                """;
+
+        BulkIngestResultDTO result = activityIngestionService.ingestCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), IngestMode.REPLACE);
+
+        verify(studentActivityService, times(1)).replaceClicks(argThat(batch -> batch.size() == 2));
+        assertEquals(4, result.getReceived());
+        assertEquals(2, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Malformed CSV row"));
+        assertEquals("Course code is required", result.getErrors().get(1).getValidationErrors().get("courseCode"));
+    }
+
+    @Test
+    void testIngestNdjson_StreamsLargeInputInBatches() throws Exception {
+        properties.setBatchSize(1000);
+        int rows = 100_000;
+
+        BulkIngestResultDTO result = activityIngestionService.ingestNdjson(generatedNdjson(rows), IngestMode.REPLACE);
+
+        verify(studentActivityService, times(rows / 1000)).replaceClicks(anyList());
+        assertEquals(rows, result.getAccepted());
+        assertTrue(result.getRowsPerSecond() > 0);
+    }
+
+    // Produces NDJSON lazily so the test itself never holds the whole payload
+    private static InputStream generatedNdjson(int rows) {
+        return new SequenceInputStream(new Enumeration<>() {
+            private int row;
+
+            @Override
+            public boolean hasMoreElements() {
+                return row < rows;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                String line = "{\"studentId\":" + row++ + ",\"courseCode\":\"AAA\",\"moduleCode\":\"2013J\"," +
+                        "\"date\":\"2024-01-15\",\"sumClicks\":1}\n";
+                return new ByteArrayInputStream(line.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+}
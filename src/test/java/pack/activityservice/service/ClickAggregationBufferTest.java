@@ -0,0 +1,146 @@
+package pack.activityservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import pack.activityservice.config.WriteBehindProperties;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.model.ClickIncrement;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClickAggregationBufferTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 1, 15);
+
+    @Mock
+    private StudentActivityService studentActivityService;
+
+    private WriteBehindProperties properties;
+    private ClickAggregationBuffer buffer;
+    private Map<ActivityKey, Long> written;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WriteBehindProperties();
+        properties.setEnabled(true);
+        properties.setBatchSize(2);
+        buffer = new ClickAggregationBuffer(studentActivityService, properties);
+
+        written = new HashMap<>();
+        lenient().doAnswer(invocation -> {
+            List<ClickIncrement> batch = invocation.getArgument(0);
+            batch.forEach(increment -> written.merge(increment.key(), (long) increment.clicks(), Long::sum));
+            return null;
+        }).when(studentActivityService).applyIncrements(anyList());
+    }
+
+    @Test
+    void testFlush_CoalescesIncrementsPerKey() {
+        buffer.add(1L, "AAA", "2013J", DATE, 1);
+        buffer.add(1L, "AAA", "2013J", DATE, 4);
+        buffer.add(2L, "AAA", "2013J", DATE, 2);
+
+        int keys = buffer.flush();
+
+        assertEquals(2, keys);
+        assertEquals(5L, written.get(new ActivityKey(1L, "AAA", "2013J", DATE)));
+        assertEquals(2L, written.get(new ActivityKey(2L, "AAA", "2013J", DATE)));
+        assertEquals(0, buffer.getPendingKeyCount());
+        verify(studentActivityService, times(1)).applyIncrements(anyList());
+    }
+
+    @Test
+    void testFlush_ConcurrentAddsAndFlushesKeepTotalsExact() throws Exception {
+        int threads = 8;
+        int incrementsPerThread = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long studentId = t % 3;
+                producers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < incrementsPerThread; i++) {
+                        buffer.add(studentId, "AAA", "2013J", DATE, 1);
+                    }
+                    return null;
+                }));
+            }
+            Future<?> flusher = executor.submit(() -> {
+                start.await();
+                while (producers.stream().anyMatch(f -> !f.isDone())) {
+                    buffer.flush();
+                }
+                return null;
+            });
+            start.countDown();
+            for (Future<?> producer : producers) {
+                producer.get();
+            }
+            flusher.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        buffer.flush();
+
+        long total = written.values().stream().mapToLong(Long::longValue).sum();
+        assertEquals((long) threads * incrementsPerThread, total);
+    }
+
+    @Test
+    void testFlush_RequeuesFailedBatch() {
+        doThrow(new IllegalStateException("database unavailable"))
+                .doAnswer(invocation -> {
+                    List<ClickIncrement> batch = invocation.getArgument(0);
+                    batch.forEach(increment -> written.merge(increment.key(), (long) increment.clicks(), Long::sum));
+                    return null;
+                })
+                .when(studentActivityService).applyIncrements(anyList());
+        buffer.add(1L, "AAA", "2013J", DATE, 3);
+
+        assertEquals(0, buffer.flush());
+        assertEquals(1, buffer.getPendingKeyCount());
+
+        assertEquals(1, buffer.flush());
+        assertEquals(3L, written.get(new ActivityKey(1L, "AAA", "2013J", DATE)));
+    }
+
+    @Test
+    void testFlush_DropsKeysTheDatabaseRejectsOnTheirOwn() {
+        ActivityKey poison = new ActivityKey(2L, "AAA", "2013J", DATE);
+        doAnswer(invocation -> {
+            List<ClickIncrement> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(increment -> increment.key().equals(poison))) {
+                throw new DataIntegrityViolationException("Out of range value for column 'sum_clicks'");
+            }
+            batch.forEach(increment -> written.merge(increment.key(), (long) increment.clicks(), Long::sum));
+            return null;
+        }).when(studentActivityService).applyIncrements(anyList());
+        buffer.add(1L, "AAA", "2013J", DATE, 3);
+        buffer.add(2L, "AAA", "2013J", DATE, 5);
+
+        assertEquals(1, buffer.flush());
+        assertEquals(3L, written.get(new ActivityKey(1L, "AAA", "2013J", DATE)));
+        assertFalse(written.containsKey(poison));
+        assertEquals(0, buffer.getPendingKeyCount());
+        assertEquals(1, buffer.getDroppedIncrementCount());
+    }
+}
@@ -0,0 +1,75 @@
+package pack.activityservice.service;
+
+import org.junit.jupiter.api.Test;
+import pack.activityservice.config.TotalsCacheProperties;
+import pack.activityservice.event.ActivityChange;
+import pack.activityservice.event.ActivityChangedEvent;
+import pack.activityservice.model.ActivityKey;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickTotalsCacheTest {
+
+    private static final ActivityKey KEY = new ActivityKey(1L, "AAA", "2013J", LocalDate.of(2024, 1, 1));
+
+    private final ClickTotalsCache clickTotalsCache = new ClickTotalsCache(new TotalsCacheProperties());
+
+    @Test
+    void testGetStudentTotal_ConcurrentReadersShareOneLoad() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> clickTotalsCache.getStudentTotal(1L, id -> {
+            loads.incrementAndGet();
+            loadStarted.countDown();
+            await(releaseLoad);
+            return 10L;
+        }));
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> clickTotalsCache.getStudentTotal(1L, id -> {
+            loads.incrementAndGet();
+            return 20L;
+        }));
+        releaseLoad.countDown();
+
+        assertEquals(10L, first.get(5, TimeUnit.SECONDS));
+        assertEquals(10L, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGetStudentTotal_InvalidatedDuringLoadIsNotCached() {
+        Long loaded = clickTotalsCache.getStudentTotal(1L, id -> {
+            // A write commits while the total is being read
+            clickTotalsCache.onActivityChanged(ActivityChangedEvent.of(new ActivityChange(KEY, 0, 5)));
+            return 10L;
+        });
+
+        assertEquals(10L, loaded);
+        assertEquals(15L, clickTotalsCache.getStudentTotal(1L, id -> 15L));
+    }
+
+    @Test
+    void testGetStudentTotal_FailedLoadIsRetried() {
+        assertThrows(IllegalStateException.class, () -> clickTotalsCache.getStudentTotal(1L, id -> {
+            throw new IllegalStateException("database unavailable");
+        }));
+
+        assertEquals(10L, clickTotalsCache.getStudentTotal(1L, id -> 10L));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package pack.activityservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pack.activityservice.config.ArchiveProperties;
+import pack.activityservice.config.IdFilterProperties;
+import pack.activityservice.config.LeaderboardProperties;
+import pack.activityservice.config.PaginationProperties;
+import pack.activityservice.config.TimelineCacheProperties;
+import pack.activityservice.config.TotalsCacheProperties;
+import pack.activityservice.dto.CourseRollupDTO;
+import pack.activityservice.dto.StudentActivityCreateDTO;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.dto.StudentActivityUpdateDTO;
+import pack.activityservice.exception.InvalidRequestException;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.model.ClickIncrement;
+import pack.activityservice.repository.ActivityArchive;
+import pack.activityservice.repository.CourseModuleDictionary;
+import pack.activityservice.service.impl.CourseAnalyticsServiceImpl;
+import pack.activityservice.service.impl.StudentActivityServiceImpl;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StudentActivityServiceImpl.class, CourseModuleDictionary.class, CourseAnalyticsServiceImpl.class,
+        CourseLeaderboard.class, CourseRollups.class, LeaderboardProperties.class, PaginationProperties.class,
+        ClickTotalsCache.class, TotalsCacheProperties.class,
+        StudentTimelineCache.class, TimelineCacheProperties.class, ActivityArchive.class, ArchiveProperties.class,
+        ActivityIdFilter.class, IdFilterProperties.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CourseAnalyticsServiceTest {
+
+    // 2024-01-15 is a Monday
+    private static final LocalDate MONDAY = LocalDate.of(2024, 1, 15);
+
+    @Autowired
+    private StudentActivityService studentActivityService;
+
+    @Autowired
+    private CourseAnalyticsService courseAnalyticsService;
+
+    @Autowired
+    private CourseRollups courseRollups;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        courseRollups.flush();
+        for (String table : List.of("student_activity", "course_daily_rollup", "course_weekly_rollup", "course_week_student")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    @Test
+    void testRollups_FollowEveryWritePath() {
+        StudentActivityDTO created = studentActivityService.createActivity(
+                new StudentActivityCreateDTO(1L, "AAA", "2013J", MONDAY, 10));
+        studentActivityService.incrementClicks(2L, "AAA", "2013J", MONDAY, 5);
+        studentActivityService.incrementClicks(2L, "AAA", "2013J", MONDAY.plusDays(1), 3);
+        studentActivityService.applyIncrements(List.of(
+                new ClickIncrement(new ActivityKey(1L, "AAA", "2013J", MONDAY.plusDays(1)), 4),
+                new ClickIncrement(new ActivityKey(3L, "AAA", "2013J", MONDAY.plusDays(7)), 6)));
+
+        assertSeries(List.of(day(MONDAY, 15, 2), day(MONDAY.plusDays(1), 7, 2), day(MONDAY.plusDays(7), 6, 1)),
+                dailyTotals("AAA", "2013J", MONDAY, MONDAY.plusDays(13)));
+        assertSeries(List.of(day(MONDAY, 22, 2), day(MONDAY.plusDays(7), 6, 1)),
+                weeklyTotals("AAA", "2013J", MONDAY.plusDays(2), MONDAY.plusDays(13)));
+
+        // Moving student 1's Monday row into the next week keeps them active in the first week through Tuesday
+        studentActivityService.updateActivity(created.getId(), new StudentActivityUpdateDTO(MONDAY.plusDays(8), 1));
+        assertSeries(List.of(day(MONDAY, 5, 1), day(MONDAY.plusDays(1), 7, 2),
+                        day(MONDAY.plusDays(7), 6, 1), day(MONDAY.plusDays(8), 1, 1)),
+                dailyTotals("AAA", "2013J", MONDAY, MONDAY.plusDays(13)));
+        assertSeries(List.of(day(MONDAY, 12, 2), day(MONDAY.plusDays(7), 7, 2)),
+                weeklyTotals("AAA", "2013J", MONDAY, MONDAY.plusDays(13)));
+
+        studentActivityService.deleteActivity(created.getId());
+        assertSeries(List.of(day(MONDAY, 12, 2), day(MONDAY.plusDays(7), 6, 1)),
+                weeklyTotals("AAA", "2013J", MONDAY, MONDAY.plusDays(13)));
+
+        // Zero-click rows are stored but do not make a student active
+        studentActivityService.createActivity(new StudentActivityCreateDTO(4L, "AAA", "2013J", MONDAY.plusDays(9), 0));
+        assertSeries(List.of(day(MONDAY, 12, 2), day(MONDAY.plusDays(7), 6, 1)),
+                weeklyTotals("AAA", "2013J", MONDAY, MONDAY.plusDays(13)));
+
+        // Replacing stores the value, so a second run changes nothing
+        for (int run = 0; run < 2; run++) {
+            studentActivityService.replaceClicks(List.of(
+                    new ClickIncrement(new ActivityKey(3L, "AAA", "2013J", MONDAY.plusDays(7)), 2)));
+        }
+        assertSeries(List.of(day(MONDAY, 12, 2), day(MONDAY.plusDays(7), 2, 1)),
+                weeklyTotals("AAA", "2013J", MONDAY, MONDAY.plusDays(13)));
+    }
+
+    @Test
+    void testRebuildRollups_MatchesIncrementalMaintenance() {
+        for (long student = 1; student <= 5; student++) {
+            for (int day = 0; day < 10; day += (int) student) {
+                studentActivityService.incrementClicks(student, "BBB", "2014B", MONDAY.plusDays(day), (int) student);
+            }
+        }
+        List<CourseRollupDTO> daily = dailyTotals("BBB", "2014B", MONDAY, MONDAY.plusDays(20));
+        List<CourseRollupDTO> weekly = weeklyTotals("BBB", "2014B", MONDAY, MONDAY.plusDays(20));
+
+        jdbcTemplate.update("UPDATE course_daily_rollup SET total_clicks = 0");
+        courseAnalyticsService.rebuildRollups("BBB", "2014B");
+
+        assertSeries(daily, dailyTotals("BBB", "2014B", MONDAY, MONDAY.plusDays(20)));
+        assertSeries(weekly, weeklyTotals("BBB", "2014B", MONDAY, MONDAY.plusDays(20)));
+        assertEquals(5, weekly.get(0).getActiveStudents());
+    }
+
+    @Test
+    void testRebuildRollups_DropsWeeksWithoutActivity() {
+        studentActivityService.incrementClicks(1L, "CCC", "2014J", MONDAY, 4);
+        studentActivityService.incrementClicks(1L, "CCC", "2014J", MONDAY.plusDays(14), 2);
+        jdbcTemplate.update("INSERT INTO course_weekly_rollup (course_code, module_code, week_start, total_clicks, active_students) " +
+                "VALUES ('CCC', '2014J', ?, 9, 1)", MONDAY.plusDays(7));
+        jdbcTemplate.update("INSERT INTO course_daily_rollup (course_code, module_code, date, total_clicks, active_students) " +
+                "VALUES ('CCC', '2014J', ?, 9, 1)", MONDAY.plusDays(8));
+
+        courseAnalyticsService.rebuildRollups("CCC", "2014J");
+
+        assertSeries(List.of(day(MONDAY, 4, 1), day(MONDAY.plusDays(14), 2, 1)),
+                weeklyTotals("CCC", "2014J", MONDAY, MONDAY.plusDays(20)));
+        assertSeries(List.of(day(MONDAY, 4, 1), day(MONDAY.plusDays(14), 2, 1)),
+                dailyTotals("CCC", "2014J", MONDAY, MONDAY.plusDays(20)));
+    }
+
+    @Test
+    void testGetDailyTotals_RejectsInvertedRange() {
+        assertThrows(InvalidRequestException.class,
+                () -> courseAnalyticsService.getDailyTotals("AAA", "2013J", MONDAY.plusDays(1), MONDAY));
+    }
+
+    // Rollups trail the writes, so reads wait for the queued changes first
+    private List<CourseRollupDTO> dailyTotals(String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate) {
+        courseRollups.flush();
+        return courseAnalyticsService.getDailyTotals(courseCode, moduleCode, startDate, endDate);
+    }
+
+    private List<CourseRollupDTO> weeklyTotals(String courseCode, String moduleCode, LocalDate startDate, LocalDate endDate) {
+        courseRollups.flush();
+        return courseAnalyticsService.getWeeklyTotals(courseCode, moduleCode, startDate, endDate);
+    }
+
+    private static CourseRollupDTO day(LocalDate periodStart, long totalClicks, int activeStudents) {
+        return new CourseRollupDTO(periodStart, totalClicks, activeStudents);
+    }
+
+    private static void assertSeries(List<CourseRollupDTO> expected, List<CourseRollupDTO> actual) {
+        assertEquals(expected.size(), actual.size(), "series length");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getPeriodStart(), actual.get(i).getPeriodStart());
+            assertEquals(expected.get(i).getTotalClicks(), actual.get(i).getTotalClicks(), "clicks on " + expected.get(i).getPeriodStart());
+            assertEquals(expected.get(i).getActiveStudents(), actual.get(i).getActiveStudents(), "students on " + expected.get(i).getPeriodStart());
+        }
+    }
+}
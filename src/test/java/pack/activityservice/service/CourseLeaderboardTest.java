@@ -0,0 +1,130 @@
+package pack.activityservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pack.activityservice.config.ArchiveProperties;
+import pack.activityservice.config.IdFilterProperties;
+import pack.activityservice.config.LeaderboardProperties;
+import pack.activityservice.config.PaginationProperties;
+import pack.activityservice.config.TimelineCacheProperties;
+import pack.activityservice.config.TotalsCacheProperties;
+import pack.activityservice.dto.LeaderboardEntryDTO;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.exception.InvalidRequestException;
+import pack.activityservice.model.CourseKey;
+import pack.activityservice.repository.ActivityArchive;
+import pack.activityservice.repository.CourseModuleDictionary;
+import pack.activityservice.service.impl.CourseAnalyticsServiceImpl;
+import pack.activityservice.service.impl.StudentActivityServiceImpl;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StudentActivityServiceImpl.class, CourseModuleDictionary.class, CourseAnalyticsServiceImpl.class,
+        CourseRollups.class, CourseLeaderboard.class, LeaderboardProperties.class, PaginationProperties.class,
+        ClickTotalsCache.class, TotalsCacheProperties.class,
+        StudentTimelineCache.class, TimelineCacheProperties.class, ActivityArchive.class, ArchiveProperties.class,
+        ActivityIdFilter.class, IdFilterProperties.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CourseLeaderboardTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 2, 5);
+
+    @Autowired
+    private StudentActivityService studentActivityService;
+
+    @Autowired
+    private CourseAnalyticsService courseAnalyticsService;
+
+    @Autowired
+    private CourseLeaderboard courseLeaderboard;
+
+    @Autowired
+    private CourseModuleDictionary courseModules;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("student_activity", "course_daily_rollup", "course_weekly_rollup", "course_week_student")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+        courseLeaderboard.rebuild();
+    }
+
+    @Test
+    void testLeaderboard_RebuiltFromDatabaseAndKeptCurrentByWrites() {
+        // Rows written behind the service's back are only visible after a rebuild
+        int aaa = courseModules.register(new CourseKey("AAA", "2013J"));
+        int bbb = courseModules.register(new CourseKey("BBB", "2013J"));
+        jdbcTemplate.update("INSERT INTO student_activity (student_id, course_module_id, date, sum_clicks) " +
+                "VALUES (1, ?, ?, 30), (2, ?, ?, 50), (3, ?, ?, 40), (4, ?, ?, 99)",
+                aaa, DATE, aaa, DATE, aaa, DATE, bbb, DATE);
+        courseLeaderboard.rebuild();
+
+        assertRanking(List.of(2L, 3L, 1L), courseAnalyticsService.getLeaderboard("AAA", "2013J", null, null, null));
+
+        StudentActivityDTO boosted = studentActivityService.incrementClicks(1L, "AAA", "2013J", DATE.plusDays(1), 25);
+        assertRanking(List.of(1L, 2L, 3L), courseAnalyticsService.getLeaderboard("AAA", "2013J", null, null, null));
+        assertEquals(55L, courseLeaderboard.top("AAA", "2013J", 1).get(0).getTotalClicks());
+
+        studentActivityService.deleteActivity(boosted.getId());
+        assertRanking(List.of(2L, 3L), courseAnalyticsService.getLeaderboard("AAA", "2013J", null, null, 2));
+    }
+
+    @Test
+    void testLeaderboard_DateWindowIsAggregatedFromActivities() {
+        studentActivityService.incrementClicks(1L, "AAA", "2013J", DATE, 100);
+        studentActivityService.incrementClicks(2L, "AAA", "2013J", DATE.plusDays(1), 10);
+        studentActivityService.incrementClicks(3L, "AAA", "2013J", DATE.plusDays(1), 20);
+        studentActivityService.incrementClicks(2L, "AAA", "2013J", DATE.plusDays(2), 15);
+
+        List<LeaderboardEntryDTO> window = courseAnalyticsService
+                .getLeaderboard("AAA", "2013J", DATE.plusDays(1), DATE.plusDays(2), null);
+
+        assertRanking(List.of(2L, 3L), window);
+        assertEquals(25L, window.get(0).getTotalClicks());
+        assertEquals(2, window.get(1).getRank());
+        assertThrows(InvalidRequestException.class,
+                () -> courseAnalyticsService.getLeaderboard("AAA", "2013J", DATE, null, null));
+    }
+
+    @Test
+    void testRebuild_IncrementsCommittedConcurrentlyAreCountedOnce() throws Exception {
+        studentActivityService.incrementClicks(1L, "AAA", "2013J", DATE, 1);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 200; i++) {
+                studentActivityService.incrementClicks(1L, "AAA", "2013J", DATE.plusDays(i % 7), 1);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            courseLeaderboard.rebuild();
+        }
+        writer.join();
+
+        assertEquals(201L, courseLeaderboard.top("AAA", "2013J", 1).get(0).getTotalClicks());
+        courseLeaderboard.rebuild();
+        assertEquals(201L, courseLeaderboard.top("AAA", "2013J", 1).get(0).getTotalClicks());
+    }
+
+    private static void assertRanking(List<Long> expectedStudents, List<LeaderboardEntryDTO> leaderboard) {
+        assertEquals(expectedStudents, leaderboard.stream().map(LeaderboardEntryDTO::getStudentId).toList());
+        for (int i = 0; i < leaderboard.size(); i++) {
+            assertEquals(i + 1, leaderboard.get(i).getRank());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package pack.activityservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import pack.activityservice.config.PartitionProperties;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.event.ActivityChange;
+import pack.activityservice.event.ActivityChangedEvent;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.model.ActivityPartition;
+import pack.activityservice.repository.StudentActivityPartitionRepository;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionMaintenanceTest {
+
+    private static final ActivityPartition PMAX = new ActivityPartition("pmax", null);
+
+    @Mock
+    private StudentActivityPartitionRepository partitionRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PartitionProperties properties;
+    private PartitionMaintenance partitionMaintenance;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PartitionProperties();
+        partitionMaintenance = new PartitionMaintenance(partitionRepository, properties, eventPublisher, transactionManager);
+    }
+
+    @Test
+    void testMaintain_AddsCurrentAndFuturePeriodsBeforeCatchAll() {
+        properties.setFuturePartitions(2);
+        when(partitionRepository.findPartitions()).thenReturn(List.of(
+                new ActivityPartition("p202409", LocalDate.of(2024, 10, 1)), PMAX));
+
+        partitionMaintenance.maintain(LocalDate.of(2024, 10, 15));
+
+        verify(partitionRepository).addPartitions(List.of(
+                new ActivityPartition("p202410", LocalDate.of(2024, 11, 1)),
+                new ActivityPartition("p202411", LocalDate.of(2024, 12, 1)),
+                new ActivityPartition("p202412", LocalDate.of(2025, 1, 1))), PMAX);
+    }
+
+    @Test
+    void testMaintain_TermPeriodsAlignedToJanuary() {
+        properties.setPeriodMonths(4);
+        properties.setFuturePartitions(1);
+        when(partitionRepository.findPartitions()).thenReturn(List.of(
+                new ActivityPartition("p202401", LocalDate.of(2024, 5, 1)), PMAX));
+
+        partitionMaintenance.maintain(LocalDate.of(2024, 6, 3));
+
+        assertEquals(LocalDate.of(2024, 9, 1), partitionMaintenance.periodStart(LocalDate.of(2024, 12, 31)));
+        verify(partitionRepository).addPartitions(List.of(
+                new ActivityPartition("p202405", LocalDate.of(2024, 9, 1)),
+                new ActivityPartition("p202409", LocalDate.of(2025, 1, 1))), PMAX);
+    }
+
+    @Test
+    void testMaintain_ArchivesOnlyPartitionsPastRetention() {
+        properties.setFuturePartitions(0);
+        properties.setRetention(Period.ofMonths(2));
+        ActivityPartition august = new ActivityPartition("p202408", LocalDate.of(2024, 9, 1));
+        ActivityPartition september = new ActivityPartition("p202409", LocalDate.of(2024, 10, 1));
+        ActivityPartition october = new ActivityPartition("p202410", LocalDate.of(2024, 11, 1));
+        when(partitionRepository.findPartitions()).thenReturn(List.of(august, september, october, PMAX));
+
+        partitionMaintenance.maintain(LocalDate.of(2024, 11, 20));
+
+        verify(partitionRepository).createArchiveTable("student_activity_archive_p202408");
+        verify(partitionRepository).lockRows(august, 0, 1000);
+        verify(partitionRepository).dropPartition(august);
+        verify(partitionRepository).addPartitions(List.of(
+                new ActivityPartition("p202411", LocalDate.of(2024, 12, 1))), PMAX);
+        verifyNoMoreInteractions(partitionRepository);
+    }
+
+    @Test
+    void testMaintain_DropsExpiredPartitionsWhenConfigured() {
+        properties.setRetention(Period.ofYears(1));
+        properties.setExpiredAction(PartitionProperties.ExpiredAction.DROP);
+        ActivityPartition past = new ActivityPartition("p_past", LocalDate.of(2024, 1, 1));
+        when(partitionRepository.findPartitions()).thenReturn(List.of(past,
+                new ActivityPartition("p202501", LocalDate.of(2025, 2, 1)), PMAX));
+
+        partitionMaintenance.maintain(LocalDate.of(2025, 1, 10));
+
+        verify(partitionRepository).dropPartition(past);
+        verify(partitionRepository, never()).createArchiveTable(any());
+        verify(partitionRepository, never()).copyRows(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testMaintain_ExpiredRowsAreArchivedInChunksAndPublishedAsRemoved() {
+        properties.setFuturePartitions(0);
+        properties.setRetention(Period.ofMonths(2));
+        properties.setChunkSize(2);
+        ActivityPartition august = new ActivityPartition("p202408", LocalDate.of(2024, 9, 1));
+        LocalDate date = LocalDate.of(2024, 8, 12);
+        when(partitionRepository.findPartitions()).thenReturn(List.of(august,
+                new ActivityPartition("p202411", LocalDate.of(2024, 12, 1)), PMAX));
+        when(partitionRepository.lockRows(august, 0, 2)).thenReturn(List.of(
+                new StudentActivityDTO(3L, 1L, "AAA", "2013J", date, 5),
+                new StudentActivityDTO(7L, 2L, "AAA", "2013J", date, 0)));
+        when(partitionRepository.lockRows(august, 7, 2)).thenReturn(List.of(
+                new StudentActivityDTO(9L, 1L, "BBB", "2014B", date, 4)));
+
+        partitionMaintenance.maintain(LocalDate.of(2024, 11, 20));
+
+        String archiveTable = "student_activity_archive_p202408";
+        var inOrder = inOrder(partitionRepository);
+        inOrder.verify(partitionRepository).createArchiveTable(archiveTable);
+        inOrder.verify(partitionRepository).copyRows(august, 0, 7, archiveTable);
+        inOrder.verify(partitionRepository).deleteRows(august, 0, 7);
+        inOrder.verify(partitionRepository).copyRows(august, 7, 9, archiveTable);
+        inOrder.verify(partitionRepository).deleteRows(august, 7, 9);
+        inOrder.verify(partitionRepository).dropPartition(august);
+        ArgumentCaptor<ActivityChangedEvent> events = ArgumentCaptor.forClass(ActivityChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of(
+                new ActivityChange(new ActivityKey(1L, "AAA", "2013J", date), 5, 0),
+                new ActivityChange(new ActivityKey(2L, "AAA", "2013J", date), 0, 0),
+                new ActivityChange(new ActivityKey(1L, "BBB", "2014B", date), 4, 0)),
+                events.getAllValues().stream().flatMap(event -> event.changes().stream()).toList());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void testMaintain_SkipsUnpartitionedTable() {
+        when(partitionRepository.findPartitions()).thenReturn(List.of());
+
+        partitionMaintenance.maintain(LocalDate.of(2024, 10, 15));
+
+        verify(partitionRepository, never()).addPartitions(any(), any());
+    }
+}
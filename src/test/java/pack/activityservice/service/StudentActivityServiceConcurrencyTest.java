@@ -0,0 +1,213 @@
+package pack.activityservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import pack.activityservice.config.ArchiveProperties;
+import pack.activityservice.config.IdFilterProperties;
+import pack.activityservice.config.LeaderboardProperties;
+import pack.activityservice.config.PaginationProperties;
+import pack.activityservice.config.TimelineCacheProperties;
+import pack.activityservice.config.TotalsCacheProperties;
+import pack.activityservice.config.WriteBehindProperties;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pack.activityservice.dto.ActivityTotalDTO;
+import pack.activityservice.dto.ClickIncrementDTO;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.entity.StudentActivity;
+import pack.activityservice.repository.ActivityArchive;
+import pack.activityservice.repository.CourseModuleDictionary;
+import pack.activityservice.repository.StudentActivityRepository;
+import pack.activityservice.service.impl.CourseAnalyticsServiceImpl;
+import pack.activityservice.service.impl.StudentActivityServiceImpl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StudentActivityServiceImpl.class, PaginationProperties.class, ClickTotalsCache.class, TotalsCacheProperties.class,
+        CourseModuleDictionary.class, StudentTimelineCache.class, TimelineCacheProperties.class,
+        CourseAnalyticsServiceImpl.class, CourseRollups.class, CourseLeaderboard.class, LeaderboardProperties.class,
+        ActivityArchive.class, ArchiveProperties.class,
+        ActivityIdFilter.class, IdFilterProperties.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StudentActivityServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int INCREMENTS_PER_THREAD = 50;
+
+    @Autowired
+    private StudentActivityService studentActivityService;
+
+    @Autowired
+    private StudentActivityRepository studentActivityRepository;
+
+    @AfterEach
+    void tearDown() {
+        studentActivityRepository.deleteAll();
+    }
+
+    @Test
+    void testIncrementClicks_ParallelIncrementsOnSameKeySumExactly() throws Exception {
+        LocalDate date = LocalDate.of(2024, 1, 15);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                        studentActivityService.incrementClicks(123L, "AAA", "2013J", date, 1);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<StudentActivity> rows = studentActivityRepository.findAll();
+        assertEquals(1, rows.size());
+        assertEquals(THREADS * INCREMENTS_PER_THREAD, rows.get(0).getSumClicks());
+    }
+
+    @Test
+    void testClickAggregationBuffer_ParallelBufferedIncrementsSumExactlyAfterFlush() throws Exception {
+        LocalDate date = LocalDate.of(2024, 1, 17);
+        studentActivityService.incrementClicks(123L, "AAA", "2013J", date, 10);
+        ClickAggregationBuffer buffer = new ClickAggregationBuffer(studentActivityService, new WriteBehindProperties());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long studentId = 123L + (t % 2);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                        buffer.add(studentId, "AAA", "2013J", date, 1);
+                        if (i % 10 == 0) {
+                            buffer.flush();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        buffer.flush();
+
+        long total = studentActivityRepository.findAll().stream().mapToLong(StudentActivity::getSumClicks).sum();
+        assertEquals(10L + THREADS * INCREMENTS_PER_THREAD, total);
+        assertEquals(2, studentActivityRepository.count());
+    }
+
+    @Test
+    void testIncrementClicks_ReturnsRunningTotal() {
+        LocalDate date = LocalDate.of(2024, 1, 16);
+
+        StudentActivityDTO first = studentActivityService.incrementClicks(7L, "BBB", "2014B", date, 3);
+        StudentActivityDTO second = studentActivityService.incrementClicks(7L, "BBB", "2014B", date, 4);
+
+        assertEquals(3, first.getSumClicks());
+        assertEquals(7, second.getSumClicks());
+        assertEquals(first.getId(), second.getId());
+    }
+
+    @Test
+    void testGetTotalClicks_CachedTotalsAreInvalidatedByEveryWritePath() {
+        LocalDate date = LocalDate.of(2024, 1, 18);
+        StudentActivityDTO created = studentActivityService.incrementClicks(41L, "CCC", "2014J", date, 5);
+        assertEquals(5L, studentActivityService.getTotalClicksByStudent(41L));
+        assertEquals(5L, studentActivityService.getTotalClicksByStudentAndCourse(41L, "CCC", "2014J"));
+
+        studentActivityService.incrementClicks(41L, "CCC", "2014J", date.plusDays(1), 2);
+        assertEquals(7L, studentActivityService.getTotalClicksByStudent(41L));
+        assertEquals(7L, studentActivityService.getTotalClicksByStudentAndCourse(41L, "CCC", "2014J"));
+
+        ClickAggregationBuffer buffer = new ClickAggregationBuffer(studentActivityService, new WriteBehindProperties());
+        buffer.add(41L, "CCC", "2014J", date, 10);
+        buffer.flush();
+        assertEquals(17L, studentActivityService.getTotalClicksByStudent(41L));
+
+        studentActivityService.deleteActivity(created.getId());
+        assertEquals(2L, studentActivityService.getTotalClicksByStudent(41L));
+        assertEquals(2L, studentActivityService.getTotalClicksByStudentAndCourse(41L, "CCC", "2014J"));
+    }
+
+    @Test
+    void testIncrementClicksBatch_MergesDuplicatesAndReturnsTotalsInKeyOrder() {
+        LocalDate date = LocalDate.of(2024, 1, 19);
+        studentActivityService.incrementClicks(9L, "AAA", "2013J", date, 10);
+
+        List<ActivityTotalDTO> totals = studentActivityService.incrementClicksBatch(List.of(
+                new ClickIncrementDTO(9L, "BBB", "2013J", date, 1),
+                new ClickIncrementDTO(9L, "AAA", "2013J", date, 2),
+                new ClickIncrementDTO(9L, "BBB", "2013J", date, 3),
+                new ClickIncrementDTO(8L, "AAA", "2013J", date, 4)));
+
+        assertEquals(List.of(8L, 9L, 9L), totals.stream().map(ActivityTotalDTO::getStudentId).toList());
+        assertEquals(List.of("AAA", "AAA", "BBB"), totals.stream().map(ActivityTotalDTO::getCourseCode).toList());
+        assertEquals(List.of(4, 12, 4), totals.stream().map(ActivityTotalDTO::getSumClicks).toList());
+        assertEquals(3, studentActivityRepository.count());
+        assertEquals(20L, studentActivityService.getTotalClicksByStudent(8L) + studentActivityService.getTotalClicksByStudent(9L));
+    }
+
+    @Test
+    void testIncrementClicksBatch_OverlappingBatchesInOppositeOrderSumExactly() throws Exception {
+        LocalDate date = LocalDate.of(2024, 1, 20);
+        List<ClickIncrementDTO> forward = new ArrayList<>();
+        for (long studentId = 1; studentId <= 20; studentId++) {
+            forward.add(new ClickIncrementDTO(studentId, "AAA", "2013J", date, 1));
+        }
+        List<ClickIncrementDTO> backward = new ArrayList<>(forward);
+        Collections.reverse(backward);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                List<ClickIncrementDTO> batch = t % 2 == 0 ? forward : backward;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 5; i++) {
+                        studentActivityService.incrementClicksBatch(batch);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<StudentActivity> rows = studentActivityRepository.findAll();
+        assertEquals(20, rows.size());
+        rows.forEach(row -> assertEquals(THREADS * 5, row.getSumClicks()));
+    }
+}
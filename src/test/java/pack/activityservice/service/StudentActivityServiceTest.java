@@ -1,16 +1,36 @@
 package pack.activityservice.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import pack.activityservice.config.ArchiveProperties;
+import pack.activityservice.config.PaginationProperties;
+import pack.activityservice.config.TimelineCacheProperties;
+import pack.activityservice.config.TotalsCacheProperties;
+import pack.activityservice.dto.CursorPageDTO;
 import pack.activityservice.dto.StudentActivityCreateDTO;
 import pack.activityservice.dto.StudentActivityDTO;
 import pack.activityservice.dto.StudentActivityUpdateDTO;
 import pack.activityservice.entity.StudentActivity;
+import pack.activityservice.event.ActivityChange;
+import pack.activityservice.event.ActivityChangedEvent;
+import pack.activityservice.exception.InvalidRequestException;
 import pack.activityservice.exception.ResourceNotFoundException;
+import pack.activityservice.mapper.StudentActivityMapper;
+import pack.activityservice.model.ActivityCursor;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.model.CourseKey;
+import pack.activityservice.repository.ActivityArchive;
+import pack.activityservice.repository.CourseModuleDictionary;
 import pack.activityservice.repository.StudentActivityRepository;
 import pack.activityservice.service.impl.StudentActivityServiceImpl;
 
@@ -21,23 +41,56 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class StudentActivityServiceTest {
 
+    private static final CourseKey COURSE = new CourseKey("AAA", "2013J");
+
     @Mock
     private StudentActivityRepository studentActivityRepository;
 
+    @Mock
+    private CourseModuleDictionary courseModules;
+
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties();
+
+    @Spy
+    private ClickTotalsCache clickTotalsCache = new ClickTotalsCache(new TotalsCacheProperties());
+
+    @Spy
+    private StudentTimelineCache studentTimelineCache = new StudentTimelineCache(new TimelineCacheProperties());
+
+    @Spy
+    private ActivityArchive activityArchive = new ActivityArchive(new ArchiveProperties());
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ActivityIdFilter activityIdFilter;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private StudentActivityServiceImpl studentActivityService;
 
     private StudentActivity studentActivity;
+    private StudentActivityDTO activityDTO;
     private StudentActivityCreateDTO createDTO;
     private StudentActivityUpdateDTO updateDTO;
 
     @BeforeEach
     void setUp() {
+        lenient().when(activityIdFilter.mightExist(anyLong())).thenReturn(true);
+
         studentActivity = new StudentActivity();
         studentActivity.setId(1L);
         studentActivity.setStudentId(123L);
@@ -46,6 +99,8 @@ class StudentActivityServiceTest {
         studentActivity.setDate(LocalDate.of(2024, 1, 15));
         studentActivity.setSumClicks(25);
 
+        activityDTO = StudentActivityMapper.toDTO(studentActivity);
+
         createDTO = new StudentActivityCreateDTO();
         createDTO.setStudentId(123L);
         createDTO.setCourseCode("AAA");
@@ -73,86 +128,158 @@ class StudentActivityServiceTest {
 
     @Test
     void testGetActivityById_Success() {
-        when(studentActivityRepository.findById(1L)).thenReturn(Optional.of(studentActivity));
+        when(studentActivityRepository.findDTOById(1L)).thenReturn(Optional.of(activityDTO));
 
         StudentActivityDTO result = studentActivityService.getActivityById(1L);
 
         assertNotNull(result);
         assertEquals(studentActivity.getId(), result.getId());
-        verify(studentActivityRepository, times(1)).findById(1L);
+        verify(studentActivityRepository, times(1)).findDTOById(1L);
     }
 
     @Test
     void testGetActivityById_NotFound() {
-        when(studentActivityRepository.findById(1L)).thenReturn(Optional.empty());
+        when(studentActivityRepository.findDTOById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             studentActivityService.getActivityById(1L);
         });
 
-        verify(studentActivityRepository, times(1)).findById(1L);
+        verify(studentActivityRepository, times(1)).findDTOById(1L);
     }
 
     @Test
     void testGetActivitiesByStudentId() {
-        List<StudentActivity> activities = Arrays.asList(studentActivity);
-        when(studentActivityRepository.findByStudentId(123L)).thenReturn(activities);
+        List<StudentActivityDTO> activities = Arrays.asList(activityDTO);
+        when(studentActivityRepository.findStudentPage(123L, 0L, Limit.of(101)))
+                .thenReturn(activities);
 
-        List<StudentActivityDTO> result = studentActivityService.getActivitiesByStudentId(123L);
+        CursorPageDTO<StudentActivityDTO> result = studentActivityService.getActivitiesByStudentId(123L, null, null);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(studentActivity.getStudentId(), result.get(0).getStudentId());
-        verify(studentActivityRepository, times(1)).findByStudentId(123L);
+        assertEquals(1, result.getItems().size());
+        assertEquals(studentActivity.getStudentId(), result.getItems().get(0).getStudentId());
+        assertNull(result.getNextCursor());
+        verify(studentActivityRepository, times(1))
+                .findStudentPage(123L, 0L, Limit.of(101));
     }
 
     @Test
     void testGetActivitiesByCourse() {
-        List<StudentActivity> activities = Arrays.asList(studentActivity);
-        when(studentActivityRepository.findByCourseCodeAndModuleCode("AAA", "2013J"))
+        List<StudentActivityDTO> activities = Arrays.asList(activityDTO);
+        when(studentActivityRepository.findCoursePage(
+                COURSE, 0L, Limit.of(101)))
                 .thenReturn(activities);
 
-        List<StudentActivityDTO> result = studentActivityService.getActivitiesByCourse("AAA", "2013J");
+        CursorPageDTO<StudentActivityDTO> result = studentActivityService.getActivitiesByCourse("AAA", "2013J", null, null);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(studentActivity.getCourseCode(), result.get(0).getCourseCode());
-        verify(studentActivityRepository, times(1)).findByCourseCodeAndModuleCode("AAA", "2013J");
+        assertEquals(1, result.getItems().size());
+        assertEquals(studentActivity.getCourseCode(), result.getItems().get(0).getCourseCode());
+        verify(studentActivityRepository, times(1))
+                .findCoursePage(COURSE, 0L, Limit.of(101));
+    }
+
+    @Test
+    void testGetActivitiesByCourse_FullPageReturnsNextCursor() {
+        StudentActivityDTO next = new StudentActivityDTO(2L, 124L, "AAA", "2013J", LocalDate.of(2024, 1, 15), 3);
+        String cursor = ActivityCursor.afterId(0L).encode();
+        when(studentActivityRepository.findCoursePage(
+                COURSE, 0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(activityDTO, next));
+
+        CursorPageDTO<StudentActivityDTO> result = studentActivityService.getActivitiesByCourse("AAA", "2013J", cursor, 1);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(ActivityCursor.afterId(1L), ActivityCursor.decode(result.getNextCursor(), false));
+    }
+
+    @Test
+    void testGetActivitiesByCourse_LimitIsCappedAtMaxPageSize() {
+        paginationProperties.setMaxPageSize(50);
+
+        studentActivityService.getActivitiesByCourse("AAA", "2013J", null, 10_000);
+
+        verify(studentActivityRepository, times(1))
+                .findCoursePage(COURSE, 0L, Limit.of(51));
+    }
+
+    @Test
+    void testGetActivitiesByStudentAndDateRange_UsesDateKeyset() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 1, 31);
+        String cursor = ActivityCursor.after(LocalDate.of(2024, 1, 10), 42L).encode();
+
+        studentActivityService.getActivitiesByStudentAndDateRange(123L, start, end, cursor, 10);
+
+        verify(studentActivityRepository, times(1))
+                .findStudentDateRangePage(123L, LocalDate.of(2024, 1, 10), 42L, end, Limit.of(11));
+    }
+
+    @Test
+    void testGetActivitiesByStudentAndDateRange_RejectsIdCursor() {
+        String cursor = ActivityCursor.afterId(42L).encode();
+
+        assertThrows(InvalidRequestException.class, () -> studentActivityService.getActivitiesByStudentAndDateRange(
+                123L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), cursor, 10));
     }
 
     @Test
     void testUpdateActivity_Success() {
-        when(studentActivityRepository.findById(1L)).thenReturn(Optional.of(studentActivity));
+        when(studentActivityRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(studentActivity));
         when(studentActivityRepository.save(any(StudentActivity.class))).thenReturn(studentActivity);
 
         StudentActivityDTO result = studentActivityService.updateActivity(1L, updateDTO);
 
         assertNotNull(result);
-        verify(studentActivityRepository, times(1)).findById(1L);
+        verify(studentActivityRepository, times(1)).findByIdForUpdate(1L);
         verify(studentActivityRepository, times(1)).save(any(StudentActivity.class));
     }
 
     @Test
     void testDeleteActivity_Success() {
-        when(studentActivityRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(studentActivityRepository).deleteById(1L);
+        when(studentActivityRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(studentActivity));
+        doNothing().when(studentActivityRepository).delete(studentActivity);
 
         studentActivityService.deleteActivity(1L);
 
-        verify(studentActivityRepository, times(1)).existsById(1L);
-        verify(studentActivityRepository, times(1)).deleteById(1L);
+        verify(studentActivityRepository, times(1)).findByIdForUpdate(1L);
+        verify(studentActivityRepository, times(1)).delete(studentActivity);
+        verify(eventPublisher, times(1)).publishEvent(any(ActivityChangedEvent.class));
+    }
+
+    @Test
+    void testGetActivityById_FilteredOut() {
+        when(activityIdFilter.mightExist(99L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> {
+            studentActivityService.getActivityById(99L);
+        });
+
+        verifyNoInteractions(studentActivityRepository, transactionManager);
+    }
+
+    @Test
+    void testDeleteActivity_FilteredOut() {
+        when(activityIdFilter.mightExist(99L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> {
+            studentActivityService.deleteActivity(99L);
+        });
+
+        verifyNoInteractions(studentActivityRepository, transactionManager, eventPublisher);
     }
 
     @Test
     void testDeleteActivity_NotFound() {
-        when(studentActivityRepository.existsById(1L)).thenReturn(false);
+        when(studentActivityRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             studentActivityService.deleteActivity(1L);
         });
 
-        verify(studentActivityRepository, times(1)).existsById(1L);
-        verify(studentActivityRepository, never()).deleteById(1L);
+        verify(studentActivityRepository, times(1)).findByIdForUpdate(1L);
+        verify(studentActivityRepository, never()).delete(any(StudentActivity.class));
     }
 
     @Test
@@ -165,48 +292,62 @@ class StudentActivityServiceTest {
         verify(studentActivityRepository, times(1)).getTotalClicksByStudentId(123L);
     }
 
+    @Test
+    void testGetTotalClicksByStudent_ServedFromCacheUntilChanged() {
+        when(studentActivityRepository.getTotalClicksByStudentId(123L)).thenReturn(100L, 105L);
+
+        assertEquals(100L, studentActivityService.getTotalClicksByStudent(123L));
+        assertEquals(100L, studentActivityService.getTotalClicksByStudent(123L));
+        verify(studentActivityRepository, times(1)).getTotalClicksByStudentId(123L);
+
+        clickTotalsCache.onActivityChanged(ActivityChangedEvent.of(new ActivityChange(
+                new ActivityKey(123L, "AAA", "2013J", LocalDate.of(2024, 1, 15)), 10, 15)));
+
+        assertEquals(105L, studentActivityService.getTotalClicksByStudent(123L));
+        verify(studentActivityRepository, times(2)).getTotalClicksByStudentId(123L);
+    }
+
     @Test
     void testGetTotalClicksByStudentAndCourse() {
-        when(studentActivityRepository.getTotalClicksByStudentIdAndCourse(123L, "AAA", "2013J"))
+        when(courseModules.canonical("AAA", "2013J")).thenReturn(COURSE);
+        when(studentActivityRepository.getTotalClicksByStudentIdAndCourse(123L, COURSE))
                 .thenReturn(50L);
 
         Long result = studentActivityService.getTotalClicksByStudentAndCourse(123L, "AAA", "2013J");
 
         assertEquals(50L, result);
         verify(studentActivityRepository, times(1))
-                .getTotalClicksByStudentIdAndCourse(123L, "AAA", "2013J");
+                .getTotalClicksByStudentIdAndCourse(123L, COURSE);
     }
 
     @Test
-    void testIncrementClicks_ExistingActivity() {
+    void testIncrementClicks_UsesAtomicUpsert() {
         LocalDate date = LocalDate.of(2024, 1, 15);
-        when(studentActivityRepository.findByStudentIdAndCourseCodeAndModuleCodeAndDate(
-                123L, "AAA", "2013J", date))
-                .thenReturn(Optional.of(studentActivity));
-        when(studentActivityRepository.save(any(StudentActivity.class))).thenReturn(studentActivity);
+        when(courseModules.register(COURSE)).thenReturn(7);
+        when(studentActivityRepository.upsertClicks(123L, 7, date, 5)).thenReturn(2);
+        when(studentActivityRepository.findDTOByKey(123L, COURSE, date))
+                .thenReturn(Optional.of(activityDTO));
 
         StudentActivityDTO result = studentActivityService.incrementClicks(123L, "AAA", "2013J", date, 5);
 
         assertNotNull(result);
-        verify(studentActivityRepository, times(1))
-                .findByStudentIdAndCourseCodeAndModuleCodeAndDate(123L, "AAA", "2013J", date);
-        verify(studentActivityRepository, times(1)).save(any(StudentActivity.class));
+        assertEquals(studentActivity.getSumClicks(), result.getSumClicks());
+        verify(studentActivityRepository, times(1)).upsertClicks(123L, 7, date, 5);
+        verify(studentActivityRepository, never()).save(any(StudentActivity.class));
     }
 
     @Test
     void testIncrementClicks_NewActivity() {
         LocalDate date = LocalDate.of(2024, 1, 15);
-        when(studentActivityRepository.findByStudentIdAndCourseCodeAndModuleCodeAndDate(
-                123L, "AAA", "2013J", date))
-                .thenReturn(Optional.empty());
-        when(studentActivityRepository.save(any(StudentActivity.class))).thenReturn(studentActivity);
+        when(courseModules.register(COURSE)).thenReturn(7);
+        when(studentActivityRepository.upsertClicks(123L, 7, date, 5)).thenReturn(1);
+        when(studentActivityRepository.findDTOByKey(123L, COURSE, date))
+                .thenReturn(Optional.of(activityDTO));
 
         StudentActivityDTO result = studentActivityService.incrementClicks(123L, "AAA", "2013J", date, 5);
 
         assertNotNull(result);
-        verify(studentActivityRepository, times(1))
-                .findByStudentIdAndCourseCodeAndModuleCodeAndDate(123L, "AAA", "2013J", date);
-        verify(studentActivityRepository, times(1)).save(any(StudentActivity.class));
+        verify(studentActivityRepository, times(1)).upsertClicks(123L, 7, date, 5);
+        verify(studentActivityRepository, times(1)).findDTOByKey(123L, COURSE, date);
     }
 }
-
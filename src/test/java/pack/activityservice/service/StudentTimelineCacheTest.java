@@ -0,0 +1,103 @@
+package pack.activityservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import pack.activityservice.config.TimelineCacheProperties;
+import pack.activityservice.dto.StudentActivityDTO;
+import pack.activityservice.event.ActivityChange;
+import pack.activityservice.event.ActivityChangedEvent;
+import pack.activityservice.model.ActivityKey;
+import pack.activityservice.model.StudentTimeline;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudentTimelineCacheTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2024, 1, 1);
+    private static final LocalDate DAY_2 = DAY_1.plusDays(1);
+    private static final LocalDate DAY_3 = DAY_1.plusDays(2);
+
+    // Rows of student 1 in (date, id) order
+    private static final List<StudentActivityDTO> ROWS = List.of(
+            new StudentActivityDTO(4L, 1L, "AAA", "2013J", DAY_1, 10),
+            new StudentActivityDTO(7L, 1L, "BBB", "2013J", DAY_1, 20),
+            new StudentActivityDTO(2L, 1L, "AAA", "2013J", DAY_2, 30),
+            new StudentActivityDTO(9L, 1L, "AAA", "2013J", DAY_3, 40));
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void testRange_MatchesKeysetPages() {
+        StudentTimeline timeline = StudentTimeline.of(1L, ROWS);
+
+        List<StudentActivityDTO> firstPage = timeline.range(DAY_1, 0L, DAY_3, 2);
+        List<StudentActivityDTO> secondPage = timeline.range(DAY_1, 7L, DAY_2, 2);
+
+        assertEquals(List.of(4L, 7L), firstPage.stream().map(StudentActivityDTO::getId).toList());
+        assertEquals(List.of(2L), secondPage.stream().map(StudentActivityDTO::getId).toList());
+        assertEquals("BBB", firstPage.get(1).getCourseCode());
+        assertEquals(DAY_1, firstPage.get(1).getDate());
+        assertEquals(20, firstPage.get(1).getSumClicks());
+        assertTrue(timeline.range(DAY_3, 9L, DAY_3, 10).isEmpty());
+    }
+
+    @Test
+    void testGetTimeline_DisabledByDefault() {
+        StudentTimelineCache cache = new StudentTimelineCache(new TimelineCacheProperties());
+
+        assertNull(cache.getTimeline(1L, this::load));
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void testOnActivityChanged_UpdatesHeldRowsAndDropsOthers() {
+        StudentTimelineCache cache = new StudentTimelineCache(enabled(100));
+        cache.getTimeline(1L, this::load);
+
+        // Click change of a row the timeline holds: applied in place
+        cache.onActivityChanged(ActivityChangedEvent.of(new ActivityChange(new ActivityKey(1L, "BBB", "2013J", DAY_1), 20, 25)));
+        StudentTimeline updated = cache.getTimeline(1L, this::load);
+        assertEquals(25, updated.range(DAY_1, 4L, DAY_1, 1).get(0).getSumClicks());
+        assertEquals(1, loads.get());
+
+        // A new row needs its id: the timeline is reloaded
+        cache.onActivityChanged(ActivityChangedEvent.of(new ActivityChange(new ActivityKey(1L, "CCC", "2013J", DAY_2), 0, 5)));
+        cache.getTimeline(1L, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGetTimeline_OversizedStudentsAreNotCached() {
+        StudentTimelineCache cache = new StudentTimelineCache(enabled(3));
+
+        assertNull(cache.getTimeline(1L, this::load));
+        assertNull(cache.getTimeline(1L, this::load));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testEstimatedBytes_GrowsWithRows() {
+        long empty = StudentTimeline.of(1L, List.of()).estimatedBytes();
+        long four = StudentTimeline.of(1L, ROWS).estimatedBytes();
+
+        // 18 bytes per row plus two course/module pairs, within array alignment
+        assertTrue(four - empty >= 4 * 18, "estimate " + (four - empty));
+        assertTrue(four - empty < 4 * 18 + 256, "estimate " + (four - empty));
+    }
+
+    private List<StudentActivityDTO> load(Long studentId, Limit limit) {
+        loads.incrementAndGet();
+        return ROWS.subList(0, Math.min(ROWS.size(), limit.max()));
+    }
+
+    private static TimelineCacheProperties enabled(int maxRowsPerStudent) {
+        TimelineCacheProperties properties = new TimelineCacheProperties();
+        properties.setEnabled(true);
+        properties.setMaxRowsPerStudent(maxRowsPerStudent);
+        return properties;
+    }
+}